@@ -0,0 +1,75 @@
+package io.ghassen.pockito.bench;
+
+import io.ghassen.pockito.config.StatementCounter;
+import io.ghassen.pockito.config.StatementCountingFilter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of the instrumentation, compared with the bare filter chain: the statement-counting
+// filter, one inspected statement, and a histogram timer record on the Prometheus registry. scrape() is
+// paid by the scraper, not by requests.
+@State(Scope.Thread)
+public class MetricsBenchmarks {
+
+  private static final String SQL = "select w1_0.id from wallet w1_0 where w1_0.user_id=?";
+
+  private PrometheusMeterRegistry registry;
+  private Timer requestTimer;
+  private StatementCountingFilter filter;
+  private MockHttpServletRequest request;
+  private MockHttpServletResponse response;
+  private final FilterChain bareChain = (req, res) -> {};
+  private final FilterChain queryingChain = (req, res) -> StatementCounter.INSTANCE.inspect(SQL);
+
+  @Setup
+  public void setUp() {
+    registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    requestTimer = Timer.builder("http.server.requests")
+        .tags("method", "GET", "uri", "/api/wallets/{id}", "status", "200", "outcome", "SUCCESS",
+            "exception", "none")
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofMillis(1))
+        .maximumExpectedValue(Duration.ofSeconds(30))
+        .register(registry);
+    filter = new StatementCountingFilter(registry);
+    request = new MockHttpServletRequest("GET", "/api/wallets/42");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/wallets/{id}");
+    response = new MockHttpServletResponse();
+  }
+
+  @Benchmark
+  public void bareChain() throws Exception {
+    queryingChain.doFilter(request, response);
+  }
+
+  @Benchmark
+  public void statementCountingFilter() throws Exception {
+    filter.doFilter(request, response, queryingChain);
+  }
+
+  @Benchmark
+  public void emptyStatementCountingFilter() throws Exception {
+    filter.doFilter(request, response, bareChain);
+  }
+
+  @Benchmark
+  public void histogramTimerRecord() {
+    requestTimer.record(3_250_000, TimeUnit.NANOSECONDS);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String scrape() {
+    return registry.scrape();
+  }
+}
@@ -0,0 +1,97 @@
+package io.ghassen.pockito.bench;
+
+import io.ghassen.pockito.domain.Money;
+import io.ghassen.pockito.domain.MoneySum;
+import io.ghassen.pockito.repo.ExchangeRateRepository;
+import io.ghassen.pockito.service.fx.ExchangeRateChangedEvent;
+import io.ghassen.pockito.service.fx.ExchangeRateEngine;
+import io.ghassen.pockito.service.fx.RatePoint;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Amount arithmetic and conversion as done by balances, budgets and analytics. The engine is fed
+// through its change listener so no database is involved.
+@State(Scope.Thread)
+public class MoneyBenchmarks {
+
+  private static final int STREAM = 1_000_000;
+  private static final List<String> CODES = List.of("USD", "EUR", "GBP", "TND", "JPY", "CHF");
+
+  private ExchangeRateEngine engine;
+  private BigDecimal amount;
+  private BigDecimal other;
+  private Instant at;
+  private BigDecimal[] decimals;
+  private long[] minorUnits;
+
+  @Setup
+  public void setUp() {
+    engine = new ExchangeRateEngine(Mockito.mock(ExchangeRateRepository.class), List.of("USD", "EUR"));
+    Instant start = Instant.now().minus(730, ChronoUnit.DAYS);
+    for (int day = 0; day < 730; day++) {
+      long millis = start.plus(day, ChronoUnit.DAYS).toEpochMilli();
+      for (int i = 1; i < CODES.size(); i++) {
+        engine.onRateChanged(new ExchangeRateChangedEvent(
+            new RatePoint("USD", CODES.get(i), millis, 0.5 + i * 0.25 + day * 1e-4, false)));
+      }
+    }
+    amount = new BigDecimal("1234.567");
+    other = new BigDecimal("89.10");
+    at = Instant.now().minus(200, ChronoUnit.DAYS);
+
+    SplittableRandom random = new SplittableRandom(42);
+    decimals = new BigDecimal[STREAM];
+    minorUnits = new long[STREAM];
+    for (int i = 0; i < STREAM; i++) {
+      long minor = random.nextLong(-50_000, 500_000);
+      minorUnits[i] = minor;
+      decimals[i] = BigDecimal.valueOf(minor, 2);
+    }
+  }
+
+  // Summing a million amounts: BigDecimal accumulation vs. minor units
+  @Benchmark
+  public BigDecimal sumBigDecimal() {
+    BigDecimal total = BigDecimal.ZERO;
+    for (BigDecimal d : decimals) {
+      total = total.add(d);
+    }
+    return total;
+  }
+
+  @Benchmark
+  public long sumMinorUnits() {
+    MoneySum sum = new MoneySum(Money.COLUMN_SCALE);
+    for (long m : minorUnits) {
+      sum.accept(m);
+    }
+    return sum.total();
+  }
+
+  @Benchmark
+  public BigDecimal addAndRound() {
+    return amount.add(other).subtract(other.negate()).setScale(2, RoundingMode.HALF_EVEN);
+  }
+
+  @Benchmark
+  public double rateDirect() {
+    return engine.rate("USD", "TND", at);
+  }
+
+  @Benchmark
+  public double rateViaPivot() {
+    return engine.rate("GBP", "JPY", at);
+  }
+
+  @Benchmark
+  public BigDecimal convert() {
+    return engine.convert(amount, "GBP", "TND", at, 3);
+  }
+}
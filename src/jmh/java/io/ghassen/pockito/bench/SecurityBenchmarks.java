@@ -0,0 +1,69 @@
+package io.ghassen.pockito.bench;
+
+import io.ghassen.pockito.security.AuditingConfig;
+import io.ghassen.pockito.security.KeycloakRealmRoleConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// Work done on every authenticated request once the token itself is verified
+@State(Scope.Thread)
+public class SecurityBenchmarks {
+
+  private Jwt jwt;
+  private Jwt noRoles;
+  private SecurityContext context;
+  private AuditorAware<String> auditorAware;
+
+  @Setup
+  public void setUp() {
+    Instant now = Instant.now();
+    jwt = Jwt.withTokenValue("token")
+        .header("alg", "RS256")
+        .subject(UUID.randomUUID().toString())
+        .issuedAt(now)
+        .expiresAt(now.plusSeconds(300))
+        .claim("preferred_username", "bench")
+        .claim("email", "bench@example.com")
+        .claim("realm_access", Map.of("roles", List.of("user", "offline_access", "uma_authorization")))
+        .build();
+    noRoles = Jwt.withTokenValue("token")
+        .header("alg", "RS256")
+        .subject(UUID.randomUUID().toString())
+        .build();
+    context = new SecurityContextImpl(new JwtAuthenticationToken(jwt, KeycloakRealmRoleConverter.from(jwt)));
+    auditorAware = new AuditingConfig().auditorAware();
+  }
+
+  @Benchmark
+  public Collection<GrantedAuthority> realmRoles() {
+    return KeycloakRealmRoleConverter.from(jwt);
+  }
+
+  @Benchmark
+  public Collection<GrantedAuthority> realmRolesAbsent() {
+    return KeycloakRealmRoleConverter.from(noRoles);
+  }
+
+  @Benchmark
+  public Optional<String> currentAuditor() {
+    SecurityContextHolder.setContext(context);
+    try {
+      return auditorAware.getCurrentAuditor();
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+}
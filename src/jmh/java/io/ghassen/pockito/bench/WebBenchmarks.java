@@ -0,0 +1,58 @@
+package io.ghassen.pockito.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.ghassen.pockito.web.GlobalExceptionHandler;
+import io.ghassen.pockito.web.SampleController;
+import jakarta.persistence.EntityNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.time.Instant;
+
+// Error-body construction and response serialization, with an ObjectMapper built the way Boot builds it
+@State(Scope.Thread)
+public class WebBenchmarks {
+
+  private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+  private ObjectMapper mapper;
+  private SampleController.HealthResponse health;
+  private MethodArgumentNotValidException invalid;
+  private Object errorBody;
+
+  @Setup
+  public void setUp() throws Exception {
+    mapper = Jackson2ObjectMapperBuilder.json().build();
+    health = new SampleController.HealthResponse("healthy", Instant.now().toString(), "Pockito API", "1.0.0", "2h 15m 30s");
+    BeanPropertyBindingResult result = new BeanPropertyBindingResult(new Object(), "txnCommand");
+    result.addError(new FieldError("txnCommand", "amount", "must be greater than 0"));
+    result.addError(new FieldError("txnCommand", "currencyCode", "must not be blank"));
+    MethodParameter parameter = new MethodParameter(Object.class.getMethod("equals", Object.class), 0);
+    invalid = new MethodArgumentNotValidException(parameter, result);
+    errorBody = handler.handleNotFound(new EntityNotFoundException("Transaction not found")).getBody();
+  }
+
+  @Benchmark
+  public ResponseEntity<Object> notFoundBody() {
+    return handler.handleNotFound(new EntityNotFoundException("Transaction not found"));
+  }
+
+  @Benchmark
+  public ResponseEntity<Object> validationBody() {
+    return handler.handleValidation(invalid);
+  }
+
+  @Benchmark
+  public byte[] serializeHealth() throws Exception {
+    return mapper.writeValueAsBytes(health);
+  }
+
+  @Benchmark
+  public byte[] serializeErrorBody() throws Exception {
+    return mapper.writeValueAsBytes(errorBody);
+  }
+}
@@ -0,0 +1,53 @@
+package io.ghassen.pockito.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "pockito.db.limiter.enabled", havingValue = "true")
+public class ConnectionLimiterConfig {
+
+  // Static: post-processors are created before the rest of the configuration. Only the application's
+  // DataSource bean is gated; other DataSources (Flyway's, a tool's) keep their own limits.
+  @Bean
+  static BeanPostProcessor connectionLimiterPostProcessor(Environment env, ObjectProvider<MeterRegistry> registry) {
+    String target = env.getProperty("pockito.db.limiter.bean-name", "dataSource");
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (target.equals(beanName) && bean instanceof DataSource ds && !(bean instanceof ConnectionLimitingDataSource)) {
+          int permits = env.getProperty("pockito.db.limiter.permits", Integer.class,
+              env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+          Duration timeout = env.getProperty("pockito.db.limiter.acquire-timeout", Duration.class, Duration.ofSeconds(2));
+          return new ConnectionLimitingDataSource(ds, poolName(ds, beanName), permits, timeout, registry.getObject());
+        }
+        return bean;
+      }
+    };
+  }
+
+  // The Hikari pool behind the bean, also through the replica routing proxy; the bean name otherwise
+  static String poolName(DataSource ds, String beanName) {
+    try {
+      if (ds.isWrapperFor(HikariDataSource.class)) {
+        String name = ds.unwrap(HikariDataSource.class).getPoolName();
+        if (name != null) {
+          return name;
+        }
+      }
+    } catch (SQLException ignored) {
+      // falls back to the bean name
+    }
+    return beanName;
+  }
+}
@@ -0,0 +1,108 @@
+package io.ghassen.pockito.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Fair gate in front of the pool. With virtual threads every request can reach getConnection at
+// once; callers beyond the permits queue here, in FIFO order, and give up after the acquire timeout
+// instead of piling onto the pool's handoff queue. Meters carry the pool's name, as Hikari's own do.
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+  private final Semaphore permits;
+  private final long acquireTimeoutNanos;
+  private final Timer acquireTimer;
+  private final Counter rejected;
+
+  public ConnectionLimitingDataSource(DataSource target, String poolName, int permits, Duration acquireTimeout,
+                                      MeterRegistry registry) {
+    super(target);
+    this.permits = new Semaphore(permits, true);
+    this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    this.acquireTimer = Timer.builder("pockito.db.limiter.acquire")
+        .description("Time spent waiting for a connection permit")
+        .tag("pool", poolName)
+        .register(registry);
+    this.rejected = Counter.builder("pockito.db.limiter.rejected").tag("pool", poolName).register(registry);
+    Gauge.builder("pockito.db.limiter.waiting", this.permits, Semaphore::getQueueLength).tag("pool", poolName)
+        .register(registry);
+    Gauge.builder("pockito.db.limiter.available", this.permits, Semaphore::availablePermits).tag("pool", poolName)
+        .register(registry);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return releasing(super.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return releasing(super.getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquire() throws SQLException {
+    long start = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted while waiting for a connection permit", e);
+    } finally {
+      acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    if (!acquired) {
+      rejected.increment();
+      throw new SQLTransientConnectionException("No connection permit within "
+          + Duration.ofNanos(acquireTimeoutNanos).toMillis() + " ms");
+    }
+  }
+
+  // The permit goes back when the caller closes the connection, exactly once
+  private Connection releasing(Connection connection) {
+    AtomicBoolean released = new AtomicBoolean();
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("close") && method.getParameterCount() == 0) {
+            try {
+              connection.close();
+            } finally {
+              if (released.compareAndSet(false, true)) {
+                permits.release();
+              }
+            }
+            return null;
+          }
+          try {
+            return method.invoke(connection, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        });
+  }
+}
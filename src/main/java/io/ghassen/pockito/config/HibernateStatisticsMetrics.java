@@ -0,0 +1,55 @@
+package io.ghassen.pockito.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.ToLongFunction;
+
+// Session factory statistics, read at scrape time; requests only pay for Hibernate's own counter increments
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+  private final Statistics statistics;
+
+  public HibernateStatisticsMetrics(Statistics statistics) {
+    this.statistics = statistics;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    counter(registry, "hibernate.statements", "Statements prepared", Statistics::getPrepareStatementCount);
+    counter(registry, "hibernate.query.executions", "HQL and native queries executed",
+        Statistics::getQueryExecutionCount);
+    counter(registry, "hibernate.entities.loads", "Entities loaded", Statistics::getEntityLoadCount);
+    counter(registry, "hibernate.entities.fetches", "Entities fetched by a separate statement",
+        Statistics::getEntityFetchCount);
+    counter(registry, "hibernate.collections.fetches", "Collections fetched by a separate statement",
+        Statistics::getCollectionFetchCount);
+    counter(registry, "hibernate.sessions.open", "Sessions opened", Statistics::getSessionOpenCount);
+    counter(registry, "hibernate.flushes", "Session flushes", Statistics::getFlushCount);
+    counter(registry, "hibernate.optimistic.failures", "Optimistic lock failures",
+        Statistics::getOptimisticFailureCount);
+    FunctionCounter.builder("hibernate.second.level.cache.requests", statistics,
+            Statistics::getSecondLevelCacheHitCount)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("hibernate.second.level.cache.requests", statistics,
+            Statistics::getSecondLevelCacheMissCount)
+        .tag("result", "miss")
+        .register(registry);
+    counter(registry, "hibernate.second.level.cache.puts", "Entries put in the second-level cache",
+        Statistics::getSecondLevelCachePutCount);
+    Gauge.builder("hibernate.query.executions.max", statistics, Statistics::getQueryExecutionMaxTime)
+        .description("Slowest query execution since startup")
+        .baseUnit("milliseconds")
+        .register(registry);
+  }
+
+  private void counter(MeterRegistry registry, String name, String description, ToLongFunction<Statistics> f) {
+    FunctionCounter.builder(name, statistics, s -> f.applyAsLong(s))
+        .description(description)
+        .register(registry);
+  }
+}
@@ -0,0 +1,51 @@
+package io.ghassen.pockito.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Application meters beyond Boot's defaults. Latency histograms and their bucket ranges are configured
+// under management.metrics.distribution.
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  HibernatePropertiesCustomizer hibernateMetricsCustomizer(
+      @Value("${pockito.metrics.hibernate-statistics:true}") boolean statistics) {
+    return properties -> {
+      properties.put(AvailableSettings.STATEMENT_INSPECTOR, StatementCounter.INSTANCE);
+      properties.put(AvailableSettings.GENERATE_STATISTICS, statistics);
+    };
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "pockito.metrics.hibernate-statistics", havingValue = "true", matchIfMissing = true)
+  MeterBinder hibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+    return new HibernateStatisticsMetrics(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+  }
+
+  // Ahead of the security chain so statements issued while authenticating are counted
+  @Bean
+  FilterRegistrationBean<StatementCountingFilter> statementCountingFilter(MeterRegistry registry) {
+    FilterRegistrationBean<StatementCountingFilter> registration =
+        new FilterRegistrationBean<>(new StatementCountingFilter(registry));
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+    return registration;
+  }
+
+  // Same bound Boot applies to http.server.requests
+  @Bean
+  MeterFilter statementsUriTagLimit(@Value("${management.metrics.web.server.max-uri-tags:100}") int maxUriTags) {
+    return MeterFilter.maximumAllowableTags("pockito.http.server.statements", "uri", maxUriTags, MeterFilter.deny());
+  }
+}
@@ -0,0 +1,70 @@
+package io.ghassen.pockito.config;
+
+import io.ghassen.pockito.security.CurrentUser;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// A user who wrote within the window reads from the primary, so a replica that has not replayed their
+// write yet cannot hide it from them. Writing requests themselves are pinned for their whole duration.
+// lastWrite is per node: a read balanced to another node than the write is not pinned, and relies on the
+// replica lag staying under max-lag. Responses streamed from another thread carry the pin via RoutedStreams.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  private final long windowNanos;
+  private final Map<UUID, Long> lastWrite = new ConcurrentHashMap<>();
+  private int writesSinceSweep;
+
+  public ReadYourWritesFilter(Duration window) {
+    this.windowNanos = window.toNanos();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    Optional<UUID> user = CurrentUser.find();
+    boolean writing = !isSafe(request.getMethod());
+    if (user.isEmpty() || !(writing || recentlyWrote(user.get()))) {
+      chain.doFilter(request, response);
+      return;
+    }
+    ReplicaSet.pin();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      ReplicaSet.unpin();
+      if (writing) {
+        wrote(user.get());
+      }
+    }
+  }
+
+  boolean recentlyWrote(UUID userId) {
+    Long at = lastWrite.get(userId);
+    return at != null && System.nanoTime() - at < windowNanos;
+  }
+
+  private void wrote(UUID userId) {
+    long now = System.nanoTime();
+    lastWrite.put(userId, now);
+    // Racy counter on purpose: it only paces the sweep
+    if (++writesSinceSweep >= 1024) {
+      writesSinceSweep = 0;
+      lastWrite.values().removeIf(at -> now - at >= windowNanos);
+    }
+  }
+
+  private static boolean isSafe(String method) {
+    return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+  }
+}
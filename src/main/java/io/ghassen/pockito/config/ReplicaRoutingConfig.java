@@ -0,0 +1,76 @@
+package io.ghassen.pockito.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Replaces Boot's single pool when replica URLs are configured. The DataSource hands out lazy connections:
+// one marked read-only before its first statement (@Transactional(readOnly = true)) is taken from the
+// replica set, anything else from the primary.
+@Configuration
+@ConditionalOnExpression("!'${pockito.datasource.replicas.urls:}'.isBlank()")
+public class ReplicaRoutingConfig {
+
+  @Bean
+  ReplicaSet replicaSet(DataSourceProperties properties, Environment env, MeterRegistry registry,
+                        @Value("${pockito.datasource.replicas.urls}") List<String> urls,
+                        @Value("${pockito.datasource.replicas.pool-size:10}") int poolSize,
+                        @Value("${pockito.datasource.replicas.connection-timeout:1s}") Duration connectionTimeout,
+                        @Value("${pockito.datasource.replicas.check-interval:2s}") Duration checkInterval,
+                        @Value("${pockito.datasource.replicas.max-lag:5s}") Duration maxLag) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+    List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+    for (int i = 0; i < urls.size(); i++) {
+      HikariConfig config = new HikariConfig();
+      primary.copyStateTo(config);
+      config.setJdbcUrl(urls.get(i).trim());
+      config.setPoolName(Objects.requireNonNullElse(primary.getPoolName(), "pockito") + "-replica-" + (i + 1));
+      config.setMaximumPoolSize(poolSize);
+      config.setReadOnly(true);
+      // A replica that is down must not hold up startup or make readers wait out the primary's timeout
+      config.setInitializationFailTimeout(-1);
+      config.setConnectionTimeout(connectionTimeout.toMillis());
+      config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+      replicas.add(new HikariDataSource(config));
+    }
+    return new ReplicaSet(primary, replicas, checkInterval, maxLag, registry);
+  }
+
+  @Bean
+  DataSource dataSource(ReplicaSet replicaSet) {
+    LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(replicaSet.primaryDataSource());
+    routing.setReadOnlyDataSource(replicaSet.readOnlyDataSource());
+    return routing;
+  }
+
+  // After the security chain, which resolves the user. Recent writers are remembered in this node's memory
+  // only, so read-your-writes holds for requests that reach the node that took the write.
+  @Bean
+  FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+      @Value("${pockito.datasource.read-your-writes:5s}") Duration window) {
+    FilterRegistrationBean<ReadYourWritesFilter> registration =
+        new FilterRegistrationBean<>(new ReadYourWritesFilter(window));
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+    return registration;
+  }
+}
@@ -0,0 +1,231 @@
+package io.ghassen.pockito.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Streaming replicas behind the primary. A monitor thread measures each replica's replay lag against the
+// primary's current WAL position; read-only connections go round-robin to replicas that are in recovery,
+// answered their last check and are within max-lag, and to the primary otherwise. A thread pinned to the
+// primary (read-your-writes) always reads from it.
+@Slf4j
+public class ReplicaSet implements SmartLifecycle, AutoCloseable {
+
+  private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+  // Lag is zero once the replica has replayed up to the primary's position; otherwise it is the age of the
+  // last replayed commit. Without a primary position the replica's own received WAL stands in for it.
+  private static final String LAG_SQL = """
+      SELECT pg_is_in_recovery(),
+             CASE WHEN pg_last_wal_replay_lsn() >= COALESCE(?::pg_lsn, pg_last_wal_receive_lsn()) THEN 0
+                  ELSE COALESCE(EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()), 'Infinity')
+             END
+      """;
+
+  private final DataSource primary;
+  private final List<Replica> replicas;
+  private final Duration checkInterval;
+  private final Duration maxLag;
+  private final AtomicInteger next = new AtomicInteger();
+  private final Counter replicaReads;
+  private final Counter pinnedReads;
+  private final Counter fallbackReads;
+  private final DataSource readOnly = new AbstractDataSource() {
+    @Override
+    public Connection getConnection() throws SQLException {
+      return readConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      throw new UnsupportedOperationException("Replica connections use the pool credentials");
+    }
+  };
+  private volatile boolean running;
+  private Thread monitor;
+
+  public ReplicaSet(DataSource primary, List<HikariDataSource> replicas, Duration checkInterval, Duration maxLag,
+                    MeterRegistry registry) {
+    this.primary = primary;
+    this.replicas = replicas.stream().map(pool -> new Replica(pool, registry)).toList();
+    this.checkInterval = checkInterval;
+    this.maxLag = maxLag;
+    this.replicaReads = reads(registry, "replica");
+    this.pinnedReads = reads(registry, "pinned");
+    this.fallbackReads = reads(registry, "fallback");
+  }
+
+  private static Counter reads(MeterRegistry registry, String route) {
+    return Counter.builder("pockito.db.reads").tag("route", route)
+        .description("Read-only connections by where they were routed")
+        .register(registry);
+  }
+
+  public static void pin() {
+    PINNED.set(Boolean.TRUE);
+  }
+
+  public static void unpin() {
+    PINNED.remove();
+  }
+
+  public static boolean isPinned() {
+    return PINNED.get() != null;
+  }
+
+  public DataSource primaryDataSource() {
+    return primary;
+  }
+
+  // Target for connections marked read-only before first use
+  public DataSource readOnlyDataSource() {
+    return readOnly;
+  }
+
+  public void check() {
+    String primaryLsn = primaryLsn();
+    long now = System.nanoTime();
+    for (Replica replica : replicas) {
+      replica.check(primaryLsn, now);
+    }
+  }
+
+  @Override
+  public void start() {
+    check();
+    running = true;
+    monitor = Thread.ofPlatform().name("replica-monitor").daemon(true).start(this::monitorLoop);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    monitor.interrupt();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public void close() {
+    replicas.forEach(replica -> replica.pool.close());
+    if (primary instanceof AutoCloseable closeable) {
+      try {
+        closeable.close();
+      } catch (Exception e) {
+        log.warn("Failed to close the primary pool", e);
+      }
+    }
+  }
+
+  private void monitorLoop() {
+    while (running) {
+      try {
+        Thread.sleep(checkInterval);
+      } catch (InterruptedException e) {
+        return;
+      }
+      check();
+    }
+  }
+
+  private Connection readConnection() throws SQLException {
+    if (isPinned()) {
+      pinnedReads.increment();
+      return primary.getConnection();
+    }
+    long now = System.nanoTime();
+    int size = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), size);
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicas.get((start + i) % size);
+      if (!replica.usable(now)) {
+        continue;
+      }
+      try {
+        Connection connection = replica.pool.getConnection();
+        replicaReads.increment();
+        return connection;
+      } catch (SQLException e) {
+        replica.down(e);
+      }
+    }
+    fallbackReads.increment();
+    return primary.getConnection();
+  }
+
+  private String primaryLsn() {
+    try (Connection connection = primary.getConnection();
+         Statement st = connection.createStatement();
+         ResultSet rs = st.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+      rs.next();
+      return rs.getString(1);
+    } catch (SQLException e) {
+      log.debug("Primary WAL position unavailable, measuring replicas against their received WAL", e);
+      return null;
+    }
+  }
+
+  private final class Replica {
+
+    private final HikariDataSource pool;
+    // Seconds behind the primary; infinite when the replica is down or not a standby
+    private volatile double lagSeconds = Double.POSITIVE_INFINITY;
+    private volatile long checkedAt;
+
+    Replica(HikariDataSource pool, MeterRegistry registry) {
+      this.pool = pool;
+      Gauge.builder("pockito.db.replica.lag", this, r -> r.lagSeconds)
+          .tag("pool", pool.getPoolName())
+          .baseUnit("seconds")
+          .register(registry);
+    }
+
+    // A result older than three intervals is not trusted: the monitor itself may be stuck
+    boolean usable(long now) {
+      return lagSeconds <= maxLag.toMillis() / 1000.0 && now - checkedAt < checkInterval.toNanos() * 3;
+    }
+
+    void check(String primaryLsn, long now) {
+      try (Connection connection = pool.getConnection();
+           PreparedStatement ps = connection.prepareStatement(LAG_SQL)) {
+        ps.setString(1, primaryLsn);
+        try (ResultSet rs = ps.executeQuery()) {
+          rs.next();
+          boolean standby = rs.getBoolean(1);
+          double lag = standby ? rs.getDouble(2) : Double.POSITIVE_INFINITY;
+          if (!standby && lagSeconds != lag) {
+            log.warn("Replica {} is not in recovery, not routing reads to it", pool.getPoolName());
+          }
+          lagSeconds = lag;
+        }
+      } catch (SQLException e) {
+        down(e);
+      }
+      checkedAt = now;
+    }
+
+    void down(SQLException e) {
+      if (lagSeconds != Double.POSITIVE_INFINITY) {
+        log.warn("Replica {} unavailable, reading from the primary", pool.getPoolName(), e);
+      }
+      lagSeconds = Double.POSITIVE_INFINITY;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package io.ghassen.pockito.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares on the current thread between begin() and end().
+// Statements issued through JdbcTemplate are not seen.
+public final class StatementCounter implements StatementInspector {
+
+  public static final StatementCounter INSTANCE = new StatementCounter();
+
+  private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+  private StatementCounter() {}
+
+  @Override
+  public String inspect(String sql) {
+    int[] count = COUNT.get();
+    if (count != null) {
+      count[0]++;
+    }
+    return sql;
+  }
+
+  public static int[] begin() {
+    int[] count = new int[1];
+    COUNT.set(count);
+    return count;
+  }
+
+  public static void end() {
+    COUNT.remove();
+  }
+}
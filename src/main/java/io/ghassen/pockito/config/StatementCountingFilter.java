@@ -0,0 +1,42 @@
+package io.ghassen.pockito.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Records the number of Hibernate statements per request, tagged like http.server.requests. Requests that
+// matched no handler are not recorded. A streaming body runs after the filter returns and is not counted.
+public class StatementCountingFilter extends OncePerRequestFilter {
+
+  private final MeterRegistry registry;
+
+  public StatementCountingFilter(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    int[] count = StatementCounter.begin();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      StatementCounter.end();
+      if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String uri) {
+        DistributionSummary.builder("pockito.http.server.statements")
+            .description("Hibernate statements per request")
+            .tag("method", request.getMethod())
+            .tag("uri", uri)
+            .register(registry)
+            .record(count[0]);
+      }
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package io.ghassen.pockito.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class TaskExecutorConfig {
+
+  // Statement imports are long-running and DB-bound, keep them off request threads and bounded
+  @Bean
+  public ThreadPoolTaskExecutor importTaskExecutor(
+      @Value("${pockito.import.workers:2}") int workers,
+      @Value("${pockito.import.queue-capacity:100}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(workers);
+    executor.setMaxPoolSize(workers);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("import-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    return executor;
+  }
+
+  // Rollup backfill rebuilds users in parallel chunks; the caller runs a chunk itself when the queue is full
+  @Bean
+  public ThreadPoolTaskExecutor rollupTaskExecutor(@Value("${pockito.rollup.backfill-workers:4}") int workers) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(workers);
+    executor.setMaxPoolSize(workers);
+    executor.setQueueCapacity(workers * 2);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setThreadNamePrefix("rollup-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    return executor;
+  }
+}
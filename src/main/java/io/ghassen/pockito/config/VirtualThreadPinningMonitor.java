@@ -0,0 +1,79 @@
+package io.ghassen.pockito.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Reports virtual threads that block while pinned to their carrier (synchronized blocks in JDBC
+// drivers, Hibernate or our own code). Uses the JFR jdk.VirtualThreadPinned event in-process; each
+// distinct pinning site is logged once with its stack, every occurrence is counted.
+@Component
+@ConditionalOnProperty(name = "pockito.vthreads.pinning.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+  private static final int LOGGED_FRAMES = 12;
+
+  private final Duration threshold;
+  private final Counter pinned;
+  private final Timer pinnedDuration;
+  private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+  private RecordingStream stream;
+
+  public VirtualThreadPinningMonitor(@Value("${pockito.vthreads.pinning.threshold:20ms}") Duration threshold,
+                                     MeterRegistry registry) {
+    this.threshold = threshold;
+    this.pinned = Counter.builder("pockito.vthreads.pinned").register(registry);
+    this.pinnedDuration = Timer.builder("pockito.vthreads.pinned.duration").register(registry);
+  }
+
+  @Override
+  public void start() {
+    stream = new RecordingStream();
+    stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+    stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+    stream.startAsync();
+  }
+
+  @Override
+  public void stop() {
+    stream.close();
+    stream = null;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return stream != null;
+  }
+
+  private void onPinned(RecordedEvent event) {
+    pinned.increment();
+    pinnedDuration.record(event.getDuration());
+    if (event.getStackTrace() == null) {
+      return;
+    }
+    List<RecordedFrame> frames = event.getStackTrace().getFrames();
+    StringBuilder stack = new StringBuilder();
+    for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+      RecordedFrame f = frames.get(i);
+      stack.append("\n\tat ").append(f.getMethod().getType().getName()).append('.')
+          .append(f.getMethod().getName()).append(':').append(f.getLineNumber());
+    }
+    if (reportedSites.add(stack.toString())) {
+      log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), stack);
+    }
+  }
+}
@@ -0,0 +1,3 @@
+package io.ghassen.pockito.domain;
+
+public enum ActivityAction { CREATE, UPDATE, ARCHIVE, DELETE }
@@ -0,0 +1,43 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+
+// Same wiring as CurrencyChangeListener: only the event publisher is injected
+public class ActivityLogListener {
+
+  private final ApplicationEventPublisher events;
+
+  public ActivityLogListener(ApplicationEventPublisher events) {
+    this.events = events;
+  }
+
+  @PostPersist
+  public void created(AuditableEntity entity) {
+    publish(entity, ActivityAction.CREATE, entity.getCreatedBy());
+  }
+
+  @PostUpdate
+  public void updated(AuditableEntity entity) {
+    // Archiving is a soft delete: the update that sets archived_at is the archive itself
+    boolean archived = entity.getArchivedAt() != null;
+    publish(entity, archived ? ActivityAction.ARCHIVE : ActivityAction.UPDATE,
+        archived && entity.getArchivedBy() != null ? entity.getArchivedBy() : entity.getUpdatedBy());
+  }
+
+  @PostRemove
+  public void removed(AuditableEntity entity) {
+    publish(entity, ActivityAction.DELETE, entity.getUpdatedBy());
+  }
+
+  private void publish(AuditableEntity entity, ActivityAction action, String actor) {
+    if (entity instanceof UserOwned owned && owned.getUserId() != null) {
+      events.publishEvent(new EntityActivityEvent(owned.getUserId(), entity.getClass().getSimpleName(),
+          entity.getId(), action, entity.getVersion(), actor, Instant.now()));
+    }
+  }
+}
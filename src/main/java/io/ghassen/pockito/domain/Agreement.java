@@ -0,0 +1,54 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "agreement")
+@SQLRestriction("archived_at IS NULL")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class Agreement extends AuditableEntity implements UserOwned {
+
+  @Column(nullable = false, name = "user_id")
+  private UUID userId;
+
+  @Column(nullable = false, name = "person_name")
+  private String personName;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+  @Column(nullable = false, columnDefinition = "agreement_type_enum")
+  private AgreementType type;
+
+  @Column(nullable = false, name = "principal_amount", precision = 18, scale = 2)
+  private BigDecimal principalAmount;
+
+  // Maintained by AgreementRepository.settle, never written through the entity
+  @Column(nullable = false, name = "outstanding_amount", precision = 18, scale = 2, updatable = false)
+  private BigDecimal outstandingAmount;
+
+  @Column(length = 3, nullable = false, name = "currency_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String currencyCode;
+
+  @Column(name = "wallet_id")
+  private UUID walletId;
+
+  @Column(nullable = false, name = "start_date")
+  private LocalDate startDate;
+
+  private String note;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false)
+  @Builder.Default
+  private AgreementStatus status = AgreementStatus.OPEN;
+}
@@ -0,0 +1,45 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "agreement_payment")
+@SQLRestriction("archived_at IS NULL")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class AgreementPayment extends AuditableEntity {
+
+  @Column(nullable = false, name = "agreement_id")
+  private UUID agreementId;
+
+  @Column(name = "txn_id")
+  private UUID txnId;
+
+  @Column(nullable = false, precision = 18, scale = 2)
+  private BigDecimal amount;
+
+  @Column(length = 3, nullable = false, name = "currency_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String currencyCode;
+
+  // Payment currency to agreement currency; null when they are the same
+  @Column(name = "exchange_rate", precision = 20, scale = 10)
+  private BigDecimal exchangeRate;
+
+  // What this payment took off the agreement, in the agreement's currency
+  @Column(name = "settled_amount", precision = 18, scale = 2)
+  private BigDecimal settledAmount;
+
+  @Column(nullable = false, name = "paid_at")
+  private Instant paidAt;
+
+  private String note;
+}
@@ -0,0 +1,6 @@
+package io.ghassen.pockito.domain;
+
+public enum AgreementType {
+  BORROW,
+  LEND
+}
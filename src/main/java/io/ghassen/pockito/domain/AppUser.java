@@ -0,0 +1,37 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
+
+import java.util.UUID;
+
+// Provisioned from the identity provider's token on first request; id is the Keycloak subject
+@Entity
+@Table(name = "app_user")
+@SQLRestriction("archived_at IS NULL")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class AppUser extends AuditableEntityNoId {
+
+  @Id
+  private UUID id;
+
+  @Column(nullable = false, columnDefinition = "citext")
+  private String email;
+
+  @Column(name = "display_name")
+  private String displayName;
+
+  @Column(length = 10)
+  private String locale;
+
+  @Column(length = 64)
+  private String timezone;
+
+  @Column(length = 3, name = "default_currency")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String defaultCurrency;
+}
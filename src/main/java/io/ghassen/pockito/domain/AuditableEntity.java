@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.UuidGenerator;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.LastModifiedBy;
 
@@ -14,11 +15,12 @@ import java.time.Instant;
 import java.util.UUID;
 
 @MappedSuperclass
+@EntityListeners(ActivityLogListener.class)
 @Getter @Setter @SuperBuilder @NoArgsConstructor
 public abstract class AuditableEntity extends AuditableEntityNoId {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.UUID)
+  @UuidGenerator(algorithm = UuidV7Generator.class)
   private UUID id;
 
 }
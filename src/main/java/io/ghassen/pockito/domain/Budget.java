@@ -0,0 +1,52 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+@Entity
+@Table(name = "budget")
+@SQLRestriction("archived_at IS NULL")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class Budget extends AuditableEntity implements UserOwned {
+
+  @Column(nullable = false, name = "user_id")
+  private UUID userId;
+
+  @Column(nullable = false)
+  private String name;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+  @Column(nullable = false, columnDefinition = "freq_type_enum")
+  @Builder.Default
+  private FreqType period = FreqType.MONTHLY;
+
+  @Column(nullable = false, name = "start_date")
+  private LocalDate startDate;
+
+  @Column(name = "end_date")
+  private LocalDate endDate;
+
+  @Column(nullable = false, name = "limit_amount", precision = 18, scale = 2)
+  private BigDecimal limitAmount;
+
+  @Column(length = 3, nullable = false, name = "currency_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String currencyCode;
+
+  @ElementCollection
+  @CollectionTable(name = "budget_category", joinColumns = @JoinColumn(name = "budget_id"))
+  @Column(name = "category_id")
+  @Builder.Default
+  private Set<UUID> categoryIds = new HashSet<>();
+}
@@ -0,0 +1,42 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "category")
+@SQLRestriction("archived_at IS NULL")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class Category extends AuditableEntity implements UserOwned {
+
+  @Column(nullable = false, name = "user_id")
+  private UUID userId;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+  @Column(nullable = false, columnDefinition = "category_type_enum")
+  private CategoryType type;
+
+  @Column(nullable = false)
+  private String name;
+
+  @Column(length = 7)
+  private String color;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+  @Column(name = "icon_type", columnDefinition = "icon_type_enum")
+  private IconType iconType;
+
+  @Column(name = "icon_value")
+  private String iconValue;
+
+  @Column(name = "parent_id")
+  private UUID parentId;
+}
@@ -10,6 +10,7 @@ import org.hibernate.type.SqlTypes;
 @Entity
 @Table(name = "currency")
 @SQLRestriction("archived_at IS NULL")
+@EntityListeners(CurrencyChangeListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
 public class Currency extends AuditableEntityNoId {
 
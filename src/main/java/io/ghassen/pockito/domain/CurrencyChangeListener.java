@@ -0,0 +1,24 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Instantiated by Hibernate through Spring's bean container; only the event publisher is
+// injected so building the EntityManagerFactory never depends on beans that need it
+public class CurrencyChangeListener {
+
+  private final ApplicationEventPublisher events;
+
+  public CurrencyChangeListener(ApplicationEventPublisher events) {
+    this.events = events;
+  }
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void changed(Currency currency) {
+    events.publishEvent(new CurrencyChangedEvent(currency.getCode()));
+  }
+}
@@ -0,0 +1,4 @@
+package io.ghassen.pockito.domain;
+
+public record CurrencyChangedEvent(String code) {
+}
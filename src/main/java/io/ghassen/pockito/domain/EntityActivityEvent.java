@@ -0,0 +1,15 @@
+package io.ghassen.pockito.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Published from the writing transaction; recorded in activity_log once it commits
+public record EntityActivityEvent(
+    UUID userId,
+    String entityType,
+    UUID entityId,
+    ActivityAction action,
+    Long version,
+    String actor,
+    Instant at) {
+}
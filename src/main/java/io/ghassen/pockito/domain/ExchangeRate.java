@@ -0,0 +1,35 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// 1 base_code = rate quote_code, valid from effective_at until the next snapshot of the pair
+@Entity
+@Table(name = "exchange_rate")
+@SQLRestriction("archived_at IS NULL")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class ExchangeRate extends AuditableEntity {
+
+  @Column(length = 3, nullable = false, name = "base_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String baseCode;
+
+  @Column(length = 3, nullable = false, name = "quote_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String quoteCode;
+
+  @Column(nullable = false, precision = 20, scale = 10)
+  private BigDecimal rate;
+
+  @Column(nullable = false, name = "effective_at")
+  private Instant effectiveAt;
+
+  private String source;
+}
@@ -0,0 +1,9 @@
+package io.ghassen.pockito.domain;
+
+public enum FreqType {
+  WEEKLY,
+  MONTHLY,
+  QUARTERLY,
+  ANNUALLY,
+  CUSTOM
+}
@@ -0,0 +1,6 @@
+package io.ghassen.pockito.domain;
+
+public enum IconType {
+  EMOJI,
+  URL
+}
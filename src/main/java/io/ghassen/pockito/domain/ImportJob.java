@@ -0,0 +1,51 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "import_job")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class ImportJob extends AuditableEntity implements UserOwned {
+
+  @Column(nullable = false, name = "user_id")
+  private UUID userId;
+
+  @Column(nullable = false, name = "wallet_id")
+  private UUID walletId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private ImportFormat format;
+
+  @Column(name = "file_name")
+  private String fileName;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private ImportStatus status;
+
+  @Column(nullable = false, name = "rows_read")
+  private long rowsRead;
+
+  @Column(nullable = false, name = "rows_imported")
+  private long rowsImported;
+
+  @Column(nullable = false, name = "rows_duplicate")
+  private long rowsDuplicate;
+
+  @Column(nullable = false, name = "rows_failed")
+  private long rowsFailed;
+
+  private String error;
+
+  @Column(name = "started_at")
+  private Instant startedAt;
+
+  @Column(name = "finished_at")
+  private Instant finishedAt;
+}
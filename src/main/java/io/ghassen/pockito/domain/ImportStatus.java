@@ -0,0 +1,8 @@
+package io.ghassen.pockito.domain;
+
+public enum ImportStatus {
+  QUEUED,
+  RUNNING,
+  COMPLETED,
+  FAILED
+}
@@ -0,0 +1,21 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+// Maps a NUMERIC(18,2) amount column to a long of hundredths. Apply with @Convert on the field.
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+  @Override
+  public BigDecimal convertToDatabaseColumn(Long minorUnits) {
+    return minorUnits == null ? null : Money.toBigDecimal(minorUnits, Money.COLUMN_SCALE);
+  }
+
+  @Override
+  public Long convertToEntityAttribute(BigDecimal amount) {
+    return amount == null ? null : Money.minorUnits(amount, Money.COLUMN_SCALE);
+  }
+}
@@ -0,0 +1,87 @@
+package io.ghassen.pockito.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+// Amount held as a whole number of minor units (cents, millimes, yen) of a currency with `decimals`
+// fraction digits. Values with more fraction digits are rounded HALF_UP, the rule PostgreSQL applies
+// when storing into a NUMERIC column, so sums computed here match what the database would hold.
+public record Money(long minorUnits, String currencyCode, int decimals) implements Comparable<Money> {
+
+  // Scale of every amount column in the schema: NUMERIC(18,2)
+  public static final int COLUMN_SCALE = 2;
+
+  // 10^18 is the largest power of ten a long holds
+  static final int MAX_DECIMALS = 18;
+
+  public Money {
+    Objects.requireNonNull(currencyCode, "currencyCode");
+    if (decimals < 0 || decimals > MAX_DECIMALS) {
+      throw new IllegalArgumentException("Unsupported decimals for " + currencyCode + ": " + decimals);
+    }
+  }
+
+  public static Money of(BigDecimal amount, String currencyCode, int decimals) {
+    return new Money(minorUnits(amount, decimals), currencyCode, decimals);
+  }
+
+  public static Money zero(String currencyCode, int decimals) {
+    return new Money(0, currencyCode, decimals);
+  }
+
+  // Exact when amount has at most `decimals` fraction digits. ArithmeticException when it does not fit a long.
+  public static long minorUnits(BigDecimal amount, int decimals) {
+    if (amount.scale() <= decimals) {
+      return amount.movePointRight(decimals).longValueExact();
+    }
+    return amount.setScale(decimals, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  public static BigDecimal toBigDecimal(long minorUnits, int decimals) {
+    return BigDecimal.valueOf(minorUnits, decimals);
+  }
+
+  public BigDecimal toBigDecimal() {
+    return toBigDecimal(minorUnits, decimals);
+  }
+
+  public Money plus(Money other) {
+    requireSameCurrency(other);
+    return new Money(Math.addExact(minorUnits, other.minorUnits), currencyCode, decimals);
+  }
+
+  public Money minus(Money other) {
+    requireSameCurrency(other);
+    return new Money(Math.subtractExact(minorUnits, other.minorUnits), currencyCode, decimals);
+  }
+
+  public Money negate() {
+    return new Money(Math.negateExact(minorUnits), currencyCode, decimals);
+  }
+
+  public int signum() {
+    return Long.signum(minorUnits);
+  }
+
+  public boolean isZero() {
+    return minorUnits == 0;
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    requireSameCurrency(other);
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString() + " " + currencyCode;
+  }
+
+  private void requireSameCurrency(Money other) {
+    if (!currencyCode.equals(other.currencyCode) || decimals != other.decimals) {
+      throw new IllegalArgumentException("Currency mismatch: " + currencyCode + " vs " + other.currencyCode);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package io.ghassen.pockito.domain;
+
+import java.math.BigDecimal;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+// Mutable running total in minor units. Adding never allocates once the amounts are longs, so it
+// fits hot aggregation loops and LongStream.collect(MoneySum.supplier(d), MoneySum::accept, MoneySum::combine).
+public final class MoneySum implements LongConsumer {
+
+  private final int decimals;
+  private long total;
+  private long count;
+
+  public MoneySum(int decimals) {
+    if (decimals < 0 || decimals > Money.MAX_DECIMALS) {
+      throw new IllegalArgumentException("Unsupported decimals: " + decimals);
+    }
+    this.decimals = decimals;
+  }
+
+  public static Supplier<MoneySum> supplier(int decimals) {
+    return () -> new MoneySum(decimals);
+  }
+
+  @Override
+  public void accept(long minorUnits) {
+    total = Math.addExact(total, minorUnits);
+    count++;
+  }
+
+  public void add(BigDecimal amount) {
+    accept(Money.minorUnits(amount, decimals));
+  }
+
+  public void subtract(BigDecimal amount) {
+    accept(Math.negateExact(Money.minorUnits(amount, decimals)));
+  }
+
+  public void combine(MoneySum other) {
+    if (other.decimals != decimals) {
+      throw new IllegalArgumentException("Decimals mismatch: " + decimals + " vs " + other.decimals);
+    }
+    total = Math.addExact(total, other.total);
+    count += other.count;
+  }
+
+  public long total() {
+    return total;
+  }
+
+  public long count() {
+    return count;
+  }
+
+  public int decimals() {
+    return decimals;
+  }
+
+  public int signum() {
+    return Long.signum(total);
+  }
+
+  public BigDecimal toBigDecimal() {
+    return Money.toBigDecimal(total, decimals);
+  }
+
+  public Money toMoney(String currencyCode) {
+    return new Money(total, currencyCode, decimals);
+  }
+}
@@ -0,0 +1,7 @@
+package io.ghassen.pockito.domain;
+
+public enum PaymentStatus {
+  PAID,
+  SKIPPED,
+  FAILED
+}
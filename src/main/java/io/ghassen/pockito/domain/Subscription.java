@@ -0,0 +1,77 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "subscription")
+@SQLRestriction("archived_at IS NULL")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class Subscription extends AuditableEntity implements UserOwned {
+
+  @Column(nullable = false, name = "user_id")
+  private UUID userId;
+
+  @Column(nullable = false)
+  private String name;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+  @Column(name = "icon_type", columnDefinition = "icon_type_enum")
+  private IconType iconType;
+
+  @Column(name = "icon_value")
+  private String iconValue;
+
+  @Column(nullable = false, precision = 18, scale = 2)
+  private BigDecimal amount;
+
+  @Column(length = 3, nullable = false, name = "currency_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String currencyCode;
+
+  @Column(name = "wallet_id")
+  private UUID walletId;
+
+  @Column(name = "category_id")
+  private UUID categoryId;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+  @Column(nullable = false, columnDefinition = "freq_type_enum")
+  private FreqType frequency;
+
+  @Column(nullable = false, name = "`interval`")
+  @Builder.Default
+  private Integer interval = 1;
+
+  // Same bounds as the V15 check constraints
+  @Min(1) @Max(31)
+  @Column(name = "day_of_month")
+  private Short dayOfMonth;
+
+  // ISO day of week, Monday = 1
+  @Min(1) @Max(7)
+  @Column(name = "day_of_week")
+  private Short dayOfWeek;
+
+  @Min(1) @Max(12)
+  @Column(name = "month_of_year")
+  private Short monthOfYear;
+
+  @Column(nullable = false, name = "start_date")
+  private LocalDate startDate;
+
+  @Column(name = "next_due_date")
+  private LocalDate nextDueDate;
+}
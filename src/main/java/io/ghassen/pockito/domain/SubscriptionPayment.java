@@ -0,0 +1,45 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "subscription_payment")
+@SQLRestriction("archived_at IS NULL")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class SubscriptionPayment extends AuditableEntity {
+
+  @Column(nullable = false, name = "subscription_id")
+  private UUID subscriptionId;
+
+  @Column(name = "txn_id")
+  private UUID txnId;
+
+  @Column(nullable = false, precision = 18, scale = 2)
+  private BigDecimal amount;
+
+  @Column(length = 3, nullable = false, name = "currency_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String currencyCode;
+
+  @Column(nullable = false, name = "paid_at")
+  private Instant paidAt;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private Boolean auto = true;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+  @Column(nullable = false, columnDefinition = "payment_status_enum")
+  @Builder.Default
+  private PaymentStatus status = PaymentStatus.PAID;
+}
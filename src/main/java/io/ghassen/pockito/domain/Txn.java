@@ -0,0 +1,80 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.PartitionKey;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "txn")
+@SQLRestriction("archived_at IS NULL")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class Txn extends AuditableEntity implements UserOwned {
+
+  @Column(nullable = false, name = "user_id")
+  private UUID userId;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+  @Column(nullable = false, columnDefinition = "txn_type_enum")
+  private TxnType type;
+
+  // Part of the key since V8: updates and deletes name it so they touch one partition
+  @PartitionKey
+  @Column(nullable = false, name = "occurred_at")
+  private LocalDate occurredAt;
+
+  private String note;
+
+  // EXPENSE / INCOME
+  @Column(name = "wallet_id")
+  private UUID walletId;
+
+  @Column(name = "category_id")
+  private UUID categoryId;
+
+  @Column(precision = 18, scale = 2)
+  private BigDecimal amount;
+
+  @Column(length = 3, name = "currency_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String currencyCode;
+
+  // TRANSFER
+  @Column(name = "from_wallet_id")
+  private UUID fromWalletId;
+
+  @Column(name = "to_wallet_id")
+  private UUID toWalletId;
+
+  @Column(name = "from_amount", precision = 18, scale = 2)
+  private BigDecimal fromAmount;
+
+  @Column(name = "to_amount", precision = 18, scale = 2)
+  private BigDecimal toAmount;
+
+  @Column(length = 3, name = "from_currency_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String fromCurrencyCode;
+
+  @Column(length = 3, name = "to_currency_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String toCurrencyCode;
+
+  @Column(name = "exchange_rate", precision = 20, scale = 10)
+  private BigDecimal exchangeRate;
+
+  @Column(name = "external_wallet_name")
+  private String externalWalletName;
+
+  // Fingerprint of the statement line this txn was imported from
+  @Column(name = "import_ref")
+  private String importRef;
+}
@@ -0,0 +1,7 @@
+package io.ghassen.pockito.domain;
+
+public enum TxnType {
+  EXPENSE,
+  INCOME,
+  TRANSFER
+}
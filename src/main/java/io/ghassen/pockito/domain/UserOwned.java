@@ -0,0 +1,8 @@
+package io.ghassen.pockito.domain;
+
+import java.util.UUID;
+
+// Entities scoped to one app_user; their lifecycle is recorded in activity_log
+public interface UserOwned {
+  UUID getUserId();
+}
@@ -0,0 +1,41 @@
+package io.ghassen.pockito.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// RFC 9562 version 7 UUIDs: 48-bit Unix millis, then a 12-bit counter (rand_a) and 62 random bits.
+// New keys land at the right edge of the index instead of a random leaf. Within a millisecond the
+// counter keeps ids strictly increasing on this node; past 4096 ids per millisecond the counter carries
+// into the timestamp, which runs slightly ahead until the clock catches up (RFC 9562 §6.2, method 3).
+public final class UuidV7 {
+
+  private static final AtomicLong LAST = new AtomicLong();
+
+  private UuidV7() {}
+
+  public static UUID next() {
+    long now = System.currentTimeMillis() << 12;
+    long prev;
+    long next;
+    do {
+      prev = LAST.get();
+      next = Math.max(now, prev + 1);
+    } while (!LAST.compareAndSet(prev, next));
+    return build(next >>> 12, (int) (next & 0xFFF), ThreadLocalRandom.current().nextLong());
+  }
+
+  static UUID build(long millis, int counter, long random) {
+    long msb = (millis << 16) | 0x7000L | (counter & 0xFFF);
+    long lsb = (random & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(msb, lsb);
+  }
+
+  public static Instant timestamp(UUID id) {
+    if (id.version() != 7) {
+      throw new IllegalArgumentException("Not a version 7 UUID: " + id);
+    }
+    return Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16);
+  }
+}
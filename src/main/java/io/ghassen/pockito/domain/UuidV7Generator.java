@@ -0,0 +1,15 @@
+package io.ghassen.pockito.domain;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.util.UUID;
+
+// Hibernate entry point for @UuidGenerator(algorithm = UuidV7Generator.class)
+public class UuidV7Generator implements UuidValueGenerator {
+
+  @Override
+  public UUID generateUuid(SharedSessionContractImplementor session) {
+    return UuidV7.next();
+  }
+}
@@ -0,0 +1,55 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Entity
+@Table(name = "wallet")
+@SQLRestriction("archived_at IS NULL")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @SuperBuilder
+public class Wallet extends AuditableEntity implements UserOwned {
+
+  @Column(nullable = false, name = "user_id")
+  private UUID userId;
+
+  @Column(nullable = false)
+  private String name;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+  @Column(nullable = false, name = "icon_type", columnDefinition = "icon_type_enum")
+  private IconType iconType;
+
+  @Column(nullable = false, name = "icon_value")
+  private String iconValue;
+
+  @Column(length = 3, nullable = false, name = "currency_code")
+  @JdbcTypeCode(SqlTypes.CHAR)
+  private String currencyCode;
+
+  @Column(length = 7)
+  private String color;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+  @Column(nullable = false, columnDefinition = "wallet_type_enum")
+  private WalletType type;
+
+  @Column(nullable = false, name = "initial_balance", precision = 18, scale = 2)
+  @Builder.Default
+  private BigDecimal initialBalance = BigDecimal.ZERO;
+
+  @Column(nullable = false, name = "is_default")
+  @Builder.Default
+  private Boolean isDefault = false;
+
+  @Column(name = "goal_amount", precision = 18, scale = 2)
+  private BigDecimal goalAmount;
+}
@@ -0,0 +1,29 @@
+package io.ghassen.pockito.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Running sum of every active txn leg touching a wallet; current balance = wallet.initial_balance + txn_total
+@Entity
+@Table(name = "wallet_balance")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class WalletBalance {
+
+  @Id
+  @Column(name = "wallet_id", nullable = false)
+  private UUID walletId;
+
+  // Hundredths of the wallet currency
+  @Column(nullable = false, name = "txn_total", precision = 18, scale = 2)
+  @Convert(converter = MinorUnitsConverter.class)
+  private Long txnTotal;
+
+  @Column(nullable = false, name = "txn_count")
+  private Long txnCount;
+
+  @Column(nullable = false, name = "updated_at")
+  private Instant updatedAt;
+}
@@ -0,0 +1,9 @@
+package io.ghassen.pockito.domain;
+
+public enum WalletType {
+  SAVINGS,
+  BANK_ACCOUNT,
+  CASH,
+  CREDIT_CARD,
+  CUSTOM
+}
@@ -0,0 +1,57 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.service.activity.ActivityRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Function;
+
+@Repository
+@RequiredArgsConstructor
+public class ActivityLogRepository {
+
+  // Rows for users that have no app_user row are skipped rather than failing the whole batch
+  private static final String INSERT_BATCH = """
+      INSERT INTO activity_log (user_id, entity_type, entity_id, action, payload, created_at)
+      SELECT r.user_id, r.entity_type, r.entity_id, r.action, r.payload::jsonb, r.created_at
+        FROM unnest(?::uuid[], ?::text[], ?::uuid[], ?::text[], ?::text[], ?::timestamptz[])
+          AS r(user_id, entity_type, entity_id, action, payload, created_at)
+       WHERE EXISTS (SELECT 1 FROM app_user u WHERE u.id = r.user_id)
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  // One statement per batch; returns the number of rows written
+  public int insertBatch(List<ActivityRecord> rows) {
+    if (rows.isEmpty()) {
+      return 0;
+    }
+    return jdbcTemplate.update(con -> {
+      PreparedStatement ps = con.prepareStatement(INSERT_BATCH);
+      int i = 1;
+      ps.setArray(i++, array(con, "uuid", rows, ActivityRecord::userId));
+      ps.setArray(i++, array(con, "text", rows, ActivityRecord::entityType));
+      ps.setArray(i++, array(con, "uuid", rows, ActivityRecord::entityId));
+      ps.setArray(i++, array(con, "text", rows, r -> r.action().name()));
+      ps.setArray(i++, array(con, "text", rows, ActivityRecord::payload));
+      ps.setArray(i, array(con, "timestamptz", rows, r -> Timestamp.from(r.createdAt())));
+      return ps;
+    });
+  }
+
+  private static Array array(Connection con, String type, List<ActivityRecord> rows,
+                             Function<ActivityRecord, Object> getter) throws SQLException {
+    Object[] values = new Object[rows.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = getter.apply(rows.get(i));
+    }
+    return con.createArrayOf(type, values);
+  }
+}
@@ -0,0 +1,17 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.AgreementPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AgreementPaymentRepository extends JpaRepository<AgreementPayment, UUID> {
+
+  List<AgreementPayment> findByAgreementIdOrderByPaidAtDesc(UUID agreementId);
+
+  Optional<AgreementPayment> findByIdAndAgreementId(UUID id, UUID agreementId);
+}
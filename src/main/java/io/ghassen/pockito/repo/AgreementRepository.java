@@ -0,0 +1,52 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.Agreement;
+import io.ghassen.pockito.domain.AgreementType;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AgreementRepository extends UserOwnedRepository<Agreement> {
+
+  List<Agreement> findByUserIdOrderByStartDateDesc(UUID userId);
+
+  // Row-locking, like the wallet balance upserts: concurrent payments on one agreement serialize here. A
+  // positive amount is refused (0 rows) when it would take the agreement below zero; a negative one (an
+  // archived payment) always applies and reopens the agreement.
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = """
+      UPDATE agreement
+         SET outstanding_amount = outstanding_amount - :amount,
+             status = CASE WHEN outstanding_amount - :amount <= 0 THEN 'SETTLED' ELSE 'OPEN' END,
+             version = COALESCE(version, 0) + 1,
+             updated_at = now()
+       WHERE id = :id AND archived_at IS NULL
+         AND (:amount <= 0 OR outstanding_amount >= :amount)
+      """, nativeQuery = true)
+  int settle(@Param("id") UUID id, @Param("amount") BigDecimal amount);
+
+  // Served by ix_agreement_user_open_totals
+  @Query(value = """
+      SELECT type::text AS type, person_name AS personName, currency_code AS currencyCode,
+             SUM(outstanding_amount) AS outstanding, COUNT(*) AS agreements
+        FROM agreement
+       WHERE user_id = :userId AND archived_at IS NULL AND status = 'OPEN'
+       GROUP BY type, person_name, currency_code
+       ORDER BY type, person_name, currency_code
+      """, nativeQuery = true)
+  List<OutstandingTotal> findOutstandingTotals(@Param("userId") UUID userId);
+
+  interface OutstandingTotal {
+    AgreementType getType();
+    String getPersonName();
+    String getCurrencyCode();
+    BigDecimal getOutstanding();
+    long getAgreements();
+  }
+}
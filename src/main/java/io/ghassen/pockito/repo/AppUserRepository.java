@@ -0,0 +1,45 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.AppUser;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+@Repository
+public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
+
+  // Writes only when a profile field differs, so re-provisioning an unchanged user costs no row version
+  @Modifying
+  @Transactional
+  @Query(value = """
+      INSERT INTO app_user (id, email, display_name, locale, timezone, created_by, updated_by)
+      VALUES (:id, :email, :displayName, :locale, :timezone, 'system:provisioning', 'system:provisioning')
+      ON CONFLICT (id) DO UPDATE
+        SET email = EXCLUDED.email,
+            display_name = EXCLUDED.display_name,
+            locale = EXCLUDED.locale,
+            timezone = EXCLUDED.timezone,
+            updated_at = now(),
+            updated_by = EXCLUDED.updated_by
+        WHERE (app_user.email, app_user.display_name, app_user.locale, app_user.timezone)
+              IS DISTINCT FROM (EXCLUDED.email, EXCLUDED.display_name, EXCLUDED.locale, EXCLUDED.timezone)
+      """, nativeQuery = true)
+  int upsertProfile(@Param("id") UUID id, @Param("email") String email, @Param("displayName") String displayName,
+                    @Param("locale") String locale, @Param("timezone") String timezone);
+
+  // An account recreated in the identity provider keeps its email under a new subject. The old row gives
+  // the address up (same placeholder as accounts without an email) so the new subject can be provisioned.
+  @Modifying
+  @Transactional
+  @Query(value = """
+      UPDATE app_user
+         SET email = id || '@users.invalid', updated_at = now(), updated_by = 'system:provisioning'
+       WHERE email = :email AND id <> :id
+      """, nativeQuery = true)
+  int releaseEmail(@Param("id") UUID id, @Param("email") String email);
+}
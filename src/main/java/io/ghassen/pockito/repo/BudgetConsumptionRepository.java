@@ -0,0 +1,138 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.FreqType;
+import io.ghassen.pockito.service.budget.BudgetPeriods;
+import io.ghassen.pockito.service.budget.BudgetStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class BudgetConsumptionRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public record BudgetLink(UUID budgetId, UUID userId, UUID categoryId, FreqType period, LocalDate startDate,
+                           LocalDate endDate, BigDecimal limitAmount, String currencyCode) {}
+
+  public record DailyExpense(LocalDate day, String currencyCode, BigDecimal amount) {}
+
+  public List<BudgetLink> findLinksByCategories(Collection<UUID> categoryIds) {
+    if (categoryIds.isEmpty()) {
+      return List.of();
+    }
+    return jdbcTemplate.query(con -> {
+      var ps = con.prepareStatement("""
+          SELECT b.id, b.user_id, bc.category_id, b.period, b.start_date, b.end_date, b.limit_amount, b.currency_code
+            FROM budget_category bc
+            JOIN budget b ON b.id = bc.budget_id
+           WHERE bc.category_id = ANY(?) AND b.archived_at IS NULL
+          """);
+      ps.setArray(1, con.createArrayOf("uuid", categoryIds.toArray()));
+      return ps;
+    }, (rs, n) -> new BudgetLink(
+        rs.getObject("id", UUID.class),
+        rs.getObject("user_id", UUID.class),
+        rs.getObject("category_id", UUID.class),
+        FreqType.valueOf(rs.getString("period")),
+        rs.getDate("start_date").toLocalDate(),
+        toLocalDate(rs.getDate("end_date")),
+        rs.getBigDecimal("limit_amount"),
+        rs.getString("currency_code")));
+  }
+
+  // Row-locking increment; returns the period's spending after the change
+  public BigDecimal addSpent(UUID budgetId, LocalDate periodStart, LocalDate periodEnd, BigDecimal delta) {
+    return jdbcTemplate.queryForObject("""
+        INSERT INTO budget_consumption (budget_id, period_start, period_end, spent, updated_at)
+        VALUES (?, ?, ?, ?, now())
+        ON CONFLICT (budget_id, period_start) DO UPDATE
+          SET spent = budget_consumption.spent + EXCLUDED.spent,
+              period_end = EXCLUDED.period_end,
+              updated_at = now()
+        RETURNING spent
+        """, BigDecimal.class, budgetId, Date.valueOf(periodStart), Date.valueOf(periodEnd), delta);
+  }
+
+  // One row per budget: limit joined with the consumption row of the period containing `today`
+  public List<BudgetStatus> findStatus(UUID userId, UUID budgetId, LocalDate today) {
+    Date day = Date.valueOf(today);
+    String sql = """
+        SELECT b.id, b.name, b.limit_amount, b.currency_code, b.period, b.start_date, b.end_date,
+               c.period_start, c.period_end, COALESCE(c.spent, 0) AS spent
+          FROM budget b
+          LEFT JOIN budget_consumption c
+            ON c.budget_id = b.id AND c.period_start <= ? AND c.period_end >= ?
+         WHERE b.user_id = ? AND b.archived_at IS NULL
+        """ + (budgetId != null ? " AND b.id = ?" : " ORDER BY lower(b.name)");
+    Object[] args = budgetId != null
+        ? new Object[] {day, day, userId, budgetId}
+        : new Object[] {day, day, userId};
+    return jdbcTemplate.query(sql, (rs, n) -> status(rs, today), args);
+  }
+
+  // Expenses in the given categories, which the caller has already expanded to their subtrees
+  public List<DailyExpense> findDailyExpenses(UUID budgetId, Collection<UUID> categoryIds) {
+    if (categoryIds.isEmpty()) {
+      return List.of();
+    }
+    return jdbcTemplate.query(con -> {
+      var ps = con.prepareStatement("""
+          SELECT t.occurred_at, t.currency_code, SUM(t.amount) AS amount
+            FROM budget b
+            JOIN txn t ON t.user_id = b.user_id
+           WHERE b.id = ? AND t.category_id = ANY(?) AND t.type = 'EXPENSE' AND t.archived_at IS NULL
+             AND t.occurred_at >= b.start_date AND (b.end_date IS NULL OR t.occurred_at <= b.end_date)
+           GROUP BY t.occurred_at, t.currency_code
+          """);
+      ps.setObject(1, budgetId);
+      ps.setArray(2, con.createArrayOf("uuid", categoryIds.toArray()));
+      return ps;
+    }, (rs, n) -> new DailyExpense(rs.getDate(1).toLocalDate(), rs.getString(2), rs.getBigDecimal(3)));
+  }
+
+  public void deleteConsumption(UUID budgetId) {
+    jdbcTemplate.update("DELETE FROM budget_consumption WHERE budget_id = ?", budgetId);
+  }
+
+  public void insertConsumption(UUID budgetId, LocalDate periodStart, LocalDate periodEnd, BigDecimal spent) {
+    jdbcTemplate.update("""
+        INSERT INTO budget_consumption (budget_id, period_start, period_end, spent) VALUES (?, ?, ?, ?)
+        """, budgetId, Date.valueOf(periodStart), Date.valueOf(periodEnd), spent);
+  }
+
+  public List<UUID> findBudgetIdsAfter(UUID after, int limit) {
+    return jdbcTemplate.queryForList("""
+        SELECT id FROM budget WHERE archived_at IS NULL AND id > ? ORDER BY id LIMIT ?
+        """, UUID.class, after, limit);
+  }
+
+  private static BudgetStatus status(ResultSet rs, LocalDate today) throws SQLException {
+    LocalDate periodStart = toLocalDate(rs.getDate("period_start"));
+    LocalDate periodEnd = toLocalDate(rs.getDate("period_end"));
+    if (periodStart == null) {
+      // Nothing spent yet in the current period
+      BudgetPeriods.Period p = BudgetPeriods.periodOf(
+          FreqType.valueOf(rs.getString("period")), rs.getDate("start_date").toLocalDate(),
+          toLocalDate(rs.getDate("end_date")), today);
+      periodStart = p != null ? p.start() : null;
+      periodEnd = p != null ? p.end() : null;
+    }
+    return new BudgetStatus(rs.getObject("id", UUID.class), rs.getString("name"), periodStart, periodEnd,
+        rs.getBigDecimal("limit_amount"), rs.getBigDecimal("spent"), rs.getString("currency_code"));
+  }
+
+  private static LocalDate toLocalDate(Date d) {
+    return d != null ? d.toLocalDate() : null;
+  }
+}
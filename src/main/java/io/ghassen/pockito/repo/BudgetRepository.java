@@ -0,0 +1,20 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.Budget;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BudgetRepository extends UserOwnedRepository<Budget> {
+
+  @Override
+  @EntityGraph(attributePaths = "categoryIds")
+  Optional<Budget> findByIdAndUserId(UUID id, UUID userId);
+
+  @EntityGraph(attributePaths = "categoryIds")
+  List<Budget> findByUserId(UUID userId);
+}
@@ -0,0 +1,48 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.Category;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CategoryRepository extends UserOwnedRepository<Category> {
+
+  List<Category> findByUserId(UUID userId);
+
+  // Archived categories included: their txns still roll up into the parent they had
+  @Query(value = """
+      SELECT id, parent_id AS "parentId" FROM category WHERE user_id = :userId""", nativeQuery = true)
+  List<CategoryEdge> findEdges(@Param("userId") UUID userId);
+
+  @Query(value = """
+      SELECT user_id AS "userId", id, parent_id AS "parentId" FROM category WHERE user_id IN (:userIds)""",
+      nativeQuery = true)
+  List<UserCategoryEdge> findEdgesByUserIds(@Param("userIds") Collection<UUID> userIds);
+
+  // findVersionStamp for many users at once; users without categories have no row
+  @Query("""
+      select e.userId as userId, count(e) as count, coalesce(sum(e.version), 0) as versionSum,
+             max(e.updatedAt) as lastUpdatedAt
+        from Category e
+       where e.userId in :userIds
+       group by e.userId""")
+  List<UserVersionStamp> findVersionStamps(@Param("userIds") Collection<UUID> userIds);
+
+  interface CategoryEdge {
+    UUID getId();
+    UUID getParentId();
+  }
+
+  interface UserCategoryEdge extends CategoryEdge {
+    UUID getUserId();
+  }
+
+  interface UserVersionStamp extends VersionStamp {
+    UUID getUserId();
+  }
+}
@@ -2,9 +2,18 @@ package io.ghassen.pockito.repo;
 
 import io.ghassen.pockito.domain.Currency;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CurrencyRepository extends JpaRepository<Currency, String> {
   // Basic CRUD operations are inherited from JpaRepository
+
+  List<Currency> findByIsActiveTrue();
+
+  // Cheap fingerprint of the active set; any write bumps version, archiving also drops the count
+  @Query("select count(c) as count, coalesce(sum(c.version), 0) as versionSum, max(c.updatedAt) as lastUpdatedAt from Currency c")
+  VersionStamp findVersionStamp();
 }
@@ -0,0 +1,37 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.ExchangeRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, UUID> {
+
+  // Includes archived rows so the in-memory rate table can drop them; times as epoch millis
+  @Query(value = """
+      SELECT base_code AS baseCode,
+             quote_code AS quoteCode,
+             CAST(rate AS float8) AS rate,
+             CAST(EXTRACT(EPOCH FROM effective_at) * 1000 AS BIGINT) AS effectiveAtMillis,
+             archived_at IS NOT NULL AS archived,
+             CAST(EXTRACT(EPOCH FROM updated_at) * 1000 AS BIGINT) AS updatedAtMillis
+        FROM exchange_rate
+       WHERE updated_at > to_timestamp(:sinceMillis / 1000.0)
+       ORDER BY updated_at
+      """, nativeQuery = true)
+  List<RateRow> findChangedSince(@Param("sinceMillis") long sinceMillis);
+
+  interface RateRow {
+    String getBaseCode();
+    String getQuoteCode();
+    Double getRate();
+    Long getEffectiveAtMillis();
+    Boolean getArchived();
+    Long getUpdatedAtMillis();
+  }
+}
@@ -0,0 +1,31 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+  Optional<ImportJob> findByIdAndUserId(UUID id, UUID userId);
+
+  // Counter bump per committed batch, avoids reloading the job entity while it runs
+  @Modifying
+  @Query(value = """
+      UPDATE import_job
+         SET rows_read = rows_read + :read,
+             rows_imported = rows_imported + :imported,
+             rows_duplicate = rows_duplicate + :duplicate,
+             rows_failed = rows_failed + :failed,
+             updated_at = now()
+       WHERE id = :id
+      """, nativeQuery = true)
+  int addProgress(@Param("id") UUID id, @Param("read") long read, @Param("imported") long imported,
+                  @Param("duplicate") long duplicate, @Param("failed") long failed);
+}
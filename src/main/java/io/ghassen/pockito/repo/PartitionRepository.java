@@ -0,0 +1,105 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.service.partition.PartitionedTable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Partition DDL. Identifiers come from PartitionedTable and formatted months only, never from input.
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepository {
+
+  private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+  private static final Pattern PARTITION_NAME = Pattern.compile("_p(\\d{6})$");
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public static String partitionName(PartitionedTable table, YearMonth month) {
+    return table.table() + "_p" + month.format(SUFFIX);
+  }
+
+  // Months that currently have an attached partition
+  public List<YearMonth> findMonths(PartitionedTable table) {
+    List<String> names = jdbcTemplate.queryForList("""
+        SELECT c.relname
+          FROM pg_inherits i
+          JOIN pg_class c ON c.oid = i.inhrelid
+          JOIN pg_class p ON p.oid = i.inhparent
+          JOIN pg_namespace n ON n.oid = p.relnamespace
+         WHERE p.relname = ? AND n.nspname = current_schema()
+        """, String.class, table.table());
+    List<YearMonth> months = new ArrayList<>(names.size());
+    for (String name : names) {
+      Matcher m = PARTITION_NAME.matcher(name);
+      if (name.startsWith(table.table() + "_p") && m.find()) {
+        months.add(YearMonth.parse(m.group(1), SUFFIX));
+      }
+    }
+    months.sort(null);
+    return months;
+  }
+
+  public boolean defaultHasRows(PartitionedTable table, YearMonth month) {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+        "SELECT EXISTS (SELECT 1 FROM " + table.defaultPartition() + " WHERE " + range(table, month) + ")",
+        Boolean.class));
+  }
+
+  public void createPartition(PartitionedTable table, YearMonth month) {
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(table, month)
+        + " PARTITION OF " + table.table() + " FOR VALUES " + bounds(table, month));
+  }
+
+  // For a month whose rows already sit in the default partition: the new partition is filled
+  // before it is attached, otherwise ATTACH would reject the overlap with the default partition.
+  // Call inside a transaction.
+  public int createPartitionFromDefault(PartitionedTable table, YearMonth month) {
+    String name = partitionName(table, month);
+    jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + table.table()
+        + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING GENERATED)");
+    // Generated columns are recomputed on insert and cannot be copied
+    String columns = String.join(", ", jdbcTemplate.queryForList("""
+        SELECT quote_ident(column_name) FROM information_schema.columns
+         WHERE table_schema = current_schema() AND table_name = ? AND is_generated = 'NEVER'
+         ORDER BY ordinal_position
+        """, String.class, table.table()));
+    int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + table.defaultPartition()
+        + " WHERE " + range(table, month) + " RETURNING " + columns + ") INSERT INTO " + name
+        + " (" + columns + ") SELECT " + columns + " FROM moved");
+    jdbcTemplate.execute("ALTER TABLE " + table.table() + " ATTACH PARTITION " + name + " FOR VALUES " + bounds(table, month));
+    return moved;
+  }
+
+  // Detached partitions move to the archive schema and keep their rows
+  public void detachToArchive(PartitionedTable table, YearMonth month) {
+    String name = partitionName(table, month);
+    jdbcTemplate.execute("ALTER TABLE " + table.table() + " DETACH PARTITION " + name);
+    jdbcTemplate.execute("ALTER TABLE " + name + " SET SCHEMA archive");
+  }
+
+  public void dropPartition(PartitionedTable table, YearMonth month) {
+    jdbcTemplate.execute("DROP TABLE " + partitionName(table, month));
+  }
+
+  private static String bounds(PartitionedTable table, YearMonth month) {
+    return "FROM (" + lower(table, month) + ") TO (" + lower(table, month.plusMonths(1)) + ")";
+  }
+
+  private static String range(PartitionedTable table, YearMonth month) {
+    return table.keyColumn() + " >= " + lower(table, month) + " AND " + table.keyColumn() + " < "
+        + lower(table, month.plusMonths(1));
+  }
+
+  private static String lower(PartitionedTable table, YearMonth month) {
+    String day = month.atDay(1).toString();
+    return table.timestampKey() ? "TIMESTAMPTZ '" + day + " 00:00:00+00'" : "DATE '" + day + "'";
+  }
+}
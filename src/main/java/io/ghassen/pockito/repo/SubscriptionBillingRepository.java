@@ -0,0 +1,104 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.FreqType;
+import io.ghassen.pockito.service.subscription.DueSubscription;
+import io.ghassen.pockito.service.subscription.PaymentRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Set-based statements for the billing scheduler; all of them must run in the claiming transaction
+@Repository
+@RequiredArgsConstructor
+public class SubscriptionBillingRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  // Rows locked by another node are skipped instead of waited on, so nodes bill disjoint chunks.
+  // `excluded` holds subscriptions that already failed in this run, so they are not claimed again first.
+  public List<DueSubscription> claimDue(LocalDate today, int limit, Collection<UUID> excluded) {
+    return jdbcTemplate.query(con -> {
+      var ps = con.prepareStatement("""
+          SELECT s.id, s.user_id, s.name, s.amount, s.currency_code, s.wallet_id, w.currency_code AS wallet_currency,
+                 s.category_id, s.frequency, s."interval", s.day_of_month, s.day_of_week, s.month_of_year,
+                 s.start_date, s.next_due_date
+            FROM subscription s
+            LEFT JOIN wallet w ON w.id = s.wallet_id AND w.archived_at IS NULL
+           WHERE s.archived_at IS NULL AND s.next_due_date <= ? AND s.id <> ALL(?)
+           ORDER BY s.next_due_date
+           LIMIT ?
+             FOR UPDATE OF s SKIP LOCKED
+          """);
+      ps.setDate(1, Date.valueOf(today));
+      ps.setArray(2, con.createArrayOf("uuid", excluded.toArray()));
+      ps.setInt(3, limit);
+      return ps;
+    }, (rs, n) -> new DueSubscription(
+        rs.getObject("id", UUID.class),
+        rs.getObject("user_id", UUID.class),
+        rs.getString("name"),
+        rs.getBigDecimal("amount"),
+        rs.getString("currency_code"),
+        rs.getObject("wallet_id", UUID.class),
+        rs.getString("wallet_currency"),
+        rs.getObject("category_id", UUID.class),
+        FreqType.valueOf(rs.getString("frequency")),
+        rs.getInt("interval"),
+        rs.getObject("day_of_month", Short.class),
+        rs.getObject("day_of_week", Short.class),
+        rs.getObject("month_of_year", Short.class),
+        rs.getDate("start_date").toLocalDate(),
+        rs.getDate("next_due_date").toLocalDate()));
+  }
+
+  public void insertPayments(List<PaymentRow> payments, String auditor) {
+    if (payments.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.update(con -> {
+      var ps = con.prepareStatement("""
+          INSERT INTO subscription_payment (subscription_id, txn_id, amount, currency_code, paid_at, auto, status,
+                                            created_by, updated_by)
+          SELECT r.subscription_id, r.txn_id, r.amount, r.currency_code, r.paid_at, TRUE,
+                 r.status::payment_status_enum, ?, ?
+            FROM unnest(?::uuid[], ?::uuid[], ?::numeric[], ?::text[], ?::timestamptz[], ?::text[])
+              AS r(subscription_id, txn_id, amount, currency_code, paid_at, status)
+          """);
+      ps.setString(1, auditor);
+      ps.setString(2, auditor);
+      ps.setArray(3, con.createArrayOf("uuid", payments.stream().map(PaymentRow::subscriptionId).toArray()));
+      ps.setArray(4, con.createArrayOf("uuid", payments.stream().map(PaymentRow::txnId).toArray()));
+      ps.setArray(5, con.createArrayOf("numeric", payments.stream().map(PaymentRow::amount).toArray()));
+      ps.setArray(6, con.createArrayOf("text", payments.stream().map(PaymentRow::currencyCode).toArray()));
+      ps.setArray(7, con.createArrayOf("timestamptz", payments.stream().map(p -> Timestamp.from(p.paidAt())).toArray()));
+      ps.setArray(8, con.createArrayOf("text", payments.stream().map(p -> p.status().name()).toArray()));
+      return ps;
+    });
+  }
+
+  public void advance(Map<UUID, LocalDate> nextDueDates, String auditor) {
+    if (nextDueDates.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.update(con -> {
+      var ps = con.prepareStatement("""
+          UPDATE subscription s
+             SET next_due_date = u.next_due, updated_at = now(), updated_by = ?, version = COALESCE(s.version, 0) + 1
+            FROM unnest(?::uuid[], ?::date[]) AS u(id, next_due)
+           WHERE s.id = u.id
+          """);
+      ps.setString(1, auditor);
+      ps.setArray(2, con.createArrayOf("uuid", nextDueDates.keySet().toArray()));
+      ps.setArray(3, con.createArrayOf("date", nextDueDates.values().stream().map(Date::valueOf).toArray()));
+      return ps;
+    });
+  }
+}
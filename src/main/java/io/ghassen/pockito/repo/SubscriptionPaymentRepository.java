@@ -0,0 +1,11 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.SubscriptionPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface SubscriptionPaymentRepository extends JpaRepository<SubscriptionPayment, UUID> {
+}
@@ -0,0 +1,13 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.Subscription;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SubscriptionRepository extends UserOwnedRepository<Subscription> {
+
+  List<Subscription> findByUserIdOrderByNextDueDate(UUID userId);
+}
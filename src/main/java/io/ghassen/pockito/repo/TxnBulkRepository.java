@@ -0,0 +1,97 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.service.txn.TxnSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Set-based txn inserts: one statement and one round-trip per batch regardless of its size
+@Repository
+@RequiredArgsConstructor
+public class TxnBulkRepository {
+
+  private static final String INSERT_IGNORING_DUPLICATES = """
+      INSERT INTO txn (id, user_id, type, occurred_at, note, wallet_id, category_id, amount, currency_code,
+                       from_wallet_id, to_wallet_id, from_amount, to_amount, from_currency_code, to_currency_code,
+                       external_wallet_name, import_ref, created_by, updated_by)
+      SELECT COALESCE(r.id, uuid_generate_v7()), r.user_id, r.type::txn_type_enum, r.occurred_at, r.note, r.wallet_id, r.category_id, r.amount,
+             r.currency_code, r.from_wallet_id, r.to_wallet_id, r.from_amount, r.to_amount,
+             r.from_currency_code, r.to_currency_code, r.external_wallet_name, r.import_ref, ?, ?
+        FROM unnest(?::uuid[], ?::uuid[], ?::text[], ?::date[], ?::text[], ?::uuid[], ?::uuid[], ?::numeric[], ?::text[],
+                    ?::uuid[], ?::uuid[], ?::numeric[], ?::numeric[], ?::text[], ?::text[], ?::text[], ?::text[])
+          AS r(id, user_id, type, occurred_at, note, wallet_id, category_id, amount, currency_code,
+               from_wallet_id, to_wallet_id, from_amount, to_amount, from_currency_code, to_currency_code,
+               external_wallet_name, import_ref)
+      ON CONFLICT (user_id, occurred_at, import_ref) WHERE import_ref IS NOT NULL DO NOTHING
+      RETURNING id, user_id, type, occurred_at, wallet_id, category_id, amount, currency_code,
+                from_wallet_id, to_wallet_id, from_amount, to_amount, from_currency_code, to_currency_code
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  // Rows whose (user_id, occurred_at, import_ref) already exists are skipped; returns only the inserted rows.
+  // Ids (UUIDv7) are generated by the database unless the caller sets them (to reference the rows afterwards).
+  public List<TxnSnapshot> insertIgnoringDuplicates(List<Txn> rows, String auditor) {
+    if (rows.isEmpty()) {
+      return List.of();
+    }
+    return jdbcTemplate.query(con -> {
+      PreparedStatement ps = con.prepareStatement(INSERT_IGNORING_DUPLICATES);
+      int i = 1;
+      ps.setString(i++, auditor);
+      ps.setString(i++, auditor);
+      ps.setArray(i++, array(con, "uuid", rows, Txn::getId));
+      ps.setArray(i++, array(con, "uuid", rows, Txn::getUserId));
+      ps.setArray(i++, array(con, "text", rows, t -> t.getType().name()));
+      ps.setArray(i++, array(con, "date", rows, t -> Date.valueOf(t.getOccurredAt())));
+      ps.setArray(i++, array(con, "text", rows, Txn::getNote));
+      ps.setArray(i++, array(con, "uuid", rows, Txn::getWalletId));
+      ps.setArray(i++, array(con, "uuid", rows, Txn::getCategoryId));
+      ps.setArray(i++, array(con, "numeric", rows, Txn::getAmount));
+      ps.setArray(i++, array(con, "text", rows, Txn::getCurrencyCode));
+      ps.setArray(i++, array(con, "uuid", rows, Txn::getFromWalletId));
+      ps.setArray(i++, array(con, "uuid", rows, Txn::getToWalletId));
+      ps.setArray(i++, array(con, "numeric", rows, Txn::getFromAmount));
+      ps.setArray(i++, array(con, "numeric", rows, Txn::getToAmount));
+      ps.setArray(i++, array(con, "text", rows, Txn::getFromCurrencyCode));
+      ps.setArray(i++, array(con, "text", rows, Txn::getToCurrencyCode));
+      ps.setArray(i++, array(con, "text", rows, Txn::getExternalWalletName));
+      ps.setArray(i, array(con, "text", rows, Txn::getImportRef));
+      return ps;
+    }, (rs, n) -> new TxnSnapshot(
+        rs.getObject("id", UUID.class),
+        rs.getObject("user_id", UUID.class),
+        TxnType.valueOf(rs.getString("type")),
+        rs.getDate("occurred_at").toLocalDate(),
+        rs.getObject("wallet_id", UUID.class),
+        rs.getObject("category_id", UUID.class),
+        rs.getBigDecimal("amount"),
+        rs.getString("currency_code"),
+        rs.getObject("from_wallet_id", UUID.class),
+        rs.getObject("to_wallet_id", UUID.class),
+        rs.getBigDecimal("from_amount"),
+        rs.getBigDecimal("to_amount"),
+        rs.getString("from_currency_code"),
+        rs.getString("to_currency_code")));
+  }
+
+  private static Array array(Connection con, String type, List<Txn> rows,
+                                      Function<Txn, Object> getter) throws SQLException {
+    Object[] values = new Object[rows.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = getter.apply(rows.get(i));
+    }
+    return con.createArrayOf(type, values);
+  }
+}
@@ -0,0 +1,190 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.service.txn.TxnCursor;
+import io.ghassen.pockito.service.txn.TxnFilter;
+import io.ghassen.pockito.service.txn.TxnSearchCursor;
+import io.ghassen.pockito.service.txn.TxnSearchHit;
+import io.ghassen.pockito.service.txn.TxnSearchQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Read-side txn queries that stream rows instead of materializing entity lists
+@Repository
+public class TxnQueryRepository {
+
+  static final String TXN_COLUMNS = """
+      t.id, t.user_id, t.type, t.occurred_at, t.note, t.wallet_id, t.category_id, t.amount, t.currency_code,
+      t.from_wallet_id, t.to_wallet_id, t.from_amount, t.to_amount, t.from_currency_code, t.to_currency_code,
+      t.exchange_rate, t.external_wallet_name, t.version""";
+
+  private static final int FETCH_SIZE = 500;
+
+  private final NamedParameterJdbcTemplate jdbc;
+
+  public TxnQueryRepository(DataSource dataSource) {
+    JdbcTemplate template = new JdbcTemplate(dataSource);
+    template.setFetchSize(FETCH_SIZE);
+    this.jdbc = new NamedParameterJdbcTemplate(template);
+  }
+
+  // Seeks past `after` on ix_txn_user_date and streams at most `limit` rows to the consumer.
+  // `categoryIds` replaces filter.categoryId() with that category's subtree.
+  // Must run inside a transaction so the driver fetches through a server-side cursor.
+  public void streamPage(UUID userId, TxnFilter filter, Collection<UUID> categoryIds, TxnCursor after, int limit,
+                         Consumer<Txn> consumer) {
+    MapSqlParameterSource params = new MapSqlParameterSource("userId", userId).addValue("limit", limit);
+    StringBuilder sql = new StringBuilder("SELECT ").append(TXN_COLUMNS)
+        .append(" FROM txn t WHERE t.user_id = :userId AND t.archived_at IS NULL");
+    appendFilter(sql, params, filter, categoryIds);
+    if (after != null) {
+      sql.append(" AND (t.occurred_at, t.id) < (:afterDate, :afterId)");
+      params.addValue("afterDate", Date.valueOf(after.occurredAt())).addValue("afterId", after.id());
+    }
+    sql.append(" ORDER BY t.occurred_at DESC, t.id DESC LIMIT :limit");
+    jdbc.query(sql.toString(), params, rs -> {
+      consumer.accept(mapTxn(rs));
+    });
+  }
+
+  // Candidates come from ix_txn_search (prefix full-text, fuzzy and substring matches on note and
+  // counterparty) and ix_txn_search_refs (txns of categories / wallets whose name matched); only
+  // those rows are ranked. Must run inside a transaction so the driver fetches through a server-side cursor.
+  public void streamSearch(UUID userId, TxnSearchQuery query, TxnFilter filter, Collection<UUID> categoryIds,
+                           TxnSearchCursor after, int limit, Consumer<TxnSearchHit> consumer) {
+    MapSqlParameterSource params = new MapSqlParameterSource("userId", userId)
+        .addValue("q", query.text())
+        .addValue("tsq", query.tsQuery())
+        .addValue("like", query.likePattern())
+        .addValue("limit", limit);
+    StringBuilder sql = new StringBuilder("""
+        WITH q AS (SELECT to_tsquery('simple', :tsq) AS tsq),
+             cats AS (SELECT array_agg(id) AS ids FROM category
+                       WHERE user_id = :userId AND archived_at IS NULL AND (name ILIKE :like OR :q <% name)),
+             wals AS (SELECT array_agg(id) AS ids FROM wallet
+                       WHERE user_id = :userId AND archived_at IS NULL AND (name ILIKE :like OR :q <% name)),
+             hits AS (
+               SELECT t.id, t.occurred_at FROM txn t, q
+                WHERE t.user_id = :userId AND t.archived_at IS NULL AND t.search_vector @@ q.tsq
+               UNION
+               SELECT t.id, t.occurred_at FROM txn t
+                WHERE t.user_id = :userId AND t.archived_at IS NULL
+                  AND (:q <% t.search_text OR t.search_text ILIKE :like)
+               UNION
+               SELECT t.id, t.occurred_at FROM txn t, cats
+                WHERE t.user_id = :userId AND t.archived_at IS NULL AND t.category_id = ANY (cats.ids)
+               UNION
+               SELECT t.id, t.occurred_at FROM txn t, wals
+                WHERE t.user_id = :userId AND t.archived_at IS NULL
+                  AND (t.wallet_id = ANY (wals.ids) OR t.from_wallet_id = ANY (wals.ids)
+                       OR t.to_wallet_id = ANY (wals.ids))),
+             ranked AS (
+               SELECT """).append(TXN_COLUMNS).append("""
+                      , round((ts_rank(t.search_vector, q.tsq) + word_similarity(:q, t.search_text)
+                             + CASE WHEN t.category_id = ANY (cats.ids) THEN 0.3 ELSE 0 END
+                             + CASE WHEN t.wallet_id = ANY (wals.ids) OR t.from_wallet_id = ANY (wals.ids)
+                                         OR t.to_wallet_id = ANY (wals.ids) THEN 0.2 ELSE 0 END)::numeric, 6) AS rank
+                 FROM hits h
+                 JOIN txn t ON t.id = h.id AND t.occurred_at = h.occurred_at
+                CROSS JOIN q CROSS JOIN cats CROSS JOIN wals
+                WHERE t.user_id = :userId""");
+    appendFilter(sql, params, filter, categoryIds);
+    sql.append(") SELECT * FROM ranked t");
+    if (after != null) {
+      sql.append(" WHERE (t.rank, t.occurred_at, t.id) < (:afterRank, :afterDate, :afterId)");
+      params.addValue("afterRank", after.rank())
+          .addValue("afterDate", Date.valueOf(after.occurredAt()))
+          .addValue("afterId", after.id());
+    }
+    sql.append(" ORDER BY t.rank DESC, t.occurred_at DESC, t.id DESC LIMIT :limit");
+    jdbc.query(sql.toString(), params, rs -> {
+      consumer.accept(new TxnSearchHit(mapTxn(rs), rs.getBigDecimal("rank")));
+    });
+  }
+
+  // Flat export rows with wallet/category/currency names joined in, oldest first.
+  // Must run inside a transaction so the driver fetches through a server-side cursor.
+  public void streamExport(UUID userId, LocalDate from, LocalDate to, RowCallbackHandler handler) {
+    MapSqlParameterSource params = new MapSqlParameterSource("userId", userId);
+    StringBuilder sql = new StringBuilder("""
+        SELECT t.id, t.type, t.occurred_at, t.note, t.amount, t.currency_code,
+               t.from_amount, t.to_amount, t.from_currency_code, t.to_currency_code,
+               t.exchange_rate, t.external_wallet_name,
+               w.name AS wallet_name, fw.name AS from_wallet_name, tw.name AS to_wallet_name,
+               c.name AS category_name, cur.name AS currency_name
+          FROM txn t
+          LEFT JOIN wallet w ON w.id = t.wallet_id
+          LEFT JOIN wallet fw ON fw.id = t.from_wallet_id
+          LEFT JOIN wallet tw ON tw.id = t.to_wallet_id
+          LEFT JOIN category c ON c.id = t.category_id
+          LEFT JOIN currency cur ON cur.code = t.currency_code
+         WHERE t.user_id = :userId AND t.archived_at IS NULL""");
+    appendFilter(sql, params, new TxnFilter(null, null, null, from, to), null);
+    sql.append(" ORDER BY t.occurred_at, t.id");
+    jdbc.query(sql.toString(), params, handler);
+  }
+
+  static void appendFilter(StringBuilder sql, MapSqlParameterSource params, TxnFilter filter,
+                           Collection<UUID> categoryIds) {
+    if (filter.type() != null) {
+      sql.append(" AND t.type = CAST(:type AS txn_type_enum)");
+      params.addValue("type", filter.type().name());
+    }
+    if (filter.walletId() != null) {
+      sql.append(" AND (t.wallet_id = :walletId OR t.from_wallet_id = :walletId OR t.to_wallet_id = :walletId)");
+      params.addValue("walletId", filter.walletId());
+    }
+    if (categoryIds != null && !categoryIds.isEmpty()) {
+      // The driver binds String[] but not UUID[]
+      sql.append(" AND t.category_id = ANY (CAST(:categoryIds AS uuid[]))");
+      params.addValue("categoryIds", categoryIds.stream().map(UUID::toString).toArray(String[]::new));
+    } else if (filter.categoryId() != null) {
+      sql.append(" AND t.category_id = :categoryId");
+      params.addValue("categoryId", filter.categoryId());
+    }
+    if (filter.from() != null) {
+      sql.append(" AND t.occurred_at >= :from");
+      params.addValue("from", Date.valueOf(filter.from()));
+    }
+    if (filter.to() != null) {
+      sql.append(" AND t.occurred_at <= :to");
+      params.addValue("to", Date.valueOf(filter.to()));
+    }
+  }
+
+  static Txn mapTxn(ResultSet rs) throws SQLException {
+    Txn t = new Txn();
+    t.setId(rs.getObject("id", UUID.class));
+    t.setUserId(rs.getObject("user_id", UUID.class));
+    t.setType(TxnType.valueOf(rs.getString("type")));
+    t.setOccurredAt(rs.getDate("occurred_at").toLocalDate());
+    t.setNote(rs.getString("note"));
+    t.setWalletId(rs.getObject("wallet_id", UUID.class));
+    t.setCategoryId(rs.getObject("category_id", UUID.class));
+    t.setAmount(rs.getBigDecimal("amount"));
+    t.setCurrencyCode(rs.getString("currency_code"));
+    t.setFromWalletId(rs.getObject("from_wallet_id", UUID.class));
+    t.setToWalletId(rs.getObject("to_wallet_id", UUID.class));
+    t.setFromAmount(rs.getBigDecimal("from_amount"));
+    t.setToAmount(rs.getBigDecimal("to_amount"));
+    t.setFromCurrencyCode(rs.getString("from_currency_code"));
+    t.setToCurrencyCode(rs.getString("to_currency_code"));
+    t.setExchangeRate(rs.getBigDecimal("exchange_rate"));
+    t.setExternalWalletName(rs.getString("external_wallet_name"));
+    t.setVersion(rs.getObject("version", Long.class));
+    return t;
+  }
+}
@@ -0,0 +1,23 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.Txn;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TxnRepository extends UserOwnedRepository<Txn> {
+
+  // The by-id lookups with the partition key, so PostgreSQL probes one partition instead of all of them
+  Optional<Txn> findByIdAndUserIdAndOccurredAt(UUID id, UUID userId, LocalDate occurredAt);
+
+  @Query("""
+      select coalesce(e.version, 0) from Txn e
+       where e.id = :id and e.userId = :userId and e.occurredAt = :occurredAt""")
+  Optional<Long> findVersion(@Param("id") UUID id, @Param("userId") UUID userId,
+                             @Param("occurredAt") LocalDate occurredAt);
+}
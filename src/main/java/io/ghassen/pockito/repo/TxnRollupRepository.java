@@ -0,0 +1,205 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.TxnType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Monthly rollup tables: set-based upserts from txn writes, per-user rebuilds and the analytics reads
+@Repository
+@RequiredArgsConstructor
+public class TxnRollupRepository {
+
+  // Transactional advisory lock per user: txn writers share it, a rebuild of that user takes it exclusively
+  private static final String LOCK_KEY = "hashtext('txn_rollup'), hashtext(?::text)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public record CategoryDelta(UUID userId, LocalDate month, UUID categoryId, TxnType type, String currencyCode,
+                              BigDecimal amount, long count) {}
+
+  public record WalletDelta(UUID userId, LocalDate month, UUID walletId, TxnType type,
+                            BigDecimal inflow, BigDecimal outflow, long count) {}
+
+  public record CategoryRollup(LocalDate month, UUID categoryId, TxnType type, String currencyCode,
+                               BigDecimal amount, long count) {}
+
+  public record CategoryTotal(LocalDate month, UUID categoryId, UUID parentId, TxnType type, String currencyCode,
+                              BigDecimal amount, BigDecimal totalAmount, long count) {}
+
+  public record TypeTotal(LocalDate month, TxnType type, String currencyCode, BigDecimal amount, long count) {}
+
+  public record WalletFlow(LocalDate month, UUID walletId, TxnType type, String currencyCode,
+                           BigDecimal inflow, BigDecimal outflow, long count) {}
+
+  public void lockUserShared(UUID userId) {
+    jdbcTemplate.query("SELECT pg_advisory_xact_lock_shared(" + LOCK_KEY + ")", rs -> {}, userId);
+  }
+
+  public void lockUserExclusive(UUID userId) {
+    jdbcTemplate.query("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")", rs -> {}, userId);
+  }
+
+  // Rows must be unique per key and sorted, so concurrent writers lock rollup rows in the same order
+  public void addCategoryDeltas(List<CategoryDelta> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.update(con -> {
+      PreparedStatement ps = con.prepareStatement("""
+          INSERT INTO txn_month_category (user_id, month, category_id, type, currency_code, amount, txn_count)
+          SELECT r.user_id, r.month, r.category_id, r.type::txn_type_enum, r.currency_code, r.amount, r.txn_count
+            FROM unnest(?::uuid[], ?::date[], ?::uuid[], ?::text[], ?::text[], ?::numeric[], ?::bigint[])
+              AS r(user_id, month, category_id, type, currency_code, amount, txn_count)
+          ON CONFLICT (user_id, month, category_id, type, currency_code) DO UPDATE
+            SET amount = txn_month_category.amount + EXCLUDED.amount,
+                txn_count = txn_month_category.txn_count + EXCLUDED.txn_count
+          """);
+      int i = 1;
+      ps.setArray(i++, array(con, "uuid", rows, CategoryDelta::userId));
+      ps.setArray(i++, array(con, "date", rows, r -> Date.valueOf(r.month())));
+      ps.setArray(i++, array(con, "uuid", rows, CategoryDelta::categoryId));
+      ps.setArray(i++, array(con, "text", rows, r -> r.type().name()));
+      ps.setArray(i++, array(con, "text", rows, CategoryDelta::currencyCode));
+      ps.setArray(i++, array(con, "numeric", rows, CategoryDelta::amount));
+      ps.setArray(i, array(con, "int8", rows, CategoryDelta::count));
+      return ps;
+    });
+  }
+
+  // Amounts are in the wallet's currency, like the wallet balance ledger
+  public void addWalletDeltas(List<WalletDelta> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.update(con -> {
+      PreparedStatement ps = con.prepareStatement("""
+          INSERT INTO txn_month_wallet (user_id, month, wallet_id, type, currency_code, inflow, outflow, txn_count)
+          SELECT r.user_id, r.month, r.wallet_id, r.type::txn_type_enum, w.currency_code, r.inflow, r.outflow, r.txn_count
+            FROM unnest(?::uuid[], ?::date[], ?::uuid[], ?::text[], ?::numeric[], ?::numeric[], ?::bigint[])
+              AS r(user_id, month, wallet_id, type, inflow, outflow, txn_count)
+            JOIN wallet w ON w.id = r.wallet_id
+          ON CONFLICT (user_id, month, wallet_id, type, currency_code) DO UPDATE
+            SET inflow = txn_month_wallet.inflow + EXCLUDED.inflow,
+                outflow = txn_month_wallet.outflow + EXCLUDED.outflow,
+                txn_count = txn_month_wallet.txn_count + EXCLUDED.txn_count
+          """);
+      int i = 1;
+      ps.setArray(i++, array(con, "uuid", rows, WalletDelta::userId));
+      ps.setArray(i++, array(con, "date", rows, r -> Date.valueOf(r.month())));
+      ps.setArray(i++, array(con, "uuid", rows, WalletDelta::walletId));
+      ps.setArray(i++, array(con, "text", rows, r -> r.type().name()));
+      ps.setArray(i++, array(con, "numeric", rows, WalletDelta::inflow));
+      ps.setArray(i++, array(con, "numeric", rows, WalletDelta::outflow));
+      ps.setArray(i, array(con, "int8", rows, WalletDelta::count));
+      return ps;
+    });
+  }
+
+  // Call after lockUserExclusive, in the same transaction
+  public void rebuildUser(UUID userId) {
+    jdbcTemplate.update("DELETE FROM txn_month_category WHERE user_id = ?", userId);
+    jdbcTemplate.update("DELETE FROM txn_month_wallet WHERE user_id = ?", userId);
+    jdbcTemplate.update("""
+        INSERT INTO txn_month_category (user_id, month, category_id, type, currency_code, amount, txn_count)
+        SELECT user_id, date_trunc('month', occurred_at)::date, category_id, type, currency_code, SUM(amount), COUNT(*)
+          FROM txn
+         WHERE user_id = ? AND archived_at IS NULL AND category_id IS NOT NULL AND type IN ('EXPENSE','INCOME')
+         GROUP BY 1, 2, 3, 4, 5
+        """, userId);
+    jdbcTemplate.update("""
+        INSERT INTO txn_month_wallet (user_id, month, wallet_id, type, currency_code, inflow, outflow, txn_count)
+        SELECT l.user_id, date_trunc('month', l.occurred_at)::date, l.wallet_id, t.type, w.currency_code,
+               SUM(GREATEST(l.delta, 0)), SUM(GREATEST(-l.delta, 0)), COUNT(*)
+          FROM txn_wallet_leg l
+          JOIN txn t ON t.id = l.txn_id
+          JOIN wallet w ON w.id = l.wallet_id
+         WHERE l.user_id = ?
+         GROUP BY 1, 2, 3, 4, 5
+        """, userId);
+  }
+
+  public List<UUID> findUserIdsWithTxnsAfter(UUID after, int limit) {
+    return jdbcTemplate.queryForList("""
+        SELECT id FROM app_user u
+         WHERE id > ? AND EXISTS (SELECT 1 FROM txn t WHERE t.user_id = u.id)
+         ORDER BY id LIMIT ?
+        """, UUID.class, after, limit);
+  }
+
+  // Own amounts per category; subtree totals are added up against the cached category tree
+  public List<CategoryRollup> findCategoryRollups(UUID userId, LocalDate fromMonth, LocalDate toMonth, TxnType type) {
+    return jdbcTemplate.query("""
+        SELECT month, category_id, type, currency_code, amount, txn_count
+          FROM txn_month_category
+         WHERE user_id = ? AND month BETWEEN ? AND ? AND (?::text IS NULL OR type = ?::txn_type_enum)
+        """, (rs, n) -> new CategoryRollup(
+            rs.getDate("month").toLocalDate(),
+            rs.getObject("category_id", UUID.class),
+            TxnType.valueOf(rs.getString("type")),
+            rs.getString("currency_code"),
+            rs.getBigDecimal("amount"),
+            rs.getLong("txn_count")),
+        userId, Date.valueOf(fromMonth), Date.valueOf(toMonth), name(type), name(type));
+  }
+
+  // Income vs. expense per month; transfers move money between the user's own wallets and are left out
+  public List<TypeTotal> findTypeTotals(UUID userId, LocalDate fromMonth, LocalDate toMonth) {
+    return jdbcTemplate.query("""
+        SELECT month, type, currency_code,
+               SUM(CASE WHEN type = 'EXPENSE' THEN outflow - inflow ELSE inflow - outflow END) AS amount,
+               SUM(txn_count) AS txn_count
+          FROM txn_month_wallet
+         WHERE user_id = ? AND month BETWEEN ? AND ? AND type IN ('EXPENSE','INCOME')
+         GROUP BY month, type, currency_code
+         ORDER BY month, type, currency_code
+        """, (rs, n) -> new TypeTotal(
+            rs.getDate("month").toLocalDate(),
+            TxnType.valueOf(rs.getString("type")),
+            rs.getString("currency_code"),
+            rs.getBigDecimal("amount"),
+            rs.getLong("txn_count")),
+        userId, Date.valueOf(fromMonth), Date.valueOf(toMonth));
+  }
+
+  public List<WalletFlow> findWalletFlows(UUID userId, LocalDate fromMonth, LocalDate toMonth) {
+    return jdbcTemplate.query("""
+        SELECT month, wallet_id, type, currency_code, inflow, outflow, txn_count
+          FROM txn_month_wallet
+         WHERE user_id = ? AND month BETWEEN ? AND ?
+         ORDER BY month, wallet_id, type
+        """, (rs, n) -> new WalletFlow(
+            rs.getDate("month").toLocalDate(),
+            rs.getObject("wallet_id", UUID.class),
+            TxnType.valueOf(rs.getString("type")),
+            rs.getString("currency_code"),
+            rs.getBigDecimal("inflow"),
+            rs.getBigDecimal("outflow"),
+            rs.getLong("txn_count")),
+        userId, Date.valueOf(fromMonth), Date.valueOf(toMonth));
+  }
+
+  private static String name(TxnType type) {
+    return type != null ? type.name() : null;
+  }
+
+  private static <T> Array array(Connection con, String type, List<T> rows,
+                                 Function<T, Object> getter) throws SQLException {
+    Object[] values = new Object[rows.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = getter.apply(rows.get(i));
+    }
+    return con.createArrayOf(type, values);
+  }
+}
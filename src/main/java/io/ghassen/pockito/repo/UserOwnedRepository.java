@@ -0,0 +1,26 @@
+package io.ghassen.pockito.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// Lookups shared by the entities a user owns. The version queries answer conditional requests without
+// loading any entity; a missing version means the row does not exist for this user (or is archived).
+@NoRepositoryBean
+public interface UserOwnedRepository<T> extends JpaRepository<T, UUID> {
+
+  Optional<T> findByIdAndUserId(UUID id, UUID userId);
+
+  @Query("select coalesce(e.version, 0) from #{#entityName} e where e.id = :id and e.userId = :userId")
+  Optional<Long> findVersion(@Param("id") UUID id, @Param("userId") UUID userId);
+
+  @Query("""
+      select count(e) as count, coalesce(sum(e.version), 0) as versionSum, max(e.updatedAt) as lastUpdatedAt
+        from #{#entityName} e
+       where e.userId = :userId""")
+  VersionStamp findVersionStamp(@Param("userId") UUID userId);
+}
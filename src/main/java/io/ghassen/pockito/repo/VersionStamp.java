@@ -0,0 +1,10 @@
+package io.ghassen.pockito.repo;
+
+import java.time.Instant;
+
+// Cheap fingerprint of a set of rows; any write bumps version, archiving also drops the count
+public interface VersionStamp {
+  Long getCount();
+  Long getVersionSum();
+  Instant getLastUpdatedAt();
+}
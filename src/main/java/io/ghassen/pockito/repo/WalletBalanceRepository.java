@@ -0,0 +1,145 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.WalletBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface WalletBalanceRepository extends JpaRepository<WalletBalance, UUID> {
+
+  // Row-locking upsert, concurrent writers to the same wallet serialize on the wallet_balance row
+  @Modifying
+  @Query(value = """
+      INSERT INTO wallet_balance (wallet_id, txn_total, txn_count, updated_at)
+      VALUES (:walletId, :delta, :countDelta, now())
+      ON CONFLICT (wallet_id) DO UPDATE
+        SET txn_total = wallet_balance.txn_total + EXCLUDED.txn_total,
+            txn_count = wallet_balance.txn_count + EXCLUDED.txn_count,
+            updated_at = now()
+      """, nativeQuery = true)
+  int addToTotal(@Param("walletId") UUID walletId, @Param("delta") BigDecimal delta,
+                 @Param("countDelta") long countDelta);
+
+  @Modifying
+  @Query(value = """
+      INSERT INTO wallet_balance_day (wallet_id, day, delta)
+      VALUES (:walletId, :day, :delta)
+      ON CONFLICT (wallet_id, day) DO UPDATE
+        SET delta = wallet_balance_day.delta + EXCLUDED.delta
+      """, nativeQuery = true)
+  int addToDay(@Param("walletId") UUID walletId, @Param("day") LocalDate day,
+               @Param("delta") BigDecimal delta);
+
+  @Modifying
+  @Query(value = """
+      INSERT INTO wallet_balance_month (wallet_id, month, delta)
+      VALUES (:walletId, :month, :delta)
+      ON CONFLICT (wallet_id, month) DO UPDATE
+        SET delta = wallet_balance_month.delta + EXCLUDED.delta
+      """, nativeQuery = true)
+  int addToMonth(@Param("walletId") UUID walletId, @Param("month") LocalDate month,
+                 @Param("delta") BigDecimal delta);
+
+  @Query(value = """
+      SELECT w.initial_balance + COALESCE(b.txn_total, 0)
+        FROM wallet w
+        LEFT JOIN wallet_balance b ON b.wallet_id = w.id
+       WHERE w.id = :walletId AND w.user_id = :userId AND w.archived_at IS NULL
+      """, nativeQuery = true)
+  Optional<BigDecimal> findCurrentBalance(@Param("walletId") UUID walletId, @Param("userId") UUID userId);
+
+  // Walks back from the current total: whole months after asOf from the monthly checkpoints, then the
+  // rest of asOf's own month from the daily ones. Bounded by months elapsed plus 31 day rows.
+  @Query(value = """
+      SELECT w.initial_balance + COALESCE(b.txn_total, 0)
+             - COALESCE((SELECT SUM(m.delta) FROM wallet_balance_month m
+                          WHERE m.wallet_id = w.id
+                            AND m.month > CAST(date_trunc('month', CAST(:asOf AS timestamp)) AS date)), 0)
+             - COALESCE((SELECT SUM(d.delta) FROM wallet_balance_day d
+                          WHERE d.wallet_id = w.id AND d.day > :asOf
+                            AND d.day < CAST(date_trunc('month', CAST(:asOf AS timestamp))
+                                             + interval '1 month' AS date)), 0)
+        FROM wallet w
+        LEFT JOIN wallet_balance b ON b.wallet_id = w.id
+       WHERE w.id = :walletId AND w.user_id = :userId AND w.archived_at IS NULL
+      """, nativeQuery = true)
+  Optional<BigDecimal> findBalanceAsOf(@Param("walletId") UUID walletId, @Param("userId") UUID userId,
+                                       @Param("asOf") LocalDate asOf);
+
+  @Query(value = """
+      SELECT w.id AS walletId, w.initial_balance + COALESCE(b.txn_total, 0) AS balance
+        FROM wallet w
+        LEFT JOIN wallet_balance b ON b.wallet_id = w.id
+       WHERE w.user_id = :userId AND w.archived_at IS NULL
+      """, nativeQuery = true)
+  List<WalletBalanceView> findCurrentBalances(@Param("userId") UUID userId);
+
+  @Query(value = """
+      SELECT COALESCE(b.wallet_id, l.wallet_id) AS walletId,
+             COALESCE(b.txn_total, 0) AS stored,
+             COALESCE(l.total, 0) AS expected
+        FROM wallet_balance b
+        FULL JOIN (SELECT wallet_id, SUM(delta) AS total FROM txn_wallet_leg GROUP BY wallet_id) l
+          ON l.wallet_id = b.wallet_id
+       WHERE COALESCE(b.txn_total, 0) <> COALESCE(l.total, 0)
+      """, nativeQuery = true)
+  List<BalanceDrift> findDrift();
+
+  @Modifying
+  @Query(value = "DELETE FROM wallet_balance_day WHERE wallet_id = :walletId", nativeQuery = true)
+  int deleteDays(@Param("walletId") UUID walletId);
+
+  @Modifying
+  @Query(value = "DELETE FROM wallet_balance_month WHERE wallet_id = :walletId", nativeQuery = true)
+  int deleteMonths(@Param("walletId") UUID walletId);
+
+  @Modifying
+  @Query(value = """
+      INSERT INTO wallet_balance_month (wallet_id, month, delta)
+      SELECT wallet_id, date_trunc('month', occurred_at)::date, SUM(delta) FROM txn_wallet_leg
+       WHERE wallet_id = :walletId
+       GROUP BY 1, 2
+      """, nativeQuery = true)
+  int rebuildMonths(@Param("walletId") UUID walletId);
+
+  @Modifying
+  @Query(value = """
+      INSERT INTO wallet_balance_day (wallet_id, day, delta)
+      SELECT wallet_id, occurred_at, SUM(delta) FROM txn_wallet_leg
+       WHERE wallet_id = :walletId
+       GROUP BY wallet_id, occurred_at
+      """, nativeQuery = true)
+  int rebuildDays(@Param("walletId") UUID walletId);
+
+  @Modifying
+  @Query(value = """
+      INSERT INTO wallet_balance (wallet_id, txn_total, txn_count, updated_at)
+      SELECT :walletId, COALESCE(SUM(delta), 0), COUNT(*), now() FROM txn_wallet_leg
+       WHERE wallet_id = :walletId
+      ON CONFLICT (wallet_id) DO UPDATE
+        SET txn_total = EXCLUDED.txn_total,
+            txn_count = EXCLUDED.txn_count,
+            updated_at = now()
+      """, nativeQuery = true)
+  int rebuildTotal(@Param("walletId") UUID walletId);
+
+  interface WalletBalanceView {
+    UUID getWalletId();
+    BigDecimal getBalance();
+  }
+
+  interface BalanceDrift {
+    UUID getWalletId();
+    BigDecimal getStored();
+    BigDecimal getExpected();
+  }
+}
@@ -0,0 +1,13 @@
+package io.ghassen.pockito.repo;
+
+import io.ghassen.pockito.domain.Wallet;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface WalletRepository extends UserOwnedRepository<Wallet> {
+
+  List<Wallet> findByUserId(UUID userId);
+}
@@ -0,0 +1,32 @@
+package io.ghassen.pockito.security;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+// Signature and claim validation run once per token; repeated calls with the same bearer token
+// return the Jwt validated the first time
+public class CachingJwtDecoder implements JwtDecoder {
+
+  private final JwtDecoder delegate;
+  private final JwtAuthCache cache;
+  private final Timer decodeTimer;
+
+  public CachingJwtDecoder(JwtDecoder delegate, JwtAuthCache cache, Timer decodeTimer) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.decodeTimer = decodeTimer;
+  }
+
+  @Override
+  public Jwt decode(String token) throws JwtException {
+    Jwt cached = cache.get(token);
+    if (cached != null) {
+      return cached;
+    }
+    Jwt jwt = decodeTimer.record(() -> delegate.decode(token));
+    cache.put(jwt);
+    return jwt;
+  }
+}
@@ -0,0 +1,26 @@
+package io.ghassen.pockito.security;
+
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// app_user.id is the Keycloak subject
+public final class CurrentUser {
+  private CurrentUser(){}
+
+  public static UUID id() {
+    return find().orElseThrow(() -> new AuthenticationCredentialsNotFoundException("No authenticated user"));
+  }
+
+  public static Optional<UUID> find() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth instanceof JwtAuthenticationToken token && auth.isAuthenticated()) {
+      return Optional.of(UUID.fromString(token.getToken().getSubject()));
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,113 @@
+package io.ghassen.pockito.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Validated tokens and their authorities, keyed by the token's SHA-256 digest (so a heap dump or a
+// log of the map holds no usable bearer token) and held until the token's exp.
+// Bounded: once full, new tokens are decoded normally but not cached until the sweep frees room.
+@Component
+public class JwtAuthCache {
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final int maxEntries;
+  private final Duration maxTtl;
+  private final Counter hits;
+  private final Counter misses;
+
+  public JwtAuthCache(@Value("${pockito.security.token-cache.max-entries:10000}") int maxEntries,
+                      @Value("${pockito.security.token-cache.max-ttl:10m}") Duration maxTtl,
+                      MeterRegistry registry) {
+    this.maxEntries = maxEntries;
+    this.maxTtl = maxTtl;
+    this.hits = Counter.builder("pockito.cache.requests").tag("cache", "jwt").tag("result", "hit").register(registry);
+    this.misses = Counter.builder("pockito.cache.requests").tag("cache", "jwt").tag("result", "miss").register(registry);
+    Gauge.builder("pockito.cache.size", entries, Map::size).tag("cache", "jwt").register(registry);
+  }
+
+  public Jwt get(String token) {
+    String key = key(token);
+    Entry e = entries.get(key);
+    if (e != null && e.expiresAtMillis > System.currentTimeMillis()) {
+      hits.increment();
+      return e.jwt;
+    }
+    if (e != null) {
+      entries.remove(key, e);
+    }
+    misses.increment();
+    return null;
+  }
+
+  // Validity never exceeds exp, nor max-ttl so a node does not hold long-lived tokens forever
+  public void put(Jwt jwt) {
+    if (entries.size() >= maxEntries) {
+      return;
+    }
+    long cap = System.currentTimeMillis() + maxTtl.toMillis();
+    Instant exp = jwt.getExpiresAt();
+    long expiresAt = exp != null ? Math.min(exp.toEpochMilli(), cap) : cap;
+    entries.put(key(jwt.getTokenValue()), new Entry(jwt, expiresAt));
+  }
+
+  // Computed once per cached token; tokens that are not cached are converted every time
+  public Collection<GrantedAuthority> authorities(Jwt jwt, Function<Jwt, Collection<GrantedAuthority>> converter) {
+    Entry e = entries.get(key(jwt.getTokenValue()));
+    if (e == null || e.jwt != jwt) {
+      return converter.apply(jwt);
+    }
+    Collection<GrantedAuthority> authorities = e.authorities;
+    if (authorities == null) {
+      authorities = converter.apply(jwt);
+      e.authorities = authorities;
+    }
+    return authorities;
+  }
+
+  @Scheduled(fixedDelayString = "${pockito.security.token-cache.sweep-interval:1m}")
+  public void evictExpired() {
+    long now = System.currentTimeMillis();
+    entries.values().removeIf(e -> e.expiresAtMillis <= now);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  static String key(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static final class Entry {
+    private final Jwt jwt;
+    private final long expiresAtMillis;
+    private volatile Collection<GrantedAuthority> authorities;
+
+    Entry(Jwt jwt, long expiresAtMillis) {
+      this.jwt = jwt;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+}
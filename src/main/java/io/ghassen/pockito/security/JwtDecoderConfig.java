@@ -0,0 +1,113 @@
+package io.ghassen.pockito.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+// Replaces Boot's default decoder: the JWKS is fetched ahead of expiry by a background task, so a
+// request never waits on the identity provider, and validated tokens are cached (JwtAuthCache)
+@Configuration
+@Slf4j
+public class JwtDecoderConfig {
+
+  public record JwksSettings(Duration ttl, Duration refreshTimeout, Duration refreshAhead,
+                             Duration rateLimit, Duration outageTolerance) {}
+
+  @Bean
+  public JWKSource<SecurityContext> jwkSource(
+      @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+      @Value("${pockito.security.jwks.ttl:15m}") Duration ttl,
+      @Value("${pockito.security.jwks.refresh-timeout:15s}") Duration refreshTimeout,
+      @Value("${pockito.security.jwks.refresh-ahead:1m}") Duration refreshAhead,
+      @Value("${pockito.security.jwks.rate-limit:30s}") Duration rateLimit,
+      @Value("${pockito.security.jwks.outage-tolerance:1h}") Duration outageTolerance,
+      MeterRegistry registry) throws MalformedURLException {
+    return jwkSource(URI.create(jwkSetUri),
+        new JwksSettings(ttl, refreshTimeout, refreshAhead, rateLimit, outageTolerance), registry);
+  }
+
+  @Bean
+  public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource,
+                               @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+                               JwtAuthCache cache, MeterRegistry registry) {
+    return decoder(jwkSource, issuerUri, cache, registry);
+  }
+
+  // Loads the key set before the first request arrives; a failure is retried by the first decode
+  @Bean
+  public ApplicationListener<ApplicationReadyEvent> jwksPrefetch(JWKSource<SecurityContext> jwkSource) {
+    return event -> Thread.ofVirtual().name("jwks-prefetch").start(() -> {
+      try {
+        jwkSource.get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+      } catch (KeySourceException e) {
+        log.warn("JWKS prefetch failed: {}", e.getMessage());
+      }
+    });
+  }
+
+  public static JWKSource<SecurityContext> jwkSource(URI jwkSetUri, JwksSettings settings, MeterRegistry registry)
+      throws MalformedURLException {
+    return JWKSourceBuilder.<SecurityContext>create(jwkSetUri.toURL())
+        .cache(settings.ttl().toMillis(), settings.refreshTimeout().toMillis())
+        .refreshAheadCache(settings.refreshAhead().toMillis(), true)
+        .rateLimited(settings.rateLimit().toMillis())
+        .retrying(true)
+        .outageTolerant(settings.outageTolerance().toMillis())
+        .healthReporting(report -> registry.counter("pockito.security.jwks.fetch",
+            "status", report.getHealthStatus().name()).increment())
+        .build();
+  }
+
+  public static JwtDecoder decoder(JWKSource<SecurityContext> jwkSource, String issuerUri, JwtAuthCache cache,
+                                   MeterRegistry registry) {
+    DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+    processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+    // Claims are checked by Spring's validators below
+    processor.setJWTClaimsSetVerifier((claims, context) -> {});
+    NimbusJwtDecoder nimbus = new NimbusJwtDecoder(processor);
+    // app_user.id is the subject, so a non-UUID subject is an invalid token (401) rather than a failure later
+    nimbus.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefaultWithIssuer(issuerUri),
+        new JwtClaimValidator<String>(JwtClaimNames.SUB, JwtDecoderConfig::isUuid)));
+    Timer decodeTimer = Timer.builder("pockito.security.jwt.decode")
+        .description("Signature and claim validation of tokens not found in the cache")
+        .register(registry);
+    return new CachingJwtDecoder(nimbus, cache, decodeTimer);
+  }
+
+  static boolean isUuid(String value) {
+    if (value == null) {
+      return false;
+    }
+    try {
+      UUID.fromString(value);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+}
@@ -5,20 +5,33 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class KeycloakRealmRoleConverter {
   private KeycloakRealmRoleConverter(){}
 
+  // Realm roles are a small closed set: one shared authority instance per raw role name
+  private static final Map<String, GrantedAuthority> INTERNED = new ConcurrentHashMap<>();
+
   @SuppressWarnings("unchecked")
   public static Collection<GrantedAuthority> from(Jwt jwt) {
     Map<String, Object> realmAccess = (Map<String, Object>) jwt.getClaims()
         .getOrDefault("realm_access", Map.of());
     Collection<String> roles = (Collection<String>) realmAccess
         .getOrDefault("roles", List.of());
-    List<GrantedAuthority> authorities = new ArrayList<>();
+    if (roles.isEmpty()) {
+      return List.of();
+    }
+    GrantedAuthority[] authorities = new GrantedAuthority[roles.size()];
+    int i = 0;
     for (String r : roles) {
-      authorities.add(new SimpleGrantedAuthority("ROLE_" + r.toUpperCase(Locale.ROOT)));
+      authorities[i++] = authority(r);
     }
-    return authorities;
+    return List.of(authorities);
+  }
+
+  static GrantedAuthority authority(String role) {
+    return INTERNED.computeIfAbsent(role,
+        r -> new SimpleGrantedAuthority("ROLE_" + r.toUpperCase(Locale.ROOT)));
   }
 }
@@ -1,13 +1,21 @@
 package io.ghassen.pockito.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 @Configuration
@@ -15,27 +23,40 @@ import org.springframework.web.cors.CorsConfigurationSource;
 public class SecurityConfig {
 
   @Bean
-  SecurityFilterChain filterChain(HttpSecurity http, CorsConfigurationSource corsConfigurationSource) throws Exception {
+  SecurityFilterChain filterChain(HttpSecurity http, CorsConfigurationSource corsConfigurationSource,
+                                  Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter,
+                                  UserProvisioner userProvisioner,
+                                  @Value("${management.server.port:-1}") int managementPort) throws Exception {
     http
       .csrf(csrf -> csrf.disable())
       .cors(cors -> cors.configurationSource(corsConfigurationSource))
       .authorizeHttpRequests(auth -> auth
         .requestMatchers("/actuator/health", "/v3/api-docs/**", "/swagger-ui/**").permitAll()
+        // Scrapes are anonymous only on the management port, which is not routed publicly (prod)
+        .requestMatchers(new AndRequestMatcher(onPort(managementPort),
+            PathPatternRequestMatcher.withDefaults().matcher("/actuator/prometheus"))).permitAll()
         .requestMatchers(HttpMethod.GET, "/api/public/**").permitAll()
         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll() // Allow OPTIONS for CORS preflight
         .anyRequest().authenticated()
       )
       .oauth2ResourceServer(oauth2 -> oauth2
-        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()))
-      );
+        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter))
+      )
+      .addFilterAfter(new UserProvisioningFilter(userProvisioner), BearerTokenAuthenticationFilter.class);
     return http.build();
   }
 
+  // Matches nothing when management shares the application port
+  private static RequestMatcher onPort(int port) {
+    return request -> port > 0 && request.getLocalPort() == port;
+  }
+
+  // Authorities of a cached token are converted once; the authentication itself is per request
+  // because the provider attaches request details to it
   @Bean
-  JwtAuthenticationConverter jwtAuthenticationConverter() {
-    var converter = new JwtAuthenticationConverter();
-    converter.setJwtGrantedAuthoritiesConverter(jwt -> KeycloakRealmRoleConverter.from(jwt));
-    return converter;
+  Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter(JwtAuthCache cache) {
+    return jwt -> new JwtAuthenticationToken(jwt, cache.authorities(jwt, KeycloakRealmRoleConverter::from),
+        jwt.getSubject());
   }
 
 }
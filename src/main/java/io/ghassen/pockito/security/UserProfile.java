@@ -0,0 +1,29 @@
+package io.ghassen.pockito.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.UUID;
+
+// The app_user fields taken from token claims
+public record UserProfile(UUID id, String email, String displayName, String locale, String timezone) {
+
+  public static UserProfile of(Jwt jwt) {
+    String sub = jwt.getSubject();
+    String email = jwt.getClaimAsString("email");
+    String name = jwt.getClaimAsString("name");
+    if (name == null) {
+      name = jwt.getClaimAsString("preferred_username");
+    }
+    return new UserProfile(
+        UUID.fromString(sub),
+        // app_user.email is required; accounts without one get a unique non-routable address
+        email != null ? email : sub + "@users.invalid",
+        name,
+        truncate(jwt.getClaimAsString("locale"), 10),
+        truncate(jwt.getClaimAsString("zoneinfo"), 64));
+  }
+
+  private static String truncate(String value, int max) {
+    return value != null && value.length() > max ? value.substring(0, max) : value;
+  }
+}
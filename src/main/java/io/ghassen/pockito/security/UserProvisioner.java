@@ -0,0 +1,103 @@
+package io.ghassen.pockito.security;
+
+import io.ghassen.pockito.repo.AppUserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Just-in-time app_user provisioning. Each node upserts a user once, and again only when the
+// profile claims change; concurrent first requests for a user share a single upsert.
+@Component
+@Slf4j
+public class UserProvisioner {
+
+  private final AppUserRepository appUserRepository;
+  private final Map<UUID, UserProfile> known = new ConcurrentHashMap<>();
+  private final Map<UUID, CompletableFuture<UserProfile>> inFlight = new ConcurrentHashMap<>();
+  private final int maxEntries;
+  private final Counter hits;
+  private final Counter misses;
+
+  public UserProvisioner(AppUserRepository appUserRepository,
+                         @Value("${pockito.security.provisioning.max-entries:100000}") int maxEntries,
+                         MeterRegistry registry) {
+    this.appUserRepository = appUserRepository;
+    this.maxEntries = maxEntries;
+    this.hits = Counter.builder("pockito.cache.requests").tag("cache", "app_user").tag("result", "hit").register(registry);
+    this.misses = Counter.builder("pockito.cache.requests").tag("cache", "app_user").tag("result", "miss").register(registry);
+    Gauge.builder("pockito.cache.size", known, Map::size).tag("cache", "app_user").register(registry);
+  }
+
+  public void ensure(UserProfile profile) {
+    if (profile.equals(known.get(profile.id()))) {
+      hits.increment();
+      return;
+    }
+    misses.increment();
+    CompletableFuture<UserProfile> mine = new CompletableFuture<>();
+    CompletableFuture<UserProfile> running = inFlight.putIfAbsent(profile.id(), mine);
+    if (running != null) {
+      UserProfile done = await(running);
+      // Another request provisioned a different version of the claims (a refreshed token): go again
+      if (!profile.equals(done)) {
+        ensure(profile);
+      }
+      return;
+    }
+    try {
+      upsert(profile);
+      if (known.size() >= maxEntries) {
+        // Forgetting users only costs a no-op upsert on their next request
+        known.clear();
+      }
+      known.put(profile.id(), profile);
+      inFlight.remove(profile.id(), mine);
+      mine.complete(profile);
+    } catch (RuntimeException e) {
+      inFlight.remove(profile.id(), mine);
+      mine.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private void upsert(UserProfile profile) {
+    try {
+      appUserRepository.upsertProfile(profile.id(), profile.email(), profile.displayName(), profile.locale(),
+          profile.timezone());
+    } catch (DataIntegrityViolationException e) {
+      // app_user.email is unique: another subject still holds this address
+      if (appUserRepository.releaseEmail(profile.id(), profile.email()) == 0) {
+        throw e;
+      }
+      log.info("Email of user {} was held by another subject, released it", profile.id());
+      appUserRepository.upsertProfile(profile.id(), profile.email(), profile.displayName(), profile.locale(),
+          profile.timezone());
+    }
+  }
+
+  // Forces the next request of this user to upsert again
+  public void forget(UUID userId) {
+    known.remove(userId);
+  }
+
+  private static UserProfile await(CompletableFuture<UserProfile> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package io.ghassen.pockito.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Runs after bearer token authentication; unauthenticated requests pass through untouched.
+// A failed upsert does not fail the request: an existing app_user row serves it, and the next request
+// of that user retries.
+@RequiredArgsConstructor
+@Slf4j
+public class UserProvisioningFilter extends OncePerRequestFilter {
+
+  private final UserProvisioner provisioner;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth instanceof JwtAuthenticationToken token && auth.isAuthenticated()) {
+      try {
+        provisioner.ensure(UserProfile.of(token.getToken()));
+      } catch (RuntimeException e) {
+        log.warn("Provisioning of user {} failed: {}", token.getToken().getSubject(), e.getMessage());
+      }
+    }
+    chain.doFilter(request, response);
+  }
+}
@@ -0,0 +1,231 @@
+package io.ghassen.pockito.service.activity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.ghassen.pockito.domain.ActivityAction;
+import io.ghassen.pockito.domain.EntityActivityEvent;
+import io.ghassen.pockito.repo.ActivityLogRepository;
+import io.ghassen.pockito.service.txn.TxnBatchCreatedEvent;
+import io.ghassen.pockito.service.txn.TxnSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind for activity_log: committed entity changes are queued in memory and a single
+// writer thread inserts them in multi-row batches, off the request transaction.
+@Component
+@Slf4j
+public class ActivityLogPipeline implements SmartLifecycle {
+
+  private final ActivityLogRepository activityLogRepository;
+  private final ObjectMapper objectMapper;
+  private final BlockingQueue<ActivityRecord> queue;
+  private final int batchSize;
+  private final Duration flushInterval;
+  private final Duration shutdownTimeout;
+  private final Duration offerTimeout;
+  private final OverflowPolicy overflowPolicy;
+  private final Timer flushTimer;
+  private final Counter written;
+  private final Counter droppedOverflow;
+  private final Counter droppedError;
+  private final Counter droppedStopped;
+  private volatile boolean running;
+  private Thread writer;
+
+  public ActivityLogPipeline(ActivityLogRepository activityLogRepository, ObjectMapper objectMapper,
+                             MeterRegistry registry,
+                             @Value("${pockito.activity.queue-capacity:10000}") int queueCapacity,
+                             @Value("${pockito.activity.batch-size:500}") int batchSize,
+                             @Value("${pockito.activity.flush-interval:1s}") Duration flushInterval,
+                             @Value("${pockito.activity.shutdown-timeout:10s}") Duration shutdownTimeout,
+                             @Value("${pockito.activity.offer-timeout:50ms}") Duration offerTimeout,
+                             @Value("${pockito.activity.overflow:DROP_OLDEST}") OverflowPolicy overflowPolicy) {
+    this.activityLogRepository = activityLogRepository;
+    this.objectMapper = objectMapper;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.batchSize = batchSize;
+    this.flushInterval = flushInterval;
+    this.shutdownTimeout = shutdownTimeout;
+    this.offerTimeout = offerTimeout;
+    this.overflowPolicy = overflowPolicy;
+    Gauge.builder("pockito.activity.queue.depth", queue, BlockingQueue::size)
+        .description("Activity records waiting to be written")
+        .register(registry);
+    this.flushTimer = Timer.builder("pockito.activity.flush")
+        .description("Latency of one activity_log batch insert")
+        .register(registry);
+    this.written = records(registry, "written");
+    this.droppedOverflow = records(registry, "dropped_overflow");
+    this.droppedError = records(registry, "dropped_error");
+    this.droppedStopped = records(registry, "dropped_stopped");
+  }
+
+  private static Counter records(MeterRegistry registry, String result) {
+    return Counter.builder("pockito.activity.records").tag("result", result).register(registry);
+  }
+
+  // After commit only: rolled back writes never show up in the activity log
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityActivity(EntityActivityEvent event) {
+    Map<String, Object> payload = new LinkedHashMap<>();
+    if (event.version() != null) {
+      payload.put("version", event.version());
+    }
+    if (event.actor() != null) {
+      payload.put("actor", event.actor());
+    }
+    enqueue(new ActivityRecord(event.userId(), event.entityType(), event.entityId(), event.action(),
+        json(payload), event.at()));
+  }
+
+  // Bulk txn writes bypass the JPA lifecycle
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTxnBatchCreated(TxnBatchCreatedEvent event) {
+    Instant now = Instant.now();
+    for (TxnSnapshot txn : event.created()) {
+      enqueue(new ActivityRecord(txn.userId(), "Txn", txn.id(), ActivityAction.CREATE,
+          json(Map.of("batch", true)), now));
+    }
+  }
+
+  public void enqueue(ActivityRecord record) {
+    if (!running) {
+      droppedStopped.increment();
+      return;
+    }
+    boolean accepted = switch (overflowPolicy) {
+      case DROP_NEWEST -> queue.offer(record);
+      case DROP_OLDEST -> {
+        while (!queue.offer(record)) {
+          if (queue.poll() != null) {
+            droppedOverflow.increment();
+          }
+        }
+        yield true;
+      }
+      case BLOCK -> {
+        try {
+          yield queue.offer(record, offerTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          yield false;
+        }
+      }
+    };
+    if (!accepted) {
+      droppedOverflow.increment();
+    }
+  }
+
+  public int queueDepth() {
+    return queue.size();
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    writer = Thread.ofPlatform().name("activity-writer").daemon(true).start(this::drainLoop);
+  }
+
+  // Stops accepting records, then gives the writer up to shutdown-timeout to flush what is queued
+  @Override
+  public void stop() {
+    running = false;
+    try {
+      writer.join(shutdownTimeout.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!queue.isEmpty()) {
+      log.warn("Activity log shutdown timed out, {} records lost", queue.size());
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // Stops after the web server has finished in-flight requests, whose activity is still queued
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  private void drainLoop() {
+    List<ActivityRecord> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        fill(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        queue.drainTo(batch);
+        flush(batch);
+        return;
+      }
+      flush(batch);
+    }
+  }
+
+  // Waits for the first record, then until the batch is full or the flush interval has passed
+  private void fill(List<ActivityRecord> batch) throws InterruptedException {
+    ActivityRecord first = queue.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+    if (first == null) {
+      return;
+    }
+    batch.add(first);
+    long deadline = System.nanoTime() + flushInterval.toNanos();
+    while (batch.size() < batchSize) {
+      queue.drainTo(batch, batchSize - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= batchSize || remaining <= 0 || !running) {
+        return;
+      }
+      ActivityRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  private void flush(List<ActivityRecord> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      flushTimer.record(() -> activityLogRepository.insertBatch(batch));
+      written.increment(batch.size());
+    } catch (RuntimeException e) {
+      droppedError.increment(batch.size());
+      log.warn("Failed to write {} activity records", batch.size(), e);
+    } finally {
+      batch.clear();
+    }
+  }
+
+  private String json(Map<String, Object> payload) {
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package io.ghassen.pockito.service.activity;
+
+import io.ghassen.pockito.domain.ActivityAction;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// One pending activity_log row; payload is serialized JSON
+public record ActivityRecord(
+    UUID userId,
+    String entityType,
+    UUID entityId,
+    ActivityAction action,
+    String payload,
+    Instant createdAt) {
+}
@@ -0,0 +1,11 @@
+package io.ghassen.pockito.service.activity;
+
+// What enqueueing does when the activity queue is full
+public enum OverflowPolicy {
+  // Discard the new record, the request never waits
+  DROP_NEWEST,
+  // Evict the oldest queued record to make room
+  DROP_OLDEST,
+  // Wait up to pockito.activity.offer-timeout, then discard the new record
+  BLOCK
+}
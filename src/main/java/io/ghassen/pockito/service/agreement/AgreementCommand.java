@@ -0,0 +1,21 @@
+package io.ghassen.pockito.service.agreement;
+
+import io.ghassen.pockito.domain.AgreementType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record AgreementCommand(
+    @NotBlank String personName,
+    @NotNull AgreementType type,
+    @NotNull @Positive BigDecimal principalAmount,
+    @NotNull @Size(min = 3, max = 3) String currencyCode,
+    UUID walletId,
+    LocalDate startDate,
+    String note) {
+}
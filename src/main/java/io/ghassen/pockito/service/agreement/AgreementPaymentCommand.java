@@ -0,0 +1,20 @@
+package io.ghassen.pockito.service.agreement;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+// exchangeRate converts the payment currency into the agreement's; when omitted for a foreign-currency
+// payment, the rate in effect at paidAt is used
+public record AgreementPaymentCommand(
+    @NotNull @Positive BigDecimal amount,
+    @Size(min = 3, max = 3) String currencyCode,
+    @Positive BigDecimal exchangeRate,
+    Instant paidAt,
+    UUID txnId,
+    String note) {
+}
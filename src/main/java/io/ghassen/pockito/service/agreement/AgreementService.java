@@ -0,0 +1,135 @@
+package io.ghassen.pockito.service.agreement;
+
+import io.ghassen.pockito.domain.Agreement;
+import io.ghassen.pockito.domain.AgreementPayment;
+import io.ghassen.pockito.domain.AgreementStatus;
+import io.ghassen.pockito.domain.Money;
+import io.ghassen.pockito.repo.AgreementPaymentRepository;
+import io.ghassen.pockito.repo.AgreementRepository;
+import io.ghassen.pockito.repo.AgreementRepository.OutstandingTotal;
+import io.ghassen.pockito.repo.TxnRepository;
+import io.ghassen.pockito.repo.WalletRepository;
+import io.ghassen.pockito.service.fx.ExchangeRateEngine;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+// Single write path for agreement payments: every payment and archive moves the agreement's cached
+// outstanding amount, and its status with it, in the same transaction
+@Service
+@RequiredArgsConstructor
+public class AgreementService {
+
+  // agreement_payment.exchange_rate; the settled amount is computed from the rate as stored
+  private static final int RATE_SCALE = 10;
+
+  private final AgreementRepository agreementRepository;
+  private final AgreementPaymentRepository paymentRepository;
+  private final WalletRepository walletRepository;
+  private final TxnRepository txnRepository;
+  private final ExchangeRateEngine exchangeRateEngine;
+  private final AuditorAware<String> auditorAware;
+
+  @Transactional
+  public Agreement create(UUID userId, AgreementCommand cmd) {
+    if (cmd.walletId() != null && walletRepository.findVersion(cmd.walletId(), userId).isEmpty()) {
+      throw new EntityNotFoundException("Wallet not found: " + cmd.walletId());
+    }
+    BigDecimal principal = cmd.principalAmount().setScale(Money.COLUMN_SCALE, RoundingMode.HALF_EVEN);
+    return agreementRepository.saveAndFlush(Agreement.builder()
+        .userId(userId)
+        .personName(cmd.personName().trim())
+        .type(cmd.type())
+        .principalAmount(principal)
+        .outstandingAmount(principal)
+        .currencyCode(cmd.currencyCode())
+        .walletId(cmd.walletId())
+        .startDate(cmd.startDate() != null ? cmd.startDate() : LocalDate.now())
+        .note(cmd.note())
+        .status(AgreementStatus.OPEN)
+        .build());
+  }
+
+  @Transactional(readOnly = true)
+  public List<AgreementPayment> payments(UUID userId, UUID agreementId) {
+    load(userId, agreementId);
+    return paymentRepository.findByAgreementIdOrderByPaidAtDesc(agreementId);
+  }
+
+  // Returns the agreement as the payment left it
+  @Transactional
+  public Agreement pay(UUID userId, UUID agreementId, AgreementPaymentCommand cmd) {
+    Agreement agreement = load(userId, agreementId);
+    if (cmd.txnId() != null && txnRepository.findVersion(cmd.txnId(), userId).isEmpty()) {
+      throw new EntityNotFoundException("Transaction not found: " + cmd.txnId());
+    }
+    // Rounded once, so the stored amount and the settled amount derive from the same value
+    BigDecimal amount = cmd.amount().setScale(Money.COLUMN_SCALE, RoundingMode.HALF_EVEN);
+    String currency = cmd.currencyCode() != null ? cmd.currencyCode() : agreement.getCurrencyCode();
+    Instant paidAt = cmd.paidAt() != null ? cmd.paidAt() : Instant.now();
+    BigDecimal rate = currency.equals(agreement.getCurrencyCode()) ? null
+        : (cmd.exchangeRate() != null ? cmd.exchangeRate() : rate(currency, agreement.getCurrencyCode(), paidAt))
+            .setScale(RATE_SCALE, RoundingMode.HALF_EVEN);
+    BigDecimal settled = (rate != null ? amount.multiply(rate) : amount)
+        .setScale(Money.COLUMN_SCALE, RoundingMode.HALF_EVEN);
+
+    paymentRepository.save(AgreementPayment.builder()
+        .agreementId(agreementId)
+        .txnId(cmd.txnId())
+        .amount(amount)
+        .currencyCode(currency)
+        .exchangeRate(rate)
+        .settledAmount(settled)
+        .paidAt(paidAt)
+        .note(cmd.note())
+        .build());
+    if (agreementRepository.settle(agreementId, settled) == 0) {
+      throw new IllegalArgumentException("Payment of " + settled + " " + agreement.getCurrencyCode()
+          + " exceeds the outstanding " + agreement.getOutstandingAmount());
+    }
+    return load(userId, agreementId);
+  }
+
+  // Gives back what the payment settled, at the rate it was recorded with
+  @Transactional
+  public Agreement archivePayment(UUID userId, UUID agreementId, UUID paymentId) {
+    load(userId, agreementId);
+    AgreementPayment payment = paymentRepository.findByIdAndAgreementId(paymentId, agreementId)
+        .orElseThrow(() -> new EntityNotFoundException("Payment not found: " + paymentId));
+    payment.setArchivedAt(Instant.now());
+    payment.setArchivedBy(auditorAware.getCurrentAuditor().orElse(null));
+    paymentRepository.save(payment);
+    if (payment.getSettledAmount() != null) {
+      agreementRepository.settle(agreementId, payment.getSettledAmount().negate());
+    }
+    return load(userId, agreementId);
+  }
+
+  @Transactional(readOnly = true)
+  public List<OutstandingTotal> outstandingTotals(UUID userId) {
+    return agreementRepository.findOutstandingTotals(userId);
+  }
+
+  private Agreement load(UUID userId, UUID id) {
+    return agreementRepository.findByIdAndUserId(id, userId)
+        .orElseThrow(() -> new EntityNotFoundException("Agreement not found: " + id));
+  }
+
+  private BigDecimal rate(String from, String to, Instant at) {
+    double r = exchangeRateEngine.rate(from, to, at);
+    if (Double.isNaN(r)) {
+      throw new IllegalArgumentException("No exchange rate " + from + "/" + to + " at " + at
+          + ", pass exchangeRate explicitly");
+    }
+    return BigDecimal.valueOf(r);
+  }
+}
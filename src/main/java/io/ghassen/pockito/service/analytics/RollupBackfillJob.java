@@ -0,0 +1,122 @@
+package io.ghassen.pockito.service.analytics;
+
+import io.ghassen.pockito.repo.TxnRollupRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Builds the monthly rollups from txn history, one transaction per user and users spread over the
+// rollup executor in chunks. Safe to run while txns are written: see TxnRollupRepository.lockUserExclusive.
+// The initial build is done by V16; this job repairs drift (POST /api/analytics/rollups/rebuild, or
+// pockito.rollup.backfill-on-startup).
+@Component
+@Slf4j
+public class RollupBackfillJob {
+
+  // PostgreSQL orders uuid bytewise (unsigned), so the all-zero id sorts first; Java's signed UUID order
+  // does not apply to the id > ? cursor
+  private static final UUID MIN_ID = new UUID(0, 0);
+
+  private final TxnRollupRepository rollupRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ThreadPoolTaskExecutor executor;
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final MeterRegistry registry;
+
+  @Value("${pockito.rollup.backfill-on-startup:false}")
+  private boolean backfillOnStartup;
+
+  @Value("${pockito.rollup.backfill-chunk-size:100}")
+  private int chunkSize;
+
+  public RollupBackfillJob(TxnRollupRepository rollupRepository, TransactionTemplate transactionTemplate,
+                           @Qualifier("rollupTaskExecutor") ThreadPoolTaskExecutor executor,
+                           MeterRegistry registry) {
+    this.rollupRepository = rollupRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.executor = executor;
+    this.registry = registry;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    if (backfillOnStartup) {
+      start();
+    }
+  }
+
+  // Returns false when a backfill is already running on this node
+  public boolean start() {
+    if (!running.compareAndSet(false, true)) {
+      return false;
+    }
+    // The coordinator stays off the executor so it never waits on chunks queued behind itself
+    Thread.ofPlatform().name("rollup-backfill").start(() -> {
+      long started = System.nanoTime();
+      String exception = "none";
+      try {
+        run();
+      } catch (RuntimeException e) {
+        exception = e.getClass().getSimpleName();
+        log.error("Rollup backfill failed", e);
+      } finally {
+        running.set(false);
+        // Same name and tag keys as the @Timed jobs, which go through the proxy
+        Timer.builder("pockito.job")
+            .tags("job", "rollup-backfill", "class", RollupBackfillJob.class.getName(), "method", "run",
+                "exception", exception)
+            .register(registry)
+            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+      }
+    });
+    return true;
+  }
+
+  public boolean isRunning() {
+    return running.get();
+  }
+
+  void run() {
+    long started = System.nanoTime();
+    AtomicInteger users = new AtomicInteger();
+    List<CompletableFuture<Void>> chunks = new ArrayList<>();
+    UUID after = MIN_ID;
+    List<UUID> ids;
+    do {
+      ids = rollupRepository.findUserIdsWithTxnsAfter(after, chunkSize);
+      if (ids.isEmpty()) {
+        break;
+      }
+      List<UUID> chunk = ids;
+      chunks.add(CompletableFuture.runAsync(() -> chunk.forEach(id -> {
+        rebuild(id);
+        users.incrementAndGet();
+      }), executor));
+      after = ids.get(ids.size() - 1);
+    } while (ids.size() == chunkSize);
+    CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+    log.info("Rollup backfill rebuilt {} users in {} ms", users.get(), (System.nanoTime() - started) / 1_000_000);
+  }
+
+  public void rebuild(UUID userId) {
+    transactionTemplate.executeWithoutResult(status -> {
+      rollupRepository.lockUserExclusive(userId);
+      rollupRepository.rebuildUser(userId);
+    });
+  }
+}
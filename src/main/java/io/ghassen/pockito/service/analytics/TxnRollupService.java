@@ -0,0 +1,180 @@
+package io.ghassen.pockito.service.analytics;
+
+import io.ghassen.pockito.domain.Money;
+import io.ghassen.pockito.domain.MoneySum;
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.repo.TxnRollupRepository;
+import io.ghassen.pockito.repo.TxnRollupRepository.CategoryDelta;
+import io.ghassen.pockito.repo.TxnRollupRepository.CategoryRollup;
+import io.ghassen.pockito.repo.TxnRollupRepository.CategoryTotal;
+import io.ghassen.pockito.repo.TxnRollupRepository.TypeTotal;
+import io.ghassen.pockito.repo.TxnRollupRepository.WalletDelta;
+import io.ghassen.pockito.repo.TxnRollupRepository.WalletFlow;
+import io.ghassen.pockito.service.category.CategoryHierarchy;
+import io.ghassen.pockito.service.category.CategoryTree;
+import io.ghassen.pockito.service.txn.TxnBatchCreatedEvent;
+import io.ghassen.pockito.service.txn.TxnChangedEvent;
+import io.ghassen.pockito.service.txn.TxnSnapshot;
+import io.ghassen.pockito.service.txn.TxnSnapshot.WalletLeg;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+// Keeps the monthly rollups in step with txn writes; dashboards read only the rollups
+@Service
+@RequiredArgsConstructor
+public class TxnRollupService {
+
+  private static final Comparator<CategoryKey> CATEGORY_ORDER = Comparator
+      .comparing(CategoryKey::userId).thenComparing(CategoryKey::month).thenComparing(CategoryKey::categoryId)
+      .thenComparing(CategoryKey::type).thenComparing(CategoryKey::currencyCode);
+  private static final Comparator<WalletKey> WALLET_ORDER = Comparator
+      .comparing(WalletKey::userId).thenComparing(WalletKey::month).thenComparing(WalletKey::walletId)
+      .thenComparing(WalletKey::type);
+  // Postgres orders uuids bytewise, UUID.compareTo by signed halves; reports keep the database order
+  private static final Comparator<UUID> UUID_BYTES = Comparator
+      .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+      .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+  private static final Comparator<TotalKey> TOTAL_ORDER = Comparator
+      .comparing(TotalKey::month).thenComparing(TotalKey::categoryId, UUID_BYTES)
+      .thenComparing(TotalKey::type).thenComparing(TotalKey::currencyCode);
+
+  private final TxnRollupRepository rollupRepository;
+  private final CategoryHierarchy categoryHierarchy;
+
+  // Own amount per category plus the amount of its whole subtree: each rollup row is added to every
+  // category on its ancestor path
+  @Transactional(readOnly = true)
+  public List<CategoryTotal> categoryTotals(UUID userId, YearMonth from, YearMonth to, TxnType type) {
+    CategoryTree tree = categoryHierarchy.tree(userId);
+    Map<TotalKey, Total> totals = new TreeMap<>(TOTAL_ORDER);
+    for (CategoryRollup r : rollupRepository.findCategoryRollups(userId, from.atDay(1), to.atDay(1), type)) {
+      for (UUID categoryId : tree.ancestorsOrSelf(r.categoryId())) {
+        Total t = totals.computeIfAbsent(new TotalKey(r.month(), categoryId, r.type(), r.currencyCode()),
+            k -> new Total());
+        if (categoryId.equals(r.categoryId())) {
+          t.amount.add(r.amount());
+        }
+        t.total.add(r.amount());
+        t.count += r.count();
+      }
+    }
+    List<CategoryTotal> out = new ArrayList<>(totals.size());
+    totals.forEach((k, t) -> out.add(new CategoryTotal(k.month(), k.categoryId(), tree.parentOf(k.categoryId()),
+        k.type(), k.currencyCode(), t.amount.toBigDecimal(), t.total.toBigDecimal(), t.count)));
+    return out;
+  }
+
+  @Transactional(readOnly = true)
+  public List<TypeTotal> incomeVsExpense(UUID userId, YearMonth from, YearMonth to) {
+    return rollupRepository.findTypeTotals(userId, from.atDay(1), to.atDay(1));
+  }
+
+  @Transactional(readOnly = true)
+  public List<WalletFlow> walletFlows(UUID userId, YearMonth from, YearMonth to) {
+    return rollupRepository.findWalletFlows(userId, from.atDay(1), to.atDay(1));
+  }
+
+  @EventListener
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onTxnChanged(TxnChangedEvent event) {
+    Deltas deltas = new Deltas();
+    deltas.collect(event.before(), -1);
+    deltas.collect(event.after(), 1);
+    apply(deltas);
+  }
+
+  @EventListener
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onTxnBatchCreated(TxnBatchCreatedEvent event) {
+    Deltas deltas = new Deltas();
+    for (TxnSnapshot txn : event.created()) {
+      deltas.collect(txn, 1);
+    }
+    apply(deltas);
+  }
+
+  private void apply(Deltas deltas) {
+    if (deltas.users.isEmpty()) {
+      return;
+    }
+    // Waits while a backfill rebuilds one of these users, so its result cannot miss this write
+    for (UUID userId : deltas.users) {
+      rollupRepository.lockUserShared(userId);
+    }
+    List<CategoryDelta> categoryRows = new ArrayList<>(deltas.categories.size());
+    deltas.categories.forEach((k, d) -> {
+      if (d.amount.signum() != 0 || d.count != 0) {
+        categoryRows.add(new CategoryDelta(k.userId(), k.month(), k.categoryId(), k.type(), k.currencyCode(),
+            d.amount.toBigDecimal(), d.count));
+      }
+    });
+    List<WalletDelta> walletRows = new ArrayList<>(deltas.wallets.size());
+    deltas.wallets.forEach((k, d) -> {
+      if (d.inflow.signum() != 0 || d.outflow.signum() != 0 || d.count != 0) {
+        walletRows.add(new WalletDelta(k.userId(), k.month(), k.walletId(), k.type(),
+            d.inflow.toBigDecimal(), d.outflow.toBigDecimal(), d.count));
+      }
+    });
+    rollupRepository.addCategoryDeltas(categoryRows);
+    rollupRepository.addWalletDeltas(walletRows);
+  }
+
+  private record CategoryKey(UUID userId, LocalDate month, UUID categoryId, TxnType type, String currencyCode) {}
+
+  private record WalletKey(UUID userId, LocalDate month, UUID walletId, TxnType type) {}
+
+  private record TotalKey(LocalDate month, UUID categoryId, TxnType type, String currencyCode) {}
+
+  private static final class Total {
+    private final MoneySum amount = new MoneySum(Money.COLUMN_SCALE);
+    private final MoneySum total = new MoneySum(Money.COLUMN_SCALE);
+    private long count;
+  }
+
+  private static final class Acc {
+    private final MoneySum amount = new MoneySum(Money.COLUMN_SCALE);
+    private final MoneySum inflow = new MoneySum(Money.COLUMN_SCALE);
+    private final MoneySum outflow = new MoneySum(Money.COLUMN_SCALE);
+    private long count;
+  }
+
+  private static final class Deltas {
+    private final Set<UUID> users = new TreeSet<>();
+    private final Map<CategoryKey, Acc> categories = new TreeMap<>(CATEGORY_ORDER);
+    private final Map<WalletKey, Acc> wallets = new TreeMap<>(WALLET_ORDER);
+
+    void collect(TxnSnapshot txn, int sign) {
+      if (txn == null) {
+        return;
+      }
+      users.add(txn.userId());
+      LocalDate month = txn.occurredAt().withDayOfMonth(1);
+      if (txn.categoryId() != null && txn.type() != TxnType.TRANSFER) {
+        Acc acc = categories.computeIfAbsent(
+            new CategoryKey(txn.userId(), month, txn.categoryId(), txn.type(), txn.currencyCode()), k -> new Acc());
+        long minor = Money.minorUnits(txn.amount(), Money.COLUMN_SCALE);
+        acc.amount.accept(sign < 0 ? -minor : minor);
+        acc.count += sign;
+      }
+      for (WalletLeg leg : txn.walletLegs()) {
+        Acc acc = wallets.computeIfAbsent(new WalletKey(txn.userId(), month, leg.walletId(), txn.type()), k -> new Acc());
+        long minor = Money.minorUnits(leg.delta(), Money.COLUMN_SCALE);
+        long delta = sign < 0 ? -minor : minor;
+        // A reversed inflow shrinks inflow rather than adding to outflow, so the backfill reproduces the same rows
+        if (minor >= 0) {
+          acc.inflow.accept(delta);
+        } else {
+          acc.outflow.accept(-delta);
+        }
+        acc.count += sign;
+      }
+    }
+  }
+}
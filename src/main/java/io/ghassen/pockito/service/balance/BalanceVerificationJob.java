@@ -0,0 +1,62 @@
+package io.ghassen.pockito.service.balance;
+
+import io.ghassen.pockito.repo.WalletBalanceRepository;
+import io.ghassen.pockito.repo.WalletBalanceRepository.BalanceDrift;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+// Recomputes balances from txn and compares them with the ledger to detect drift
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceVerificationJob {
+
+  private final WalletBalanceRepository balanceRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${pockito.balance.repair-drift:true}")
+  private boolean repairDrift;
+
+  @Scheduled(cron = "${pockito.balance.verify-cron:0 30 3 * * *}")
+  @Timed(value = "pockito.job", extraTags = {"job", "balance-verification"})
+  public void run() {
+    List<BalanceDrift> drift = verify();
+    if (drift.isEmpty()) {
+      log.info("Wallet balance verification: no drift");
+      return;
+    }
+    for (BalanceDrift d : drift) {
+      log.warn("Wallet balance drift on {}: stored={} expected={}", d.getWalletId(), d.getStored(), d.getExpected());
+    }
+    if (repairDrift) {
+      drift.forEach(d -> rebuild(d.getWalletId()));
+      log.info("Rebuilt {} drifted wallet balances", drift.size());
+    }
+  }
+
+  public List<BalanceDrift> verify() {
+    return transactionTemplate.execute(status -> balanceRepository.findDrift());
+  }
+
+  public void rebuild(UUID walletId) {
+    transactionTemplate.executeWithoutResult(status -> {
+      // Locks the ledger row first, the order WalletBalanceService uses, so in-flight txn writes for this
+      // wallet queue behind the rebuild instead of deadlocking with it
+      balanceRepository.addToTotal(walletId, BigDecimal.ZERO, 0);
+      balanceRepository.deleteMonths(walletId);
+      balanceRepository.deleteDays(walletId);
+      balanceRepository.rebuildMonths(walletId);
+      balanceRepository.rebuildDays(walletId);
+      balanceRepository.rebuildTotal(walletId);
+    });
+  }
+}
@@ -0,0 +1,122 @@
+package io.ghassen.pockito.service.balance;
+
+import io.ghassen.pockito.domain.Money;
+import io.ghassen.pockito.domain.MoneySum;
+import io.ghassen.pockito.repo.WalletBalanceRepository;
+import io.ghassen.pockito.repo.WalletBalanceRepository.WalletBalanceView;
+import io.ghassen.pockito.service.txn.TxnBatchCreatedEvent;
+import io.ghassen.pockito.service.txn.TxnChangedEvent;
+import io.ghassen.pockito.service.txn.TxnSnapshot;
+import io.ghassen.pockito.service.txn.TxnSnapshot.WalletLeg;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class WalletBalanceService {
+
+  private final WalletBalanceRepository balanceRepository;
+
+  @Transactional(readOnly = true)
+  public BigDecimal currentBalance(UUID userId, UUID walletId) {
+    return balanceRepository.findCurrentBalance(walletId, userId)
+        .orElseThrow(() -> new EntityNotFoundException("Wallet not found: " + walletId));
+  }
+
+  @Transactional(readOnly = true)
+  public BigDecimal balanceAsOf(UUID userId, UUID walletId, LocalDate asOf) {
+    return balanceRepository.findBalanceAsOf(walletId, userId, asOf)
+        .orElseThrow(() -> new EntityNotFoundException("Wallet not found: " + walletId));
+  }
+
+  @Transactional(readOnly = true)
+  public List<WalletBalanceView> currentBalances(UUID userId) {
+    return balanceRepository.findCurrentBalances(userId);
+  }
+
+  // Runs in the txn writer's transaction: the txn row and its balance effect commit or roll back together
+  @EventListener
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onTxnChanged(TxnChangedEvent event) {
+    Map<WalletDay, Delta> deltas = new TreeMap<>();
+    collect(event.before(), -1, deltas);
+    collect(event.after(), 1, deltas);
+    applyDeltas(deltas);
+  }
+
+  @EventListener
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onTxnBatchCreated(TxnBatchCreatedEvent event) {
+    Map<WalletDay, Delta> deltas = new TreeMap<>();
+    for (TxnSnapshot txn : event.created()) {
+      collect(txn, 1, deltas);
+    }
+    applyDeltas(deltas);
+  }
+
+  private void collect(TxnSnapshot txn, int sign, Map<WalletDay, Delta> deltas) {
+    if (txn == null) {
+      return;
+    }
+    for (WalletLeg leg : txn.walletLegs()) {
+      deltas.computeIfAbsent(new WalletDay(leg.walletId(), leg.day()), k -> new Delta())
+          .add(leg.delta(), sign);
+    }
+  }
+
+  // Sorted by wallet so concurrent writers always lock wallet_balance rows in the same order.
+  // The wallet_balance row is locked before its month and day rows, the same order as BalanceVerificationJob.rebuild.
+  private void applyDeltas(Map<WalletDay, Delta> deltas) {
+    Map<UUID, Delta> totals = new TreeMap<>();
+    Map<WalletDay, Delta> months = new TreeMap<>();
+    deltas.forEach((key, d) -> {
+      totals.computeIfAbsent(key.walletId(), k -> new Delta()).add(d);
+      months.computeIfAbsent(new WalletDay(key.walletId(), key.day().withDayOfMonth(1)), k -> new Delta()).add(d);
+    });
+    // Taken even for a zero net change (a txn moved between days) because the day rows still change
+    totals.forEach((walletId, d) -> balanceRepository.addToTotal(walletId, d.amount.toBigDecimal(), d.count));
+    months.forEach((key, d) -> {
+      if (d.amount.signum() != 0) {
+        balanceRepository.addToMonth(key.walletId(), key.day(), d.amount.toBigDecimal());
+      }
+    });
+    deltas.forEach((key, d) -> {
+      if (d.amount.signum() != 0) {
+        balanceRepository.addToDay(key.walletId(), key.day(), d.amount.toBigDecimal());
+      }
+    });
+  }
+
+  private record WalletDay(UUID walletId, LocalDate day) implements Comparable<WalletDay> {
+    @Override
+    public int compareTo(WalletDay o) {
+      int c = walletId.compareTo(o.walletId);
+      return c != 0 ? c : day.compareTo(o.day);
+    }
+  }
+
+  // Legs are rounded to the column scale as stored, so the running total matches a rebuild from txn rows
+  private static final class Delta {
+    private final MoneySum amount = new MoneySum(Money.COLUMN_SCALE);
+    private long count;
+
+    void add(BigDecimal value, int sign) {
+      long minor = Money.minorUnits(value, Money.COLUMN_SCALE);
+      amount.accept(sign < 0 ? -minor : minor);
+      count += sign;
+    }
+
+    void add(Delta other) {
+      amount.combine(other.amount);
+      count += other.count;
+    }
+  }
+}
@@ -0,0 +1,209 @@
+package io.ghassen.pockito.service.budget;
+
+import io.ghassen.pockito.domain.MoneySum;
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.repo.BudgetConsumptionRepository;
+import io.ghassen.pockito.repo.BudgetConsumptionRepository.BudgetLink;
+import io.ghassen.pockito.service.category.CategoryHierarchy;
+import io.ghassen.pockito.service.category.CategoryTree;
+import io.ghassen.pockito.service.currency.CurrencyCache;
+import io.ghassen.pockito.service.fx.ExchangeRateEngine;
+import io.ghassen.pockito.service.txn.TxnBatchCreatedEvent;
+import io.ghassen.pockito.service.txn.TxnChangedEvent;
+import io.ghassen.pockito.service.txn.TxnSnapshot;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+
+// Keeps budget_consumption in step with txn writes so budget status is a single-row read
+@Service
+@Slf4j
+public class BudgetConsumptionService {
+
+  private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+  private final BudgetConsumptionRepository consumptionRepository;
+  private final ExchangeRateEngine exchangeRateEngine;
+  private final CurrencyCache currencyCache;
+  private final CategoryHierarchy categoryHierarchy;
+  private final ApplicationEventPublisher events;
+  private final int[] thresholds;
+
+  public BudgetConsumptionService(BudgetConsumptionRepository consumptionRepository,
+                                  ExchangeRateEngine exchangeRateEngine,
+                                  CurrencyCache currencyCache,
+                                  CategoryHierarchy categoryHierarchy,
+                                  ApplicationEventPublisher events,
+                                  @Value("${pockito.budget.thresholds:80,100}") int[] thresholds) {
+    this.consumptionRepository = consumptionRepository;
+    this.exchangeRateEngine = exchangeRateEngine;
+    this.currencyCache = currencyCache;
+    this.categoryHierarchy = categoryHierarchy;
+    this.events = events;
+    this.thresholds = thresholds.clone();
+    Arrays.sort(this.thresholds);
+  }
+
+  @Transactional(readOnly = true)
+  public List<BudgetStatus> statuses(UUID userId, LocalDate today) {
+    return consumptionRepository.findStatus(userId, null, today);
+  }
+
+  @Transactional(readOnly = true)
+  public BudgetStatus status(UUID userId, UUID budgetId, LocalDate today) {
+    return consumptionRepository.findStatus(userId, budgetId, today).stream().findFirst()
+        .orElseThrow(() -> new EntityNotFoundException("Budget not found: " + budgetId));
+  }
+
+  // Same transaction as the txn write, like the wallet balance ledger
+  @EventListener
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onTxnChanged(TxnChangedEvent event) {
+    List<Contribution> contributions = new ArrayList<>(2);
+    collect(event.before(), -1, contributions);
+    collect(event.after(), 1, contributions);
+    apply(contributions);
+  }
+
+  @EventListener
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onTxnBatchCreated(TxnBatchCreatedEvent event) {
+    List<Contribution> contributions = new ArrayList<>();
+    for (TxnSnapshot txn : event.created()) {
+      collect(txn, 1, contributions);
+    }
+    apply(contributions);
+  }
+
+  private static void collect(TxnSnapshot txn, int sign, List<Contribution> out) {
+    if (txn != null && txn.type() == TxnType.EXPENSE && txn.categoryId() != null) {
+      out.add(new Contribution(txn, sign));
+    }
+  }
+
+  private void apply(List<Contribution> contributions) {
+    if (contributions.isEmpty()) {
+      return;
+    }
+    // A budget on a category also covers its subcategories: each txn is matched along its ancestor path.
+    // Trees come in one batch so a billing or import run does not pay two queries per cold user.
+    Set<UUID> userIds = new HashSet<>();
+    contributions.forEach(c -> userIds.add(c.txn().userId()));
+    Map<UUID, CategoryTree> trees = categoryHierarchy.trees(userIds);
+    Map<UUID, List<UUID>> paths = new HashMap<>();
+    for (Contribution c : contributions) {
+      paths.computeIfAbsent(c.txn().categoryId(), id -> trees.get(c.txn().userId()).ancestorsOrSelf(id));
+    }
+    Set<UUID> categoryIds = new HashSet<>();
+    paths.values().forEach(categoryIds::addAll);
+    Map<UUID, List<BudgetLink>> linksByCategory = new HashMap<>();
+    for (BudgetLink link : consumptionRepository.findLinksByCategories(categoryIds)) {
+      linksByCategory.computeIfAbsent(link.categoryId(), k -> new ArrayList<>()).add(link);
+    }
+    if (linksByCategory.isEmpty()) {
+      return;
+    }
+
+    Map<BudgetPeriod, Delta> deltas = new TreeMap<>();
+    for (Contribution c : contributions) {
+      TxnSnapshot txn = c.txn();
+      Set<UUID> counted = new HashSet<>();
+      for (BudgetLink link : links(paths.get(txn.categoryId()), linksByCategory)) {
+        // Budgets listing both a category and its parent count the txn once
+        if (!link.userId().equals(txn.userId()) || !counted.add(link.budgetId())) {
+          continue;
+        }
+        BudgetPeriods.Period period = BudgetPeriods.periodOf(link.period(), link.startDate(), link.endDate(),
+            txn.occurredAt());
+        if (period == null) {
+          continue;
+        }
+        BigDecimal amount = toBudgetCurrency(txn, link.currencyCode());
+        if (amount == null) {
+          continue;
+        }
+        MoneySum sum = deltas.computeIfAbsent(new BudgetPeriod(link.budgetId(), period.start()),
+            k -> new Delta(link, period.end(), currencyCache.decimals(link.currencyCode()))).amount;
+        if (c.sign() < 0) {
+          sum.subtract(amount);
+        } else {
+          sum.add(amount);
+        }
+      }
+    }
+
+    // Sorted by budget so concurrent writers lock budget_consumption rows in the same order
+    deltas.forEach((key, d) -> {
+      if (d.amount.signum() == 0) {
+        return;
+      }
+      BigDecimal amount = d.amount.toBigDecimal();
+      BigDecimal spent = consumptionRepository.addSpent(key.budgetId(), key.periodStart(), d.periodEnd, amount);
+      publishCrossings(d.link, key.periodStart(), spent.subtract(amount), spent);
+    });
+  }
+
+  private static List<BudgetLink> links(List<UUID> path, Map<UUID, List<BudgetLink>> linksByCategory) {
+    List<BudgetLink> out = new ArrayList<>();
+    for (UUID categoryId : path) {
+      out.addAll(linksByCategory.getOrDefault(categoryId, List.of()));
+    }
+    return out;
+  }
+
+  private BigDecimal toBudgetCurrency(TxnSnapshot txn, String budgetCurrency) {
+    try {
+      return exchangeRateEngine.convert(txn.amount(), txn.currencyCode(), budgetCurrency,
+          txn.occurredAt().atStartOfDay(ZoneOffset.UTC).toInstant(), currencyCache.decimals(budgetCurrency));
+    } catch (IllegalArgumentException e) {
+      // The nightly recompute picks the txn up once the rate exists
+      log.warn("Budget consumption skipped for txn {}: {}", txn.id(), e.getMessage());
+      return null;
+    }
+  }
+
+  private void publishCrossings(BudgetLink link, LocalDate periodStart, BigDecimal before, BigDecimal after) {
+    if (link.limitAmount().signum() <= 0) {
+      return;
+    }
+    for (int percent : thresholds) {
+      BigDecimal mark = link.limitAmount().multiply(BigDecimal.valueOf(percent)).divide(HUNDRED);
+      if (before.compareTo(mark) < 0 && after.compareTo(mark) >= 0) {
+        events.publishEvent(new BudgetThresholdCrossedEvent(link.budgetId(), link.userId(), periodStart, percent,
+            after, link.limitAmount(), link.currencyCode()));
+      }
+    }
+  }
+
+  private record Contribution(TxnSnapshot txn, int sign) {}
+
+  private record BudgetPeriod(UUID budgetId, LocalDate periodStart) implements Comparable<BudgetPeriod> {
+    @Override
+    public int compareTo(BudgetPeriod o) {
+      int c = budgetId.compareTo(o.budgetId);
+      return c != 0 ? c : periodStart.compareTo(o.periodStart);
+    }
+  }
+
+  private static final class Delta {
+    private final BudgetLink link;
+    private final LocalDate periodEnd;
+    private final MoneySum amount;
+
+    Delta(BudgetLink link, LocalDate periodEnd, int scale) {
+      this.link = link;
+      this.periodEnd = periodEnd;
+      this.amount = new MoneySum(scale);
+    }
+  }
+}
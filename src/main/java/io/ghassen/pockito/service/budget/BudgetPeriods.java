@@ -0,0 +1,55 @@
+package io.ghassen.pockito.service.budget;
+
+import io.ghassen.pockito.domain.FreqType;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+// Budget periods are anchored on the budget's start_date. CUSTOM budgets are a single period
+// from start_date to end_date.
+public final class BudgetPeriods {
+  private BudgetPeriods(){}
+
+  // End of an open-ended CUSTOM budget; LocalDate.MAX is outside the range of a Postgres DATE
+  public static final LocalDate OPEN_END = LocalDate.of(9999, 12, 31);
+
+  public record Period(LocalDate start, LocalDate end) {}
+
+  // Period containing `date`, or null when the date is outside the budget's lifetime
+  public static Period periodOf(FreqType period, LocalDate startDate, LocalDate endDate, LocalDate date) {
+    if (date.isBefore(startDate) || (endDate != null && date.isAfter(endDate))) {
+      return null;
+    }
+    if (period == FreqType.CUSTOM) {
+      return new Period(startDate, endDate != null ? endDate : OPEN_END);
+    }
+    long k = switch (period) {
+      case WEEKLY -> ChronoUnit.WEEKS.between(startDate, date);
+      case MONTHLY -> ChronoUnit.MONTHS.between(startDate, date);
+      case QUARTERLY -> ChronoUnit.MONTHS.between(startDate, date) / 3;
+      default -> ChronoUnit.YEARS.between(startDate, date);
+    };
+    // Month arithmetic clamps to the month's last day (Jan 31 + 1 month = Feb 29), so the unit count
+    // can lag by one period
+    LocalDate next = boundary(period, startDate, k + 1);
+    if (!date.isBefore(next)) {
+      k++;
+      next = boundary(period, startDate, k + 1);
+    }
+    LocalDate start = boundary(period, startDate, k);
+    LocalDate end = next.minusDays(1);
+    if (endDate != null && end.isAfter(endDate)) {
+      end = endDate;
+    }
+    return new Period(start, end);
+  }
+
+  private static LocalDate boundary(FreqType period, LocalDate startDate, long k) {
+    return switch (period) {
+      case WEEKLY -> startDate.plusWeeks(k);
+      case MONTHLY -> startDate.plusMonths(k);
+      case QUARTERLY -> startDate.plusMonths(3 * k);
+      default -> startDate.plusYears(k);
+    };
+  }
+}
@@ -0,0 +1,122 @@
+package io.ghassen.pockito.service.budget;
+
+import io.ghassen.pockito.domain.Budget;
+import io.ghassen.pockito.domain.MoneySum;
+import io.ghassen.pockito.repo.BudgetConsumptionRepository;
+import io.ghassen.pockito.repo.BudgetConsumptionRepository.DailyExpense;
+import io.ghassen.pockito.repo.BudgetRepository;
+import io.ghassen.pockito.service.category.CategoryHierarchy;
+import io.ghassen.pockito.service.currency.CurrencyCache;
+import io.ghassen.pockito.service.fx.ExchangeRateEngine;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Rebuilds budget_consumption from txn. Covers budgets whose categories, period or currency changed
+// after the fact, and rates that arrived after the txn was written.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetRecomputeJob {
+
+  // PostgreSQL orders uuid bytewise (unsigned), so the all-zero id sorts first; Java's signed UUID order
+  // does not apply to the id > ? cursor
+  private static final UUID MIN_ID = new UUID(0, 0);
+
+  private final BudgetRepository budgetRepository;
+  private final BudgetConsumptionRepository consumptionRepository;
+  private final ExchangeRateEngine exchangeRateEngine;
+  private final CurrencyCache currencyCache;
+  private final CategoryHierarchy categoryHierarchy;
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry registry;
+
+  @Value("${pockito.budget.recompute-chunk-size:200}")
+  private int chunkSize;
+
+  @Scheduled(cron = "${pockito.budget.recompute-cron:0 45 3 * * *}")
+  @Timed(value = "pockito.job", extraTags = {"job", "budget-recompute"})
+  public void run() {
+    UUID after = MIN_ID;
+    int count = 0;
+    List<UUID> ids;
+    do {
+      ids = consumptionRepository.findBudgetIdsAfter(after, chunkSize);
+      for (UUID id : ids) {
+        try {
+          recompute(id);
+          count++;
+        } catch (RuntimeException e) {
+          log.warn("Budget consumption recompute failed for {}", id, e);
+        }
+      }
+      if (!ids.isEmpty()) {
+        after = ids.get(ids.size() - 1);
+      }
+    } while (ids.size() == chunkSize);
+    log.info("Recomputed consumption of {} budgets", count);
+  }
+
+  public void recompute(UUID budgetId) {
+    transactionTemplate.executeWithoutResult(status -> {
+      // A txn write racing the rebuild of the same budget is corrected by the next run
+      Budget budget = budgetRepository.findById(budgetId).orElse(null);
+      if (budget == null) {
+        return;
+      }
+      int scale = currencyCache.decimals(budget.getCurrencyCode());
+      Map<LocalDate, Accumulator> periods = new TreeMap<>();
+      Set<UUID> categoryIds = categoryHierarchy.expand(budget.getUserId(), budget.getCategoryIds());
+      int skipped = 0;
+      for (DailyExpense e : consumptionRepository.findDailyExpenses(budgetId, categoryIds)) {
+        BudgetPeriods.Period p = BudgetPeriods.periodOf(budget.getPeriod(), budget.getStartDate(),
+            budget.getEndDate(), e.day());
+        if (p == null) {
+          continue;
+        }
+        BigDecimal amount;
+        try {
+          amount = exchangeRateEngine.convert(e.amount(), e.currencyCode(), budget.getCurrencyCode(),
+              e.day().atStartOfDay(ZoneOffset.UTC).toInstant(), scale);
+        } catch (IllegalArgumentException ex) {
+          // Same as the live path: leave the day out until its rate exists rather than drop the whole budget
+          skipped++;
+          continue;
+        }
+        periods.computeIfAbsent(p.start(), k -> new Accumulator(p.end(), scale)).sum.add(amount);
+      }
+      if (skipped > 0) {
+        log.warn("Budget {} recomputed without {} days that have no {} rate", budgetId, skipped,
+            budget.getCurrencyCode());
+        registry.counter("pockito.budget.recompute.skipped").increment(skipped);
+      }
+      consumptionRepository.deleteConsumption(budgetId);
+      periods.forEach((start, acc) -> consumptionRepository.insertConsumption(budgetId, start, acc.periodEnd,
+          acc.sum.toBigDecimal()));
+    });
+  }
+
+  private static final class Accumulator {
+    private final LocalDate periodEnd;
+    private final MoneySum sum;
+
+    Accumulator(LocalDate periodEnd, int scale) {
+      this.periodEnd = periodEnd;
+      this.sum = new MoneySum(scale);
+    }
+  }
+}
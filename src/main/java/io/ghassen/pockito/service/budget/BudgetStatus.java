@@ -0,0 +1,19 @@
+package io.ghassen.pockito.service.budget;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record BudgetStatus(
+    UUID budgetId,
+    String name,
+    LocalDate periodStart,
+    LocalDate periodEnd,
+    BigDecimal limit,
+    BigDecimal spent,
+    String currencyCode) {
+
+  public BigDecimal remaining() {
+    return limit.subtract(spent);
+  }
+}
@@ -0,0 +1,16 @@
+package io.ghassen.pockito.service.budget;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Published when a write pushes a budget period's spending across a threshold (percent of the limit)
+public record BudgetThresholdCrossedEvent(
+    UUID budgetId,
+    UUID userId,
+    LocalDate periodStart,
+    int thresholdPercent,
+    BigDecimal spent,
+    BigDecimal limit,
+    String currencyCode) {
+}
@@ -0,0 +1,180 @@
+package io.ghassen.pockito.service.category;
+
+import io.ghassen.pockito.domain.EntityActivityEvent;
+import io.ghassen.pockito.repo.CategoryRepository;
+import io.ghassen.pockito.repo.VersionStamp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+// Per-user category trees, loaded with one query and then answered from memory. A user's tree is
+// dropped after local category writes commit; writes on other nodes are caught by comparing the
+// version stamp once the tree is older than the check interval. Past max-entries the least recently
+// read user is forgotten.
+@Component
+public class CategoryHierarchy {
+
+  private static final String CATEGORY = "Category";
+
+  private final CategoryRepository categoryRepository;
+  private final Duration checkInterval;
+  private final int maxEntries;
+  private final Map<UUID, Entry> trees;
+  private final Counter hits;
+  private final Counter misses;
+
+  public CategoryHierarchy(CategoryRepository categoryRepository,
+                           MeterRegistry registry,
+                           @Value("${pockito.cache.category.check-interval:30s}") Duration checkInterval,
+                           @Value("${pockito.cache.category.max-entries:10000}") int maxEntries) {
+    this.categoryRepository = categoryRepository;
+    this.checkInterval = checkInterval;
+    this.maxEntries = maxEntries;
+    this.trees = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+        return size() > CategoryHierarchy.this.maxEntries;
+      }
+    });
+    this.hits = Counter.builder("pockito.cache.requests").tag("cache", "category").tag("result", "hit").register(registry);
+    this.misses = Counter.builder("pockito.cache.requests").tag("cache", "category").tag("result", "miss").register(registry);
+    Gauge.builder("pockito.cache.size", trees, Map::size).tag("cache", "category").register(registry);
+  }
+
+  public CategoryTree tree(UUID userId) {
+    Instant now = Instant.now();
+    Entry e = trees.get(userId);
+    if (e != null && now.isBefore(e.checkedAt.plus(checkInterval))) {
+      hits.increment();
+      return e.tree;
+    }
+    if (e != null) {
+      VersionStamp stamp = categoryRepository.findVersionStamp(userId);
+      if (e.matches(stamp)) {
+        // Replaced rather than mutated so a concurrent invalidation is never undone
+        trees.replace(userId, e, new Entry(e.tree, e.count, e.versionSum, e.lastUpdatedAt, now));
+        hits.increment();
+        return e.tree;
+      }
+    }
+    return load(userId, now);
+  }
+
+  // Trees of many users in at most two queries however many are cold, for writers that span users
+  public Map<UUID, CategoryTree> trees(Collection<UUID> userIds) {
+    Instant now = Instant.now();
+    Map<UUID, CategoryTree> out = new HashMap<>();
+    Map<UUID, Entry> due = new HashMap<>();
+    for (UUID userId : userIds) {
+      Entry e = trees.get(userId);
+      if (e != null && now.isBefore(e.checkedAt.plus(checkInterval))) {
+        hits.increment();
+        out.put(userId, e.tree);
+      } else {
+        due.put(userId, e);
+      }
+    }
+    if (due.isEmpty()) {
+      return out;
+    }
+    // Stamps before edges, as in load()
+    Map<UUID, VersionStamp> stamps = new HashMap<>();
+    for (CategoryRepository.UserVersionStamp stamp : categoryRepository.findVersionStamps(due.keySet())) {
+      stamps.put(stamp.getUserId(), stamp);
+    }
+    Set<UUID> cold = new HashSet<>();
+    due.forEach((userId, e) -> {
+      if (e != null && e.matches(stamps.get(userId))) {
+        trees.replace(userId, e, new Entry(e.tree, e.count, e.versionSum, e.lastUpdatedAt, now));
+        hits.increment();
+        out.put(userId, e.tree);
+      } else {
+        cold.add(userId);
+      }
+    });
+    if (cold.isEmpty()) {
+      return out;
+    }
+    Map<UUID, List<CategoryNode>> nodes = new HashMap<>();
+    for (CategoryRepository.UserCategoryEdge c : categoryRepository.findEdgesByUserIds(cold)) {
+      nodes.computeIfAbsent(c.getUserId(), k -> new ArrayList<>()).add(new CategoryNode(c.getId(), c.getParentId()));
+    }
+    for (UUID userId : cold) {
+      misses.increment();
+      CategoryTree tree = CategoryTree.of(nodes.getOrDefault(userId, List.of()));
+      trees.put(userId, Entry.of(tree, stamps.get(userId), now));
+      out.put(userId, tree);
+    }
+    return out;
+  }
+
+  public List<UUID> descendantsOrSelf(UUID userId, UUID categoryId) {
+    return tree(userId).descendantsOrSelf(categoryId);
+  }
+
+  public List<UUID> ancestorsOrSelf(UUID userId, UUID categoryId) {
+    return tree(userId).ancestorsOrSelf(categoryId);
+  }
+
+  public Set<UUID> expand(UUID userId, Collection<UUID> categoryIds) {
+    return tree(userId).expand(categoryIds);
+  }
+
+  public void invalidate(UUID userId) {
+    trees.remove(userId);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityActivity(EntityActivityEvent event) {
+    if (CATEGORY.equals(event.entityType())) {
+      invalidate(event.userId());
+    }
+  }
+
+  private CategoryTree load(UUID userId, Instant now) {
+    misses.increment();
+    // Stamp first: a write landing between the two queries leaves a stale stamp, so the next check reloads
+    VersionStamp stamp = categoryRepository.findVersionStamp(userId);
+    CategoryTree tree = CategoryTree.of(categoryRepository.findEdges(userId).stream()
+        .map(c -> new CategoryNode(c.getId(), c.getParentId()))
+        .toList());
+    trees.put(userId, Entry.of(tree, stamp, now));
+    return tree;
+  }
+
+  // A null stamp stands for a user with no categories
+  private record Entry(CategoryTree tree, long count, long versionSum, Instant lastUpdatedAt, Instant checkedAt) {
+
+    static Entry of(CategoryTree tree, VersionStamp stamp, Instant now) {
+      return stamp == null
+          ? new Entry(tree, 0, 0, null, now)
+          : new Entry(tree, stamp.getCount(), stamp.getVersionSum(), stamp.getLastUpdatedAt(), now);
+    }
+
+    boolean matches(VersionStamp stamp) {
+      if (stamp == null) {
+        return count == 0 && versionSum == 0 && lastUpdatedAt == null;
+      }
+      return count == stamp.getCount()
+          && versionSum == stamp.getVersionSum()
+          && Objects.equals(lastUpdatedAt, stamp.getLastUpdatedAt());
+    }
+  }
+}
@@ -0,0 +1,5 @@
+package io.ghassen.pockito.service.category;
+
+import java.util.UUID;
+
+public record CategoryNode(UUID id, UUID parentId) {}
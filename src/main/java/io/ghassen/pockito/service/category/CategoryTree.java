@@ -0,0 +1,155 @@
+package io.ghassen.pockito.service.category;
+
+import java.util.*;
+
+// Immutable category forest of one user. Ids are laid out in pre-order, so every subtree is the
+// contiguous slice [pre, end) and "descendants of X" is a view with no walk. Ancestor paths follow
+// the parent indexes. Nodes whose parent is unknown, or that sit on a cycle, are treated as roots.
+public final class CategoryTree {
+
+  private static final CategoryTree EMPTY = new CategoryTree(Map.of(), new UUID[0], new int[0], new int[0]);
+
+  private final Map<UUID, Integer> index; // id -> pre-order position
+  private final UUID[] ids;
+  private final int[] end;
+  private final int[] parent; // pre-order position of the parent, -1 for roots
+  private final List<UUID> preOrder;
+
+  private CategoryTree(Map<UUID, Integer> index, UUID[] ids, int[] end, int[] parent) {
+    this.index = index;
+    this.ids = ids;
+    this.end = end;
+    this.parent = parent;
+    this.preOrder = Collections.unmodifiableList(Arrays.asList(ids));
+  }
+
+  public static CategoryTree empty() {
+    return EMPTY;
+  }
+
+  public static CategoryTree of(Collection<CategoryNode> nodes) {
+    if (nodes.isEmpty()) {
+      return EMPTY;
+    }
+    int n = nodes.size();
+    Map<UUID, Integer> input = new HashMap<>(n * 2);
+    UUID[] inputIds = new UUID[n];
+    UUID[] inputParents = new UUID[n];
+    int i = 0;
+    for (CategoryNode node : nodes) {
+      if (input.putIfAbsent(node.id(), i) == null) {
+        inputIds[i] = node.id();
+        inputParents[i] = node.parentId();
+        i++;
+      }
+    }
+    n = i;
+
+    // Children as linked lists over input positions: head[p] -> next[c] -> ...
+    int[] head = new int[n];
+    int[] next = new int[n];
+    Arrays.fill(head, -1);
+    for (int c = n - 1; c >= 0; c--) {
+      Integer p = inputParents[c] != null ? input.get(inputParents[c]) : null;
+      if (p != null && p != c) {
+        next[c] = head[p];
+        head[p] = c;
+      }
+    }
+
+    Map<UUID, Integer> index = new HashMap<>(n * 2);
+    UUID[] ids = new UUID[n];
+    int[] end = new int[n];
+    int[] parent = new int[n];
+    int[] position = new int[n];
+    Arrays.fill(position, -1);
+    int[] stack = new int[n];
+    int[] cursor = new int[n];
+    int visited = 0;
+    // Real roots first; a second pass picks up cycles, entering each at its first input node
+    for (int pass = 0; pass < 2; pass++) {
+      for (int r = 0; r < n; r++) {
+        if (position[r] >= 0 || (pass == 0 && input.containsKey(inputParents[r]) && inputParents[r] != inputIds[r])) {
+          continue;
+        }
+        int depth = 0;
+        position[r] = visited;
+        parent[visited] = -1;
+        ids[visited++] = inputIds[r];
+        stack[0] = r;
+        cursor[0] = head[r];
+        while (depth >= 0) {
+          int c = cursor[depth];
+          if (c < 0) {
+            end[position[stack[depth]]] = visited;
+            depth--;
+            continue;
+          }
+          cursor[depth] = next[c];
+          if (position[c] >= 0) {
+            continue;
+          }
+          position[c] = visited;
+          parent[visited] = position[stack[depth]];
+          ids[visited++] = inputIds[c];
+          stack[++depth] = c;
+          cursor[depth] = head[c];
+        }
+      }
+    }
+    for (int p = 0; p < n; p++) {
+      index.put(ids[p], p);
+    }
+    return new CategoryTree(Map.copyOf(index), ids, end, parent);
+  }
+
+  public int size() {
+    return ids.length;
+  }
+
+  public boolean contains(UUID id) {
+    return index.containsKey(id);
+  }
+
+  // The category followed by its whole subtree in pre-order; an unknown id is its own subtree
+  public List<UUID> descendantsOrSelf(UUID id) {
+    Integer p = index.get(id);
+    return p != null ? preOrder.subList(p, end[p]) : List.of(id);
+  }
+
+  // The category followed by its parent, grandparent, ... up to its root
+  public List<UUID> ancestorsOrSelf(UUID id) {
+    Integer p = index.get(id);
+    if (p == null) {
+      return List.of(id);
+    }
+    List<UUID> path = new ArrayList<>(4);
+    for (int i = p; i >= 0; i = parent[i]) {
+      path.add(ids[i]);
+    }
+    return path;
+  }
+
+  public UUID parentOf(UUID id) {
+    Integer p = index.get(id);
+    return p != null && parent[p] >= 0 ? ids[parent[p]] : null;
+  }
+
+  public boolean isDescendantOrSelf(UUID id, UUID ancestor) {
+    Integer a = index.get(ancestor);
+    Integer p = index.get(id);
+    if (a == null || p == null) {
+      return id.equals(ancestor);
+    }
+    return a <= p && p < end[a];
+  }
+
+  // Union of the subtrees of the given categories
+  public Set<UUID> expand(Collection<UUID> categoryIds) {
+    Set<UUID> out = new HashSet<>();
+    for (UUID id : categoryIds) {
+      out.addAll(descendantsOrSelf(id));
+    }
+    return out;
+  }
+}
@@ -0,0 +1,15 @@
+package io.ghassen.pockito.service.changes;
+
+import java.util.List;
+import java.util.UUID;
+
+// One write statement's effect on one user's rows of a table. ids is null when the statement touched more
+// rows than the notification lists. A RESET event tells the client to refetch: changes may have been missed.
+public record ChangeEvent(String id, UUID userId, String type, String op, int count, List<UUID> ids) {
+
+  public static final String RESET = "reset";
+
+  public boolean isReset() {
+    return RESET.equals(type);
+  }
+}
@@ -0,0 +1,151 @@
+package io.ghassen.pockito.service.changes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Per-user fan-out of change events on this node, plus a ring of the most recent events for resumption.
+// Event ids are "<epoch>-<sequence>" in the order this node received the notifications; an id from another
+// node or process, or one older than the ring, cannot be resumed and gets a RESET instead.
+@Component
+public class ChangeFeedHub {
+
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+  private final Map<UUID, Set<ChangeStream>> streams = new ConcurrentHashMap<>();
+  private final AtomicInteger streamCount = new AtomicInteger();
+  // Guards the ring and sequence; subscribe() holds it too so an event is either replayed or delivered, never both
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ChangeEvent[] recent;
+  private final int streamCapacity;
+  private final Counter published;
+  private final Counter dropped;
+  private long sequence;
+  // Sequence taken by the last listener reconnect; notifications may be missing before it, so resuming from an
+  // earlier id gets a RESET
+  private long gapAt;
+
+  public ChangeFeedHub(@Value("${pockito.changes.replay-capacity:10000}") int replayCapacity,
+                       @Value("${pockito.changes.stream-capacity:256}") int streamCapacity,
+                       MeterRegistry registry) {
+    this.recent = new ChangeEvent[replayCapacity];
+    this.streamCapacity = streamCapacity;
+    this.published = Counter.builder("pockito.changes.events").register(registry);
+    this.dropped = Counter.builder("pockito.changes.dropped")
+        .description("Streams closed because their subscriber fell behind")
+        .register(registry);
+    Gauge.builder("pockito.changes.streams", streamCount, AtomicInteger::get).register(registry);
+  }
+
+  public ChangeStream subscribe(UUID userId, String lastEventId) {
+    ChangeStream stream = new ChangeStream(this, userId, streamCapacity);
+    lock.lock();
+    try {
+      streams.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(stream);
+      streamCount.incrementAndGet();
+      if (lastEventId != null) {
+        long after = sequenceOf(lastEventId);
+        long oldest = Math.max(sequence - recent.length, gapAt);
+        if (after < oldest || after > sequence) {
+          stream.offer(reset(userId));
+        } else {
+          for (long s = after + 1; s <= sequence; s++) {
+            ChangeEvent e = recent[slot(s)];
+            if (e.userId().equals(userId)) {
+              stream.offer(e);
+            }
+          }
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    return stream;
+  }
+
+  public void publish(UUID userId, String type, String op, int count, List<UUID> ids) {
+    lock.lock();
+    try {
+      long s = ++sequence;
+      ChangeEvent event = new ChangeEvent(epoch + "-" + s, userId, type, op, count, ids);
+      recent[slot(s)] = event;
+      deliver(userId, event);
+      published.increment();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // Called when notifications may have been lost: every subscriber is told to refetch
+  public void gap() {
+    lock.lock();
+    try {
+      gapAt = ++sequence;
+      for (Set<ChangeStream> userStreams : streams.values()) {
+        for (ChangeStream stream : userStreams) {
+          if (!stream.offer(reset(stream.userId()))) {
+            dropped.increment();
+          }
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int streamCount() {
+    return streamCount.get();
+  }
+
+  void remove(ChangeStream stream) {
+    boolean[] removed = new boolean[1];
+    streams.computeIfPresent(stream.userId(), (k, set) -> {
+      removed[0] = set.remove(stream);
+      return set.isEmpty() ? null : set;
+    });
+    if (removed[0]) {
+      streamCount.decrementAndGet();
+    }
+  }
+
+  private void deliver(UUID userId, ChangeEvent event) {
+    Set<ChangeStream> userStreams = streams.get(userId);
+    if (userStreams == null) {
+      return;
+    }
+    for (ChangeStream stream : userStreams) {
+      if (!stream.offer(event) && stream.isDropped()) {
+        dropped.increment();
+      }
+    }
+  }
+
+  private ChangeEvent reset(UUID userId) {
+    return new ChangeEvent(epoch + "-" + sequence, userId, ChangeEvent.RESET, null, 0, null);
+  }
+
+  private long sequenceOf(String eventId) {
+    int dash = eventId.lastIndexOf('-');
+    if (dash <= 0 || !eventId.substring(0, dash).equals(epoch)) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(eventId.substring(dash + 1));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private int slot(long s) {
+    return (int) (s % recent.length);
+  }
+}
@@ -0,0 +1,153 @@
+package io.ghassen.pockito.service.changes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+// Holds one dedicated connection (outside the pool) listening on the channel the V12 triggers notify, and
+// hands each notification to the hub. Notifications sent while disconnected are lost, so every reconnect
+// after the first tells subscribers to refetch.
+@Component
+@ConditionalOnProperty(name = "pockito.changes.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ChangeFeedListener implements SmartLifecycle {
+
+  static final String CHANNEL = "pockito_changes";
+
+  private final ChangeFeedHub hub;
+  private final ObjectMapper objectMapper;
+  private final DataSourceProperties dataSource;
+  private final Duration pollInterval;
+  private final Duration reconnectDelay;
+  private volatile boolean running;
+  private volatile Connection connection;
+  private Thread listener;
+
+  public ChangeFeedListener(ChangeFeedHub hub, ObjectMapper objectMapper, DataSourceProperties dataSource,
+                            @Value("${pockito.changes.poll-interval:10s}") Duration pollInterval,
+                            @Value("${pockito.changes.reconnect-delay:5s}") Duration reconnectDelay) {
+    this.hub = hub;
+    this.objectMapper = objectMapper;
+    this.dataSource = dataSource;
+    this.pollInterval = pollInterval;
+    this.reconnectDelay = reconnectDelay;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    listener = Thread.ofPlatform().name("change-feed-listener").daemon(true).start(this::listenLoop);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    closeQuietly(connection);
+    listener.interrupt();
+    try {
+      listener.join(reconnectDelay.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // Returns once LISTEN has been issued, so callers (tests) know later commits will be seen
+  public boolean awaitListening(Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (connection == null && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    return connection != null;
+  }
+
+  private void listenLoop() {
+    boolean connectedBefore = false;
+    while (running) {
+      try (Connection conn = DriverManager.getConnection(dataSource.determineUrl(),
+          dataSource.determineUsername(), dataSource.determinePassword())) {
+        try (Statement st = conn.createStatement()) {
+          st.execute("LISTEN " + CHANNEL);
+        }
+        connection = conn;
+        if (connectedBefore) {
+          log.info("Change feed listener reconnected, resetting subscribers");
+          hub.gap();
+        }
+        connectedBefore = true;
+        receive(conn);
+      } catch (SQLException e) {
+        connection = null;
+        if (!running) {
+          return;
+        }
+        log.warn("Change feed listener lost its connection, retrying in {}", reconnectDelay, e);
+        try {
+          Thread.sleep(reconnectDelay);
+        } catch (InterruptedException ie) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void receive(Connection conn) throws SQLException {
+    PGConnection pg = conn.unwrap(PGConnection.class);
+    int timeoutMillis = (int) pollInterval.toMillis();
+    while (running) {
+      PGNotification[] notifications = pg.getNotifications(timeoutMillis);
+      if (notifications == null || notifications.length == 0) {
+        // Idle: a round trip notices a dead connection that would otherwise just stay quiet
+        try (Statement st = conn.createStatement()) {
+          st.execute("SELECT 1");
+        }
+        continue;
+      }
+      for (PGNotification notification : notifications) {
+        dispatch(notification.getParameter());
+      }
+    }
+  }
+
+  private void dispatch(String payload) {
+    try {
+      Payload p = objectMapper.readValue(payload, Payload.class);
+      hub.publish(p.u(), p.t(), p.op(), p.n(), p.ids());
+    } catch (IOException e) {
+      log.warn("Ignoring malformed change notification {}", payload, e);
+    }
+  }
+
+  private static void closeQuietly(Connection conn) {
+    if (conn != null) {
+      try {
+        conn.close();
+      } catch (SQLException ignored) {
+        // already broken
+      }
+    }
+  }
+
+  // Field names kept short: NOTIFY payloads are limited to 8000 bytes
+  record Payload(UUID u, String t, String op, int n, List<UUID> ids) {
+  }
+}
@@ -0,0 +1,62 @@
+package io.ghassen.pockito.service.changes;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// A subscriber's bounded queue. The hub never blocks on it: a subscriber that falls a full queue behind is
+// dropped and reconnects with its last event id.
+public final class ChangeStream implements AutoCloseable {
+
+  private final ChangeFeedHub hub;
+  private final UUID userId;
+  private final BlockingQueue<ChangeEvent> queue;
+  private volatile boolean closed;
+  private volatile boolean dropped;
+
+  ChangeStream(ChangeFeedHub hub, UUID userId, int capacity) {
+    this.hub = hub;
+    this.userId = userId;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+  }
+
+  public UUID userId() {
+    return userId;
+  }
+
+  // Returns null on timeout or once closed
+  public ChangeEvent poll(Duration timeout) throws InterruptedException {
+    return closed ? null : queue.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  public boolean isDropped() {
+    return dropped;
+  }
+
+  boolean offer(ChangeEvent event) {
+    if (closed) {
+      return false;
+    }
+    if (queue.offer(event)) {
+      return true;
+    }
+    dropped = true;
+    close();
+    return false;
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      queue.clear();
+      hub.remove(this);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package io.ghassen.pockito.service.currency;
+
+import io.ghassen.pockito.domain.CurrencyChangedEvent;
+import io.ghassen.pockito.repo.CurrencyRepository;
+import io.ghassen.pockito.repo.VersionStamp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Immutable snapshot of every active currency. Reads never touch the database; the snapshot is
+// dropped after local writes commit and reloaded when the version stamp changes (other nodes).
+@Component
+@Slf4j
+public class CurrencyCache {
+
+  private final CurrencyRepository currencyRepository;
+  private final Counter hits;
+  private final Counter misses;
+  private volatile Snapshot snapshot;
+  // Bumped by every invalidate, so a load that raced one does not install what it read before
+  private final AtomicLong generation = new AtomicLong();
+
+  public CurrencyCache(CurrencyRepository currencyRepository, MeterRegistry registry) {
+    this.currencyRepository = currencyRepository;
+    this.hits = Counter.builder("pockito.cache.requests").tag("cache", "currency").tag("result", "hit").register(registry);
+    this.misses = Counter.builder("pockito.cache.requests").tag("cache", "currency").tag("result", "miss").register(registry);
+    Gauge.builder("pockito.cache.size", this, c -> c.snapshot != null ? c.snapshot.byCode.size() : 0)
+        .tag("cache", "currency").register(registry);
+  }
+
+  // Unknown, archived or inactive codes are absent from the snapshot, so an empty result is authoritative
+  public Optional<CurrencyInfo> findById(String code) {
+    return Optional.ofNullable(snapshot().byCode.get(code));
+  }
+
+  public CurrencyInfo require(String code) {
+    return findById(code).orElseThrow(() -> new IllegalArgumentException("Unknown currency: " + code));
+  }
+
+  public List<CurrencyInfo> findAll() {
+    return snapshot().all;
+  }
+
+  public int decimals(String code) {
+    return require(code).decimals();
+  }
+
+  public void invalidate() {
+    generation.incrementAndGet();
+    snapshot = null;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCurrencyChanged(CurrencyChangedEvent event) {
+    invalidate();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    snapshot();
+  }
+
+  @Scheduled(fixedDelayString = "${pockito.cache.currency.check-interval:30s}")
+  public void checkVersion() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      return;
+    }
+    VersionStamp stamp = currencyRepository.findVersionStamp();
+    if (!current.matches(stamp)) {
+      log.info("Currency reference data changed, reloading cache");
+      invalidate();
+    }
+  }
+
+  private Snapshot snapshot() {
+    Snapshot s = snapshot;
+    if (s != null) {
+      hits.increment();
+      return s;
+    }
+    return load();
+  }
+
+  // Single flight: concurrent misses wait for one reload instead of each querying
+  private synchronized Snapshot load() {
+    Snapshot s = snapshot;
+    if (s != null) {
+      hits.increment();
+      return s;
+    }
+    misses.increment();
+    long g = generation.get();
+    VersionStamp stamp = currencyRepository.findVersionStamp();
+    List<CurrencyInfo> all = currencyRepository.findByIsActiveTrue().stream()
+        .map(CurrencyInfo::of)
+        .sorted(Comparator.comparing(CurrencyInfo::code))
+        .toList();
+    Map<String, CurrencyInfo> byCode = new HashMap<>();
+    for (CurrencyInfo c : all) {
+      byCode.put(c.code(), c);
+    }
+    s = new Snapshot(Map.copyOf(byCode), all, stamp.getCount(), stamp.getVersionSum(), stamp.getLastUpdatedAt());
+    snapshot = s;
+    // Installed first and checked after: an invalidate before the check is seen here, one after it
+    // nulls the field itself
+    if (generation.get() != g) {
+      snapshot = null;
+    }
+    return s;
+  }
+
+  private record Snapshot(Map<String, CurrencyInfo> byCode, List<CurrencyInfo> all,
+                          long count, long versionSum, Instant lastUpdatedAt) {
+
+    boolean matches(VersionStamp stamp) {
+      return count == stamp.getCount()
+          && versionSum == stamp.getVersionSum()
+          && Objects.equals(lastUpdatedAt, stamp.getLastUpdatedAt());
+    }
+  }
+}
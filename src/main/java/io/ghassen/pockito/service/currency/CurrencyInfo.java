@@ -0,0 +1,14 @@
+package io.ghassen.pockito.service.currency;
+
+import io.ghassen.pockito.domain.Currency;
+
+// Immutable view of an active currency as served from the reference-data cache
+public record CurrencyInfo(String code, String name, String symbol, int decimals, boolean active, long version) {
+
+  static CurrencyInfo of(Currency c) {
+    return new CurrencyInfo(c.getCode(), c.getName(), c.getSymbol(),
+        c.getDecimals() != null ? c.getDecimals() : 2,
+        Boolean.TRUE.equals(c.getIsActive()),
+        c.getVersion() != null ? c.getVersion() : 0L);
+  }
+}
@@ -0,0 +1,59 @@
+package io.ghassen.pockito.service.export;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record ExportRow(
+    UUID id,
+    String type,
+    LocalDate occurredAt,
+    String wallet,
+    String category,
+    BigDecimal amount,
+    String currencyCode,
+    String currencyName,
+    String fromWallet,
+    String toWallet,
+    BigDecimal fromAmount,
+    BigDecimal toAmount,
+    String fromCurrencyCode,
+    String toCurrencyCode,
+    BigDecimal exchangeRate,
+    String externalWallet,
+    String note) {
+
+  static final String[] CSV_HEADER = {
+      "id", "type", "occurred_at", "wallet", "category", "amount", "currency_code", "currency_name",
+      "from_wallet", "to_wallet", "from_amount", "to_amount", "from_currency_code", "to_currency_code",
+      "exchange_rate", "external_wallet", "note"};
+
+  static ExportRow of(ResultSet rs) throws SQLException {
+    return new ExportRow(
+        rs.getObject("id", UUID.class),
+        rs.getString("type"),
+        rs.getDate("occurred_at").toLocalDate(),
+        rs.getString("wallet_name"),
+        rs.getString("category_name"),
+        rs.getBigDecimal("amount"),
+        rs.getString("currency_code"),
+        rs.getString("currency_name"),
+        rs.getString("from_wallet_name"),
+        rs.getString("to_wallet_name"),
+        rs.getBigDecimal("from_amount"),
+        rs.getBigDecimal("to_amount"),
+        rs.getString("from_currency_code"),
+        rs.getString("to_currency_code"),
+        rs.getBigDecimal("exchange_rate"),
+        rs.getString("external_wallet_name"),
+        rs.getString("note"));
+  }
+
+  Object[] csvValues() {
+    return new Object[] {id, type, occurredAt, wallet, category, amount, currencyCode, currencyName,
+        fromWallet, toWallet, fromAmount, toAmount, fromCurrencyCode, toCurrencyCode,
+        exchangeRate, externalWallet, note};
+  }
+}
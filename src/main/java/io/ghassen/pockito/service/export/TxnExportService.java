@@ -0,0 +1,86 @@
+package io.ghassen.pockito.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.ghassen.pockito.repo.TxnQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Streams a user's transactions from a server-side cursor straight into the output stream.
+// Only the current row is ever held in memory, whatever the size of the export.
+@Service
+@RequiredArgsConstructor
+public class TxnExportService {
+
+  private final TxnQueryRepository txnQueryRepository;
+  private final ObjectMapper objectMapper;
+
+  @Transactional(readOnly = true)
+  public long export(UUID userId, LocalDate from, LocalDate to, ExportFormat format, OutputStream out) throws IOException {
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new IllegalArgumentException("from must not be after to");
+    }
+    long[] count = {0};
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    if (format == ExportFormat.CSV) {
+      writeCsvLine(writer, ExportRow.CSV_HEADER);
+      txnQueryRepository.streamExport(userId, from, to, rs -> {
+        try {
+          writeCsvLine(writer, ExportRow.of(rs).csvValues());
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        count[0]++;
+      });
+      writer.flush();
+    } else {
+      // Root values separated by newlines: one JSON object per line
+      JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+      json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      txnQueryRepository.streamExport(userId, from, to, rs -> {
+        try {
+          json.writeObject(ExportRow.of(rs));
+          json.writeRaw('\n');
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        count[0]++;
+      });
+      json.flush();
+    }
+    return count[0];
+  }
+
+  private static void writeCsvLine(Writer w, Object[] values) throws IOException {
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        w.write(',');
+      }
+      Object v = values[i];
+      if (v == null) {
+        continue;
+      }
+      String s = v instanceof BigDecimal d ? d.toPlainString() : v.toString();
+      if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+        w.write('"');
+        w.write(s.replace("\"", "\"\""));
+        w.write('"');
+      } else {
+        w.write(s);
+      }
+    }
+    w.write("\r\n");
+  }
+}
@@ -0,0 +1,4 @@
+package io.ghassen.pockito.service.fx;
+
+public record ExchangeRateChangedEvent(RatePoint point) {
+}
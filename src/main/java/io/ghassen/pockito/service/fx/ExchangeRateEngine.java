@@ -0,0 +1,91 @@
+package io.ghassen.pockito.service.fx;
+
+import io.ghassen.pockito.repo.ExchangeRateRepository;
+import io.ghassen.pockito.repo.ExchangeRateRepository.RateRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Serves "rate for base/quote as of T" from memory. The table is swapped atomically on refresh,
+// readers never lock.
+@Component
+@Slf4j
+public class ExchangeRateEngine {
+
+  // Rows are picked up by updated_at, which is the writer's transaction start time; re-reading a
+  // window covers transactions that commit after a later one has already been seen
+  private static final long REFRESH_OVERLAP_MILLIS = Duration.ofMinutes(5).toMillis();
+
+  private final ExchangeRateRepository exchangeRateRepository;
+  private final List<String> pivots;
+  private volatile RateTable table;
+  // Epoch, not a sentinel: the bound reaches to_timestamp(), which rejects out-of-range values
+  private long watermark = 0;
+
+  public ExchangeRateEngine(ExchangeRateRepository exchangeRateRepository,
+                            @Value("${pockito.fx.pivots:USD,EUR}") List<String> pivots) {
+    this.exchangeRateRepository = exchangeRateRepository;
+    this.pivots = List.copyOf(pivots);
+    this.table = RateTable.empty(this.pivots);
+  }
+
+  // NaN when no direct, inverse or pivot path exists at that instant
+  public double rate(String base, String quote, Instant at) {
+    return table.rate(base, quote, at.toEpochMilli());
+  }
+
+  public double rate(String base, String quote, long atEpochMillis) {
+    return table.rate(base, quote, atEpochMillis);
+  }
+
+  public BigDecimal convert(BigDecimal amount, String from, String to, Instant at, int scale) {
+    if (from.equals(to)) {
+      return amount.setScale(scale, RoundingMode.HALF_EVEN);
+    }
+    double r = rate(from, to, at);
+    if (Double.isNaN(r)) {
+      throw new IllegalArgumentException("No exchange rate " + from + "/" + to + " at " + at);
+    }
+    return amount.multiply(BigDecimal.valueOf(r)).setScale(scale, RoundingMode.HALF_EVEN);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    refresh();
+    log.info("Exchange rate table loaded: {} currencies", table.currencyCount());
+  }
+
+  @Scheduled(fixedDelayString = "${pockito.fx.refresh-interval:60s}", initialDelayString = "${pockito.fx.refresh-interval:60s}")
+  public synchronized void refresh() {
+    List<RateRow> rows = exchangeRateRepository.findChangedSince(watermark - REFRESH_OVERLAP_MILLIS);
+    if (rows.isEmpty()) {
+      return;
+    }
+    List<RatePoint> points = new ArrayList<>(rows.size());
+    long newest = watermark;
+    for (RateRow r : rows) {
+      points.add(new RatePoint(r.getBaseCode(), r.getQuoteCode(), r.getEffectiveAtMillis(),
+          r.getRate(), Boolean.TRUE.equals(r.getArchived())));
+      newest = Math.max(newest, r.getUpdatedAtMillis());
+    }
+    table = table.apply(points);
+    watermark = newest;
+  }
+
+  // Rates written through ExchangeRateService are visible on this node immediately after commit
+  @TransactionalEventListener
+  public synchronized void onRateChanged(ExchangeRateChangedEvent event) {
+    table = table.apply(List.of(event.point()));
+  }
+}
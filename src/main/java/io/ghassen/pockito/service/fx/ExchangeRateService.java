@@ -0,0 +1,36 @@
+package io.ghassen.pockito.service.fx;
+
+import io.ghassen.pockito.domain.ExchangeRate;
+import io.ghassen.pockito.repo.ExchangeRateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+public class ExchangeRateService {
+
+  private final ExchangeRateRepository exchangeRateRepository;
+  private final ApplicationEventPublisher events;
+
+  @Transactional
+  public ExchangeRate record(String base, String quote, BigDecimal rate, Instant effectiveAt, String source) {
+    if (base.equals(quote)) {
+      throw new IllegalArgumentException("Base and quote currency must differ");
+    }
+    ExchangeRate saved = exchangeRateRepository.save(ExchangeRate.builder()
+        .baseCode(base)
+        .quoteCode(quote)
+        .rate(rate)
+        .effectiveAt(effectiveAt)
+        .source(source)
+        .build());
+    events.publishEvent(new ExchangeRateChangedEvent(
+        new RatePoint(base, quote, effectiveAt.toEpochMilli(), rate.doubleValue(), false)));
+    return saved;
+  }
+}
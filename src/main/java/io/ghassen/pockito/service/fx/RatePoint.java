@@ -0,0 +1,5 @@
+package io.ghassen.pockito.service.fx;
+
+// One snapshot of a pair; removed = the snapshot was archived and must disappear from the table
+public record RatePoint(String base, String quote, long effectiveAtMillis, double rate, boolean removed) {
+}
@@ -0,0 +1,194 @@
+package io.ghassen.pockito.service.fx;
+
+import java.util.*;
+
+// Immutable as-of rate table. Currencies get dense indexes, and every pair with snapshots holds
+// two parallel sorted primitive arrays (epoch millis -> rate) searched with a binary search.
+// Lookups never allocate; changes produce a new table that shares untouched series.
+public final class RateTable {
+
+  private final Map<String, Integer> index;
+  private final String[] codes;
+  private final Series[] series; // [base * n + quote]
+  private final int[] pivots;
+
+  private RateTable(Map<String, Integer> index, String[] codes, Series[] series, int[] pivots) {
+    this.index = index;
+    this.codes = codes;
+    this.series = series;
+    this.pivots = pivots;
+  }
+
+  public static RateTable empty(List<String> pivotCodes) {
+    RateTable t = new RateTable(Map.of(), new String[0], new Series[0], new int[0]);
+    return t.withCurrencies(pivotCodes, pivotCodes);
+  }
+
+  public int currencyCount() {
+    return codes.length;
+  }
+
+  // Rate to turn 1 base into quote at the given instant, or NaN when no path exists.
+  // Tries the direct pair, the inverse pair, then each pivot currency.
+  public double rate(String base, String quote, long atMillis) {
+    if (base.equals(quote)) {
+      return 1.0;
+    }
+    Integer b = index.get(base);
+    Integer q = index.get(quote);
+    if (b == null || q == null) {
+      return Double.NaN;
+    }
+    int bi = b;
+    int qi = q;
+    double r = directOrInverse(bi, qi, atMillis);
+    if (!Double.isNaN(r)) {
+      return r;
+    }
+    for (int p : pivots) {
+      if (p == bi || p == qi) {
+        continue;
+      }
+      double toPivot = directOrInverse(bi, p, atMillis);
+      if (Double.isNaN(toPivot)) {
+        continue;
+      }
+      double fromPivot = directOrInverse(p, qi, atMillis);
+      if (!Double.isNaN(fromPivot)) {
+        return toPivot * fromPivot;
+      }
+    }
+    return Double.NaN;
+  }
+
+  private double directOrInverse(int b, int q, long at) {
+    int n = codes.length;
+    Series direct = series[b * n + q];
+    if (direct != null) {
+      double r = direct.at(at);
+      if (!Double.isNaN(r)) {
+        return r;
+      }
+    }
+    Series inverse = series[q * n + b];
+    if (inverse != null) {
+      double r = inverse.at(at);
+      if (!Double.isNaN(r) && r != 0) {
+        return 1.0 / r;
+      }
+    }
+    return Double.NaN;
+  }
+
+  public RateTable apply(Collection<RatePoint> changes) {
+    if (changes.isEmpty()) {
+      return this;
+    }
+    List<String> codesNeeded = new ArrayList<>();
+    for (RatePoint p : changes) {
+      codesNeeded.add(p.base());
+      codesNeeded.add(p.quote());
+    }
+    RateTable grown = withCurrencies(codesNeeded, List.of());
+    int n = grown.codes.length;
+
+    Map<Integer, List<RatePoint>> byPair = new HashMap<>();
+    for (RatePoint p : changes) {
+      int key = grown.index.get(p.base()) * n + grown.index.get(p.quote());
+      byPair.computeIfAbsent(key, k -> new ArrayList<>()).add(p);
+    }
+    Series[] next = grown.series.clone();
+    byPair.forEach((key, points) -> next[key] = Series.merge(next[key], points));
+    return new RateTable(grown.index, grown.codes, next, grown.pivots);
+  }
+
+  // Re-indexes when new currencies show up; existing series keep their arrays
+  private RateTable withCurrencies(Collection<String> codesNeeded, Collection<String> pivotCodes) {
+    List<String> added = new ArrayList<>();
+    for (String c : codesNeeded) {
+      if (!index.containsKey(c) && !added.contains(c)) {
+        added.add(c);
+      }
+    }
+    Map<String, Integer> nextIndex = index;
+    String[] nextCodes = codes;
+    Series[] nextSeries = series;
+    if (!added.isEmpty()) {
+      int oldN = codes.length;
+      int n = oldN + added.size();
+      nextCodes = Arrays.copyOf(codes, n);
+      Map<String, Integer> idx = new HashMap<>(index);
+      for (int i = 0; i < added.size(); i++) {
+        nextCodes[oldN + i] = added.get(i);
+        idx.put(added.get(i), oldN + i);
+      }
+      nextIndex = Map.copyOf(idx);
+      nextSeries = new Series[n * n];
+      for (int b = 0; b < oldN; b++) {
+        System.arraycopy(series, b * oldN, nextSeries, b * n, oldN);
+      }
+    }
+    int[] nextPivots = pivots;
+    if (!pivotCodes.isEmpty()) {
+      Map<String, Integer> idx = nextIndex;
+      nextPivots = pivotCodes.stream().mapToInt(idx::get).toArray();
+    }
+    return new RateTable(nextIndex, nextCodes, nextSeries, nextPivots);
+  }
+
+  static final class Series {
+    final long[] epochs;
+    final double[] rates;
+
+    Series(long[] epochs, double[] rates) {
+      this.epochs = epochs;
+      this.rates = rates;
+    }
+
+    // Latest snapshot effective at or before `at`
+    double at(long at) {
+      long[] e = epochs;
+      int lo = 0;
+      int hi = e.length - 1;
+      if (hi < 0 || at < e[0]) {
+        return Double.NaN;
+      }
+      while (lo < hi) {
+        int mid = (lo + hi + 1) >>> 1;
+        if (e[mid] <= at) {
+          lo = mid;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return rates[lo];
+    }
+
+    static Series merge(Series current, List<RatePoint> points) {
+      TreeMap<Long, Double> merged = new TreeMap<>();
+      if (current != null) {
+        for (int i = 0; i < current.epochs.length; i++) {
+          merged.put(current.epochs[i], current.rates[i]);
+        }
+      }
+      for (RatePoint p : points) {
+        if (p.removed()) {
+          merged.remove(p.effectiveAtMillis());
+        } else {
+          merged.put(p.effectiveAtMillis(), p.rate());
+        }
+      }
+      if (merged.isEmpty()) {
+        return null;
+      }
+      long[] e = new long[merged.size()];
+      double[] r = new double[merged.size()];
+      int i = 0;
+      for (Map.Entry<Long, Double> entry : merged.entrySet()) {
+        e[i] = entry.getKey();
+        r[i++] = entry.getValue();
+      }
+      return new Series(e, r);
+    }
+  }
+}
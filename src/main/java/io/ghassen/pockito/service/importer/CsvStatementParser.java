@@ -0,0 +1,211 @@
+package io.ghassen.pockito.service.importer;
+
+import io.ghassen.pockito.domain.ImportFormat;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.regex.Pattern;
+
+// Header-driven CSV: columns are matched by name, delimiter (, ; or tab) is sniffed from the header
+@Component
+public class CsvStatementParser implements StatementParser {
+
+  private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+      DateTimeFormatter.ISO_LOCAL_DATE,
+      DateTimeFormatter.ofPattern("d/M/uuuu"),
+      DateTimeFormatter.ofPattern("d.M.uuuu"),
+      DateTimeFormatter.ofPattern("d-M-uuuu"));
+
+  private static final Map<String, String> ALIASES = Map.ofEntries(
+      Map.entry("date", "date"), Map.entry("occurred_at", "date"), Map.entry("transaction date", "date"),
+      Map.entry("posted date", "date"), Map.entry("booking date", "date"),
+      Map.entry("amount", "amount"), Map.entry("value", "amount"),
+      Map.entry("debit", "debit"), Map.entry("withdrawal", "debit"),
+      Map.entry("credit", "credit"), Map.entry("deposit", "credit"),
+      Map.entry("payee", "payee"), Map.entry("description", "payee"), Map.entry("name", "payee"),
+      Map.entry("counterparty", "payee"), Map.entry("merchant", "payee"),
+      Map.entry("memo", "memo"), Map.entry("note", "memo"), Map.entry("notes", "memo"),
+      Map.entry("category", "category"),
+      Map.entry("transfer", "transfer"), Map.entry("transfer wallet", "transfer"),
+      Map.entry("id", "id"), Map.entry("reference", "id"), Map.entry("transaction id", "id"), Map.entry("fitid", "id"));
+
+  @Override
+  public ImportFormat format() {
+    return ImportFormat.CSV;
+  }
+
+  @Override
+  public void parse(Reader reader, ImportOptions options, StatementHandler handler) throws IOException {
+    List<DateTimeFormatter> formats = StatementValues.formatters(options, DATE_FORMATS);
+    CsvReader csv = new CsvReader(reader);
+    List<String> header = csv.headerLine();
+    if (header == null) {
+      return;
+    }
+    Map<String, Integer> columns = new HashMap<>();
+    for (int i = 0; i < header.size(); i++) {
+      String key = ALIASES.get(header.get(i).trim().toLowerCase(Locale.ROOT));
+      if (key != null) {
+        columns.putIfAbsent(key, i);
+      }
+    }
+    if (!columns.containsKey("date") || !(columns.containsKey("amount") || columns.containsKey("debit") || columns.containsKey("credit"))) {
+      throw new IllegalArgumentException("CSV header must contain a date column and an amount or debit/credit columns");
+    }
+
+    List<String> fields;
+    while ((fields = csv.next()) != null) {
+      long line = csv.line();
+      if (fields.size() == 1 && fields.get(0).isBlank()) {
+        continue;
+      }
+      try {
+        handler.row(new StatementRow(
+            line,
+            StatementValues.parseDate(get(fields, columns, "date"), formats),
+            amount(fields, columns),
+            StatementValues.trimToNull(get(fields, columns, "payee")),
+            StatementValues.trimToNull(get(fields, columns, "memo")),
+            StatementValues.trimToNull(get(fields, columns, "category")),
+            StatementValues.trimToNull(get(fields, columns, "transfer")),
+            StatementValues.trimToNull(get(fields, columns, "id"))));
+      } catch (IllegalArgumentException e) {
+        handler.invalid(line, e.getMessage());
+      }
+    }
+  }
+
+  private static BigDecimal amount(List<String> fields, Map<String, Integer> columns) {
+    String amount = StatementValues.trimToNull(get(fields, columns, "amount"));
+    if (amount != null) {
+      return StatementValues.parseAmount(amount);
+    }
+    String debit = StatementValues.trimToNull(get(fields, columns, "debit"));
+    if (debit != null) {
+      return StatementValues.parseAmount(debit).abs().negate();
+    }
+    String credit = StatementValues.trimToNull(get(fields, columns, "credit"));
+    if (credit != null) {
+      return StatementValues.parseAmount(credit).abs();
+    }
+    throw new IllegalArgumentException("Missing amount");
+  }
+
+  private static String get(List<String> fields, Map<String, Integer> columns, String key) {
+    Integer i = columns.get(key);
+    return i == null || i >= fields.size() ? null : fields.get(i);
+  }
+
+  // Minimal RFC 4180 reader: quoted fields, doubled quotes, embedded newlines; reuses its field list
+  static final class CsvReader {
+    private final Reader in;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private char delimiter = ',';
+    private long line;
+    private long nextLine = 1;
+    private int pushback = -2;
+
+    CsvReader(Reader in) {
+      this.in = in;
+    }
+
+    long line() {
+      return line;
+    }
+
+    List<String> headerLine() throws IOException {
+      List<String> header = next();
+      if (header == null) {
+        return null;
+      }
+      if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+        header.set(0, header.get(0).substring(1));
+      }
+      if (header.size() == 1) {
+        String raw = header.get(0);
+        char best = ',';
+        int bestCount = 0;
+        for (char c : new char[] {';', '\t', ','}) {
+          int count = (int) raw.chars().filter(ch -> ch == c).count();
+          if (count > bestCount) {
+            best = c;
+            bestCount = count;
+          }
+        }
+        if (bestCount > 0) {
+          delimiter = best;
+          return new ArrayList<>(Arrays.asList(raw.split(Pattern.quote(String.valueOf(best)), -1)));
+        }
+      }
+      return new ArrayList<>(header);
+    }
+
+    List<String> next() throws IOException {
+      fields.clear();
+      field.setLength(0);
+      line = nextLine;
+      boolean quoted = false;
+      boolean any = false;
+      int c;
+      while ((c = read()) != -1) {
+        any = true;
+        if (quoted) {
+          if (c == '"') {
+            int n = read();
+            if (n == '"') {
+              field.append('"');
+            } else {
+              quoted = false;
+              unread(n);
+            }
+          } else {
+            if (c == '\n') {
+              nextLine++;
+            }
+            field.append((char) c);
+          }
+        } else if (c == '"' && field.isEmpty()) {
+          quoted = true;
+        } else if (c == delimiter) {
+          fields.add(field.toString());
+          field.setLength(0);
+        } else if (c == '\r') {
+          int n = read();
+          if (n != '\n') {
+            unread(n);
+          }
+          nextLine++;
+          break;
+        } else if (c == '\n') {
+          nextLine++;
+          break;
+        } else {
+          field.append((char) c);
+        }
+      }
+      if (!any) {
+        return null;
+      }
+      fields.add(field.toString());
+      return fields;
+    }
+
+    private int read() throws IOException {
+      if (pushback != -2) {
+        int c = pushback;
+        pushback = -2;
+        return c;
+      }
+      return in.read();
+    }
+
+    private void unread(int c) {
+      pushback = c;
+    }
+  }
+}
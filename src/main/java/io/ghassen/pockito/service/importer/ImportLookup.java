@@ -0,0 +1,39 @@
+package io.ghassen.pockito.service.importer;
+
+import io.ghassen.pockito.domain.Category;
+import io.ghassen.pockito.domain.CategoryType;
+import io.ghassen.pockito.domain.Wallet;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+// Name -> id maps built once per import so rows never trigger wallet/category queries
+final class ImportLookup {
+
+  private final Map<String, Wallet> walletsByName = new HashMap<>();
+  private final Map<String, UUID> categoriesByName = new HashMap<>();
+
+  ImportLookup(List<Wallet> wallets, List<Category> categories) {
+    for (Wallet w : wallets) {
+      walletsByName.putIfAbsent(key(w.getName()), w);
+    }
+    for (Category c : categories) {
+      categoriesByName.putIfAbsent(c.getType() + ":" + key(c.getName()), c.getId());
+    }
+  }
+
+  Wallet wallet(String name) {
+    return name == null ? null : walletsByName.get(key(name));
+  }
+
+  UUID category(CategoryType type, String name) {
+    return name == null ? null : categoriesByName.get(type + ":" + key(name));
+  }
+
+  private static String key(String name) {
+    return name.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,5 @@
+package io.ghassen.pockito.service.importer;
+
+// dateFormat is a java.time pattern; null lets the parser try its format's usual patterns
+public record ImportOptions(String dateFormat) {
+}
@@ -0,0 +1,109 @@
+package io.ghassen.pockito.service.importer;
+
+import io.ghassen.pockito.domain.ImportFormat;
+import io.ghassen.pockito.domain.ImportJob;
+import io.ghassen.pockito.domain.ImportStatus;
+import io.ghassen.pockito.repo.ImportJobRepository;
+import io.ghassen.pockito.repo.WalletRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+
+@Service
+@Slf4j
+public class ImportService {
+
+  private final ImportJobRepository jobRepository;
+  private final WalletRepository walletRepository;
+  private final ImportWorker worker;
+  private final TaskExecutor importTaskExecutor;
+  private final AuditorAware<String> auditorAware;
+
+  public ImportService(ImportJobRepository jobRepository, WalletRepository walletRepository, ImportWorker worker,
+                       @Qualifier("importTaskExecutor") TaskExecutor importTaskExecutor,
+                       AuditorAware<String> auditorAware) {
+    this.jobRepository = jobRepository;
+    this.walletRepository = walletRepository;
+    this.worker = worker;
+    this.importTaskExecutor = importTaskExecutor;
+    this.auditorAware = auditorAware;
+  }
+
+  // Spools the upload to disk and queues the job; the request returns as soon as the job row exists
+  public ImportJob start(UUID userId, UUID walletId, ImportFormat format, ImportOptions options, MultipartFile file) {
+    walletRepository.findByIdAndUserId(walletId, userId)
+        .orElseThrow(() -> new EntityNotFoundException("Wallet not found: " + walletId));
+    if (file.isEmpty()) {
+      throw new IllegalArgumentException("File is empty");
+    }
+    ImportFormat resolved = format != null ? format : detectFormat(file.getOriginalFilename());
+
+    Path spool;
+    try {
+      spool = Files.createTempFile("pockito-import-", ".tmp");
+      file.transferTo(spool);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    ImportJob job = new ImportJob();
+    job.setUserId(userId);
+    job.setWalletId(walletId);
+    job.setFormat(resolved);
+    job.setFileName(file.getOriginalFilename());
+    job.setStatus(ImportStatus.QUEUED);
+    job.setCreatedBy(auditorAware.getCurrentAuditor().orElse(null));
+    job = jobRepository.save(job);
+
+    UUID jobId = job.getId();
+    try {
+      importTaskExecutor.execute(() -> worker.run(jobId, spool, options));
+    } catch (TaskRejectedException e) {
+      log.warn("Import queue full, rejecting job {}", jobId);
+      deleteQuietly(spool);
+      job.setStatus(ImportStatus.FAILED);
+      job.setError("Import queue is full, try again later");
+      job.setFinishedAt(Instant.now());
+      job = jobRepository.save(job);
+    }
+    return job;
+  }
+
+  public ImportJob get(UUID userId, UUID jobId) {
+    return jobRepository.findByIdAndUserId(jobId, userId)
+        .orElseThrow(() -> new EntityNotFoundException("Import job not found: " + jobId));
+  }
+
+  static ImportFormat detectFormat(String fileName) {
+    String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+    if (name.endsWith(".ofx") || name.endsWith(".qfx")) {
+      return ImportFormat.OFX;
+    }
+    if (name.endsWith(".qif")) {
+      return ImportFormat.QIF;
+    }
+    if (name.endsWith(".csv") || name.endsWith(".txt")) {
+      return ImportFormat.CSV;
+    }
+    throw new IllegalArgumentException("Cannot detect statement format of " + fileName + ", pass format explicitly");
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException ignored) {}
+  }
+}
@@ -0,0 +1,175 @@
+package io.ghassen.pockito.service.importer;
+
+import io.ghassen.pockito.domain.ImportFormat;
+import io.ghassen.pockito.domain.ImportJob;
+import io.ghassen.pockito.domain.ImportStatus;
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.Wallet;
+import io.ghassen.pockito.repo.CategoryRepository;
+import io.ghassen.pockito.repo.ImportJobRepository;
+import io.ghassen.pockito.repo.TxnBulkRepository;
+import io.ghassen.pockito.repo.WalletRepository;
+import io.ghassen.pockito.service.txn.TxnBatchCreatedEvent;
+import io.ghassen.pockito.service.txn.TxnSnapshot;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Runs one import job on the import executor. Heap use is bounded by the batch size:
+// the file is parsed as a stream and each batch is committed before the next is read.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImportWorker {
+
+  private final ImportJobRepository jobRepository;
+  private final WalletRepository walletRepository;
+  private final CategoryRepository categoryRepository;
+  private final TxnBulkRepository txnBulkRepository;
+  private final ApplicationEventPublisher events;
+  private final TransactionTemplate transactionTemplate;
+  private final List<StatementParser> parsers;
+
+  @Value("${pockito.import.batch-size:2000}")
+  private int batchSize;
+
+  @Timed(value = "pockito.job", extraTags = {"job", "import"})
+  public void run(UUID jobId, Path file, ImportOptions options) {
+    long started = System.nanoTime();
+    try {
+      ImportJob job = transactionTemplate.execute(status -> {
+        ImportJob j = jobRepository.findById(jobId)
+            .orElseThrow(() -> new EntityNotFoundException("Import job not found: " + jobId));
+        j.setStatus(ImportStatus.RUNNING);
+        j.setStartedAt(Instant.now());
+        return j;
+      });
+      Wallet wallet = walletRepository.findByIdAndUserId(job.getWalletId(), job.getUserId())
+          .orElseThrow(() -> new EntityNotFoundException("Wallet not found: " + job.getWalletId()));
+      ImportLookup lookup = new ImportLookup(
+          walletRepository.findByUserId(job.getUserId()), categoryRepository.findByUserId(job.getUserId()));
+      StatementParser parser = parser(job);
+
+      BatchingHandler handler = new BatchingHandler(jobId, job.getCreatedBy(),
+          new StatementRowMapper(job.getUserId(), wallet, lookup));
+      try (Reader reader = new BufferedReader(
+          new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+        parser.parse(reader, options, handler);
+      }
+      handler.flush();
+
+      finish(jobId, ImportStatus.COMPLETED, handler.firstError);
+      log.info("Import {} completed: {} rows in {} ms", jobId, handler.total,
+          (System.nanoTime() - started) / 1_000_000);
+    } catch (Exception e) {
+      log.warn("Import {} failed", jobId, e);
+      finish(jobId, ImportStatus.FAILED, e.getMessage());
+    } finally {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        log.warn("Could not delete import file {}", file, e);
+      }
+    }
+  }
+
+  private StatementParser parser(ImportJob job) {
+    Map<ImportFormat, StatementParser> byFormat = parsers.stream()
+        .collect(Collectors.toMap(StatementParser::format, Function.identity()));
+    StatementParser parser = byFormat.get(job.getFormat());
+    if (parser == null) {
+      throw new IllegalArgumentException("Unsupported format: " + job.getFormat());
+    }
+    return parser;
+  }
+
+  private void finish(UUID jobId, ImportStatus status, String error) {
+    transactionTemplate.executeWithoutResult(tx -> jobRepository.findById(jobId).ifPresent(j -> {
+      j.setStatus(status);
+      j.setError(error);
+      j.setFinishedAt(Instant.now());
+    }));
+  }
+
+  private final class BatchingHandler implements StatementHandler {
+    private final UUID jobId;
+    private final String auditor;
+    private final StatementRowMapper mapper;
+    private final List<Txn> batch = new ArrayList<>(batchSize);
+    private long read;
+    private long failed;
+    private long total;
+    private String firstError;
+
+    BatchingHandler(UUID jobId, String auditor, StatementRowMapper mapper) {
+      this.jobId = jobId;
+      this.auditor = auditor;
+      this.mapper = mapper;
+    }
+
+    @Override
+    public void row(StatementRow row) {
+      Txn txn;
+      try {
+        txn = mapper.map(row);
+      } catch (IllegalArgumentException e) {
+        invalid(row.line(), e.getMessage());
+        return;
+      }
+      read++;
+      batch.add(txn);
+      if (batch.size() >= batchSize) {
+        flush();
+      }
+    }
+
+    @Override
+    public void invalid(long line, String reason) {
+      read++;
+      failed++;
+      if (firstError == null) {
+        firstError = "Line " + line + ": " + reason;
+      }
+    }
+
+    // One transaction per batch: insert, balance/derived-state listeners, progress counters
+    void flush() {
+      long readNow = read;
+      long failedNow = failed;
+      if (batch.isEmpty() && readNow == 0) {
+        return;
+      }
+      transactionTemplate.executeWithoutResult(tx -> {
+        List<TxnSnapshot> inserted = txnBulkRepository.insertIgnoringDuplicates(batch, auditor);
+        if (!inserted.isEmpty()) {
+          events.publishEvent(new TxnBatchCreatedEvent(inserted));
+        }
+        jobRepository.addProgress(jobId, readNow, inserted.size(), batch.size() - inserted.size(), failedNow);
+      });
+      total += readNow;
+      read = 0;
+      failed = 0;
+      batch.clear();
+    }
+  }
+}
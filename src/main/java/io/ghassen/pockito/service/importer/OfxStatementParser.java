@@ -0,0 +1,140 @@
+package io.ghassen.pockito.service.importer;
+
+import io.ghassen.pockito.domain.ImportFormat;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+// OFX 1.x (SGML, unclosed leaf tags) and 2.x (XML). Only <STMTTRN> blocks are read.
+@Component
+public class OfxStatementParser implements StatementParser {
+
+  private static final List<DateTimeFormatter> DATE_FORMATS = List.of(DateTimeFormatter.BASIC_ISO_DATE);
+
+  @Override
+  public ImportFormat format() {
+    return ImportFormat.OFX;
+  }
+
+  @Override
+  public void parse(Reader reader, ImportOptions options, StatementHandler handler) throws IOException {
+    Tokenizer tokens = new Tokenizer(reader);
+    Txn current = null;
+    String tag;
+    while ((tag = tokens.nextTag()) != null) {
+      switch (tag) {
+        case "STMTTRN" -> {
+          current = new Txn();
+          current.line = tokens.line;
+        }
+        case "/STMTTRN" -> {
+          if (current != null) {
+            emit(current, handler);
+          }
+          current = null;
+        }
+        default -> {
+          if (current != null && !tag.startsWith("/")) {
+            String value = tokens.text();
+            switch (tag) {
+              case "DTPOSTED" -> current.posted = value;
+              case "TRNAMT" -> current.amount = value;
+              case "FITID" -> current.fitId = value;
+              case "NAME", "PAYEE" -> current.name = value;
+              case "MEMO" -> current.memo = value;
+              default -> { }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private static void emit(Txn t, StatementHandler handler) {
+    try {
+      if (t.posted == null || t.posted.length() < 8 || t.amount == null) {
+        throw new IllegalArgumentException("STMTTRN needs DTPOSTED and TRNAMT");
+      }
+      LocalDate date = StatementValues.parseDate(t.posted.substring(0, 8), DATE_FORMATS);
+      handler.row(new StatementRow(t.line, date, StatementValues.parseAmount(t.amount),
+          StatementValues.trimToNull(t.name), StatementValues.trimToNull(t.memo),
+          null, null, StatementValues.trimToNull(t.fitId)));
+    } catch (IllegalArgumentException e) {
+      handler.invalid(t.line, e.getMessage());
+    }
+  }
+
+  private static final class Txn {
+    long line;
+    String posted;
+    String amount;
+    String fitId;
+    String name;
+    String memo;
+  }
+
+  private static final class Tokenizer {
+    private final Reader in;
+    private final StringBuilder buf = new StringBuilder();
+    private long line = 1;
+    private int pending = -2;
+
+    Tokenizer(Reader in) {
+      this.in = in;
+    }
+
+    String nextTag() throws IOException {
+      int c;
+      while ((c = read()) != -1 && c != '<') { }
+      if (c == -1) {
+        return null;
+      }
+      buf.setLength(0);
+      while ((c = read()) != -1 && c != '>') {
+        buf.append((char) c);
+      }
+      return buf.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Text up to the next tag, which is left unread
+    String text() throws IOException {
+      buf.setLength(0);
+      int c;
+      while ((c = read()) != -1) {
+        if (c == '<') {
+          pending = c;
+          break;
+        }
+        buf.append((char) c);
+      }
+      return unescape(buf.toString().trim());
+    }
+
+    private int read() throws IOException {
+      int c;
+      if (pending != -2) {
+        c = pending;
+        pending = -2;
+        return c;
+      }
+      c = in.read();
+      if (c == '\n') {
+        line++;
+      }
+      return c;
+    }
+
+    private static String unescape(String s) {
+      if (s.indexOf('&') < 0) {
+        return s;
+      }
+      return s.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+          .replace("&apos;", "'").replace("&amp;", "&");
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package io.ghassen.pockito.service.importer;
+
+import io.ghassen.pockito.domain.ImportFormat;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// Quicken Interchange Format: one field per line keyed by its first character, records end with '^'
+@Component
+public class QifStatementParser implements StatementParser {
+
+  private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+      DateTimeFormatter.ofPattern("M/d/uuuu"),
+      DateTimeFormatter.ofPattern("M/d/uu"),
+      DateTimeFormatter.ofPattern("d.M.uuuu"),
+      DateTimeFormatter.ISO_LOCAL_DATE);
+
+  @Override
+  public ImportFormat format() {
+    return ImportFormat.QIF;
+  }
+
+  @Override
+  public void parse(Reader reader, ImportOptions options, StatementHandler handler) throws IOException {
+    List<DateTimeFormatter> formats = StatementValues.formatters(options, DATE_FORMATS);
+    BufferedReader in = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+    Record rec = new Record();
+    long lineNo = 0;
+    String line;
+    while ((line = in.readLine()) != null) {
+      lineNo++;
+      if (line.isEmpty()) {
+        continue;
+      }
+      if (rec.start == 0) {
+        rec.start = lineNo;
+      }
+      char code = line.charAt(0);
+      String value = line.substring(1).trim();
+      switch (code) {
+        case '!' -> rec.start = 0; // !Type:Bank, !Account headers
+        case 'D' -> rec.date = value;
+        case 'T', 'U' -> rec.amount = value;
+        case 'P' -> rec.payee = value;
+        case 'M' -> rec.memo = value;
+        case 'N' -> rec.number = value;
+        case 'L' -> rec.category = value;
+        case '^' -> {
+          emit(rec, formats, handler);
+          rec = new Record();
+        }
+        default -> { } // cleared status, address lines and splits are not imported
+      }
+    }
+    if (rec.date != null || rec.amount != null) {
+      emit(rec, formats, handler);
+    }
+  }
+
+  private static void emit(Record rec, List<DateTimeFormatter> formats, StatementHandler handler) {
+    if (rec.date == null && rec.amount == null) {
+      return;
+    }
+    try {
+      if (rec.date == null || rec.amount == null) {
+        throw new IllegalArgumentException("Record needs D and T lines");
+      }
+      LocalDate date = StatementValues.parseDate(rec.date.replace('\'', '/').replace(" ", ""), formats);
+      BigDecimal amount = StatementValues.parseAmount(rec.amount);
+      String category = StatementValues.trimToNull(rec.category);
+      String transfer = null;
+      // "[Savings]" in the category field is a transfer to/from another account
+      if (category != null && category.startsWith("[") && category.endsWith("]")) {
+        transfer = StatementValues.trimToNull(category.substring(1, category.length() - 1));
+        category = null;
+      } else if (category != null && category.contains(":")) {
+        category = category.substring(category.lastIndexOf(':') + 1);
+      }
+      handler.row(new StatementRow(rec.start, date, amount,
+          StatementValues.trimToNull(rec.payee), StatementValues.trimToNull(rec.memo),
+          category, transfer, StatementValues.trimToNull(rec.number)));
+    } catch (IllegalArgumentException e) {
+      handler.invalid(rec.start, e.getMessage());
+    }
+  }
+
+  private static final class Record {
+    long start;
+    String date;
+    String amount;
+    String payee;
+    String memo;
+    String number;
+    String category;
+  }
+}
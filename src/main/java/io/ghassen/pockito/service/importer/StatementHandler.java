@@ -0,0 +1,9 @@
+package io.ghassen.pockito.service.importer;
+
+public interface StatementHandler {
+
+  void row(StatementRow row);
+
+  // A line that could not be parsed; the import skips it and keeps going
+  void invalid(long line, String reason);
+}
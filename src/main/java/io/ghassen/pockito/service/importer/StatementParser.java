@@ -0,0 +1,14 @@
+package io.ghassen.pockito.service.importer;
+
+import io.ghassen.pockito.domain.ImportFormat;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Parsers push rows as they read them and never hold more than the current record in memory
+public interface StatementParser {
+
+  ImportFormat format();
+
+  void parse(Reader reader, ImportOptions options, StatementHandler handler) throws IOException;
+}
@@ -0,0 +1,16 @@
+package io.ghassen.pockito.service.importer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One parsed statement line. amount is signed from the account's point of view (negative = money out).
+public record StatementRow(
+    long line,
+    LocalDate date,
+    BigDecimal amount,
+    String payee,
+    String memo,
+    String category,
+    String transferWallet,
+    String externalId) {
+}
@@ -0,0 +1,124 @@
+package io.ghassen.pockito.service.importer;
+
+import io.ghassen.pockito.domain.CategoryType;
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.domain.Wallet;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+
+// Maps statement rows of one wallet's statement onto txn rows that satisfy txn_exp_inc_check
+final class StatementRowMapper {
+
+  private final UUID userId;
+  private final Wallet wallet;
+  private final ImportLookup lookup;
+  private final MessageDigest sha256;
+
+  // Identical lines on the same day are told apart by their ordinal; the map only spans one
+  // day at a time so memory stays flat for date-sorted statements
+  private final Map<String, Integer> sameDayOrdinals = new HashMap<>();
+  private LocalDate ordinalDay;
+
+  StatementRowMapper(UUID userId, Wallet wallet, ImportLookup lookup) {
+    this.userId = userId;
+    this.wallet = wallet;
+    this.lookup = lookup;
+    try {
+      this.sha256 = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  Txn map(StatementRow row) {
+    if (row.amount().signum() == 0) {
+      throw new IllegalArgumentException("Zero amount");
+    }
+    BigDecimal abs = row.amount().abs();
+    boolean outflow = row.amount().signum() < 0;
+
+    Txn txn = new Txn();
+    txn.setUserId(userId);
+    txn.setOccurredAt(row.date());
+    txn.setNote(note(row));
+
+    if (row.transferWallet() != null) {
+      Wallet other = lookup.wallet(row.transferWallet());
+      Wallet from = outflow ? wallet : other;
+      Wallet to = outflow ? other : wallet;
+      txn.setType(TxnType.TRANSFER);
+      txn.setFromWalletId(from != null ? from.getId() : null);
+      txn.setToWalletId(to != null ? to.getId() : null);
+      txn.setFromCurrencyCode(from != null ? from.getCurrencyCode() : null);
+      txn.setToCurrencyCode(to != null ? to.getCurrencyCode() : null);
+      boolean sameCurrency = other != null && other.getCurrencyCode().equals(wallet.getCurrencyCode());
+      // The statement only knows this wallet's side of a cross-currency transfer
+      txn.setFromAmount(outflow || sameCurrency ? abs : null);
+      txn.setToAmount(!outflow || sameCurrency ? abs : null);
+      if (other == null) {
+        txn.setExternalWalletName(row.transferWallet());
+        txn.setImportRef(importRef(row));
+      } else {
+        txn.setImportRef(transferRef(from, to, row.date(), sameCurrency ? abs : null));
+      }
+      return txn;
+    }
+
+    txn.setImportRef(importRef(row));
+    txn.setType(outflow ? TxnType.EXPENSE : TxnType.INCOME);
+    txn.setWalletId(wallet.getId());
+    txn.setAmount(abs);
+    txn.setCurrencyCode(wallet.getCurrencyCode());
+    txn.setCategoryId(lookup.category(outflow ? CategoryType.EXPENSE : CategoryType.INCOME, row.category()));
+    return txn;
+  }
+
+  private static String note(StatementRow row) {
+    if (row.payee() == null) {
+      return row.memo();
+    }
+    if (row.memo() == null || row.memo().equals(row.payee())) {
+      return row.payee();
+    }
+    return row.payee() + " - " + row.memo();
+  }
+
+  private String importRef(StatementRow row) {
+    if (row.externalId() != null) {
+      return hash(wallet.getId() + "|id|" + row.externalId());
+    }
+    String line = wallet.getId() + "|" + row.date() + "|" + row.amount().stripTrailingZeros().toPlainString()
+        + "|" + row.payee() + "|" + row.memo();
+    return hash(line + "|" + ordinal(row.date(), line));
+  }
+
+  // A transfer between two of the user's wallets appears on both statements, with each bank's own id,
+  // payee and memo. Only what both sides agree on goes in: the wallets in from/to order, the date and,
+  // when both sides are in one currency, the amount. Importing the second statement then skips the row.
+  private String transferRef(Wallet from, Wallet to, LocalDate date, BigDecimal amount) {
+    String line = "transfer|" + from.getId() + "|" + to.getId() + "|" + date + "|"
+        + (amount != null ? amount.stripTrailingZeros().toPlainString() : "");
+    return hash(line + "|" + ordinal(date, line));
+  }
+
+  private int ordinal(LocalDate day, String line) {
+    if (!day.equals(ordinalDay)) {
+      sameDayOrdinals.clear();
+      ordinalDay = day;
+    }
+    return sameDayOrdinals.merge(line, 1, Integer::sum);
+  }
+
+  private String hash(String key) {
+    return HexFormat.of().formatHex(sha256.digest(key.getBytes(StandardCharsets.UTF_8)), 0, 16);
+  }
+}
@@ -0,0 +1,73 @@
+package io.ghassen.pockito.service.importer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+final class StatementValues {
+  private StatementValues(){}
+
+  static List<DateTimeFormatter> formatters(ImportOptions options, List<DateTimeFormatter> defaults) {
+    if (options != null && options.dateFormat() != null && !options.dateFormat().isBlank()) {
+      return List.of(DateTimeFormatter.ofPattern(options.dateFormat()));
+    }
+    return defaults;
+  }
+
+  static LocalDate parseDate(String value, List<DateTimeFormatter> formatters) {
+    String v = value.trim();
+    for (DateTimeFormatter f : formatters) {
+      try {
+        return LocalDate.parse(v, f);
+      } catch (DateTimeParseException ignored) {}
+    }
+    throw new IllegalArgumentException("Unparseable date: " + value);
+  }
+
+  // Accepts "1,234.56", "1.234,56", "-12.00", "(12.00)", "12.00-" and currency symbols around the number
+  static BigDecimal parseAmount(String value) {
+    String v = value.trim();
+    boolean negative = false;
+    if (v.startsWith("(") && v.endsWith(")")) {
+      negative = true;
+      v = v.substring(1, v.length() - 1);
+    }
+    if (v.endsWith("-")) {
+      negative = true;
+      v = v.substring(0, v.length() - 1);
+    }
+    StringBuilder digits = new StringBuilder(v.length());
+    int lastComma = v.lastIndexOf(',');
+    int lastDot = v.lastIndexOf('.');
+    char decimal = lastComma > lastDot ? ',' : '.';
+    // A lone comma followed by exactly three digits is a thousands separator ("1,234")
+    if (decimal == ',' && lastDot < 0 && v.indexOf(',') == lastComma && v.length() - lastComma - 1 == 3) {
+      decimal = '.';
+    }
+    for (int i = 0; i < v.length(); i++) {
+      char c = v.charAt(i);
+      if (c >= '0' && c <= '9') {
+        digits.append(c);
+      } else if (c == decimal) {
+        digits.append('.');
+      } else if (c == '-' && digits.isEmpty()) {
+        negative = !negative;
+      }
+    }
+    if (digits.isEmpty()) {
+      throw new IllegalArgumentException("Unparseable amount: " + value);
+    }
+    BigDecimal amount = new BigDecimal(digits.toString());
+    return negative ? amount.negate() : amount;
+  }
+
+  static String trimToNull(String value) {
+    if (value == null) {
+      return null;
+    }
+    String v = value.trim();
+    return v.isEmpty() ? null : v;
+  }
+}
@@ -0,0 +1,108 @@
+package io.ghassen.pockito.service.partition;
+
+import io.ghassen.pockito.repo.PartitionRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+// Keeps the monthly partitions of txn and activity_log ahead of the calendar and retires old
+// activity_log months. txn is never retired: it is the financial record.
+@Component
+@Slf4j
+public class PartitionMaintenanceJob {
+
+  public enum Expiry { DETACH, DROP }
+
+  private final PartitionRepository partitionRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Clock clock;
+
+  @Value("${pockito.partition.months-ahead:3}")
+  private int monthsAhead;
+
+  // 0 keeps activity_log forever
+  @Value("${pockito.partition.activity-log.retention-months:24}")
+  private int activityRetentionMonths;
+
+  @Value("${pockito.partition.activity-log.expiry:DETACH}")
+  private Expiry activityExpiry;
+
+  public PartitionMaintenanceJob(PartitionRepository partitionRepository, TransactionTemplate transactionTemplate) {
+    this(partitionRepository, transactionTemplate, Clock.systemUTC());
+  }
+
+  PartitionMaintenanceJob(PartitionRepository partitionRepository, TransactionTemplate transactionTemplate,
+                          Clock clock) {
+    this.partitionRepository = partitionRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.clock = clock;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    run();
+  }
+
+  @Scheduled(cron = "${pockito.partition.cron:0 15 2 * * *}")
+  @Timed(value = "pockito.job", extraTags = {"job", "partition-maintenance"})
+  public void run() {
+    YearMonth current = YearMonth.now(clock.withZone(ZoneOffset.UTC));
+    for (PartitionedTable table : PartitionedTable.values()) {
+      ensureMonths(table, current, current.plusMonths(monthsAhead));
+    }
+    if (activityRetentionMonths > 0) {
+      retire(PartitionedTable.ACTIVITY_LOG, current.minusMonths(activityRetentionMonths));
+    }
+  }
+
+  public void ensureMonths(PartitionedTable table, YearMonth from, YearMonth to) {
+    List<YearMonth> existing = partitionRepository.findMonths(table);
+    for (YearMonth m = from; !m.isAfter(to); m = m.plusMonths(1)) {
+      if (!existing.contains(m)) {
+        ensureMonth(table, m);
+      }
+    }
+  }
+
+  // One transaction per month: the default partition is locked only while that month's rows move
+  public void ensureMonth(PartitionedTable table, YearMonth month) {
+    transactionTemplate.executeWithoutResult(status -> {
+      if (partitionRepository.defaultHasRows(table, month)) {
+        int moved = partitionRepository.createPartitionFromDefault(table, month);
+        log.info("Created partition {} with {} rows from the default partition",
+            PartitionRepository.partitionName(table, month), moved);
+      } else {
+        partitionRepository.createPartition(table, month);
+        log.info("Created partition {}", PartitionRepository.partitionName(table, month));
+      }
+    });
+  }
+
+  // Retires every month strictly before `before`
+  public void retire(PartitionedTable table, YearMonth before) {
+    for (YearMonth month : partitionRepository.findMonths(table)) {
+      if (!month.isBefore(before)) {
+        break;
+      }
+      transactionTemplate.executeWithoutResult(status -> {
+        if (activityExpiry == Expiry.DROP) {
+          partitionRepository.dropPartition(table, month);
+        } else {
+          partitionRepository.detachToArchive(table, month);
+        }
+      });
+      log.info("{} partition {}", activityExpiry == Expiry.DROP ? "Dropped" : "Detached",
+          PartitionRepository.partitionName(table, month));
+    }
+  }
+}
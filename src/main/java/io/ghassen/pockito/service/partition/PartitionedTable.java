@@ -0,0 +1,33 @@
+package io.ghassen.pockito.service.partition;
+
+// Tables range-partitioned by month (V8). Partition bounds for TIMESTAMPTZ keys are UTC month starts.
+public enum PartitionedTable {
+  TXN("txn", "occurred_at", false),
+  ACTIVITY_LOG("activity_log", "created_at", true);
+
+  private final String table;
+  private final String keyColumn;
+  private final boolean timestampKey;
+
+  PartitionedTable(String table, String keyColumn, boolean timestampKey) {
+    this.table = table;
+    this.keyColumn = keyColumn;
+    this.timestampKey = timestampKey;
+  }
+
+  public String table() {
+    return table;
+  }
+
+  public String keyColumn() {
+    return keyColumn;
+  }
+
+  public boolean timestampKey() {
+    return timestampKey;
+  }
+
+  public String defaultPartition() {
+    return table + "_default";
+  }
+}
@@ -0,0 +1,28 @@
+package io.ghassen.pockito.service.read;
+
+import io.ghassen.pockito.domain.AuditableEntity;
+import io.ghassen.pockito.repo.UserOwnedRepository;
+import io.ghassen.pockito.repo.VersionStamp;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Adds the whole-collection read: stamp() tags the user's rows without loading them, list() loads them
+public class ListableOwnedEntityReads<T extends AuditableEntity> extends OwnedEntityReads<T> {
+
+  private final Function<UUID, List<T>> lister;
+
+  public ListableOwnedEntityReads(UserOwnedRepository<T> repository, String label, Function<UUID, List<T>> lister) {
+    super(repository, label);
+    this.lister = lister;
+  }
+
+  public VersionStamp stamp(UUID userId) {
+    return repository.findVersionStamp(userId);
+  }
+
+  public List<T> list(UUID userId) {
+    return lister.apply(userId);
+  }
+}
@@ -0,0 +1,50 @@
+package io.ghassen.pockito.service.read;
+
+import io.ghassen.pockito.domain.Agreement;
+import io.ghassen.pockito.domain.Budget;
+import io.ghassen.pockito.domain.Category;
+import io.ghassen.pockito.domain.Subscription;
+import io.ghassen.pockito.domain.Wallet;
+import io.ghassen.pockito.repo.AgreementRepository;
+import io.ghassen.pockito.repo.BudgetRepository;
+import io.ghassen.pockito.repo.CategoryRepository;
+import io.ghassen.pockito.repo.SubscriptionRepository;
+import io.ghassen.pockito.repo.TxnRepository;
+import io.ghassen.pockito.repo.WalletRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OwnedEntityReadConfig {
+
+  @Bean
+  public ListableOwnedEntityReads<Wallet> walletReads(WalletRepository repository) {
+    return new ListableOwnedEntityReads<>(repository, "Wallet", repository::findByUserId);
+  }
+
+  @Bean
+  public ListableOwnedEntityReads<Category> categoryReads(CategoryRepository repository) {
+    return new ListableOwnedEntityReads<>(repository, "Category", repository::findByUserId);
+  }
+
+  @Bean
+  public ListableOwnedEntityReads<Budget> budgetReads(BudgetRepository repository) {
+    return new ListableOwnedEntityReads<>(repository, "Budget", repository::findByUserId);
+  }
+
+  @Bean
+  public ListableOwnedEntityReads<Subscription> subscriptionReads(SubscriptionRepository repository) {
+    return new ListableOwnedEntityReads<>(repository, "Subscription", repository::findByUserIdOrderByNextDueDate);
+  }
+
+  @Bean
+  public ListableOwnedEntityReads<Agreement> agreementReads(AgreementRepository repository) {
+    return new ListableOwnedEntityReads<>(repository, "Agreement", repository::findByUserIdOrderByStartDateDesc);
+  }
+
+  // Listed by page through TxnQueryService, never whole
+  @Bean
+  public TxnReads txnReads(TxnRepository repository) {
+    return new TxnReads(repository);
+  }
+}
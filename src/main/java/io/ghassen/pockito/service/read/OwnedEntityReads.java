@@ -0,0 +1,33 @@
+package io.ghassen.pockito.service.read;
+
+import io.ghassen.pockito.domain.AuditableEntity;
+import io.ghassen.pockito.repo.UserOwnedRepository;
+import jakarta.persistence.EntityNotFoundException;
+
+import java.util.UUID;
+
+// Reads of one user-owned entity by id. version() is an aggregate lookup that loads no entity, so a
+// conditional request can be answered before get() runs. Entities small enough to list whole use
+// ListableOwnedEntityReads.
+public class OwnedEntityReads<T extends AuditableEntity> {
+
+  protected final UserOwnedRepository<T> repository;
+  private final String label;
+
+  public OwnedEntityReads(UserOwnedRepository<T> repository, String label) {
+    this.repository = repository;
+    this.label = label;
+  }
+
+  public long version(UUID userId, UUID id) {
+    return repository.findVersion(id, userId).orElseThrow(() -> notFound(id));
+  }
+
+  public T get(UUID userId, UUID id) {
+    return repository.findByIdAndUserId(id, userId).orElseThrow(() -> notFound(id));
+  }
+
+  private EntityNotFoundException notFound(UUID id) {
+    return new EntityNotFoundException(label + " not found: " + id);
+  }
+}
@@ -0,0 +1,33 @@
+package io.ghassen.pockito.service.read;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.repo.TxnRepository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Txn reads by id that take the txn's date as a partition hint. A hint that no longer matches (the
+// date was edited since) falls back to the lookup across all partitions.
+public class TxnReads extends OwnedEntityReads<Txn> {
+
+  private final TxnRepository txnRepository;
+
+  public TxnReads(TxnRepository repository) {
+    super(repository, "Transaction");
+    this.txnRepository = repository;
+  }
+
+  public long version(UUID userId, UUID id, LocalDate occurredAt) {
+    if (occurredAt == null) {
+      return version(userId, id);
+    }
+    return txnRepository.findVersion(id, userId, occurredAt).orElseGet(() -> version(userId, id));
+  }
+
+  public Txn get(UUID userId, UUID id, LocalDate occurredAt) {
+    if (occurredAt == null) {
+      return get(userId, id);
+    }
+    return txnRepository.findByIdAndUserIdAndOccurredAt(id, userId, occurredAt).orElseGet(() -> get(userId, id));
+  }
+}
@@ -0,0 +1,42 @@
+package io.ghassen.pockito.service.subscription;
+
+import io.ghassen.pockito.domain.FreqType;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+
+// Due-date arithmetic for subscriptions. Month-based schedules re-anchor on day_of_month (or the
+// start date's day) every period, so the 31st clamps to Feb 28 and returns to Mar 31. Out-of-range
+// schedule fields are ignored rather than thrown on, so one bad row cannot stop a billing chunk.
+public final class BillingSchedule {
+  private BillingSchedule(){}
+
+  public static LocalDate next(FreqType frequency, Integer interval, Short dayOfMonth, Short dayOfWeek,
+                               Short monthOfYear, LocalDate startDate, LocalDate current) {
+    int n = interval == null || interval < 1 ? 1 : interval;
+    int anchorDay = dayOfMonth != null && dayOfMonth >= 1 ? dayOfMonth : startDate.getDayOfMonth();
+    boolean weekday = dayOfWeek != null && dayOfWeek >= 1 && dayOfWeek <= 7;
+    boolean month = monthOfYear != null && monthOfYear >= 1 && monthOfYear <= 12;
+    return switch (frequency) {
+      case WEEKLY -> {
+        LocalDate d = current.plusWeeks(n);
+        yield weekday ? d.with(ChronoField.DAY_OF_WEEK, dayOfWeek) : d;
+      }
+      case MONTHLY -> withDay(current.plusMonths(n), anchorDay);
+      case QUARTERLY -> withDay(current.plusMonths(3L * n), anchorDay);
+      case ANNUALLY -> {
+        LocalDate d = current.plusYears(n);
+        if (month) {
+          d = d.withDayOfMonth(1).withMonth(monthOfYear);
+        }
+        yield withDay(d, anchorDay);
+      }
+      // CUSTOM schedules repeat every `interval` days
+      case CUSTOM -> current.plusDays(n);
+    };
+  }
+
+  private static LocalDate withDay(LocalDate d, int day) {
+    return d.withDayOfMonth(Math.min(day, d.lengthOfMonth()));
+  }
+}
@@ -0,0 +1,30 @@
+package io.ghassen.pockito.service.subscription;
+
+import io.ghassen.pockito.domain.FreqType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// A subscription row claimed by the billing scheduler, with its wallet's currency joined in
+public record DueSubscription(
+    UUID id,
+    UUID userId,
+    String name,
+    BigDecimal amount,
+    String currencyCode,
+    UUID walletId,
+    String walletCurrencyCode,
+    UUID categoryId,
+    FreqType frequency,
+    Integer interval,
+    Short dayOfMonth,
+    Short dayOfWeek,
+    Short monthOfYear,
+    LocalDate startDate,
+    LocalDate nextDueDate) {
+
+  public LocalDate nextAfter(LocalDate current) {
+    return BillingSchedule.next(frequency, interval, dayOfMonth, dayOfWeek, monthOfYear, startDate, current);
+  }
+}
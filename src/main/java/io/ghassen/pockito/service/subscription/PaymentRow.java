@@ -0,0 +1,11 @@
+package io.ghassen.pockito.service.subscription;
+
+import io.ghassen.pockito.domain.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public record PaymentRow(UUID subscriptionId, UUID txnId, BigDecimal amount, String currencyCode,
+                         Instant paidAt, PaymentStatus status) {
+}
@@ -0,0 +1,196 @@
+package io.ghassen.pockito.service.subscription;
+
+import io.ghassen.pockito.domain.PaymentStatus;
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.domain.UuidV7;
+import io.ghassen.pockito.repo.SubscriptionBillingRepository;
+import io.ghassen.pockito.repo.TxnBulkRepository;
+import io.ghassen.pockito.service.currency.CurrencyCache;
+import io.ghassen.pockito.service.currency.CurrencyInfo;
+import io.ghassen.pockito.service.fx.ExchangeRateEngine;
+import io.ghassen.pockito.service.txn.TxnBatchCreatedEvent;
+import io.ghassen.pockito.service.txn.TxnSnapshot;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Turns due subscriptions into txn + subscription_payment rows. Each chunk is claimed with
+// FOR UPDATE SKIP LOCKED and billed in one transaction, so any number of nodes can run this
+// concurrently without double-charging and memory is bounded by the chunk size.
+@Component
+@Slf4j
+public class SubscriptionBillingJob {
+
+  static final String AUDITOR = "system:billing";
+
+  private final SubscriptionBillingRepository billingRepository;
+  private final TxnBulkRepository txnBulkRepository;
+  private final ExchangeRateEngine rateEngine;
+  private final CurrencyCache currencyCache;
+  private final ApplicationEventPublisher events;
+  private final TransactionTemplate transactionTemplate;
+  private final Map<PaymentStatus, Counter> payments = new EnumMap<>(PaymentStatus.class);
+  private final Counter failures;
+  private final AtomicLong lastRunPerSecond = new AtomicLong();
+
+  @Value("${pockito.billing.chunk-size:500}")
+  private int chunkSize;
+
+  // Periods billed per subscription per claim; a subscription further behind is picked up again
+  @Value("${pockito.billing.max-catch-up:24}")
+  private int maxCatchUp;
+
+  @Value("${pockito.billing.zone:UTC}")
+  private ZoneId zone;
+
+  public SubscriptionBillingJob(SubscriptionBillingRepository billingRepository, TxnBulkRepository txnBulkRepository,
+                                ExchangeRateEngine rateEngine, CurrencyCache currencyCache,
+                                ApplicationEventPublisher events, TransactionTemplate transactionTemplate,
+                                MeterRegistry registry) {
+    this.billingRepository = billingRepository;
+    this.txnBulkRepository = txnBulkRepository;
+    this.rateEngine = rateEngine;
+    this.currencyCache = currencyCache;
+    this.events = events;
+    this.transactionTemplate = transactionTemplate;
+    for (PaymentStatus s : PaymentStatus.values()) {
+      payments.put(s, Counter.builder("pockito.billing.payments").tag("status", s.name()).register(registry));
+    }
+    this.failures = Counter.builder("pockito.billing.failures")
+        .description("Subscriptions skipped in a billing run because billing them threw or a rate was missing")
+        .register(registry);
+    Gauge.builder("pockito.billing.throughput", lastRunPerSecond, AtomicLong::get)
+        .description("Payments per second during the last billing run")
+        .baseUnit("payments/s")
+        .register(registry);
+  }
+
+  @Scheduled(cron = "${pockito.billing.cron:0 */15 * * * *}")
+  @Timed(value = "pockito.job", extraTags = {"job", "billing"})
+  public void run() {
+    LocalDate today = LocalDate.now(zone);
+    long started = System.nanoTime();
+    long billed = 0;
+    Set<UUID> failed = new HashSet<>();
+    int claimed;
+    do {
+      long[] chunkBilled = new long[1];
+      claimed = transactionTemplate.execute(tx -> billChunk(today, chunkBilled, failed));
+      billed += chunkBilled[0];
+    } while (claimed > 0);
+    long elapsed = System.nanoTime() - started;
+    if (billed > 0) {
+      long perSecond = billed * 1_000_000_000L / Math.max(elapsed, 1);
+      lastRunPerSecond.set(perSecond);
+      log.info("Billing run: {} payments in {} ms ({}/s)", billed, elapsed / 1_000_000, perSecond);
+    }
+  }
+
+  // Returns the number of subscriptions claimed; 0 means nothing is due any more. Subscriptions that
+  // throw or have no exchange rate for a period are left due from there, added to `failed` and not
+  // claimed again in this run.
+  int billChunk(LocalDate today, long[] billed, Set<UUID> failed) {
+    List<DueSubscription> due = billingRepository.claimDue(today, chunkSize, failed);
+    if (due.isEmpty()) {
+      return 0;
+    }
+    List<Txn> txns = new ArrayList<>();
+    List<PaymentRow> rows = new ArrayList<>();
+    Map<UUID, LocalDate> nextDue = new LinkedHashMap<>();
+
+    for (DueSubscription sub : due) {
+      int txnMark = txns.size();
+      int rowMark = rows.size();
+      try {
+        LocalDate d = sub.nextDueDate();
+        for (int periods = 0; !d.isAfter(today) && periods < maxCatchUp; periods++) {
+          if (!bill(sub, d, txns, rows)) {
+            // The earlier periods are billed; this one waits for its rate
+            failed.add(sub.id());
+            failures.increment();
+            log.warn("No {}->{} rate for subscription {} due {}, left due until the next run",
+                sub.currencyCode(), sub.walletCurrencyCode(), sub.id(), d);
+            break;
+          }
+          d = sub.nextAfter(d);
+        }
+        if (!d.equals(sub.nextDueDate())) {
+          nextDue.put(sub.id(), d);
+        }
+      } catch (RuntimeException e) {
+        // Drop the periods already collected for it; the rest of the chunk is still billed
+        txns.subList(txnMark, txns.size()).clear();
+        rows.subList(rowMark, rows.size()).clear();
+        failed.add(sub.id());
+        failures.increment();
+        log.warn("Billing failed for subscription {}, skipped until the next run", sub.id(), e);
+      }
+    }
+
+    List<TxnSnapshot> inserted = txnBulkRepository.insertIgnoringDuplicates(txns, AUDITOR);
+    if (!inserted.isEmpty()) {
+      events.publishEvent(new TxnBatchCreatedEvent(inserted));
+    }
+    // A txn that already existed was billed by an earlier run; its payment is already recorded
+    Set<UUID> insertedIds = new HashSet<>(inserted.size() * 2);
+    inserted.forEach(t -> insertedIds.add(t.id()));
+    List<PaymentRow> recorded = rows.stream()
+        .filter(p -> p.txnId() == null || insertedIds.contains(p.txnId()))
+        .toList();
+    billingRepository.insertPayments(recorded, AUDITOR);
+    billingRepository.advance(nextDue, AUDITOR);
+
+    recorded.forEach(p -> payments.get(p.status()).increment());
+    billed[0] = recorded.size();
+    return due.size();
+  }
+
+  // Returns false, collecting nothing, when the period cannot be billed yet
+  private boolean bill(DueSubscription sub, LocalDate dueDate, List<Txn> txns, List<PaymentRow> rows) {
+    Instant paidAt = dueDate.atStartOfDay(zone).toInstant();
+    if (sub.walletId() == null || sub.walletCurrencyCode() == null) {
+      rows.add(new PaymentRow(sub.id(), null, sub.amount(), sub.currencyCode(), paidAt, PaymentStatus.SKIPPED));
+      return true;
+    }
+    // The wallet ledger is kept in the wallet's currency
+    BigDecimal amount = sub.amount();
+    if (!sub.currencyCode().equals(sub.walletCurrencyCode())) {
+      double rate = rateEngine.rate(sub.currencyCode(), sub.walletCurrencyCode(), paidAt);
+      if (Double.isNaN(rate)) {
+        return false;
+      }
+      amount = rateEngine.convert(sub.amount(), sub.currencyCode(), sub.walletCurrencyCode(), paidAt,
+          currencyCache.findById(sub.walletCurrencyCode()).map(CurrencyInfo::decimals).orElse(2));
+    }
+
+    Txn txn = new Txn();
+    txn.setId(UuidV7.next());
+    txn.setUserId(sub.userId());
+    txn.setType(TxnType.EXPENSE);
+    txn.setOccurredAt(dueDate);
+    txn.setNote(sub.name());
+    txn.setWalletId(sub.walletId());
+    txn.setCategoryId(sub.categoryId());
+    txn.setAmount(amount);
+    txn.setCurrencyCode(sub.walletCurrencyCode());
+    txn.setImportRef("subscription:" + sub.id() + ":" + dueDate);
+    txns.add(txn);
+    rows.add(new PaymentRow(sub.id(), txn.getId(), sub.amount(), sub.currencyCode(), paidAt, PaymentStatus.PAID));
+    return true;
+  }
+}
@@ -0,0 +1,9 @@
+package io.ghassen.pockito.service.txn;
+
+// The caller's If-Match named a version other than the current one
+public class PreconditionFailedException extends RuntimeException {
+
+  public PreconditionFailedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package io.ghassen.pockito.service.txn;
+
+import java.util.List;
+
+// Published by bulk writers (imports) once per committed batch instead of one TxnChangedEvent per row
+public record TxnBatchCreatedEvent(List<TxnSnapshot> created) {
+}
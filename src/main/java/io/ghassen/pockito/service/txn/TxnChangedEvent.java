@@ -0,0 +1,22 @@
+package io.ghassen.pockito.service.txn;
+
+// Published synchronously inside the writing transaction.
+// before == null for inserts, after == null for archives.
+public record TxnChangedEvent(TxnSnapshot before, TxnSnapshot after) {
+
+  public static TxnChangedEvent created(TxnSnapshot after) {
+    return new TxnChangedEvent(null, after);
+  }
+
+  public static TxnChangedEvent updated(TxnSnapshot before, TxnSnapshot after) {
+    return new TxnChangedEvent(before, after);
+  }
+
+  public static TxnChangedEvent archived(TxnSnapshot before) {
+    return new TxnChangedEvent(before, null);
+  }
+
+  public TxnSnapshot current() {
+    return after != null ? after : before;
+  }
+}
@@ -0,0 +1,28 @@
+package io.ghassen.pockito.service.txn;
+
+import io.ghassen.pockito.domain.TxnType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record TxnCommand(
+    @NotNull TxnType type,
+    @NotNull LocalDate occurredAt,
+    String note,
+    UUID walletId,
+    UUID categoryId,
+    @Positive BigDecimal amount,
+    @Size(min = 3, max = 3) String currencyCode,
+    UUID fromWalletId,
+    UUID toWalletId,
+    @Positive BigDecimal fromAmount,
+    @Positive BigDecimal toAmount,
+    @Size(min = 3, max = 3) String fromCurrencyCode,
+    @Size(min = 3, max = 3) String toCurrencyCode,
+    @Positive BigDecimal exchangeRate,
+    String externalWalletName) {
+}
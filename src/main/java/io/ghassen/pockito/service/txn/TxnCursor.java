@@ -0,0 +1,37 @@
+package io.ghassen.pockito.service.txn;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+// Opaque continuation token: position of the last row returned, in (occurred_at DESC, id DESC) order
+public record TxnCursor(LocalDate occurredAt, UUID id) {
+
+  private static final String PREFIX = "v1|";
+
+  public String encode() {
+    String raw = PREFIX + occurredAt + "|" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  public static TxnCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+      if (!raw.startsWith(PREFIX)) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      String[] parts = raw.substring(PREFIX.length()).split("\\|");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return new TxnCursor(LocalDate.parse(parts[0]), UUID.fromString(parts[1]));
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+}
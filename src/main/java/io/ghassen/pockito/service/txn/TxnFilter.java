@@ -0,0 +1,19 @@
+package io.ghassen.pockito.service.txn;
+
+import io.ghassen.pockito.domain.TxnType;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// All fields optional; walletId matches either side of a transfer
+public record TxnFilter(
+    TxnType type,
+    UUID walletId,
+    UUID categoryId,
+    LocalDate from,
+    LocalDate to) {
+
+  public static TxnFilter none() {
+    return new TxnFilter(null, null, null, null, null);
+  }
+}
@@ -0,0 +1,85 @@
+package io.ghassen.pockito.service.txn;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.repo.TxnQueryRepository;
+import io.ghassen.pockito.service.category.CategoryHierarchy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+public class TxnQueryService {
+
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 500;
+
+  private final TxnQueryRepository txnQueryRepository;
+  private final CategoryHierarchy categoryHierarchy;
+
+  // Streams one page to the consumer and returns the cursor of the next page, or null on the last page
+  @Transactional(readOnly = true)
+  public TxnCursor streamPage(UUID userId, TxnFilter filter, TxnCursor after, int limit, Consumer<Txn> consumer) {
+    validate(filter, limit);
+    // One extra row tells us whether another page exists without a COUNT
+    PageTracker<Txn> tracker = new PageTracker<>(limit, consumer);
+    txnQueryRepository.streamPage(userId, filter, categories(userId, filter), after, limit + 1, tracker);
+    return tracker.hasMore ? new TxnCursor(tracker.last.getOccurredAt(), tracker.last.getId()) : null;
+  }
+
+  // Best matches first; same paging contract as streamPage
+  @Transactional(readOnly = true)
+  public TxnSearchCursor streamSearch(UUID userId, TxnSearchQuery query, TxnFilter filter, TxnSearchCursor after,
+                                      int limit, Consumer<TxnSearchHit> consumer) {
+    validate(filter, limit);
+    PageTracker<TxnSearchHit> tracker = new PageTracker<>(limit, consumer);
+    txnQueryRepository.streamSearch(userId, query, filter, categories(userId, filter), after, limit + 1, tracker);
+    if (!tracker.hasMore) {
+      return null;
+    }
+    Txn last = tracker.last.txn();
+    return new TxnSearchCursor(tracker.last.rank(), last.getOccurredAt(), last.getId());
+  }
+
+  // Callers that stream to a response validate before committing headers
+  public void validate(TxnFilter filter, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+      throw new IllegalArgumentException("from must not be after to");
+    }
+  }
+
+  // A category filter matches the category and all of its subcategories
+  private List<UUID> categories(UUID userId, TxnFilter filter) {
+    return filter.categoryId() != null ? categoryHierarchy.descendantsOrSelf(userId, filter.categoryId()) : null;
+  }
+
+  private static final class PageTracker<T> implements Consumer<T> {
+    private final int limit;
+    private final Consumer<T> downstream;
+    private int seen;
+    private T last;
+    private boolean hasMore;
+
+    PageTracker(int limit, Consumer<T> downstream) {
+      this.limit = limit;
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void accept(T row) {
+      if (++seen > limit) {
+        hasMore = true;
+        return;
+      }
+      last = row;
+      downstream.accept(row);
+    }
+  }
+}
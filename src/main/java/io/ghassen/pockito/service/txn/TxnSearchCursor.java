@@ -0,0 +1,39 @@
+package io.ghassen.pockito.service.txn;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+// Opaque continuation token for search results, in (rank DESC, occurred_at DESC, id DESC) order.
+// Ranks are rounded in SQL, so the decimal string round-trips exactly.
+public record TxnSearchCursor(BigDecimal rank, LocalDate occurredAt, UUID id) {
+
+  private static final String PREFIX = "s1|";
+
+  public String encode() {
+    String raw = PREFIX + rank.toPlainString() + "|" + occurredAt + "|" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  public static TxnSearchCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+      if (!raw.startsWith(PREFIX)) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      String[] parts = raw.substring(PREFIX.length()).split("\\|");
+      if (parts.length != 3) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return new TxnSearchCursor(new BigDecimal(parts[0]), LocalDate.parse(parts[1]), UUID.fromString(parts[2]));
+    } catch (DateTimeParseException | NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+}
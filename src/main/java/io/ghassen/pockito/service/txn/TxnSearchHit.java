@@ -0,0 +1,8 @@
+package io.ghassen.pockito.service.txn;
+
+import io.ghassen.pockito.domain.Txn;
+
+import java.math.BigDecimal;
+
+public record TxnSearchHit(Txn txn, BigDecimal rank) {
+}
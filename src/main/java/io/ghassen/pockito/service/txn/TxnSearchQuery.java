@@ -0,0 +1,45 @@
+package io.ghassen.pockito.service.txn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// A user's search text turned into the three forms the search SQL needs: a prefix tsquery over the
+// letter/digit tokens, a LIKE pattern for substrings and the raw text for trigram word similarity.
+public record TxnSearchQuery(String text, String tsQuery, String likePattern) {
+
+  public static final int MAX_LENGTH = 100;
+
+  private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  public static TxnSearchQuery parse(String q) {
+    String text = q == null ? "" : q.strip();
+    if (text.length() > MAX_LENGTH) {
+      throw new IllegalArgumentException("q must be at most " + MAX_LENGTH + " characters");
+    }
+    List<String> terms = new ArrayList<>();
+    for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+      if (!token.isEmpty()) {
+        // Tokens hold only letters and digits, so nothing in them is tsquery syntax
+        terms.add(token + ":*");
+      }
+    }
+    if (terms.isEmpty()) {
+      throw new IllegalArgumentException("q must contain a letter or digit");
+    }
+    return new TxnSearchQuery(text, String.join(" & ", terms), "%" + escapeLike(text) + "%");
+  }
+
+  private static String escapeLike(String s) {
+    StringBuilder sb = new StringBuilder(s.length() + 8);
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '%' || c == '_' || c == '\\') {
+        sb.append('\\');
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+}
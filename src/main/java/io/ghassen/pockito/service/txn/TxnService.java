@@ -0,0 +1,141 @@
+package io.ghassen.pockito.service.txn;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.domain.Wallet;
+import io.ghassen.pockito.repo.CategoryRepository;
+import io.ghassen.pockito.repo.TxnRepository;
+import io.ghassen.pockito.repo.WalletRepository;
+import io.ghassen.pockito.service.read.TxnReads;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Single write path for txn, every change publishes a TxnChangedEvent inside the same transaction
+@Service
+@RequiredArgsConstructor
+public class TxnService {
+
+  private final TxnRepository txnRepository;
+  private final WalletRepository walletRepository;
+  private final CategoryRepository categoryRepository;
+  private final TxnReads txnReads;
+  private final ApplicationEventPublisher events;
+  private final AuditorAware<String> auditorAware;
+
+  @Transactional
+  public Txn create(UUID userId, TxnCommand cmd) {
+    Txn txn = new Txn();
+    txn.setUserId(userId);
+    apply(userId, txn, cmd);
+    txn = txnRepository.saveAndFlush(txn);
+    events.publishEvent(TxnChangedEvent.created(TxnSnapshot.of(txn)));
+    return txn;
+  }
+
+  // expectedVersion comes from If-Match; null skips the check. Once loaded, @Version guards the row.
+  // occurredAt is the txn's current date if the caller knows it, so the lookup reads one partition.
+  @Transactional
+  public Txn update(UUID userId, UUID id, LocalDate occurredAt, Long expectedVersion, TxnCommand cmd) {
+    Txn txn = load(userId, id, occurredAt, expectedVersion);
+    TxnSnapshot before = TxnSnapshot.of(txn);
+    apply(userId, txn, cmd);
+    txn = txnRepository.saveAndFlush(txn);
+    events.publishEvent(TxnChangedEvent.updated(before, TxnSnapshot.of(txn)));
+    return txn;
+  }
+
+  @Transactional
+  public void archive(UUID userId, UUID id, LocalDate occurredAt, Long expectedVersion) {
+    Txn txn = load(userId, id, occurredAt, expectedVersion);
+    TxnSnapshot before = TxnSnapshot.of(txn);
+    txn.setArchivedAt(Instant.now());
+    txn.setArchivedBy(auditorAware.getCurrentAuditor().orElse(null));
+    txnRepository.saveAndFlush(txn);
+    events.publishEvent(TxnChangedEvent.archived(before));
+  }
+
+  private Txn load(UUID userId, UUID id, LocalDate occurredAt, Long expectedVersion) {
+    Txn txn = txnReads.get(userId, id, occurredAt);
+    long version = txn.getVersion() != null ? txn.getVersion() : 0;
+    if (expectedVersion != null && expectedVersion != version) {
+      throw new PreconditionFailedException("Transaction " + id + " is at version " + version);
+    }
+    return txn;
+  }
+
+  // Enforces txn_exp_inc_check up front so callers get a 400 instead of a constraint violation
+  private void apply(UUID userId, Txn txn, TxnCommand cmd) {
+    // An unchanged category is kept even if it has been archived since
+    if (cmd.categoryId() != null && !cmd.categoryId().equals(txn.getCategoryId())
+        && categoryRepository.findVersion(cmd.categoryId(), userId).isEmpty()) {
+      throw new EntityNotFoundException("Category not found: " + cmd.categoryId());
+    }
+    txn.setType(cmd.type());
+    txn.setOccurredAt(cmd.occurredAt());
+    txn.setNote(cmd.note());
+    txn.setCategoryId(cmd.categoryId());
+    txn.setExchangeRate(cmd.exchangeRate());
+    txn.setExternalWalletName(cmd.externalWalletName());
+
+    if (cmd.type() == TxnType.TRANSFER) {
+      if (cmd.fromWalletId() == null && cmd.toWalletId() == null) {
+        throw new IllegalArgumentException("Transfer requires fromWalletId or toWalletId");
+      }
+      if (cmd.fromAmount() == null && cmd.toAmount() == null) {
+        throw new IllegalArgumentException("Transfer requires fromAmount or toAmount");
+      }
+      Wallet from = cmd.fromWalletId() != null ? wallet(userId, cmd.fromWalletId()) : null;
+      Wallet to = cmd.toWalletId() != null ? wallet(userId, cmd.toWalletId()) : null;
+      requireWalletCurrency(cmd.fromCurrencyCode(), from);
+      requireWalletCurrency(cmd.toCurrencyCode(), to);
+      txn.setWalletId(null);
+      txn.setAmount(null);
+      txn.setCurrencyCode(null);
+      txn.setFromWalletId(cmd.fromWalletId());
+      txn.setToWalletId(cmd.toWalletId());
+      txn.setFromAmount(cmd.fromAmount());
+      txn.setToAmount(cmd.toAmount());
+      txn.setFromCurrencyCode(cmd.fromCurrencyCode() != null ? cmd.fromCurrencyCode()
+          : from != null ? from.getCurrencyCode() : null);
+      txn.setToCurrencyCode(cmd.toCurrencyCode() != null ? cmd.toCurrencyCode()
+          : to != null ? to.getCurrencyCode() : null);
+    } else {
+      if (cmd.walletId() == null || cmd.amount() == null) {
+        throw new IllegalArgumentException(cmd.type() + " requires walletId and amount");
+      }
+      Wallet wallet = wallet(userId, cmd.walletId());
+      requireWalletCurrency(cmd.currencyCode(), wallet);
+      txn.setWalletId(cmd.walletId());
+      txn.setAmount(cmd.amount());
+      txn.setCurrencyCode(cmd.currencyCode() != null ? cmd.currencyCode() : wallet.getCurrencyCode());
+      txn.setFromWalletId(null);
+      txn.setToWalletId(null);
+      txn.setFromAmount(null);
+      txn.setToAmount(null);
+      txn.setFromCurrencyCode(null);
+      txn.setToCurrencyCode(null);
+    }
+  }
+
+  // The balance ledger adds amounts as they are, so a wallet leg must be in the wallet's currency.
+  // Cross-currency moves are transfers with both amounts.
+  private static void requireWalletCurrency(String currencyCode, Wallet wallet) {
+    if (wallet != null && currencyCode != null && !currencyCode.equals(wallet.getCurrencyCode())) {
+      throw new IllegalArgumentException("Currency " + currencyCode + " does not match wallet currency "
+          + wallet.getCurrencyCode());
+    }
+  }
+
+  private Wallet wallet(UUID userId, UUID walletId) {
+    return walletRepository.findByIdAndUserId(walletId, userId)
+        .orElseThrow(() -> new EntityNotFoundException("Wallet not found: " + walletId));
+  }
+}
@@ -0,0 +1,57 @@
+package io.ghassen.pockito.service.txn;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.TxnType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Immutable copy of the balance-relevant state of a txn, taken before and after a write
+public record TxnSnapshot(
+    UUID id,
+    UUID userId,
+    TxnType type,
+    LocalDate occurredAt,
+    UUID walletId,
+    UUID categoryId,
+    BigDecimal amount,
+    String currencyCode,
+    UUID fromWalletId,
+    UUID toWalletId,
+    BigDecimal fromAmount,
+    BigDecimal toAmount,
+    String fromCurrencyCode,
+    String toCurrencyCode) {
+
+  public static TxnSnapshot of(Txn t) {
+    return new TxnSnapshot(t.getId(), t.getUserId(), t.getType(), t.getOccurredAt(),
+        t.getWalletId(), t.getCategoryId(), t.getAmount(), t.getCurrencyCode(),
+        t.getFromWalletId(), t.getToWalletId(), t.getFromAmount(), t.getToAmount(),
+        t.getFromCurrencyCode(), t.getToCurrencyCode());
+  }
+
+  // Signed movement per wallet, mirrors the txn_wallet_leg view
+  public List<WalletLeg> walletLegs() {
+    List<WalletLeg> legs = new ArrayList<>(2);
+    switch (type) {
+      case EXPENSE -> legs.add(new WalletLeg(walletId, occurredAt, amount.negate(), currencyCode));
+      case INCOME -> legs.add(new WalletLeg(walletId, occurredAt, amount, currencyCode));
+      case TRANSFER -> {
+        if (fromWalletId != null) {
+          BigDecimal out = fromAmount != null ? fromAmount : toAmount;
+          legs.add(new WalletLeg(fromWalletId, occurredAt, out.negate(), fromCurrencyCode));
+        }
+        if (toWalletId != null) {
+          BigDecimal in = toAmount != null ? toAmount : fromAmount;
+          legs.add(new WalletLeg(toWalletId, occurredAt, in, toCurrencyCode));
+        }
+      }
+    }
+    return legs;
+  }
+
+  public record WalletLeg(UUID walletId, LocalDate day, BigDecimal delta, String currencyCode) {}
+}
@@ -0,0 +1,128 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.Agreement;
+import io.ghassen.pockito.domain.AgreementPayment;
+import io.ghassen.pockito.domain.AgreementStatus;
+import io.ghassen.pockito.domain.AgreementType;
+import io.ghassen.pockito.repo.AgreementRepository.OutstandingTotal;
+import io.ghassen.pockito.security.CurrentUser;
+import io.ghassen.pockito.service.agreement.AgreementCommand;
+import io.ghassen.pockito.service.agreement.AgreementPaymentCommand;
+import io.ghassen.pockito.service.agreement.AgreementService;
+import io.ghassen.pockito.service.read.ListableOwnedEntityReads;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/agreements")
+@RequiredArgsConstructor
+@Tag(name = "Agreements", description = "Money lent to and borrowed from people, and its repayment")
+@SecurityRequirement(name = "bearerAuth")
+public class AgreementController {
+
+  private final AgreementService agreementService;
+  private final ListableOwnedEntityReads<Agreement> agreementReads;
+
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Agreements of the current user; honours If-None-Match", operationId = "listAgreements")
+  public ResponseEntity<List<AgreementResponse>> list(WebRequest request) {
+    return ConditionalReads.list(request, agreementReads, CurrentUser.id(), AgreementResponse::of);
+  }
+
+  @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Agreement by id; honours If-None-Match", operationId = "getAgreement")
+  public ResponseEntity<AgreementResponse> get(@PathVariable UUID id, WebRequest request) {
+    return ConditionalReads.one(request, agreementReads, CurrentUser.id(), id, AgreementResponse::of);
+  }
+
+  @GetMapping(value = "/outstanding", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "Who owes me and whom I owe",
+      description = "Outstanding amounts of open agreements per person and currency; LEND is owed to the user, "
+          + "BORROW is owed by the user.",
+      operationId = "getOutstandingTotals"
+  )
+  public ResponseEntity<List<OutstandingTotalResponse>> outstanding() {
+    return ResponseEntity.ok(agreementService.outstandingTotals(CurrentUser.id()).stream()
+        .map(OutstandingTotalResponse::of)
+        .toList());
+  }
+
+  @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Create agreement", operationId = "createAgreement")
+  public ResponseEntity<AgreementResponse> create(@Valid @RequestBody AgreementCommand cmd) {
+    Agreement agreement = agreementService.create(CurrentUser.id(), cmd);
+    return ResponseEntity.status(HttpStatus.CREATED).body(AgreementResponse.of(agreement));
+  }
+
+  @GetMapping(value = "/{id}/payments", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Payments of an agreement, newest first", operationId = "listAgreementPayments")
+  public ResponseEntity<List<PaymentResponse>> payments(@PathVariable UUID id) {
+    return ResponseEntity.ok(agreementService.payments(CurrentUser.id(), id).stream()
+        .map(PaymentResponse::of)
+        .toList());
+  }
+
+  @PostMapping(value = "/{id}/payments", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Record a payment; settles the agreement when nothing is left outstanding",
+      operationId = "createAgreementPayment")
+  public ResponseEntity<AgreementResponse> pay(@PathVariable UUID id, @Valid @RequestBody AgreementPaymentCommand cmd) {
+    Agreement agreement = agreementService.pay(CurrentUser.id(), id, cmd);
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .eTag(ConditionalReads.tag(agreement.getVersion()))
+        .body(AgreementResponse.of(agreement));
+  }
+
+  @DeleteMapping(value = "/{id}/payments/{paymentId}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Archive a payment; its amount is outstanding again", operationId = "archiveAgreementPayment")
+  public ResponseEntity<AgreementResponse> archivePayment(@PathVariable UUID id, @PathVariable UUID paymentId) {
+    Agreement agreement = agreementService.archivePayment(CurrentUser.id(), id, paymentId);
+    return ResponseEntity.ok()
+        .eTag(ConditionalReads.tag(agreement.getVersion()))
+        .body(AgreementResponse.of(agreement));
+  }
+
+  @Schema(description = "Agreement")
+  public record AgreementResponse(UUID id, String personName, AgreementType type, BigDecimal principalAmount,
+                                  BigDecimal outstandingAmount, String currencyCode, UUID walletId,
+                                  LocalDate startDate, String note, AgreementStatus status, Long version) {
+    static AgreementResponse of(Agreement a) {
+      return new AgreementResponse(a.getId(), a.getPersonName(), a.getType(), a.getPrincipalAmount(),
+          a.getOutstandingAmount(), a.getCurrencyCode(), a.getWalletId(), a.getStartDate(), a.getNote(),
+          a.getStatus(), a.getVersion());
+    }
+  }
+
+  @Schema(description = "Agreement payment")
+  public record PaymentResponse(UUID id, BigDecimal amount, String currencyCode, BigDecimal exchangeRate,
+                                BigDecimal settledAmount, Instant paidAt, UUID txnId, String note) {
+    static PaymentResponse of(AgreementPayment p) {
+      return new PaymentResponse(p.getId(), p.getAmount(), p.getCurrencyCode(), p.getExchangeRate(),
+          p.getSettledAmount(), p.getPaidAt(), p.getTxnId(), p.getNote());
+    }
+  }
+
+  @Schema(description = "Outstanding total of a user's open agreements with one person in one currency")
+  public record OutstandingTotalResponse(AgreementType type, String personName, String currencyCode,
+                                         BigDecimal outstanding, long agreements) {
+    static OutstandingTotalResponse of(OutstandingTotal t) {
+      return new OutstandingTotalResponse(t.getType(), t.getPersonName(), t.getCurrencyCode(), t.getOutstanding(),
+          t.getAgreements());
+    }
+  }
+}
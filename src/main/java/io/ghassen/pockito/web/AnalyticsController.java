@@ -0,0 +1,90 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.repo.TxnRollupRepository.CategoryTotal;
+import io.ghassen.pockito.repo.TxnRollupRepository.TypeTotal;
+import io.ghassen.pockito.repo.TxnRollupRepository.WalletFlow;
+import io.ghassen.pockito.security.CurrentUser;
+import io.ghassen.pockito.service.analytics.RollupBackfillJob;
+import io.ghassen.pockito.service.analytics.TxnRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Analytics", description = "Monthly spending and flow dashboards, served from rollups")
+@SecurityRequirement(name = "bearerAuth")
+public class AnalyticsController {
+
+  private static final int MAX_MONTHS = 120;
+
+  private final TxnRollupService rollupService;
+  private final RollupBackfillJob backfillJob;
+
+  @GetMapping(value = "/categories", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "Monthly totals per category",
+      description = "totalAmount includes all descendant categories, amount only the category itself.",
+      operationId = "getCategoryTotals"
+  )
+  public ResponseEntity<List<CategoryTotal>> categories(
+      @Parameter(description = "First month, yyyy-MM") @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+      @Parameter(description = "Last month, yyyy-MM") @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+      @RequestParam(required = false) TxnType type) {
+    validate(from, to);
+    return ResponseEntity.ok(rollupService.categoryTotals(CurrentUser.id(), from, to, type));
+  }
+
+  @GetMapping(value = "/income-expense", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Monthly income vs. expense per currency", operationId = "getIncomeVsExpense")
+  public ResponseEntity<List<TypeTotal>> incomeVsExpense(
+      @Parameter(description = "First month, yyyy-MM") @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+      @Parameter(description = "Last month, yyyy-MM") @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+    validate(from, to);
+    return ResponseEntity.ok(rollupService.incomeVsExpense(CurrentUser.id(), from, to));
+  }
+
+  @GetMapping(value = "/wallets", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Monthly inflow and outflow per wallet", operationId = "getWalletFlows")
+  public ResponseEntity<List<WalletFlow>> wallets(
+      @Parameter(description = "First month, yyyy-MM") @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+      @Parameter(description = "Last month, yyyy-MM") @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+    validate(from, to);
+    return ResponseEntity.ok(rollupService.walletFlows(CurrentUser.id(), from, to));
+  }
+
+  @PostMapping(value = "/rollups/rebuild", produces = MediaType.APPLICATION_JSON_VALUE)
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Rebuild all rollups from txn history in the background", operationId = "rebuildRollups")
+  public ResponseEntity<BackfillResponse> rebuild() {
+    boolean started = backfillJob.start();
+    return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+        .body(new BackfillResponse(started, backfillJob.isRunning()));
+  }
+
+  private static void validate(YearMonth from, YearMonth to) {
+    if (from.isAfter(to)) {
+      throw new IllegalArgumentException("from must not be after to");
+    }
+    if (from.plusMonths(MAX_MONTHS).isBefore(to)) {
+      throw new IllegalArgumentException("Range must not exceed " + MAX_MONTHS + " months");
+    }
+  }
+
+  @Schema(description = "Rollup backfill state")
+  public record BackfillResponse(boolean started, boolean running) {}
+}
@@ -0,0 +1,90 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.Budget;
+import io.ghassen.pockito.domain.FreqType;
+import io.ghassen.pockito.security.CurrentUser;
+import io.ghassen.pockito.service.budget.BudgetConsumptionService;
+import io.ghassen.pockito.service.budget.BudgetStatus;
+import io.ghassen.pockito.service.read.ListableOwnedEntityReads;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/budgets")
+@RequiredArgsConstructor
+@Tag(name = "Budgets", description = "Budgets and their consumption")
+@SecurityRequirement(name = "bearerAuth")
+public class BudgetController {
+
+  private final BudgetConsumptionService consumptionService;
+  private final ListableOwnedEntityReads<Budget> budgetReads;
+
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Budgets of the current user; honours If-None-Match", operationId = "listBudgets")
+  public ResponseEntity<List<BudgetResponse>> list(WebRequest request) {
+    return ConditionalReads.list(request, budgetReads, CurrentUser.id(), BudgetResponse::of);
+  }
+
+  @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Budget by id; honours If-None-Match", operationId = "getBudget")
+  public ResponseEntity<BudgetResponse> get(@PathVariable UUID id, WebRequest request) {
+    return ConditionalReads.one(request, budgetReads, CurrentUser.id(), id, BudgetResponse::of);
+  }
+
+  @GetMapping(value = "/status", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Current period consumption of every budget", operationId = "getBudgetStatuses")
+  public ResponseEntity<List<BudgetStatusResponse>> statuses(
+      @Parameter(description = "Day whose period is reported, defaults to today")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+    return ResponseEntity.ok(consumptionService.statuses(CurrentUser.id(), day(asOf)).stream()
+        .map(BudgetStatusResponse::of)
+        .toList());
+  }
+
+  @GetMapping(value = "/{id}/status", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Current period consumption of a budget", operationId = "getBudgetStatus")
+  public ResponseEntity<BudgetStatusResponse> status(
+      @PathVariable UUID id,
+      @Parameter(description = "Day whose period is reported, defaults to today")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+    return ResponseEntity.ok(BudgetStatusResponse.of(consumptionService.status(CurrentUser.id(), id, day(asOf))));
+  }
+
+  private static LocalDate day(LocalDate asOf) {
+    return asOf != null ? asOf : LocalDate.now();
+  }
+
+  @Schema(description = "Budget")
+  public record BudgetResponse(UUID id, String name, FreqType period, LocalDate startDate, LocalDate endDate,
+                               BigDecimal limitAmount, String currencyCode, Set<UUID> categoryIds, Long version) {
+    static BudgetResponse of(Budget b) {
+      return new BudgetResponse(b.getId(), b.getName(), b.getPeriod(), b.getStartDate(), b.getEndDate(),
+          b.getLimitAmount(), b.getCurrencyCode(), Set.copyOf(b.getCategoryIds()), b.getVersion());
+    }
+  }
+
+  @Schema(description = "Budget consumption for one period")
+  public record BudgetStatusResponse(UUID budgetId, String name, LocalDate periodStart, LocalDate periodEnd,
+                                     BigDecimal limit, BigDecimal spent, BigDecimal remaining,
+                                     String currencyCode) {
+    static BudgetStatusResponse of(BudgetStatus s) {
+      return new BudgetStatusResponse(s.budgetId(), s.name(), s.periodStart(), s.periodEnd(), s.limit(),
+          s.spent(), s.remaining(), s.currencyCode());
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.Category;
+import io.ghassen.pockito.domain.CategoryType;
+import io.ghassen.pockito.domain.IconType;
+import io.ghassen.pockito.security.CurrentUser;
+import io.ghassen.pockito.service.read.ListableOwnedEntityReads;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/categories")
+@RequiredArgsConstructor
+@Tag(name = "Categories", description = "Expense and income categories")
+@SecurityRequirement(name = "bearerAuth")
+public class CategoryController {
+
+  private final ListableOwnedEntityReads<Category> categoryReads;
+
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Categories of the current user; honours If-None-Match", operationId = "listCategories")
+  public ResponseEntity<List<CategoryResponse>> list(WebRequest request) {
+    return ConditionalReads.list(request, categoryReads, CurrentUser.id(), CategoryResponse::of);
+  }
+
+  @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Category by id; honours If-None-Match", operationId = "getCategory")
+  public ResponseEntity<CategoryResponse> get(@PathVariable UUID id, WebRequest request) {
+    return ConditionalReads.one(request, categoryReads, CurrentUser.id(), id, CategoryResponse::of);
+  }
+
+  @Schema(description = "Category")
+  public record CategoryResponse(UUID id, CategoryType type, String name, UUID parentId, String color,
+                                 IconType iconType, String iconValue, Long version) {
+    static CategoryResponse of(Category c) {
+      return new CategoryResponse(c.getId(), c.getType(), c.getName(), c.getParentId(), c.getColor(),
+          c.getIconType(), c.getIconValue(), c.getVersion());
+    }
+  }
+}
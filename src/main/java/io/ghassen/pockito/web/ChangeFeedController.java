@@ -0,0 +1,90 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.security.CurrentUser;
+import io.ghassen.pockito.service.changes.ChangeEvent;
+import io.ghassen.pockito.service.changes.ChangeFeedHub;
+import io.ghassen.pockito.service.changes.ChangeStream;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/changes")
+@Tag(name = "Changes", description = "Live notifications of writes to the current user's data")
+@SecurityRequirement(name = "bearerAuth")
+public class ChangeFeedController {
+
+  private final ChangeFeedHub hub;
+  private final Duration heartbeat;
+  private final Duration timeout;
+
+  public ChangeFeedController(ChangeFeedHub hub,
+                              @Value("${pockito.changes.heartbeat:25s}") Duration heartbeat,
+                              @Value("${pockito.changes.emitter-timeout:30m}") Duration timeout) {
+    this.hub = hub;
+    this.heartbeat = heartbeat;
+    this.timeout = timeout;
+  }
+
+  @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Stream changes as server-sent events",
+      description = "Sends a 'change' event per write statement touching the caller's transactions, wallets, "
+          + "budgets, agreements or subscription payments. Reconnect with Last-Event-ID to resume; a 'reset' event means "
+          + "changes may have been missed and cached data should be refetched.",
+      operationId = "streamChanges"
+  )
+  public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+    ChangeStream stream = hub.subscribe(CurrentUser.id(), lastEventId);
+    SseEmitter emitter = new SseEmitter(timeout.toMillis());
+    emitter.onCompletion(stream::close);
+    emitter.onTimeout(stream::close);
+    emitter.onError(e -> stream.close());
+    // Parked in poll() between events, so an idle stream costs a queue and a virtual thread stack
+    Thread.ofVirtual().name("change-feed").start(() -> pump(stream, emitter));
+    return emitter;
+  }
+
+  private void pump(ChangeStream stream, SseEmitter emitter) {
+    try {
+      while (!stream.isClosed()) {
+        ChangeEvent e = stream.poll(heartbeat);
+        if (e == null) {
+          if (!stream.isClosed()) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+          }
+          continue;
+        }
+        emitter.send(SseEmitter.event()
+            .id(e.id())
+            .name(e.isReset() ? ChangeEvent.RESET : "change")
+            .data(ChangeResponse.of(e), MediaType.APPLICATION_JSON));
+      }
+      // Dropped for falling behind: the client reconnects with its Last-Event-ID
+      emitter.complete();
+    } catch (IOException | IllegalStateException e) {
+      // Client went away or the emitter already completed
+      stream.close();
+    } catch (InterruptedException e) {
+      stream.close();
+      emitter.complete();
+    }
+  }
+
+  @Schema(description = "A change to the caller's data")
+  public record ChangeResponse(String type, String op, int count, List<UUID> ids) {
+    static ChangeResponse of(ChangeEvent e) {
+      return new ChangeResponse(e.type(), e.op(), e.count(), e.ids());
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.AuditableEntity;
+import io.ghassen.pockito.repo.VersionStamp;
+import io.ghassen.pockito.service.read.ListableOwnedEntityReads;
+import io.ghassen.pockito.service.read.OwnedEntityReads;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Conditional GET for user-owned entities. The entity tag comes from a version lookup, so a matching
+// If-None-Match is answered with 304 before anything is loaded or serialized (the handler returns null,
+// WebRequest has already written the response). An entity's tag is its version; a collection's is the
+// version stamp of the user's rows, weak because it names the content rather than the bytes.
+final class ConditionalReads {
+
+  // Clients may keep the body but must revalidate; shared caches must not keep it
+  private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+  private ConditionalReads() {}
+
+  static <T extends AuditableEntity, R> ResponseEntity<R> one(WebRequest request, OwnedEntityReads<T> reads,
+                                                              UUID userId, UUID id, Function<T, R> mapper) {
+    return one(request, () -> reads.version(userId, id), () -> reads.get(userId, id), mapper);
+  }
+
+  static <T extends AuditableEntity, R> ResponseEntity<R> one(WebRequest request, LongSupplier version,
+                                                              Supplier<T> loader, Function<T, R> mapper) {
+    if (request.checkNotModified(tag(version.getAsLong()))) {
+      return null;
+    }
+    T entity = loader.get();
+    return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(tag(entity.getVersion())).body(mapper.apply(entity));
+  }
+
+  // The stamp is read before the list: a write in between gives a newer body under an older tag, which only
+  // costs the next poll a full response
+  static <T extends AuditableEntity, R> ResponseEntity<List<R>> list(WebRequest request,
+                                                                     ListableOwnedEntityReads<T> reads,
+                                                                     UUID userId, Function<T, R> mapper) {
+    String tag = tag(reads.stamp(userId));
+    if (request.checkNotModified(tag)) {
+      return null;
+    }
+    return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(tag)
+        .body(reads.list(userId).stream().map(mapper).toList());
+  }
+
+  static String tag(Long version) {
+    return "\"" + (version != null ? version : 0) + "\"";
+  }
+
+  static String tag(VersionStamp stamp) {
+    Instant last = stamp.getLastUpdatedAt();
+    long micros = last != null ? ChronoUnit.MICROS.between(Instant.EPOCH, last) : 0;
+    return "W/\"" + stamp.getCount() + "." + stamp.getVersionSum() + "." + micros + "\"";
+  }
+
+  // Version required by If-Match; null when the header is absent or "*". Anything else that is not a single
+  // strong version tag cannot match and comes back as -1, a version no row has.
+  static Long expectedVersion(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    String tag = ifMatch.trim();
+    if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      try {
+        return Long.parseLong(tag.substring(1, tag.length() - 1));
+      } catch (NumberFormatException ignored) {
+        // falls through
+      }
+    }
+    return -1L;
+  }
+}
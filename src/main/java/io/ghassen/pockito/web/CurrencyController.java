@@ -0,0 +1,37 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.service.currency.CurrencyCache;
+import io.ghassen.pockito.service.currency.CurrencyInfo;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/currencies")
+@RequiredArgsConstructor
+@Tag(name = "Currencies", description = "Currency reference data")
+@SecurityRequirement(name = "bearerAuth")
+public class CurrencyController {
+
+  private final CurrencyCache currencyCache;
+
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Active currencies", operationId = "listCurrencies")
+  public ResponseEntity<List<CurrencyInfo>> list() {
+    return ResponseEntity.ok(currencyCache.findAll());
+  }
+
+  @GetMapping(value = "/{code}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Currency by ISO code", operationId = "getCurrency")
+  public ResponseEntity<CurrencyInfo> get(@PathVariable String code) {
+    return ResponseEntity.ok(currencyCache.findById(code)
+        .orElseThrow(() -> new EntityNotFoundException("Currency not found: " + code)));
+  }
+}
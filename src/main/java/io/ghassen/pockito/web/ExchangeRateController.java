@@ -0,0 +1,79 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.ExchangeRate;
+import io.ghassen.pockito.service.fx.ExchangeRateEngine;
+import io.ghassen.pockito.service.fx.ExchangeRateService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/exchange-rates")
+@RequiredArgsConstructor
+@Tag(name = "Exchange Rates", description = "As-of exchange rates")
+@SecurityRequirement(name = "bearerAuth")
+public class ExchangeRateController {
+
+  private final ExchangeRateEngine engine;
+  private final ExchangeRateService exchangeRateService;
+
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "Rate as of an instant",
+      description = "Uses the direct pair, its inverse, or a cross rate through a pivot currency.",
+      operationId = "getExchangeRate"
+  )
+  public ResponseEntity<RateResponse> rate(
+      @RequestParam String base,
+      @RequestParam String quote,
+      @Parameter(description = "Defaults to now")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+    Instant when = at != null ? at : Instant.now();
+    double rate = engine.rate(base, quote, when);
+    if (Double.isNaN(rate)) {
+      throw new EntityNotFoundException("No exchange rate " + base + "/" + quote + " at " + when);
+    }
+    return ResponseEntity.ok(new RateResponse(base, quote, when, BigDecimal.valueOf(rate)));
+  }
+
+  @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Record an exchange rate snapshot", operationId = "recordExchangeRate")
+  public ResponseEntity<RecordedRate> record(@Valid @RequestBody RateRequest req) {
+    ExchangeRate saved = exchangeRateService.record(req.base(), req.quote(), req.rate(), req.effectiveAt(), req.source());
+    return ResponseEntity.status(HttpStatus.CREATED).body(new RecordedRate(saved.getId(), saved.getBaseCode(),
+        saved.getQuoteCode(), saved.getRate(), saved.getEffectiveAt(), saved.getSource()));
+  }
+
+  @Schema(description = "Exchange rate as of an instant")
+  public record RateResponse(String base, String quote, Instant at, BigDecimal rate) {}
+
+  @Schema(description = "New exchange rate snapshot")
+  public record RateRequest(
+      @NotNull @Size(min = 3, max = 3) String base,
+      @NotNull @Size(min = 3, max = 3) String quote,
+      @NotNull @Positive BigDecimal rate,
+      @NotNull Instant effectiveAt,
+      String source) {}
+
+  @Schema(description = "Recorded exchange rate snapshot")
+  public record RecordedRate(UUID id, String base, String quote, BigDecimal rate, Instant effectiveAt, String source) {}
+}
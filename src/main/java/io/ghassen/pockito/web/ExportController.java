@@ -0,0 +1,67 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.security.CurrentUser;
+import io.ghassen.pockito.service.export.ExportFormat;
+import io.ghassen.pockito.service.export.TxnExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+@Tag(name = "Exports", description = "Data exports for accountants and data-subject requests")
+@SecurityRequirement(name = "bearerAuth")
+public class ExportController {
+
+  private final TxnExportService exportService;
+
+  @GetMapping("/transactions")
+  @Operation(
+      summary = "Export transactions",
+      description = "Streams every active transaction in the occurred_at range as CSV or NDJSON, oldest first.",
+      operationId = "exportTransactions"
+  )
+  public ResponseEntity<StreamingResponseBody> transactions(
+      @RequestParam(defaultValue = "CSV") ExportFormat format,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "Return a .gz file")
+      @RequestParam(defaultValue = "false") boolean gzip) {
+    UUID userId = CurrentUser.id();
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new IllegalArgumentException("from must not be after to");
+    }
+
+    String fileName = "transactions"
+        + (from != null ? "-from-" + from : "")
+        + (to != null ? "-to-" + to : "")
+        + "." + format.extension() + (gzip ? ".gz" : "");
+    StreamingResponseBody body = out -> {
+      if (gzip) {
+        try (GZIPOutputStream zipped = new GZIPOutputStream(out, 1 << 16)) {
+          exportService.export(userId, from, to, format, zipped);
+        }
+      } else {
+        exportService.export(userId, from, to, format, out);
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.contentType()))
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+        .body(RoutedStreams.keepRoute(body));
+  }
+}
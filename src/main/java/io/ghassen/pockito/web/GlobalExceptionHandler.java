@@ -1,9 +1,14 @@
 package io.ghassen.pockito.web;
 
+import io.ghassen.pockito.service.txn.PreconditionFailedException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -41,6 +46,26 @@ public class GlobalExceptionHandler {
     return problem(HttpStatus.NOT_FOUND, ex.getMessage());
   }
 
+  // If-Match named another version
+  @ExceptionHandler(PreconditionFailedException.class)
+  public ResponseEntity<Object> handlePrecondition(PreconditionFailedException ex) {
+    return problem(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+  }
+
+  // The row changed between read and write with no precondition in play
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<Object> handleStale(OptimisticLockingFailureException ex) {
+    return problem(HttpStatus.CONFLICT, ex.getMessage());
+  }
+
+  // Connection pool or limiter exhausted: the client may retry, nothing was written
+  @ExceptionHandler({CannotGetJdbcConnectionException.class, CannotCreateTransactionException.class})
+  public ResponseEntity<Object> handleUnavailable(RuntimeException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(problem(HttpStatus.SERVICE_UNAVAILABLE, "Database busy, retry shortly").getBody());
+  }
+
   private ResponseEntity<Object> problem(HttpStatus status, String message) {
     Map<String, Object> body = new HashMap<>();
     body.put("timestamp", Instant.now().toString());
@@ -0,0 +1,77 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.ImportFormat;
+import io.ghassen.pockito.domain.ImportJob;
+import io.ghassen.pockito.domain.ImportStatus;
+import io.ghassen.pockito.security.CurrentUser;
+import io.ghassen.pockito.service.importer.ImportOptions;
+import io.ghassen.pockito.service.importer.ImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/imports")
+@RequiredArgsConstructor
+@Tag(name = "Imports", description = "Bank statement imports (CSV, OFX, QIF)")
+@SecurityRequirement(name = "bearerAuth")
+public class ImportController {
+
+  private final ImportService importService;
+
+  @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "Import a bank statement",
+      description = "Queues the statement for background import into the given wallet. Poll the returned job for progress. Lines already imported are skipped.",
+      operationId = "importStatement"
+  )
+  public ResponseEntity<ImportJobResponse> start(
+      @RequestParam("file") MultipartFile file,
+      @RequestParam UUID walletId,
+      @Parameter(description = "Defaults to the file extension")
+      @RequestParam(required = false) ImportFormat format,
+      @Parameter(description = "java.time date pattern, e.g. MM/dd/yyyy")
+      @RequestParam(required = false) String dateFormat) {
+    ImportJob job = importService.start(CurrentUser.id(), walletId, format, new ImportOptions(dateFormat), file);
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(ImportJobResponse.of(job));
+  }
+
+  @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Import progress", operationId = "getImportJob")
+  public ResponseEntity<ImportJobResponse> get(@PathVariable UUID id) {
+    return ResponseEntity.ok(ImportJobResponse.of(importService.get(CurrentUser.id(), id)));
+  }
+
+  @Schema(description = "Statement import job")
+  public record ImportJobResponse(
+      UUID id,
+      UUID walletId,
+      ImportFormat format,
+      String fileName,
+      ImportStatus status,
+      long rowsRead,
+      long rowsImported,
+      long rowsDuplicate,
+      long rowsFailed,
+      String error,
+      Instant startedAt,
+      Instant finishedAt) {
+
+    public static ImportJobResponse of(ImportJob j) {
+      return new ImportJobResponse(j.getId(), j.getWalletId(), j.getFormat(), j.getFileName(), j.getStatus(),
+          j.getRowsRead(), j.getRowsImported(), j.getRowsDuplicate(), j.getRowsFailed(), j.getError(),
+          j.getStartedAt(), j.getFinishedAt());
+    }
+  }
+}
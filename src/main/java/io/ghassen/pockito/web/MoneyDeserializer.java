@@ -0,0 +1,47 @@
+package io.ghassen.pockito.web;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.ghassen.pockito.domain.Money;
+import io.ghassen.pockito.service.currency.CurrencyCache;
+import io.ghassen.pockito.service.currency.CurrencyInfo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+// Reads {"amount": ..., "currency": "..."}; more fraction digits than the currency allows is a 400, not a rounding
+@JsonComponent
+@RequiredArgsConstructor
+public class MoneyDeserializer extends JsonDeserializer<Money> {
+
+  private final CurrencyCache currencyCache;
+
+  @Override
+  public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+    JsonNode node = p.readValueAsTree();
+    JsonNode amount = node.get("amount");
+    JsonNode currency = node.get("currency");
+    if (amount == null || !(amount.isNumber() || amount.isTextual()) || currency == null || !currency.isTextual()) {
+      return ctxt.reportInputMismatch(Money.class, "Money needs a numeric amount and a currency code");
+    }
+    CurrencyInfo info = currencyCache.findById(currency.asText()).orElse(null);
+    if (info == null) {
+      return ctxt.reportInputMismatch(Money.class, "Unknown currency: " + currency.asText());
+    }
+    BigDecimal value;
+    try {
+      value = amount.isNumber() ? amount.decimalValue() : new BigDecimal(amount.asText());
+    } catch (NumberFormatException e) {
+      return ctxt.reportInputMismatch(Money.class, "Invalid amount: " + amount.asText());
+    }
+    if (value.stripTrailingZeros().scale() > info.decimals()) {
+      return ctxt.reportInputMismatch(Money.class,
+          info.code() + " allows " + info.decimals() + " decimals, got " + value.toPlainString());
+    }
+    return Money.of(value, info.code(), info.decimals());
+  }
+}
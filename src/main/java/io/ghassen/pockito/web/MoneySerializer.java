@@ -0,0 +1,23 @@
+package io.ghassen.pockito.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import io.ghassen.pockito.domain.Money;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+// {"amount": 12.30, "currency": "USD"}, amount written with exactly the currency's decimals
+@JsonComponent
+public class MoneySerializer extends JsonSerializer<Money> {
+
+  @Override
+  public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+    gen.writeStartObject();
+    gen.writeFieldName("amount");
+    gen.writeNumber(value.toBigDecimal().toPlainString());
+    gen.writeStringField("currency", value.currencyCode());
+    gen.writeEndObject();
+  }
+}
@@ -0,0 +1,26 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.config.ReplicaSet;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// A StreamingResponseBody runs on the MVC async executor, after the request thread has left the
+// read-your-writes filter. The pin is a thread-local of the request thread, so it is captured here,
+// while the handler still runs on that thread, and re-applied around the write.
+final class RoutedStreams {
+
+  private RoutedStreams() {}
+
+  static StreamingResponseBody keepRoute(StreamingResponseBody body) {
+    if (!ReplicaSet.isPinned()) {
+      return body;
+    }
+    return out -> {
+      ReplicaSet.pin();
+      try {
+        body.writeTo(out);
+      } finally {
+        ReplicaSet.unpin();
+      }
+    };
+  }
+}
@@ -0,0 +1,57 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.FreqType;
+import io.ghassen.pockito.domain.IconType;
+import io.ghassen.pockito.domain.Subscription;
+import io.ghassen.pockito.security.CurrentUser;
+import io.ghassen.pockito.service.read.ListableOwnedEntityReads;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/subscriptions")
+@RequiredArgsConstructor
+@Tag(name = "Subscriptions", description = "Recurring payments")
+@SecurityRequirement(name = "bearerAuth")
+public class SubscriptionController {
+
+  private final ListableOwnedEntityReads<Subscription> subscriptionReads;
+
+  // Billing advances next_due_date with a version bump, so a billed period changes the tag
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Subscriptions by next due date; honours If-None-Match", operationId = "listSubscriptions")
+  public ResponseEntity<List<SubscriptionResponse>> list(WebRequest request) {
+    return ConditionalReads.list(request, subscriptionReads, CurrentUser.id(), SubscriptionResponse::of);
+  }
+
+  @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Subscription by id; honours If-None-Match", operationId = "getSubscription")
+  public ResponseEntity<SubscriptionResponse> get(@PathVariable UUID id, WebRequest request) {
+    return ConditionalReads.one(request, subscriptionReads, CurrentUser.id(), id, SubscriptionResponse::of);
+  }
+
+  @Schema(description = "Subscription")
+  public record SubscriptionResponse(UUID id, String name, IconType iconType, String iconValue, BigDecimal amount,
+                                     String currencyCode, UUID walletId, UUID categoryId, FreqType frequency,
+                                     Integer interval, Short dayOfMonth, Short dayOfWeek, Short monthOfYear,
+                                     LocalDate startDate, LocalDate nextDueDate, Long version) {
+    static SubscriptionResponse of(Subscription s) {
+      return new SubscriptionResponse(s.getId(), s.getName(), s.getIconType(), s.getIconValue(), s.getAmount(),
+          s.getCurrencyCode(), s.getWalletId(), s.getCategoryId(), s.getFrequency(), s.getInterval(),
+          s.getDayOfMonth(), s.getDayOfWeek(), s.getMonthOfYear(), s.getStartDate(), s.getNextDueDate(),
+          s.getVersion());
+    }
+  }
+}
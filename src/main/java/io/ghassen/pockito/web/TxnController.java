@@ -0,0 +1,205 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.security.CurrentUser;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.ghassen.pockito.service.read.TxnReads;
+import io.ghassen.pockito.service.txn.TxnCommand;
+import io.ghassen.pockito.service.txn.TxnCursor;
+import io.ghassen.pockito.service.txn.TxnFilter;
+import io.ghassen.pockito.service.txn.TxnQueryService;
+import io.ghassen.pockito.service.txn.TxnSearchCursor;
+import io.ghassen.pockito.service.txn.TxnSearchQuery;
+import io.ghassen.pockito.service.txn.TxnService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/transactions")
+@RequiredArgsConstructor
+@Tag(name = "Transactions", description = "Expense, income and transfer transactions")
+@SecurityRequirement(name = "bearerAuth")
+public class TxnController {
+
+  private static final String OCCURRED_AT_HINT =
+      "The transaction's current date, as last read; narrows the lookup to one monthly partition";
+
+  private final TxnService txnService;
+  private final TxnQueryService txnQueryService;
+  private final TxnReads txnReads;
+  private final ObjectMapper objectMapper;
+
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "List transactions",
+      description = "Newest first, keyset-paginated. Pass the returned nextCursor to fetch the following page.",
+      operationId = "listTransactions"
+  )
+  public ResponseEntity<StreamingResponseBody> list(
+      @RequestParam(required = false) TxnType type,
+      @RequestParam(required = false) UUID walletId,
+      @Parameter(description = "Also matches its subcategories") @RequestParam(required = false) UUID categoryId,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "Opaque continuation token from a previous page")
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "" + TxnQueryService.DEFAULT_PAGE_SIZE) int limit) {
+    UUID userId = CurrentUser.id();
+    TxnFilter filter = new TxnFilter(type, walletId, categoryId, from, to);
+    TxnCursor after = TxnCursor.decode(cursor);
+    txnQueryService.validate(filter, limit);
+
+    // Rows go straight from the JDBC cursor to the response: {"items":[...],"nextCursor":...}
+    StreamingResponseBody body = out -> {
+      try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+        json.writeStartObject();
+        json.writeArrayFieldStart("items");
+        TxnCursor next = txnQueryService.streamPage(userId, filter, after, limit, txn -> {
+          try {
+            json.writeObject(TxnResponse.of(txn));
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+        json.writeEndArray();
+        json.writeStringField("nextCursor", next != null ? next.encode() : null);
+        json.writeEndObject();
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(RoutedStreams.keepRoute(body));
+  }
+
+  @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "Search transactions",
+      description = "Matches note and counterparty by word prefix, substring or close spelling, and the names of "
+          + "category and wallet. Best matches first, keyset-paginated like the list.",
+      operationId = "searchTransactions"
+  )
+  public ResponseEntity<StreamingResponseBody> search(
+      @Parameter(description = "Search text") @RequestParam String q,
+      @RequestParam(required = false) TxnType type,
+      @RequestParam(required = false) UUID walletId,
+      @Parameter(description = "Also matches its subcategories") @RequestParam(required = false) UUID categoryId,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "Opaque continuation token from a previous page")
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "" + TxnQueryService.DEFAULT_PAGE_SIZE) int limit) {
+    UUID userId = CurrentUser.id();
+    TxnSearchQuery query = TxnSearchQuery.parse(q);
+    TxnFilter filter = new TxnFilter(type, walletId, categoryId, from, to);
+    TxnSearchCursor after = TxnSearchCursor.decode(cursor);
+    txnQueryService.validate(filter, limit);
+
+    StreamingResponseBody body = out -> {
+      try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+        json.writeStartObject();
+        json.writeArrayFieldStart("items");
+        TxnSearchCursor next = txnQueryService.streamSearch(userId, query, filter, after, limit, hit -> {
+          try {
+            json.writeObject(TxnResponse.of(hit.txn()));
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+        json.writeEndArray();
+        json.writeStringField("nextCursor", next != null ? next.encode() : null);
+        json.writeEndObject();
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(RoutedStreams.keepRoute(body));
+  }
+
+  @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Create transaction", operationId = "createTransaction")
+  public ResponseEntity<TxnResponse> create(@Valid @RequestBody TxnCommand cmd) {
+    Txn txn = txnService.create(CurrentUser.id(), cmd);
+    return ResponseEntity.status(HttpStatus.CREATED).body(TxnResponse.of(txn));
+  }
+
+  @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Transaction by id; honours If-None-Match", operationId = "getTransaction")
+  public ResponseEntity<TxnResponse> get(
+      @PathVariable UUID id,
+      @Parameter(description = OCCURRED_AT_HINT)
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate occurredAt,
+      WebRequest request) {
+    UUID userId = CurrentUser.id();
+    return ConditionalReads.one(request, () -> txnReads.version(userId, id, occurredAt),
+        () -> txnReads.get(userId, id, occurredAt), TxnResponse::of);
+  }
+
+  @PutMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Update transaction; with If-Match, only from that version", operationId = "updateTransaction")
+  public ResponseEntity<TxnResponse> update(
+      @PathVariable UUID id,
+      @Parameter(description = OCCURRED_AT_HINT)
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate occurredAt,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @Valid @RequestBody TxnCommand cmd) {
+    Txn txn = txnService.update(CurrentUser.id(), id, occurredAt, ConditionalReads.expectedVersion(ifMatch), cmd);
+    return ResponseEntity.ok().eTag(ConditionalReads.tag(txn.getVersion())).body(TxnResponse.of(txn));
+  }
+
+  @DeleteMapping("/{id}")
+  @Operation(summary = "Archive transaction; with If-Match, only from that version", operationId = "archiveTransaction")
+  public ResponseEntity<Void> archive(
+      @PathVariable UUID id,
+      @Parameter(description = OCCURRED_AT_HINT)
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate occurredAt,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    txnService.archive(CurrentUser.id(), id, occurredAt, ConditionalReads.expectedVersion(ifMatch));
+    return ResponseEntity.noContent().build();
+  }
+
+  @Schema(description = "Transaction")
+  public record TxnResponse(
+      UUID id,
+      TxnType type,
+      LocalDate occurredAt,
+      String note,
+      UUID walletId,
+      UUID categoryId,
+      BigDecimal amount,
+      String currencyCode,
+      UUID fromWalletId,
+      UUID toWalletId,
+      BigDecimal fromAmount,
+      BigDecimal toAmount,
+      String fromCurrencyCode,
+      String toCurrencyCode,
+      BigDecimal exchangeRate,
+      String externalWalletName,
+      Long version) {
+
+    public static TxnResponse of(Txn t) {
+      return new TxnResponse(t.getId(), t.getType(), t.getOccurredAt(), t.getNote(),
+          t.getWalletId(), t.getCategoryId(), t.getAmount(), t.getCurrencyCode(),
+          t.getFromWalletId(), t.getToWalletId(), t.getFromAmount(), t.getToAmount(),
+          t.getFromCurrencyCode(), t.getToCurrencyCode(), t.getExchangeRate(),
+          t.getExternalWalletName(), t.getVersion());
+    }
+  }
+}
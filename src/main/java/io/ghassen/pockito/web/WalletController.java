@@ -0,0 +1,82 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.IconType;
+import io.ghassen.pockito.domain.Wallet;
+import io.ghassen.pockito.domain.WalletType;
+import io.ghassen.pockito.security.CurrentUser;
+import io.ghassen.pockito.service.balance.WalletBalanceService;
+import io.ghassen.pockito.service.read.ListableOwnedEntityReads;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/wallets")
+@RequiredArgsConstructor
+@Tag(name = "Wallets", description = "Wallets and their balances")
+@SecurityRequirement(name = "bearerAuth")
+public class WalletController {
+
+  private final WalletBalanceService balanceService;
+  private final ListableOwnedEntityReads<Wallet> walletReads;
+
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Wallets of the current user; honours If-None-Match", operationId = "listWallets")
+  public ResponseEntity<List<WalletResponse>> list(WebRequest request) {
+    return ConditionalReads.list(request, walletReads, CurrentUser.id(), WalletResponse::of);
+  }
+
+  @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Wallet by id; honours If-None-Match", operationId = "getWallet")
+  public ResponseEntity<WalletResponse> get(@PathVariable UUID id, WebRequest request) {
+    return ConditionalReads.one(request, walletReads, CurrentUser.id(), id, WalletResponse::of);
+  }
+
+  @GetMapping(value = "/balances", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Current balance of every wallet", operationId = "getWalletBalances")
+  public ResponseEntity<List<BalanceResponse>> balances() {
+    return ResponseEntity.ok(balanceService.currentBalances(CurrentUser.id()).stream()
+        .map(b -> new BalanceResponse(b.getWalletId(), null, b.getBalance()))
+        .toList());
+  }
+
+  @GetMapping(value = "/{id}/balance", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Wallet balance, optionally as of a given date", operationId = "getWalletBalance")
+  public ResponseEntity<BalanceResponse> balance(
+      @PathVariable UUID id,
+      @Parameter(description = "End-of-day balance for this date, defaults to current balance")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+    UUID userId = CurrentUser.id();
+    BigDecimal balance = asOf == null
+        ? balanceService.currentBalance(userId, id)
+        : balanceService.balanceAsOf(userId, id, asOf);
+    return ResponseEntity.ok(new BalanceResponse(id, asOf, balance));
+  }
+
+  @Schema(description = "Wallet balance")
+  public record BalanceResponse(UUID walletId, LocalDate asOf, BigDecimal balance) {}
+
+  @Schema(description = "Wallet")
+  public record WalletResponse(UUID id, String name, WalletType type, String currencyCode, IconType iconType,
+                               String iconValue, String color, BigDecimal initialBalance, boolean isDefault,
+                               BigDecimal goalAmount, Long version) {
+    static WalletResponse of(Wallet w) {
+      return new WalletResponse(w.getId(), w.getName(), w.getType(), w.getCurrencyCode(), w.getIconType(),
+          w.getIconValue(), w.getColor(), w.getInitialBalance(), Boolean.TRUE.equals(w.getIsDefault()),
+          w.getGoalAmount(), w.getVersion());
+    }
+  }
+}
@@ -0,0 +1,22 @@
+-- Pockito Database Schema - V10
+-- Free-text search over txn notes and counterparties: prefix full-text matches, fuzzy (trigram)
+-- matches and matches on category / wallet names, all served from per-user GIN indexes
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- Lets a GIN index lead with user_id, so every search is confined to one user's entries
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+-- 'simple' configuration: notes mix languages, so no stemming or stop words.
+-- Adding the columns rewrites every txn partition once.
+ALTER TABLE txn
+  ADD COLUMN search_text TEXT
+    GENERATED ALWAYS AS (coalesce(note, '') || ' ' || coalesce(external_wallet_name, '')) STORED,
+  ADD COLUMN search_vector TSVECTOR
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(note, '') || ' ' || coalesce(external_wallet_name, ''))) STORED;
+
+CREATE INDEX ix_txn_search ON txn USING gin (user_id, search_vector, search_text gin_trgm_ops)
+  WHERE archived_at IS NULL;
+
+-- Txns of categories / wallets whose name matched
+CREATE INDEX ix_txn_search_refs ON txn USING gin (user_id, category_id, wallet_id, from_wallet_id, to_wallet_id)
+  WHERE archived_at IS NULL;
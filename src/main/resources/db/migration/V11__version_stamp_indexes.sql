@@ -0,0 +1,7 @@
+-- Conditional GETs compute count(*), sum(version) and max(updated_at) over a user's live rows on every poll.
+-- Covering partial indexes let those aggregates run as index-only scans.
+CREATE INDEX ix_wallet_user_stamp ON wallet (user_id) INCLUDE (version, updated_at) WHERE archived_at IS NULL;
+CREATE INDEX ix_category_user_stamp ON category (user_id) INCLUDE (version, updated_at) WHERE archived_at IS NULL;
+CREATE INDEX ix_budget_user_stamp ON budget (user_id) INCLUDE (version, updated_at) WHERE archived_at IS NULL;
+CREATE INDEX ix_subscription_user_stamp ON subscription (user_id) INCLUDE (version, updated_at)
+  WHERE archived_at IS NULL;
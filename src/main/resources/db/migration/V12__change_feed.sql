@@ -0,0 +1,49 @@
+-- Change feed: every write statement on these tables sends one NOTIFY per affected user, delivered at commit
+-- and dropped on rollback. Statement-level triggers keep bulk imports and billing runs to one notification
+-- per user and statement; ids are listed only for small changes so payloads stay far below the 8000-byte limit.
+-- The listener (ChangeFeedListener) fans them out to server-sent event streams.
+CREATE FUNCTION notify_changes() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+  r record;
+BEGIN
+  IF TG_TABLE_NAME = 'subscription_payment' THEN
+    FOR r IN
+      SELECT s.user_id, count(*) AS n, (array_agg(c.id))[1:20] AS ids
+        FROM changed c
+        JOIN subscription s ON s.id = c.subscription_id
+       GROUP BY s.user_id
+    LOOP
+      PERFORM pg_notify('pockito_changes', json_build_object(
+        'u', r.user_id, 't', TG_TABLE_NAME, 'op', lower(TG_OP), 'n', r.n,
+        'ids', CASE WHEN r.n <= 20 THEN r.ids END)::text);
+    END LOOP;
+  ELSE
+    FOR r IN
+      SELECT c.user_id, count(*) AS n, (array_agg(c.id))[1:20] AS ids
+        FROM changed c
+       GROUP BY c.user_id
+    LOOP
+      PERFORM pg_notify('pockito_changes', json_build_object(
+        'u', r.user_id, 't', TG_TABLE_NAME, 'op', lower(TG_OP), 'n', r.n,
+        'ids', CASE WHEN r.n <= 20 THEN r.ids END)::text);
+    END LOOP;
+  END IF;
+  RETURN NULL;
+END $$;
+
+-- A trigger with transition tables covers a single event, hence three per table. On the partitioned txn
+-- table the transition table holds the rows of every partition.
+DO $$
+DECLARE
+  t text;
+BEGIN
+  FOREACH t IN ARRAY ARRAY['txn', 'wallet', 'budget', 'subscription_payment'] LOOP
+    EXECUTE format('CREATE TRIGGER %I AFTER INSERT ON %I REFERENCING NEW TABLE AS changed '
+                   'FOR EACH STATEMENT EXECUTE FUNCTION notify_changes()', t || '_changes_insert', t);
+    EXECUTE format('CREATE TRIGGER %I AFTER UPDATE ON %I REFERENCING NEW TABLE AS changed '
+                   'FOR EACH STATEMENT EXECUTE FUNCTION notify_changes()', t || '_changes_update', t);
+    EXECUTE format('CREATE TRIGGER %I AFTER DELETE ON %I REFERENCING OLD TABLE AS changed '
+                   'FOR EACH STATEMENT EXECUTE FUNCTION notify_changes()', t || '_changes_delete', t);
+  END LOOP;
+END $$;
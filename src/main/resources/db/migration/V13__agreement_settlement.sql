@@ -0,0 +1,39 @@
+-- Agreement settlement: each payment stores the rate it was converted at and the amount it settled in the
+-- agreement's currency, and the agreement caches what is still outstanding. Archiving a payment gives back
+-- exactly what it settled, whatever rates have done since.
+ALTER TABLE agreement_payment
+  ADD COLUMN exchange_rate NUMERIC(20,10),
+  ADD COLUMN settled_amount NUMERIC(18,2);
+
+-- Same-currency payments settle their face amount. Earlier cross-currency payments carry no rate, so they
+-- stay unsettled (NULL) and do not count until re-recorded.
+UPDATE agreement_payment p
+   SET settled_amount = p.amount
+  FROM agreement a
+ WHERE a.id = p.agreement_id AND a.currency_code = p.currency_code;
+
+ALTER TABLE agreement ADD COLUMN outstanding_amount NUMERIC(18,2);
+
+UPDATE agreement a
+   SET outstanding_amount = a.principal_amount - COALESCE((
+         SELECT SUM(p.settled_amount) FROM agreement_payment p
+          WHERE p.agreement_id = a.id AND p.archived_at IS NULL), 0);
+
+UPDATE agreement SET status = CASE WHEN outstanding_amount <= 0 THEN 'SETTLED' ELSE 'OPEN' END;
+
+ALTER TABLE agreement
+  ALTER COLUMN outstanding_amount SET NOT NULL,
+  ADD CONSTRAINT agreement_status_check CHECK (status IN ('OPEN', 'SETTLED'));
+
+-- Owe/owed totals: one index-only scan over a user's open agreements, already in group order
+CREATE INDEX ix_agreement_user_open_totals
+  ON agreement (user_id, type, person_name, currency_code) INCLUDE (outstanding_amount)
+  WHERE archived_at IS NULL AND status = 'OPEN';
+
+-- Payments change the agreement row, so the change feed covers them through it
+CREATE TRIGGER agreement_changes_insert AFTER INSERT ON agreement REFERENCING NEW TABLE AS changed
+  FOR EACH STATEMENT EXECUTE FUNCTION notify_changes();
+CREATE TRIGGER agreement_changes_update AFTER UPDATE ON agreement REFERENCING NEW TABLE AS changed
+  FOR EACH STATEMENT EXECUTE FUNCTION notify_changes();
+CREATE TRIGGER agreement_changes_delete AFTER DELETE ON agreement REFERENCING OLD TABLE AS changed
+  FOR EACH STATEMENT EXECUTE FUNCTION notify_changes();
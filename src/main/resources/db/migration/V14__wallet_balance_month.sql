@@ -0,0 +1,13 @@
+-- Pockito Database Schema - V14
+-- Monthly checkpoints for "balance as of" reads: walking back from the current total touches at most
+-- the months after the requested one plus the remaining days of its own month
+
+CREATE TABLE wallet_balance_month (
+  wallet_id UUID NOT NULL REFERENCES wallet(id),
+  month DATE NOT NULL,
+  delta NUMERIC(18,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (wallet_id, month)
+);
+
+INSERT INTO wallet_balance_month (wallet_id, month, delta)
+SELECT wallet_id, date_trunc('month', day)::date, SUM(delta) FROM wallet_balance_day GROUP BY 1, 2;
@@ -0,0 +1,14 @@
+-- Pockito Database Schema - V15
+-- Schedule fields out of range made due-date arithmetic throw, failing the whole billing chunk.
+-- Existing bad values fall back to the defaults (start date's day, any weekday / month, every period).
+
+UPDATE subscription SET day_of_month = NULL WHERE day_of_month NOT BETWEEN 1 AND 31;
+UPDATE subscription SET day_of_week = NULL WHERE day_of_week NOT BETWEEN 1 AND 7;
+UPDATE subscription SET month_of_year = NULL WHERE month_of_year NOT BETWEEN 1 AND 12;
+UPDATE subscription SET "interval" = 1 WHERE "interval" < 1;
+
+ALTER TABLE subscription
+  ADD CONSTRAINT subscription_day_of_month_check CHECK (day_of_month BETWEEN 1 AND 31),
+  ADD CONSTRAINT subscription_day_of_week_check CHECK (day_of_week BETWEEN 1 AND 7),
+  ADD CONSTRAINT subscription_month_of_year_check CHECK (month_of_year BETWEEN 1 AND 12),
+  ADD CONSTRAINT subscription_interval_check CHECK ("interval" >= 1);
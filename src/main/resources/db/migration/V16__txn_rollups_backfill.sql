@@ -0,0 +1,21 @@
+-- Pockito Database Schema - V16
+-- Builds the V7 monthly rollups from txn history, so dashboards have the past and the incremental
+-- deltas of later edits and archives land on existing rows. Anything already in the tables is
+-- rebuilt: same statements as TxnRollupRepository.rebuildUser, over all users at once.
+
+DELETE FROM txn_month_category;
+DELETE FROM txn_month_wallet;
+
+INSERT INTO txn_month_category (user_id, month, category_id, type, currency_code, amount, txn_count)
+SELECT user_id, date_trunc('month', occurred_at)::date, category_id, type, currency_code, SUM(amount), COUNT(*)
+  FROM txn
+ WHERE archived_at IS NULL AND category_id IS NOT NULL AND type IN ('EXPENSE','INCOME')
+ GROUP BY 1, 2, 3, 4, 5;
+
+INSERT INTO txn_month_wallet (user_id, month, wallet_id, type, currency_code, inflow, outflow, txn_count)
+SELECT l.user_id, date_trunc('month', l.occurred_at)::date, l.wallet_id, t.type, w.currency_code,
+       SUM(GREATEST(l.delta, 0)), SUM(GREATEST(-l.delta, 0)), COUNT(*)
+  FROM txn_wallet_leg l
+  JOIN txn t ON t.id = l.txn_id AND t.occurred_at = l.occurred_at
+  JOIN wallet w ON w.id = l.wallet_id
+ GROUP BY 1, 2, 3, 4, 5;
@@ -0,0 +1,41 @@
+-- Pockito Database Schema - V2
+-- Incrementally maintained wallet balances
+
+-- One signed row per wallet touched by an active txn:
+-- EXPENSE debits wallet_id, INCOME credits it, TRANSFER debits from_wallet_id and credits to_wallet_id
+CREATE VIEW txn_wallet_leg AS
+  SELECT t.id AS txn_id, t.user_id, t.wallet_id, t.occurred_at,
+         CASE WHEN t.type = 'EXPENSE' THEN -t.amount ELSE t.amount END AS delta
+    FROM txn t
+   WHERE t.archived_at IS NULL AND t.type IN ('EXPENSE','INCOME')
+  UNION ALL
+  SELECT t.id, t.user_id, t.from_wallet_id, t.occurred_at, -COALESCE(t.from_amount, t.to_amount)
+    FROM txn t
+   WHERE t.archived_at IS NULL AND t.type = 'TRANSFER' AND t.from_wallet_id IS NOT NULL
+  UNION ALL
+  SELECT t.id, t.user_id, t.to_wallet_id, t.occurred_at, COALESCE(t.to_amount, t.from_amount)
+    FROM txn t
+   WHERE t.archived_at IS NULL AND t.type = 'TRANSFER' AND t.to_wallet_id IS NOT NULL;
+
+-- wallet_balance (running total of txn legs, current balance = wallet.initial_balance + txn_total)
+CREATE TABLE wallet_balance (
+  wallet_id UUID PRIMARY KEY REFERENCES wallet(id),
+  txn_total NUMERIC(18,2) NOT NULL DEFAULT 0,
+  txn_count BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- wallet_balance_day (per-day net movement, used as checkpoints for "balance as of" reads)
+CREATE TABLE wallet_balance_day (
+  wallet_id UUID NOT NULL REFERENCES wallet(id),
+  day DATE NOT NULL,
+  delta NUMERIC(18,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (wallet_id, day)
+);
+
+-- Backfill from existing history
+INSERT INTO wallet_balance (wallet_id, txn_total, txn_count)
+SELECT wallet_id, SUM(delta), COUNT(*) FROM txn_wallet_leg GROUP BY wallet_id;
+
+INSERT INTO wallet_balance_day (wallet_id, day, delta)
+SELECT wallet_id, occurred_at, SUM(delta) FROM txn_wallet_leg GROUP BY wallet_id, occurred_at;
@@ -0,0 +1,6 @@
+-- Pockito Database Schema - V3
+-- Keyset pagination over a user's history seeks on (occurred_at, id), so the tie-breaker
+-- has to be part of the index for every page to be a bounded range scan.
+
+DROP INDEX IF EXISTS ix_txn_user_date;
+CREATE INDEX ix_txn_user_date ON txn(user_id, occurred_at DESC, id DESC) WHERE archived_at IS NULL;
@@ -0,0 +1,34 @@
+-- Pockito Database Schema - V4
+-- Bulk statement imports
+
+-- Stable per-row fingerprint of an imported statement line; re-importing the same
+-- or an overlapping statement is a no-op thanks to the unique index below.
+ALTER TABLE txn ADD COLUMN import_ref TEXT;
+CREATE UNIQUE INDEX uq_txn_user_import_ref
+  ON txn(user_id, occurred_at, import_ref)
+  WHERE import_ref IS NOT NULL;
+
+-- import_job
+CREATE TABLE import_job (
+  id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+  user_id UUID NOT NULL REFERENCES app_user(id),
+  wallet_id UUID NOT NULL REFERENCES wallet(id),
+  format TEXT NOT NULL,
+  file_name TEXT,
+  status TEXT NOT NULL DEFAULT 'QUEUED',
+  rows_read BIGINT NOT NULL DEFAULT 0,
+  rows_imported BIGINT NOT NULL DEFAULT 0,
+  rows_duplicate BIGINT NOT NULL DEFAULT 0,
+  rows_failed BIGINT NOT NULL DEFAULT 0,
+  error TEXT,
+  started_at TIMESTAMPTZ,
+  finished_at TIMESTAMPTZ,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  created_by VARCHAR(255),
+  updated_by VARCHAR(255),
+  archived_at TIMESTAMPTZ,
+  archived_by VARCHAR(255),
+  version BIGINT DEFAULT 0
+);
+CREATE INDEX ix_import_job_user ON import_job(user_id, created_at DESC);
@@ -0,0 +1,6 @@
+-- Pockito Database Schema - V5
+-- Subscription billing
+
+-- The billing scheduler claims globally by due date, across users
+UPDATE subscription SET next_due_date = start_date WHERE next_due_date IS NULL;
+CREATE INDEX ix_subscription_due ON subscription(next_due_date) WHERE archived_at IS NULL;
@@ -0,0 +1,15 @@
+-- Pockito Database Schema - V6
+-- Precomputed budget consumption
+
+-- Budgets are looked up by category on every expense write
+CREATE INDEX ix_budget_category_category ON budget_category(category_id);
+
+-- budget_consumption (spent per budget period, in the budget's currency)
+CREATE TABLE budget_consumption (
+  budget_id UUID NOT NULL REFERENCES budget(id) ON DELETE CASCADE,
+  period_start DATE NOT NULL,
+  period_end DATE NOT NULL,
+  spent NUMERIC(18,2) NOT NULL DEFAULT 0,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  PRIMARY KEY (budget_id, period_start)
+);
@@ -0,0 +1,29 @@
+-- Pockito Database Schema - V7
+-- Monthly rollups for analytics, maintained incrementally on txn writes
+
+-- txn_month_category (categorized EXPENSE/INCOME per month, ancestors are summed at read time)
+CREATE TABLE txn_month_category (
+  user_id UUID NOT NULL REFERENCES app_user(id),
+  month DATE NOT NULL,
+  category_id UUID NOT NULL REFERENCES category(id),
+  type txn_type_enum NOT NULL,
+  currency_code CHAR(3) NOT NULL REFERENCES currency(code),
+  amount NUMERIC(18,2) NOT NULL DEFAULT 0,
+  txn_count BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (user_id, month, category_id, type, currency_code)
+);
+
+-- txn_month_wallet (per-wallet flow per month, from the txn_wallet_leg rows)
+CREATE TABLE txn_month_wallet (
+  user_id UUID NOT NULL REFERENCES app_user(id),
+  month DATE NOT NULL,
+  wallet_id UUID NOT NULL REFERENCES wallet(id),
+  type txn_type_enum NOT NULL,
+  currency_code CHAR(3) NOT NULL REFERENCES currency(code),
+  inflow NUMERIC(18,2) NOT NULL DEFAULT 0,
+  outflow NUMERIC(18,2) NOT NULL DEFAULT 0,
+  txn_count BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (user_id, month, wallet_id, type, currency_code)
+);
+
+-- Rollups are built by the backfill job (pockito.rollup.backfill-on-startup or POST /api/analytics/rollups/rebuild)
@@ -0,0 +1,152 @@
+-- Pockito Database Schema - V8
+-- Monthly range partitioning of txn (occurred_at) and activity_log (created_at).
+-- Partitions are named <table>_pYYYYMM; rows outside every partition land in <table>_default.
+-- PartitionMaintenanceJob keeps future months pre-created and detaches expired ones.
+
+-- Old partitions are detached into this schema, ready for pg_dump or a cheaper tablespace
+CREATE SCHEMA IF NOT EXISTS archive;
+
+-- ===== txn =====
+
+DROP VIEW txn_wallet_leg;
+
+-- A foreign key to a partitioned table must cover the partition key; payments keep txn_id
+-- and the services that create both rows keep them consistent
+ALTER TABLE subscription_payment DROP CONSTRAINT IF EXISTS subscription_payment_txn_id_fkey;
+ALTER TABLE agreement_payment DROP CONSTRAINT IF EXISTS agreement_payment_txn_id_fkey;
+
+ALTER TABLE txn RENAME TO txn_unpartitioned;
+ALTER INDEX txn_pkey RENAME TO txn_unpartitioned_pkey;
+ALTER INDEX ix_txn_user_date RENAME TO ix_txn_unpartitioned_user_date;
+ALTER INDEX ix_txn_user_type RENAME TO ix_txn_unpartitioned_user_type;
+ALTER INDEX uq_txn_user_import_ref RENAME TO uq_txn_unpartitioned_user_import_ref;
+
+CREATE TABLE txn (
+  id UUID NOT NULL DEFAULT gen_random_uuid(),
+  user_id UUID NOT NULL REFERENCES app_user(id),
+  type txn_type_enum NOT NULL,
+  occurred_at DATE NOT NULL,
+  note TEXT,
+  wallet_id UUID REFERENCES wallet(id),
+  category_id UUID REFERENCES category(id),
+  amount NUMERIC(18,2),
+  currency_code CHAR(3) REFERENCES currency(code),
+  from_wallet_id UUID REFERENCES wallet(id),
+  to_wallet_id UUID REFERENCES wallet(id),
+  from_amount NUMERIC(18,2),
+  to_amount NUMERIC(18,2),
+  from_currency_code CHAR(3) REFERENCES currency(code),
+  to_currency_code CHAR(3) REFERENCES currency(code),
+  exchange_rate NUMERIC(20,10),
+  external_wallet_name TEXT,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  created_by VARCHAR(255),
+  updated_by VARCHAR(255),
+  archived_at TIMESTAMPTZ,
+  archived_by VARCHAR(255),
+  version BIGINT DEFAULT 0,
+  import_ref TEXT,
+  PRIMARY KEY (id, occurred_at),
+  CONSTRAINT txn_exp_inc_check CHECK (
+    (type IN ('EXPENSE','INCOME') AND wallet_id IS NOT NULL AND amount IS NOT NULL AND currency_code IS NOT NULL AND from_wallet_id IS NULL AND to_wallet_id IS NULL)
+    OR
+    (type = 'TRANSFER' AND (from_wallet_id IS NOT NULL OR to_wallet_id IS NOT NULL) AND (from_amount IS NOT NULL OR to_amount IS NOT NULL))
+  )
+) PARTITION BY RANGE (occurred_at);
+
+-- Created on the parent, so every partition (present and future) gets them
+CREATE INDEX ix_txn_user_date ON txn(user_id, occurred_at DESC, id DESC) WHERE archived_at IS NULL;
+CREATE INDEX ix_txn_user_type ON txn(user_id, type);
+CREATE UNIQUE INDEX uq_txn_user_import_ref ON txn(user_id, occurred_at, import_ref) WHERE import_ref IS NOT NULL;
+
+CREATE TABLE txn_default PARTITION OF txn DEFAULT;
+
+-- ===== activity_log =====
+
+ALTER TABLE activity_log RENAME TO activity_log_unpartitioned;
+ALTER INDEX activity_log_pkey RENAME TO activity_log_unpartitioned_pkey;
+ALTER INDEX ix_activity_user_entity RENAME TO ix_activity_unpartitioned_user_entity;
+
+CREATE TABLE activity_log (
+  id UUID NOT NULL DEFAULT gen_random_uuid(),
+  user_id UUID NOT NULL REFERENCES app_user(id),
+  entity_type TEXT NOT NULL,
+  entity_id UUID NOT NULL,
+  action TEXT NOT NULL,
+  payload JSONB,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX ix_activity_user_entity ON activity_log(user_id, entity_type, entity_id, created_at DESC);
+
+CREATE TABLE activity_log_default PARTITION OF activity_log DEFAULT;
+
+-- ===== Monthly partitions covering recent rows and the next months =====
+-- Only the last two years are split out up front; older history stays in the default partition, where
+-- PartitionMaintenanceJob.ensureMonth can move a month out later. Every partition is one more relation
+-- for a lookup that cannot prune to probe.
+
+DO $$
+DECLARE
+  t TEXT;
+  lo DATE;
+  m DATE;
+  hi DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+  floor_month DATE := (date_trunc('month', now()) - INTERVAL '2 years')::date;
+BEGIN
+  FOREACH t IN ARRAY ARRAY['txn', 'activity_log'] LOOP
+    IF t = 'txn' THEN
+      SELECT date_trunc('month', MIN(occurred_at))::date INTO lo FROM txn_unpartitioned;
+    ELSE
+      SELECT date_trunc('month', MIN(created_at AT TIME ZONE 'UTC'))::date INTO lo FROM activity_log_unpartitioned;
+    END IF;
+    m := GREATEST(COALESCE(lo, date_trunc('month', now())::date), floor_month);
+    WHILE m <= hi LOOP
+      IF t = 'txn' THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF txn FOR VALUES FROM (%L) TO (%L)',
+                       'txn_p' || to_char(m, 'YYYYMM'), m, (m + INTERVAL '1 month')::date);
+      ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF activity_log FOR VALUES FROM (%L) TO (%L)',
+                       'activity_log_p' || to_char(m, 'YYYYMM'),
+                       m::timestamp AT TIME ZONE 'UTC', (m + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+      END IF;
+      m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+  END LOOP;
+END $$;
+
+-- ===== Move the data =====
+
+INSERT INTO txn (id, user_id, type, occurred_at, note, wallet_id, category_id, amount, currency_code,
+                 from_wallet_id, to_wallet_id, from_amount, to_amount, from_currency_code, to_currency_code,
+                 exchange_rate, external_wallet_name, created_at, updated_at, created_by, updated_by,
+                 archived_at, archived_by, version, import_ref)
+SELECT id, user_id, type, occurred_at, note, wallet_id, category_id, amount, currency_code,
+       from_wallet_id, to_wallet_id, from_amount, to_amount, from_currency_code, to_currency_code,
+       exchange_rate, external_wallet_name, created_at, updated_at, created_by, updated_by,
+       archived_at, archived_by, version, import_ref
+  FROM txn_unpartitioned;
+
+INSERT INTO activity_log (id, user_id, entity_type, entity_id, action, payload, created_at)
+SELECT id, user_id, entity_type, entity_id, action, payload, created_at
+  FROM activity_log_unpartitioned;
+
+DROP TABLE txn_unpartitioned;
+DROP TABLE activity_log_unpartitioned;
+
+-- Same definition as V2, now over the partitioned table
+CREATE VIEW txn_wallet_leg AS
+  SELECT t.id AS txn_id, t.user_id, t.wallet_id, t.occurred_at,
+         CASE WHEN t.type = 'EXPENSE' THEN -t.amount ELSE t.amount END AS delta
+    FROM txn t
+   WHERE t.archived_at IS NULL AND t.type IN ('EXPENSE','INCOME')
+  UNION ALL
+  SELECT t.id, t.user_id, t.from_wallet_id, t.occurred_at, -COALESCE(t.from_amount, t.to_amount)
+    FROM txn t
+   WHERE t.archived_at IS NULL AND t.type = 'TRANSFER' AND t.from_wallet_id IS NOT NULL
+  UNION ALL
+  SELECT t.id, t.user_id, t.to_wallet_id, t.occurred_at, COALESCE(t.to_amount, t.from_amount)
+    FROM txn t
+   WHERE t.archived_at IS NULL AND t.type = 'TRANSFER' AND t.to_wallet_id IS NOT NULL;
@@ -0,0 +1,35 @@
+-- Pockito Database Schema - V9
+-- Time-ordered UUIDv7 keys (RFC 9562) instead of random v4 for new rows
+
+-- 48-bit Unix millis over the random bytes of a v4, version nibble flipped from 4 to 7.
+-- Ordered across milliseconds only; the application generator (UuidV7) is also monotonic within one.
+CREATE OR REPLACE FUNCTION uuid_generate_v7() RETURNS uuid AS $$
+  SELECT encode(
+    set_bit(set_bit(
+      overlay(uuid_send(gen_random_uuid())
+              PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+              FROM 1 FOR 6),
+      52, 1), 53, 1),
+    'hex')::uuid
+$$ LANGUAGE sql VOLATILE PARALLEL SAFE;
+
+-- Every id column still defaulting to gen_random_uuid(). Partitions are skipped: rows are routed
+-- through the partitioned parent, whose default applies.
+DO $$
+DECLARE
+  col record;
+BEGIN
+  FOR col IN
+    SELECT c.relname AS table_name, a.attname AS column_name
+      FROM pg_attrdef d
+      JOIN pg_class c ON c.oid = d.adrelid
+      JOIN pg_namespace n ON n.oid = c.relnamespace
+      JOIN pg_attribute a ON a.attrelid = d.adrelid AND a.attnum = d.adnum
+     WHERE n.nspname = 'public'
+       AND NOT c.relispartition
+       AND pg_get_expr(d.adbin, d.adrelid) = 'gen_random_uuid()'
+  LOOP
+    EXECUTE format('ALTER TABLE public.%I ALTER COLUMN %I SET DEFAULT uuid_generate_v7()',
+                   col.table_name, col.column_name);
+  END LOOP;
+END $$;
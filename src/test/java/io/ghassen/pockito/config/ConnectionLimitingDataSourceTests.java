@@ -0,0 +1,105 @@
+package io.ghassen.pockito.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ConnectionLimitingDataSourceTests {
+
+  private final DataSource target = mock(DataSource.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void closeReleasesThePermitExactlyOnce() throws SQLException {
+    when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+    ConnectionLimitingDataSource dataSource = limiter(2, Duration.ofMillis(50));
+
+    Connection first = dataSource.getConnection();
+    dataSource.getConnection();
+    assertThat(available()).isZero();
+
+    first.close();
+    first.close();
+
+    assertThat(available()).isEqualTo(1);
+  }
+
+  @Test
+  void closeReleasesThePermitEvenWhenTheConnectionFailsToClose() throws SQLException {
+    Connection connection = mock(Connection.class);
+    doThrow(new SQLException("broken pipe")).when(connection).close();
+    when(target.getConnection()).thenReturn(connection);
+    ConnectionLimitingDataSource dataSource = limiter(1, Duration.ofMillis(50));
+
+    Connection limited = dataSource.getConnection();
+
+    assertThatThrownBy(limited::close).isInstanceOf(SQLException.class).hasMessage("broken pipe");
+    assertThat(available()).isEqualTo(1);
+  }
+
+  @Test
+  void otherCallsGoStraightToTheConnection() throws SQLException {
+    Connection connection = mock(Connection.class);
+    when(connection.getAutoCommit()).thenReturn(false);
+    doThrow(new SQLException("read only")).when(connection).setReadOnly(true);
+    when(target.getConnection()).thenReturn(connection);
+
+    Connection limited = limiter(1, Duration.ofMillis(50)).getConnection();
+
+    assertThat(limited.getAutoCommit()).isFalse();
+    assertThatThrownBy(() -> limited.setReadOnly(true)).isInstanceOf(SQLException.class).hasMessage("read only");
+    assertThat(available()).isZero();
+  }
+
+  @Test
+  void aFailedGetConnectionGivesThePermitBack() throws SQLException {
+    when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+    when(target.getConnection("app", "secret")).thenThrow(new IllegalStateException("pool closed"));
+    ConnectionLimitingDataSource dataSource = limiter(1, Duration.ofMillis(50));
+
+    assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+    assertThatThrownBy(() -> dataSource.getConnection("app", "secret")).hasMessage("pool closed");
+
+    assertThat(available()).isEqualTo(1);
+    assertThat(rejected()).isZero();
+  }
+
+  @Test
+  void aCallerIsRejectedAfterTheAcquireTimeout() throws SQLException {
+    when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+    ConnectionLimitingDataSource dataSource = limiter(1, Duration.ofMillis(100));
+    Connection held = dataSource.getConnection();
+
+    long started = System.nanoTime();
+    assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+    assertThat(rejected()).isEqualTo(1);
+    verify(target, times(1)).getConnection();
+
+    held.close();
+    dataSource.getConnection();
+    assertThat(rejected()).isEqualTo(1);
+  }
+
+  private ConnectionLimitingDataSource limiter(int permits, Duration acquireTimeout) {
+    return new ConnectionLimitingDataSource(target, "primary", permits, acquireTimeout, registry);
+  }
+
+  private double available() {
+    return registry.get("pockito.db.limiter.available").tag("pool", "primary").gauge().value();
+  }
+
+  private double rejected() {
+    return registry.get("pockito.db.limiter.rejected").tag("pool", "primary").counter().count();
+  }
+}
@@ -0,0 +1,68 @@
+package io.ghassen.pockito.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTests {
+
+  private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+
+  @AfterEach
+  void clear() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void writerReadsFromPrimaryWithinTheWindow() throws Exception {
+    UUID user = authenticate();
+    assertThat(pinnedDuring("GET")).isFalse();
+
+    assertThat(pinnedDuring("POST")).isTrue();
+    assertThat(pinnedDuring("GET")).isTrue();
+    assertThat(filter.recentlyWrote(user)).isTrue();
+    assertThat(ReplicaSet.isPinned()).isFalse();
+
+    authenticate();
+    assertThat(pinnedDuring("GET")).isFalse();
+  }
+
+  @Test
+  void windowExpires() throws Exception {
+    ReadYourWritesFilter instant = new ReadYourWritesFilter(Duration.ZERO);
+    UUID user = authenticate();
+    instant.doFilter(new MockHttpServletRequest("PUT", "/api/wallets"), new MockHttpServletResponse(), (req, res) -> {
+    });
+    assertThat(instant.recentlyWrote(user)).isFalse();
+  }
+
+  @Test
+  void anonymousRequestsAreNotPinned() throws Exception {
+    assertThat(pinnedDuring("POST")).isFalse();
+  }
+
+  private boolean pinnedDuring(String method) throws Exception {
+    AtomicBoolean pinned = new AtomicBoolean();
+    filter.doFilter(new MockHttpServletRequest(method, "/api/transactions"), new MockHttpServletResponse(),
+        (req, res) -> pinned.set(ReplicaSet.isPinned()));
+    return pinned.get();
+  }
+
+  private static UUID authenticate() {
+    UUID user = UUID.randomUUID();
+    Jwt jwt = Jwt.withTokenValue("t").header("alg", "none").subject(user.toString()).build();
+    SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, List.of()));
+    return user;
+  }
+}
@@ -0,0 +1,143 @@
+package io.ghassen.pockito.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A primary and a streaming replica cloned from it with pg_basebackup; skipped when Docker is not available
+@Testcontainers(disabledWithoutDocker = true)
+class ReplicaRoutingTests {
+
+  static final Network NETWORK = Network.newNetwork();
+
+  @Container
+  static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>("postgres:16-alpine")
+      .withNetwork(NETWORK)
+      .withNetworkAliases("primary")
+      .withCommand("postgres", "-c", "wal_level=replica", "-c", "max_wal_senders=4")
+      .withCopyToContainer(Transferable.of(
+          "echo 'host replication all all scram-sha-256' >> \"$PGDATA/pg_hba.conf\""),
+          "/docker-entrypoint-initdb.d/replication.sh");
+
+  @Container
+  static final GenericContainer<?> REPLICA = new GenericContainer<>("postgres:16-alpine")
+      .withNetwork(NETWORK)
+      .dependsOn(PRIMARY)
+      .withExposedPorts(5432)
+      .withEnv("PGPASSWORD", "test")
+      .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres").withEntrypoint("sh", "-c"))
+      .withCommand("until pg_basebackup -h primary -U test -D /tmp/replica -R -X stream; do sleep 1; done"
+          + " && chmod 700 /tmp/replica && exec postgres -D /tmp/replica")
+      .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1))
+      .withStartupTimeout(Duration.ofMinutes(2));
+
+  static ReplicaSet replicaSet;
+  static JdbcTemplate jdbc;
+  static TransactionTemplate readOnly;
+
+  @BeforeAll
+  static void routing() {
+    HikariDataSource primary = pool(PRIMARY.getJdbcUrl(), "primary");
+    HikariDataSource replica = pool(replicaUrl(), "replica");
+    replicaSet = new ReplicaSet(primary, List.of(replica), Duration.ofMinutes(1), Duration.ofSeconds(1),
+        new SimpleMeterRegistry());
+    LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+    routing.setReadOnlyDataSource(replicaSet.readOnlyDataSource());
+    jdbc = new JdbcTemplate(routing);
+    readOnly = new TransactionTemplate(new DataSourceTransactionManager(routing));
+    readOnly.setReadOnly(true);
+    jdbc.execute("CREATE TABLE IF NOT EXISTS probe (id int)");
+  }
+
+  @AfterAll
+  static void close() {
+    replicaSet.close();
+  }
+
+  @Test
+  void readOnlyTransactionsGoToTheReplicaAndWritesToThePrimary() {
+    replicaSet.check();
+
+    assertThat(readOnlyInRecovery()).isTrue();
+    assertThat(inRecovery()).isFalse();
+  }
+
+  @Test
+  void pinnedThreadReadsFromThePrimary() {
+    replicaSet.check();
+    ReplicaSet.pin();
+    try {
+      assertThat(readOnlyInRecovery()).isFalse();
+    } finally {
+      ReplicaSet.unpin();
+    }
+  }
+
+  @Test
+  void laggingReplicaFallsBackToThePrimary() throws Exception {
+    onReplica("SELECT pg_wal_replay_pause()");
+    try {
+      jdbc.update("INSERT INTO probe VALUES (1)");
+      Thread.sleep(1500);
+      replicaSet.check();
+      assertThat(readOnlyInRecovery()).isFalse();
+    } finally {
+      onReplica("SELECT pg_wal_replay_resume()");
+    }
+    Thread.sleep(500);
+    replicaSet.check();
+    assertThat(readOnlyInRecovery()).isTrue();
+  }
+
+  private static boolean readOnlyInRecovery() {
+    return Boolean.TRUE.equals(readOnly.execute(status -> inRecovery()));
+  }
+
+  private static Boolean inRecovery() {
+    return jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class);
+  }
+
+  private static void onReplica(String sql) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(replicaUrl(), PRIMARY.getUsername(), PRIMARY.getPassword());
+         Statement st = connection.createStatement()) {
+      st.execute(sql);
+    }
+  }
+
+  private static String replicaUrl() {
+    return "jdbc:postgresql://" + REPLICA.getHost() + ":" + REPLICA.getMappedPort(5432) + "/" + PRIMARY.getDatabaseName();
+  }
+
+  private static HikariDataSource pool(String url, String name) {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(url);
+    config.setUsername(PRIMARY.getUsername());
+    config.setPassword(PRIMARY.getPassword());
+    config.setPoolName(name);
+    config.setMaximumPoolSize(2);
+    return new HikariDataSource(config);
+  }
+}
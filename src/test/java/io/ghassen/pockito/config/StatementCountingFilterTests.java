@@ -0,0 +1,41 @@
+package io.ghassen.pockito.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementCountingFilterTests {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final StatementCountingFilter filter = new StatementCountingFilter(registry);
+
+  @Test
+  void recordsStatementsPerMatchedEndpoint() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/wallets/42");
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+      StatementCounter.INSTANCE.inspect("select 1");
+      StatementCounter.INSTANCE.inspect("select 2");
+      req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/wallets/{id}");
+    });
+
+    DistributionSummary summary = registry.get("pockito.http.server.statements")
+        .tag("method", "GET").tag("uri", "/api/wallets/{id}").summary();
+    assertThat(summary.count()).isEqualTo(1);
+    assertThat(summary.totalAmount()).isEqualTo(2);
+    // Counting stops with the request
+    StatementCounter.INSTANCE.inspect("select 3");
+    assertThat(summary.totalAmount()).isEqualTo(2);
+  }
+
+  @Test
+  void skipsRequestsWithoutHandler() throws Exception {
+    filter.doFilter(new MockHttpServletRequest("GET", "/nope"), new MockHttpServletResponse(),
+        (req, res) -> StatementCounter.INSTANCE.inspect("select 1"));
+    assertThat(registry.find("pockito.http.server.statements").meters()).isEmpty();
+  }
+}
@@ -0,0 +1,49 @@
+package io.ghassen.pockito.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTests {
+
+  @Test
+  void roundsHalfUpToCurrencyDecimals() {
+    assertThat(Money.minorUnits(new BigDecimal("12.345"), 2)).isEqualTo(1235);
+    assertThat(Money.minorUnits(new BigDecimal("-12.345"), 2)).isEqualTo(-1235);
+    assertThat(Money.minorUnits(new BigDecimal("12.5"), 0)).isEqualTo(13);
+    assertThat(Money.minorUnits(new BigDecimal("1.2"), 3)).isEqualTo(1200);
+    assertThat(Money.minorUnits(new BigDecimal("1E+2"), 2)).isEqualTo(10000);
+    assertThat(Money.of(new BigDecimal("7.1"), "TND", 3).toBigDecimal()).isEqualByComparingTo("7.100");
+  }
+
+  @Test
+  void arithmeticIsExactAndCurrencyChecked() {
+    Money a = Money.of(new BigDecimal("0.10"), "USD", 2);
+    Money b = Money.of(new BigDecimal("0.20"), "USD", 2);
+    assertThat(a.plus(b).toBigDecimal()).isEqualByComparingTo("0.30");
+    assertThat(a.minus(b).signum()).isNegative();
+    assertThatThrownBy(() -> a.plus(Money.zero("EUR", 2))).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new Money(Long.MAX_VALUE, "USD", 2).plus(a)).isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  void sumCollectsLongStreams() {
+    MoneySum sum = LongStream.rangeClosed(1, 1000)
+        .collect(MoneySum.supplier(2), MoneySum::accept, MoneySum::combine);
+    assertThat(sum.total()).isEqualTo(500500);
+    assertThat(sum.count()).isEqualTo(1000);
+    assertThat(sum.toMoney("USD").toString()).isEqualTo("5005.00 USD");
+  }
+
+  @Test
+  void converterRoundTripsColumnScale() {
+    MinorUnitsConverter converter = new MinorUnitsConverter();
+    assertThat(converter.convertToDatabaseColumn(-1999L)).isEqualByComparingTo("-19.99");
+    assertThat(converter.convertToEntityAttribute(new BigDecimal("19.99"))).isEqualTo(1999L);
+    assertThat(converter.convertToEntityAttribute(null)).isNull();
+  }
+}
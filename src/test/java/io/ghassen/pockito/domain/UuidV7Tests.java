@@ -0,0 +1,57 @@
+package io.ghassen.pockito.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Tests {
+
+  @Test
+  void layoutFollowsRfc9562() {
+    Instant before = Instant.now();
+    UUID id = UuidV7.next();
+    assertThat(id.version()).isEqualTo(7);
+    assertThat(id.variant()).isEqualTo(2);
+    assertThat(UuidV7.timestamp(id)).isBetween(before.minusMillis(1), Instant.now().plus(Duration.ofSeconds(1)));
+  }
+
+  @Test
+  void counterOverflowCarriesIntoTimestampKeepingOrder() {
+    UUID last = UuidV7.build(1000, 0xFFF, -1L);
+    UUID carried = UuidV7.build(1001, 0, 0L);
+    assertThat(last.toString().compareTo(carried.toString())).isNegative();
+    assertThat(UuidV7.timestamp(carried).toEpochMilli()).isEqualTo(1001);
+  }
+
+  // Text order is what the uuid B-tree sorts by, so compare strings rather than UUID.compareTo (signed)
+  @Test
+  void strictlyIncreasingAcrossThreads() throws Exception {
+    ConcurrentLinkedQueue<List<String>> perThread = new ConcurrentLinkedQueue<>();
+    try (var pool = Executors.newFixedThreadPool(8)) {
+      IntStream.range(0, 8).forEach(t -> pool.submit(() -> {
+        List<String> ids = new ArrayList<>(20_000);
+        for (int i = 0; i < 20_000; i++) {
+          ids.add(UuidV7.next().toString());
+        }
+        perThread.add(ids);
+      }));
+    }
+    List<String> all = new ArrayList<>();
+    for (List<String> ids : perThread) {
+      for (int i = 1; i < ids.size(); i++) {
+        assertThat(ids.get(i)).isGreaterThan(ids.get(i - 1));
+      }
+      all.addAll(ids);
+    }
+    assertThat(all).doesNotHaveDuplicates().hasSize(160_000);
+  }
+}
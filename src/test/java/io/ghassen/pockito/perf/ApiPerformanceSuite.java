@@ -0,0 +1,167 @@
+package io.ghassen.pockito.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.ghassen.pockito.PockitoApplication;
+import io.ghassen.pockito.service.analytics.RollupBackfillJob;
+import io.ghassen.pockito.service.budget.BudgetRecomputeJob;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// End-to-end latency and throughput of the main API flows on a seeded database.
+//   mvn test -Pbenchmark -Dtest=ApiPerformanceSuite [-Dbenchmark.users=1000 -Dbenchmark.txn=1000000
+//       -Dbenchmark.concurrency=64 -Dbenchmark.duration=30s -Dperf.txn-list.p99-ms=200]
+// Writes target/benchmarks/api-performance.json and fails when a limit in perf-thresholds.properties is broken.
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class ApiPerformanceSuite {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+      .withCommand("postgres", "-c", "max_connections=200", "-c", "shared_buffers=512MB");
+
+  private static LocalTokenIssuer issuer;
+  private static ConfigurableApplicationContext ctx;
+  private static final List<UUID> users = new ArrayList<>();
+  private static final List<String> tokens = new ArrayList<>();
+  private static final Map<String, Object> setup = new LinkedHashMap<>();
+
+  @BeforeAll
+  static void start() throws Exception {
+    int userCount = Integer.getInteger("benchmark.users", 1000);
+    int txnCount = Integer.getInteger("benchmark.txn", 1_000_000);
+
+    issuer = new LocalTokenIssuer();
+    Map<String, Object> props = new HashMap<>(issuer.properties());
+    props.put("spring.datasource.url", POSTGRES.getJdbcUrl());
+    props.put("spring.datasource.username", POSTGRES.getUsername());
+    props.put("spring.datasource.password", POSTGRES.getPassword());
+    props.put("server.port", 0);
+    props.put("spring.jpa.show-sql", false);
+    props.put("logging.level.root", "WARN");
+    props.put("logging.level.org.springframework", "WARN");
+    ctx = new SpringApplicationBuilder(PockitoApplication.class).profiles("dev").properties(props).run();
+
+    for (int i = 0; i < userCount; i++) {
+      UUID id = UUID.randomUUID();
+      users.add(id);
+      tokens.add(issuer.mint(id, List.of("user"), Duration.ofHours(4)));
+    }
+    long seedStart = System.nanoTime();
+    new PerfDataSeeder(ctx.getBean(JdbcTemplate.class)).seed(users, Math.max(1, txnCount / userCount));
+    RollupBackfillJob rollups = ctx.getBean(RollupBackfillJob.class);
+    while (!rollups.start()) {
+      Thread.sleep(200);
+    }
+    ctx.getBean(BudgetRecomputeJob.class).run();
+    while (rollups.isRunning()) {
+      Thread.sleep(200);
+    }
+    setup.put("users", userCount);
+    setup.put("txn", ctx.getBean(JdbcTemplate.class).queryForObject("SELECT count(*) FROM txn", Long.class));
+    setup.put("seedSeconds", (System.nanoTime() - seedStart) / 1_000_000_000L);
+  }
+
+  @AfterAll
+  static void stop() {
+    if (ctx != null) {
+      ctx.close();
+    }
+    if (issuer != null) {
+      issuer.close();
+    }
+  }
+
+  @Test
+  void apiFlows() throws Exception {
+    int concurrency = Integer.getInteger("benchmark.concurrency", 64);
+    Duration warmup = Duration.parse("PT" + System.getProperty("benchmark.warmup", "10s").toUpperCase());
+    Duration measure = Duration.parse("PT" + System.getProperty("benchmark.duration", "30s").toUpperCase());
+    int port = ((ServletWebServerApplicationContext) ctx).getWebServer().getPort();
+    LoadDriver driver = new LoadDriver("http://127.0.0.1:" + port);
+    PerfDataSeeder seeder = new PerfDataSeeder(ctx.getBean(JdbcTemplate.class));
+
+    YearMonth to = YearMonth.now();
+    YearMonth from = to.minusMonths(11);
+    String months = "?from=" + from + "&to=" + to;
+    List<Scenario> scenarios = new ArrayList<>();
+    scenarios.add(new Scenario("wallet-balances", "GET /api/wallets/balances",
+        i -> driver.get("/api/wallets/balances", token(i))));
+    scenarios.add(new Scenario("txn-list", "GET /api/transactions",
+        i -> driver.get("/api/transactions?limit=50", token(i))));
+    scenarios.add(new Scenario("budget-status", "GET /api/budgets/status",
+        i -> driver.get("/api/budgets/status", token(i))));
+    scenarios.add(new Scenario("analytics-categories", "GET /api/analytics/categories",
+        i -> driver.get("/api/analytics/categories" + months, token(i))));
+    scenarios.add(new Scenario("analytics-income-expense", "GET /api/analytics/income-expense",
+        i -> driver.get("/api/analytics/income-expense" + months, token(i))));
+    scenarios.add(new Scenario("txn-create", "POST /api/transactions", i -> {
+      PerfDataSeeder.WriteTarget t = seeder.writeTarget(users.get(i % users.size()));
+      String body = String.format("""
+          {"type":"EXPENSE","occurredAt":"%s","walletId":"%s","categoryId":"%s","amount":12.34,"currencyCode":"%s"}
+          """, LocalDate.now(), t.walletId(), t.categoryId(), t.currencyCode());
+      return driver.post("/api/transactions", token(i), body);
+    }));
+
+    // One untimed pass so provisioning is not part of the measurement
+    for (int i = 0; i < Math.min(users.size(), concurrency); i++) {
+      assertThat(driver.send(driver.get("/api/wallets/balances", token(i))).statusCode()).isEqualTo(200);
+    }
+
+    PerfThresholds thresholds = PerfThresholds.load("perf-thresholds.properties");
+    List<LoadResult> results = new ArrayList<>();
+    List<String> violations = new ArrayList<>();
+    for (Scenario s : scenarios) {
+      LoadResult r = driver.run(s.name(), s.endpoint(), s.requests(), concurrency, warmup, measure);
+      System.out.println(r.line());
+      results.add(r);
+      violations.addAll(thresholds.violations(r));
+    }
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("timestamp", Instant.now().toString());
+    report.put("setup", setup);
+    report.put("concurrency", concurrency);
+    report.put("warmupSeconds", warmup.toSeconds());
+    report.put("durationSeconds", measure.toSeconds());
+    report.put("results", results);
+    report.put("violations", violations);
+    Path out = Path.of("target", "benchmarks", "api-performance.json");
+    Files.createDirectories(out.getParent());
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+
+    assertThat(violations).as("performance thresholds, see " + out).isEmpty();
+  }
+
+  private static String token(int client) {
+    return tokens.get(client % tokens.size());
+  }
+
+  private record Scenario(String name, String endpoint, IntFunction<HttpRequest> requests) {}
+}
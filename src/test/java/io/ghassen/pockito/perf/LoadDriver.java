@@ -0,0 +1,123 @@
+package io.ghassen.pockito.perf;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+// Closed-loop load: `concurrency` clients each send the next request as soon as the previous one
+// answers. Latencies of the warm-up phase are discarded.
+public final class LoadDriver {
+
+  private final HttpClient client;
+  private final String baseUrl;
+
+  public LoadDriver(String baseUrl) {
+    this.baseUrl = baseUrl;
+    this.client = HttpClient.newBuilder()
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+  }
+
+  // requests.apply(clientIndex) gives the request each simulated client repeats
+  public LoadResult run(String scenario, String endpoint, IntFunction<HttpRequest> requests, int concurrency,
+                        Duration warmup, Duration measure) throws Exception {
+    long warmupEnd = System.nanoTime() + warmup.toNanos();
+    long end = warmupEnd + measure.toNanos();
+    List<Future<Worker>> futures = new ArrayList<>(concurrency);
+    try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < concurrency; i++) {
+        Worker w = new Worker(requests.apply(i));
+        futures.add(pool.submit(() -> w.loop(warmupEnd, end)));
+      }
+    }
+    long[] all = new long[0];
+    long errors = 0;
+    for (Future<Worker> f : futures) {
+      Worker w = f.get();
+      long[] mine = Arrays.copyOf(w.latencies, w.count);
+      long[] merged = Arrays.copyOf(all, all.length + mine.length);
+      System.arraycopy(mine, 0, merged, all.length, mine.length);
+      all = merged;
+      errors += w.errors;
+    }
+    Arrays.sort(all);
+    double seconds = measure.toNanos() / 1e9;
+    return new LoadResult(scenario, endpoint, concurrency, all.length, errors, all.length / seconds,
+        percentile(all, 0.50), percentile(all, 0.99), all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+  }
+
+  public HttpResponse<String> send(HttpRequest request) throws Exception {
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  public HttpRequest get(String path, String token) {
+    return builder(path, token).GET().build();
+  }
+
+  public HttpRequest post(String path, String token, String json) {
+    return builder(path, token)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(json))
+        .build();
+  }
+
+  private HttpRequest.Builder builder(String path, String token) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .header("Authorization", "Bearer " + token)
+        .timeout(Duration.ofSeconds(30));
+  }
+
+  static double percentile(long[] sortedNanos, double p) {
+    if (sortedNanos.length == 0) {
+      return 0;
+    }
+    int idx = (int) Math.ceil(p * sortedNanos.length) - 1;
+    return sortedNanos[Math.max(0, Math.min(idx, sortedNanos.length - 1))] / 1e6;
+  }
+
+  private final class Worker {
+    private final HttpRequest request;
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    Worker(HttpRequest request) {
+      this.request = request;
+    }
+
+    Worker loop(long warmupEnd, long end) {
+      long now;
+      while ((now = System.nanoTime()) < end) {
+        boolean ok;
+        try {
+          ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+        } catch (Exception e) {
+          ok = false;
+        }
+        long done = System.nanoTime();
+        if (now < warmupEnd) {
+          continue;
+        }
+        if (!ok) {
+          errors++;
+          continue;
+        }
+        if (count == latencies.length) {
+          latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = done - now;
+      }
+      return this;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package io.ghassen.pockito.perf;
+
+// One endpoint under one configuration; latencies in milliseconds
+public record LoadResult(
+    String scenario,
+    String endpoint,
+    int concurrency,
+    long requests,
+    long errors,
+    double throughputPerSecond,
+    double p50Millis,
+    double p99Millis,
+    double maxMillis) {
+
+  public String line() {
+    return String.format("%-10s %-40s c=%-4d req=%-8d err=%-5d %9.1f req/s  p50=%7.2f ms  p99=%7.2f ms  max=%7.2f ms",
+        scenario, endpoint, concurrency, requests, errors, throughputPerSecond, p50Millis, p99Millis, maxMillis);
+  }
+}
@@ -0,0 +1,91 @@
+package io.ghassen.pockito.perf;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// In-process stand-in for the Keycloak realm: serves the JWKS and signs tokens with the same claims
+public final class LocalTokenIssuer implements AutoCloseable {
+
+  private static final String REALM_PATH = "/realms/pockito";
+
+  private final RSAKey key;
+  private final HttpServer server;
+
+  public LocalTokenIssuer() {
+    try {
+      key = new RSAKeyGenerator(2048).keyID("perf").generate();
+      server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    } catch (JOSEException e) {
+      throw new IllegalStateException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    byte[] body = new JWKSet(key).toPublicJWKSet().toString().getBytes(StandardCharsets.UTF_8);
+    server.createContext(REALM_PATH + "/protocol/openid-connect/certs", exchange -> {
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+      exchange.close();
+    });
+    server.start();
+  }
+
+  public String issuer() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + REALM_PATH;
+  }
+
+  public String jwksUri() {
+    return issuer() + "/protocol/openid-connect/certs";
+  }
+
+  // Spring properties pointing the resource server at this issuer
+  public Map<String, Object> properties() {
+    return Map.of(
+        "spring.security.oauth2.resourceserver.jwt.issuer-uri", issuer(),
+        "spring.security.oauth2.resourceserver.jwt.jwk-set-uri", jwksUri());
+  }
+
+  public String mint(UUID userId, List<String> roles, Duration ttl) {
+    Instant now = Instant.now();
+    JWTClaimsSet claims = new JWTClaimsSet.Builder()
+        .issuer(issuer())
+        .subject(userId.toString())
+        .issueTime(Date.from(now))
+        .expirationTime(Date.from(now.plus(ttl)))
+        .claim("email", "perf-" + userId + "@example.com")
+        .claim("preferred_username", "perf-" + userId)
+        .claim("realm_access", Map.of("roles", roles))
+        .build();
+    SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+    try {
+      jwt.sign(new RSASSASigner(key));
+    } catch (JOSEException e) {
+      throw new IllegalStateException(e);
+    }
+    return jwt.serialize();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
@@ -0,0 +1,149 @@
+package io.ghassen.pockito.perf;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.util.List;
+import java.util.UUID;
+
+// Bulk seeding straight through SQL: per user two wallets, a small category tree, subscriptions,
+// budgets and txnPerUser transactions over the last two years. Derived tables (balances, rollups,
+// budget consumption) are NOT maintained here; the caller rebuilds them afterwards.
+public final class PerfDataSeeder {
+
+  static final String[] CURRENCIES = {"USD", "EUR", "TND"};
+  static final int HISTORY_DAYS = 730;
+
+  private final JdbcTemplate jdbc;
+
+  public PerfDataSeeder(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  public void seed(List<UUID> userIds, int txnPerUser) {
+    jdbc.update("""
+        INSERT INTO app_user (id, email, display_name, default_currency)
+        SELECT u.id, 'perf-' || u.id || '@example.com', 'perf-' || u.id, (?::text[])[(1 + u.n % 3)::int]
+          FROM unnest(?::uuid[]) WITH ORDINALITY AS u(id, n)
+        ON CONFLICT (id) DO NOTHING
+        """, ps -> {
+      Connection con = ps.getConnection();
+      ps.setArray(1, con.createArrayOf("text", CURRENCIES));
+      ps.setArray(2, uuidArray(con, userIds));
+    });
+    // Same-currency wallets so transfers need no conversion
+    jdbc.update("""
+        INSERT INTO wallet (user_id, name, icon_type, icon_value, currency_code, type, initial_balance, is_default)
+        SELECT u.id, w.name, 'EMOJI', w.icon, u.default_currency, w.type::wallet_type_enum, 1000, w.is_default
+          FROM app_user u
+         CROSS JOIN (VALUES ('Checking', '🏦', 'BANK_ACCOUNT', true),
+                            ('Cash', '💵', 'CASH', false)) AS w(name, icon, type, is_default)
+         WHERE u.email LIKE 'perf-%'
+        """);
+    jdbc.update("""
+        INSERT INTO category (user_id, type, name, icon_type, icon_value)
+        SELECT u.id, c.type::category_type_enum, c.name, 'EMOJI', '🏷'
+          FROM app_user u
+         CROSS JOIN (VALUES ('EXPENSE', 'Living'), ('EXPENSE', 'Groceries'), ('EXPENSE', 'Rent'),
+                            ('EXPENSE', 'Transport'), ('EXPENSE', 'Leisure'), ('EXPENSE', 'Health'),
+                            ('INCOME', 'Salary'), ('INCOME', 'Other income')) AS c(type, name)
+         WHERE u.email LIKE 'perf-%'
+        """);
+    jdbc.update("""
+        UPDATE category c SET parent_id = p.id
+          FROM category p
+         WHERE p.user_id = c.user_id AND p.name = 'Living' AND c.name IN ('Groceries', 'Rent')
+           AND c.user_id IN (SELECT id FROM app_user WHERE email LIKE 'perf-%')
+        """);
+    jdbc.update("""
+        WITH w AS (SELECT user_id, array_agg(id ORDER BY name) AS ids, min(currency_code) AS cur
+                     FROM wallet GROUP BY user_id),
+             ce AS (SELECT user_id, array_agg(id ORDER BY name) AS ids FROM category
+                     WHERE type = 'EXPENSE' GROUP BY user_id),
+             ci AS (SELECT user_id, array_agg(id ORDER BY name) AS ids FROM category
+                     WHERE type = 'INCOME' GROUP BY user_id)
+        INSERT INTO txn (user_id, type, occurred_at, note, wallet_id, category_id, amount, currency_code,
+                         from_wallet_id, to_wallet_id, from_amount, to_amount, from_currency_code, to_currency_code)
+        SELECT w.user_id, k.type::txn_type_enum, current_date - (g::bigint * 7919 % ?)::int, 'perf ' || g,
+               CASE WHEN k.type <> 'TRANSFER' THEN w.ids[1 + g % 2] END,
+               CASE k.type WHEN 'EXPENSE' THEN ce.ids[1 + g % 6] WHEN 'INCOME' THEN ci.ids[1 + g % 2] END,
+               CASE WHEN k.type <> 'TRANSFER' THEN round((1 + random() * 250)::numeric, 2) END,
+               CASE WHEN k.type <> 'TRANSFER' THEN w.cur END,
+               CASE WHEN k.type = 'TRANSFER' THEN w.ids[1] END,
+               CASE WHEN k.type = 'TRANSFER' THEN w.ids[2] END,
+               CASE WHEN k.type = 'TRANSFER' THEN 50.00 END,
+               CASE WHEN k.type = 'TRANSFER' THEN 50.00 END,
+               CASE WHEN k.type = 'TRANSFER' THEN w.cur END,
+               CASE WHEN k.type = 'TRANSFER' THEN w.cur END
+          FROM w
+          JOIN ce USING (user_id)
+          JOIN ci USING (user_id)
+          JOIN app_user u ON u.id = w.user_id AND u.email LIKE 'perf-%'
+         CROSS JOIN generate_series(1, ?) AS g
+         CROSS JOIN LATERAL (SELECT CASE WHEN g % 20 = 0 THEN 'TRANSFER'
+                                         WHEN g % 8 = 0 THEN 'INCOME'
+                                         ELSE 'EXPENSE' END AS type) AS k
+        """, HISTORY_DAYS, txnPerUser);
+    jdbc.update("""
+        INSERT INTO subscription (user_id, name, icon_type, icon_value, amount, currency_code, wallet_id,
+                                  category_id, frequency, interval, day_of_month, start_date, next_due_date)
+        SELECT w.user_id, s.name, 'EMOJI', '🔁', s.amount, w.currency_code, w.id, c.id, 'MONTHLY', 1,
+               s.dom, current_date - 365, (date_trunc('month', current_date) + interval '1 month')::date + s.dom - 1
+          FROM wallet w
+          JOIN category c ON c.user_id = w.user_id AND c.name = 'Leisure'
+          JOIN app_user u ON u.id = w.user_id AND u.email LIKE 'perf-%'
+         CROSS JOIN (VALUES ('Streaming', 12.99, 5), ('Music', 9.99, 12), ('Gym', 35.00, 1)) AS s(name, amount, dom)
+         WHERE w.name = 'Checking'
+        """);
+    jdbc.update("""
+        INSERT INTO budget (user_id, name, period, start_date, limit_amount, currency_code)
+        SELECT u.id, b.name, 'MONTHLY', current_date - 400, b.amount, u.default_currency
+          FROM app_user u
+         CROSS JOIN (VALUES ('Living', 1500), ('Going out', 300)) AS b(name, amount)
+         WHERE u.email LIKE 'perf-%'
+        """);
+    jdbc.update("""
+        INSERT INTO budget_category (budget_id, category_id)
+        SELECT b.id, c.id
+          FROM budget b
+          JOIN category c ON c.user_id = b.user_id
+           AND ((b.name = 'Living' AND c.name IN ('Groceries', 'Rent'))
+             OR (b.name = 'Going out' AND c.name IN ('Leisure', 'Transport')))
+          JOIN app_user u ON u.id = b.user_id AND u.email LIKE 'perf-%'
+        """);
+    // Same statements as the V2 and V14 backfills
+    jdbc.update("DELETE FROM wallet_balance_month");
+    jdbc.update("DELETE FROM wallet_balance_day");
+    jdbc.update("DELETE FROM wallet_balance");
+    jdbc.update("""
+        INSERT INTO wallet_balance (wallet_id, txn_total, txn_count)
+        SELECT wallet_id, SUM(delta), COUNT(*) FROM txn_wallet_leg GROUP BY wallet_id
+        """);
+    jdbc.update("""
+        INSERT INTO wallet_balance_day (wallet_id, day, delta)
+        SELECT wallet_id, occurred_at, SUM(delta) FROM txn_wallet_leg GROUP BY wallet_id, occurred_at
+        """);
+    jdbc.update("""
+        INSERT INTO wallet_balance_month (wallet_id, month, delta)
+        SELECT wallet_id, date_trunc('month', day)::date, SUM(delta) FROM wallet_balance_day GROUP BY 1, 2
+        """);
+    jdbc.execute("ANALYZE");
+  }
+
+  // First wallet and expense category per user, for write scenarios
+  public WriteTarget writeTarget(UUID userId) {
+    return jdbc.queryForObject("""
+        SELECT w.id, c.id, w.currency_code
+          FROM wallet w JOIN category c ON c.user_id = w.user_id AND c.name = 'Groceries'
+         WHERE w.user_id = ? AND w.name = 'Checking'
+        """, (rs, i) -> new WriteTarget(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class),
+        rs.getString(3)), userId);
+  }
+
+  private static Array uuidArray(Connection con, List<UUID> ids) throws java.sql.SQLException {
+    return con.createArrayOf("uuid", ids.toArray());
+  }
+
+  public record WriteTarget(UUID walletId, UUID categoryId, String currencyCode) {}
+}
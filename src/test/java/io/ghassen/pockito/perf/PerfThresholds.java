@@ -0,0 +1,63 @@
+package io.ghassen.pockito.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+// Per-scenario limits from a classpath properties file, each overridable with -Dperf.<key>:
+//   <scenario>.p50-ms, <scenario>.p99-ms, <scenario>.min-rps, <scenario>.max-error-rate
+// A missing key means no limit; "default.*" applies to scenarios without their own value.
+public final class PerfThresholds {
+
+  private final Properties props;
+
+  private PerfThresholds(Properties props) {
+    this.props = props;
+  }
+
+  public static PerfThresholds load(String resource) {
+    Properties props = new Properties();
+    try (InputStream in = PerfThresholds.class.getClassLoader().getResourceAsStream(resource)) {
+      if (in != null) {
+        props.load(in);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    System.getProperties().stringPropertyNames().stream()
+        .filter(k -> k.startsWith("perf."))
+        .forEach(k -> props.setProperty(k.substring("perf.".length()), System.getProperty(k)));
+    return new PerfThresholds(props);
+  }
+
+  public List<String> violations(LoadResult r) {
+    List<String> out = new ArrayList<>();
+    Double p50 = limit(r.scenario(), "p50-ms");
+    if (p50 != null && r.p50Millis() > p50) {
+      out.add(String.format("%s: p50 %.2f ms > %.2f ms", r.scenario(), r.p50Millis(), p50));
+    }
+    Double p99 = limit(r.scenario(), "p99-ms");
+    if (p99 != null && r.p99Millis() > p99) {
+      out.add(String.format("%s: p99 %.2f ms > %.2f ms", r.scenario(), r.p99Millis(), p99));
+    }
+    Double rps = limit(r.scenario(), "min-rps");
+    if (rps != null && r.throughputPerSecond() < rps) {
+      out.add(String.format("%s: %.1f req/s < %.1f req/s", r.scenario(), r.throughputPerSecond(), rps));
+    }
+    Double errorRate = limit(r.scenario(), "max-error-rate");
+    long total = r.requests() + r.errors();
+    double actual = total == 0 ? 1.0 : (double) r.errors() / total;
+    if (errorRate != null && actual > errorRate) {
+      out.add(String.format("%s: error rate %.4f > %.4f", r.scenario(), actual, errorRate));
+    }
+    return out;
+  }
+
+  private Double limit(String scenario, String key) {
+    String v = props.getProperty(scenario + "." + key, props.getProperty("default." + key));
+    return v == null || v.isBlank() ? null : Double.valueOf(v);
+  }
+}
@@ -0,0 +1,94 @@
+package io.ghassen.pockito.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.ghassen.pockito.PockitoApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Platform vs. virtual threads on the same endpoints, same database and same load.
+//   mvn test -Pbenchmark -Dtest=ThreadModelBenchmark [-Dbenchmark.concurrency=400 -Dbenchmark.duration=30s]
+// Results are printed and written to target/benchmarks/thread-model.json.
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class ThreadModelBenchmark {
+
+  private static final List<String> ENDPOINTS = List.of(
+      "/api/currencies",
+      "/api/wallets/balances",
+      "/api/transactions?limit=50");
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+      .withCommand("postgres", "-c", "max_connections=200");
+
+  @Test
+  void compareThreadModels() throws Exception {
+    int concurrency = Integer.getInteger("benchmark.concurrency", 200);
+    int users = Integer.getInteger("benchmark.users", 100);
+    Duration warmup = Duration.parse("PT" + System.getProperty("benchmark.warmup", "10s").toUpperCase());
+    Duration measure = Duration.parse("PT" + System.getProperty("benchmark.duration", "20s").toUpperCase());
+
+    List<LoadResult> results = new ArrayList<>();
+    try (LocalTokenIssuer issuer = new LocalTokenIssuer()) {
+      List<String> tokens = new ArrayList<>(users);
+      for (int i = 0; i < users; i++) {
+        tokens.add(issuer.mint(UUID.randomUUID(), List.of("user"), Duration.ofHours(2)));
+      }
+      for (String mode : List.of("platform", "virtual")) {
+        try (ConfigurableApplicationContext ctx = start(issuer, mode)) {
+          int port = ((ServletWebServerApplicationContext) ctx).getWebServer().getPort();
+          LoadDriver driver = new LoadDriver("http://127.0.0.1:" + port);
+          for (String token : tokens) {
+            // First request provisions the user
+            assertThat(driver.send(driver.get("/api/wallets/balances", token)).statusCode()).isEqualTo(200);
+          }
+          for (String endpoint : ENDPOINTS) {
+            LoadResult r = driver.run(mode, endpoint, i -> driver.get(endpoint, tokens.get(i % tokens.size())),
+                concurrency, warmup, measure);
+            System.out.println(r.line());
+            results.add(r);
+          }
+        }
+      }
+    }
+
+    Path out = Path.of("target", "benchmarks", "thread-model.json");
+    Files.createDirectories(out.getParent());
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), results);
+    assertThat(results).allSatisfy(r -> assertThat(r.requests()).isPositive());
+  }
+
+  private static ConfigurableApplicationContext start(LocalTokenIssuer issuer, String mode) {
+    Map<String, Object> props = new HashMap<>(issuer.properties());
+    props.put("spring.datasource.url", POSTGRES.getJdbcUrl());
+    props.put("spring.datasource.username", POSTGRES.getUsername());
+    props.put("spring.datasource.password", POSTGRES.getPassword());
+    props.put("server.port", 0);
+    props.put("spring.jpa.show-sql", false);
+    props.put("logging.level.root", "WARN");
+    props.put("logging.level.org.springframework", "WARN");
+    props.put("spring.datasource.hikari.maximum-pool-size", 20);
+    return new SpringApplicationBuilder(PockitoApplication.class)
+        .profiles(mode.equals("virtual") ? new String[] {"dev", "virtual"} : new String[] {"dev"})
+        .properties(props)
+        .run();
+  }
+}
@@ -0,0 +1,160 @@
+package io.ghassen.pockito.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.ghassen.pockito.domain.UuidV7;
+import io.ghassen.pockito.repo.TxnQueryRepository;
+import io.ghassen.pockito.service.txn.TxnFilter;
+import io.ghassen.pockito.service.txn.TxnSearchCursor;
+import io.ghassen.pockito.service.txn.TxnSearchHit;
+import io.ghassen.pockito.service.txn.TxnSearchQuery;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Search latency for one user with 100k transactions among other users' data.
+//   mvn test -Pbenchmark -Dtest=TxnSearchBenchmark [-Dbenchmark.search.p99-ms=50 -Dbenchmark.search.txn=100000]
+// Results are printed and written to target/benchmarks/txn-search.json; fails above the p99 limit.
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class TxnSearchBenchmark {
+
+  private static final int ITERATIONS = 200;
+  private static final String[] MERCHANTS = {
+      "Carrefour Market", "Monoprix", "Uber trip", "Netflix", "Spotify", "Shell station", "Pharmacie centrale",
+      "Amazon order", "Café des Délices", "Boulangerie Ben Yedder", "Steg electricity", "Sonede water",
+      "Ooredoo mobile", "Zara", "Decathlon", "Restaurant Dar El Jeld", "Cinema Pathé", "Airbnb stay",
+      "Tunisair flight", "Gym membership"};
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Test
+  void searchLatency() throws Exception {
+    int txnCount = Integer.getInteger("benchmark.search.txn", 100_000);
+    double p99Limit = Double.parseDouble(System.getProperty("benchmark.search.p99-ms", "50"));
+    DriverManagerDataSource ds = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+        POSTGRES.getPassword());
+    Flyway.configure().dataSource(ds).load().migrate();
+    JdbcTemplate jdbc = new JdbcTemplate(ds);
+    UUID userId = seed(jdbc, txnCount);
+    // Neighbours so the indexes are not single-user
+    for (int i = 0; i < 5; i++) {
+      seed(jdbc, txnCount / 5);
+    }
+    jdbc.execute("ANALYZE");
+
+    TxnQueryRepository repository = new TxnQueryRepository(ds);
+    TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+    tx.setReadOnly(true);
+    UUID categoryId = jdbc.queryForObject(
+        "SELECT id FROM category WHERE user_id = ? AND name = 'Groceries'", UUID.class, userId);
+
+    Map<String, Scenario> scenarios = new LinkedHashMap<>();
+    scenarios.put("word", new Scenario("netflix", TxnFilter.none()));
+    scenarios.put("prefix", new Scenario("boulan", TxnFilter.none()));
+    scenarios.put("typo", new Scenario("carefour", TxnFilter.none()));
+    scenarios.put("two-words", new Scenario("dar jeld", TxnFilter.none()));
+    scenarios.put("category-name", new Scenario("groceries", TxnFilter.none()));
+    scenarios.put("date-range", new Scenario("uber", new TxnFilter(null, null, null,
+        LocalDate.now().minusMonths(3), LocalDate.now())));
+    scenarios.put("category-filter", new Scenario("market", new TxnFilter(null, null, categoryId, null, null)));
+
+    List<Map<String, Object>> results = new ArrayList<>();
+    List<String> violations = new ArrayList<>();
+    for (Map.Entry<String, Scenario> e : scenarios.entrySet()) {
+      Scenario s = e.getValue();
+      TxnSearchQuery query = TxnSearchQuery.parse(s.q());
+      long[] firstPage = new long[ITERATIONS];
+      long[] nextPage = new long[ITERATIONS];
+      int hits = 0;
+      for (int i = 0; i < ITERATIONS; i++) {
+        List<TxnSearchHit> page = new ArrayList<>(51);
+        long start = System.nanoTime();
+        tx.executeWithoutResult(st -> repository.streamSearch(userId, query, s.filter(), null, null, 51, page::add));
+        firstPage[i] = System.nanoTime() - start;
+        hits = page.size();
+        if (page.size() == 51) {
+          TxnSearchHit last = page.get(49);
+          TxnSearchCursor cursor = new TxnSearchCursor(last.rank(), last.txn().getOccurredAt(), last.txn().getId());
+          start = System.nanoTime();
+          tx.executeWithoutResult(st -> repository.streamSearch(userId, query, s.filter(), null, cursor, 51, h -> {}));
+          nextPage[i] = System.nanoTime() - start;
+        }
+      }
+      Arrays.sort(firstPage);
+      Arrays.sort(nextPage);
+      Map<String, Object> r = new LinkedHashMap<>();
+      r.put("scenario", e.getKey());
+      r.put("q", s.q());
+      r.put("firstPageHits", hits);
+      r.put("p50Millis", LoadDriver.percentile(firstPage, 0.50));
+      r.put("p99Millis", LoadDriver.percentile(firstPage, 0.99));
+      r.put("nextPageP99Millis", LoadDriver.percentile(nextPage, 0.99));
+      System.out.println(r);
+      results.add(r);
+      if ((double) r.get("p99Millis") > p99Limit || (double) r.get("nextPageP99Millis") > p99Limit) {
+        violations.add(e.getKey() + " p99 above " + p99Limit + " ms");
+      }
+    }
+
+    Path out = Path.of("target", "benchmarks", "txn-search.json");
+    Files.createDirectories(out.getParent());
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(),
+        Map.of("txnPerUser", txnCount, "results", results, "violations", violations));
+    assertThat(violations).isEmpty();
+  }
+
+  private static UUID seed(JdbcTemplate jdbc, int txnCount) {
+    UUID userId = UuidV7.next();
+    jdbc.update("INSERT INTO currency (code, name, decimals) VALUES ('TND', 'Tunisian Dinar', 3) ON CONFLICT DO NOTHING");
+    jdbc.update("INSERT INTO app_user (id, email) VALUES (?, ?)", userId, userId + "@example.com");
+    jdbc.update("""
+        INSERT INTO wallet (user_id, name, icon_type, icon_value, currency_code, type)
+        SELECT ?, w.name, 'EMOJI', '👛', 'TND', w.type::wallet_type_enum
+          FROM (VALUES ('Main account', 'BANK_ACCOUNT'), ('Cash', 'CASH'), ('Visa card', 'CREDIT_CARD')) AS w(name, type)
+        """, userId);
+    jdbc.update("""
+        INSERT INTO category (user_id, type, name)
+        SELECT ?, 'EXPENSE', c
+          FROM unnest(ARRAY['Groceries', 'Transport', 'Subscriptions', 'Utilities', 'Health', 'Shopping',
+                            'Eating out', 'Travel', 'Sport', 'Entertainment']) AS c
+        """, userId);
+    jdbc.update("""
+        WITH w AS (SELECT array_agg(id ORDER BY name) AS ids FROM wallet WHERE user_id = ?),
+             c AS (SELECT array_agg(id ORDER BY name) AS ids FROM category WHERE user_id = ?)
+        INSERT INTO txn (user_id, type, occurred_at, note, wallet_id, category_id, amount, currency_code)
+        SELECT ?, 'EXPENSE', current_date - (g % 1095), (?::text[])[1 + g % 20] || ' #' || g,
+               w.ids[1 + g % 3], c.ids[1 + g % 10], (1 + g % 300)::numeric, 'TND'
+          FROM generate_series(1, ?) AS g, w, c
+        """, ps -> {
+      ps.setObject(1, userId);
+      ps.setObject(2, userId);
+      ps.setObject(3, userId);
+      ps.setArray(4, ps.getConnection().createArrayOf("text", MERCHANTS));
+      ps.setInt(5, txnCount);
+    });
+    return userId;
+  }
+
+  private record Scenario(String q, TxnFilter filter) {}
+}
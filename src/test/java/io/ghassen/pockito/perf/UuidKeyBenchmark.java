@@ -0,0 +1,118 @@
+package io.ghassen.pockito.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.ghassen.pockito.domain.UuidV7;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Random v4 vs. time-ordered v7 txn keys: insert throughput, primary key index size and WAL volume
+// for the same load into the current month's partition.
+//   mvn test -Pbenchmark -Dtest=UuidKeyBenchmark [-Dbenchmark.rows=5000000]
+// Results are printed and written to target/benchmarks/uuid-keys.json.
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class UuidKeyBenchmark {
+
+  private static final int BATCH = 5_000;
+
+  // Small buffer pool so the cost of touching random leaf pages shows up as it would on a large table
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+      .withCommand("postgres", "-c", "shared_buffers=64MB", "-c", "max_wal_size=4GB");
+
+  @Test
+  void compareKeyVersions() throws Exception {
+    int rows = Integer.getInteger("benchmark.rows", 2_000_000);
+    DriverManagerDataSource ds = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+        POSTGRES.getPassword());
+    Flyway.configure().dataSource(ds).load().migrate();
+    JdbcTemplate jdbc = new JdbcTemplate(ds);
+    UUID userId = UuidV7.next();
+    jdbc.update("INSERT INTO currency (code, name, decimals) VALUES ('USD', 'US Dollar', 2)");
+    jdbc.update("INSERT INTO app_user (id, email) VALUES (?, 'bench@example.com')", userId);
+    UUID walletId = jdbc.queryForObject("""
+        INSERT INTO wallet (user_id, name, icon_type, icon_value, currency_code, type)
+        VALUES (?, 'Main', 'EMOJI', '🏦', 'USD', 'BANK_ACCOUNT') RETURNING id
+        """, UUID.class, userId);
+
+    List<Map<String, Object>> results = new ArrayList<>();
+    results.add(run(jdbc, "v4", UUID::randomUUID, rows, userId, walletId));
+    results.add(run(jdbc, "v7", UuidV7::next, rows, userId, walletId));
+    results.forEach(r -> System.out.println(r));
+
+    Path out = Path.of("target", "benchmarks", "uuid-keys.json");
+    Files.createDirectories(out.getParent());
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), results);
+    assertThat(results).allSatisfy(r -> assertThat((Long) r.get("rows")).isEqualTo(rows));
+  }
+
+  private static Map<String, Object> run(JdbcTemplate jdbc, String name, Supplier<UUID> ids, int rows,
+                                         UUID userId, UUID walletId) {
+    jdbc.execute("TRUNCATE txn");
+    jdbc.execute("CHECKPOINT");
+    String walStart = jdbc.queryForObject("SELECT pg_current_wal_lsn()::text", String.class);
+    long started = System.nanoTime();
+    UUID[] batch = new UUID[BATCH];
+    for (int done = 0; done < rows; done += BATCH) {
+      int n = Math.min(BATCH, rows - done);
+      for (int i = 0; i < n; i++) {
+        batch[i] = ids.get();
+      }
+      UUID[] slice = n == BATCH ? batch : Arrays.copyOf(batch, n);
+      jdbc.update(con -> {
+        var ps = con.prepareStatement("""
+            INSERT INTO txn (id, user_id, type, occurred_at, wallet_id, amount, currency_code)
+            SELECT id, ?, 'EXPENSE', current_date, ?, 9.99, 'USD' FROM unnest(?::uuid[]) AS id
+            """);
+        ps.setObject(1, userId);
+        ps.setObject(2, walletId);
+        ps.setArray(3, uuidArray(con, slice));
+        return ps;
+      });
+    }
+    double seconds = (System.nanoTime() - started) / 1e9;
+    Long walBytes = jdbc.queryForObject("SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), ?::pg_lsn)::bigint",
+        Long.class, walStart);
+    Long indexBytes = jdbc.queryForObject("""
+        SELECT COALESCE(sum(pg_relation_size(i.indexrelid)), 0)::bigint
+          FROM pg_index i JOIN pg_inherits h ON h.inhrelid = i.indrelid
+         WHERE h.inhparent = 'txn'::regclass AND i.indisprimary
+        """, Long.class);
+    Long count = jdbc.queryForObject("SELECT count(*) FROM txn", Long.class);
+
+    Map<String, Object> r = new LinkedHashMap<>();
+    r.put("keys", name);
+    r.put("rows", count);
+    r.put("seconds", Math.round(seconds * 100) / 100.0);
+    r.put("rowsPerSecond", Math.round(rows / seconds));
+    r.put("pkIndexBytes", indexBytes);
+    r.put("walBytes", walBytes);
+    return r;
+  }
+
+  private static Array uuidArray(Connection con, UUID[] ids) throws SQLException {
+    return con.createArrayOf("uuid", ids);
+  }
+}
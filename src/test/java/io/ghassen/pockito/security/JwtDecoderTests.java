@@ -0,0 +1,155 @@
+package io.ghassen.pockito.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Local stand-in issuer: an in-process HTTP server serving the JWKS
+class JwtDecoderTests {
+
+  private static final String ISSUER = "http://issuer.test/realms/pockito";
+
+  private HttpServer server;
+  private volatile JWKSet jwks;
+  private final AtomicInteger jwksRequests = new AtomicInteger();
+  private SimpleMeterRegistry registry;
+  private JwtAuthCache cache;
+  private JwtDecoder decoder;
+
+  @BeforeEach
+  void start() throws Exception {
+    jwks = new JWKSet(rsaKey("k1"));
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/certs", exchange -> {
+      jwksRequests.incrementAndGet();
+      byte[] body = jwks.toPublicJWKSet().toString().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+      exchange.close();
+    });
+    server.start();
+    registry = new SimpleMeterRegistry();
+    cache = new JwtAuthCache(100, Duration.ofMinutes(10), registry);
+    URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/certs");
+    var settings = new JwtDecoderConfig.JwksSettings(Duration.ofMinutes(5), Duration.ofSeconds(5),
+        Duration.ofSeconds(30), Duration.ofMillis(1), Duration.ofMinutes(5));
+    decoder = JwtDecoderConfig.decoder(JwtDecoderConfig.jwkSource(uri, settings, registry), ISSUER, cache, registry);
+  }
+
+  @AfterEach
+  void stop() {
+    server.stop(0);
+  }
+
+  @Test
+  void repeatedTokenIsServedFromCache() throws Exception {
+    String token = sign((RSAKey) jwks.getKeyByKeyId("k1"), Instant.now().plusSeconds(300), List.of("user", "admin"));
+
+    Jwt first = decoder.decode(token);
+    Jwt second = decoder.decode(token);
+
+    assertThat(second).isSameAs(first);
+    assertThat(jwksRequests.get()).isEqualTo(1);
+    assertThat(registry.get("pockito.cache.requests").tag("cache", "jwt").tag("result", "hit").counter().count())
+        .isEqualTo(1.0);
+    assertThat(registry.get("pockito.security.jwt.decode").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  void authoritiesAreConvertedOnceAndInterned() throws Exception {
+    String token = sign((RSAKey) jwks.getKeyByKeyId("k1"), Instant.now().plusSeconds(300), List.of("admin"));
+    Jwt jwt = decoder.decode(token);
+    AtomicInteger conversions = new AtomicInteger();
+
+    Collection<GrantedAuthority> a = cache.authorities(jwt, j -> {
+      conversions.incrementAndGet();
+      return KeycloakRealmRoleConverter.from(j);
+    });
+    Collection<GrantedAuthority> b = cache.authorities(jwt, j -> {
+      conversions.incrementAndGet();
+      return KeycloakRealmRoleConverter.from(j);
+    });
+
+    assertThat(b).isSameAs(a);
+    assertThat(conversions.get()).isEqualTo(1);
+    assertThat(a).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+    assertThat(KeycloakRealmRoleConverter.from(jwt).iterator().next()).isSameAs(a.iterator().next());
+  }
+
+  @Test
+  void expiredTokensAreRejected() throws Exception {
+    String token = sign((RSAKey) jwks.getKeyByKeyId("k1"), Instant.now().minusSeconds(3600), List.of());
+    assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtValidationException.class);
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void nonUuidSubjectsAreRejected() throws Exception {
+    String token = sign((RSAKey) jwks.getKeyByKeyId("k1"), Instant.now().plusSeconds(300), List.of(), "service-x");
+    assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtValidationException.class);
+  }
+
+  @Test
+  void rotatedKeyIsPickedUp() throws Exception {
+    decoder.decode(sign((RSAKey) jwks.getKeyByKeyId("k1"), Instant.now().plusSeconds(300), List.of()));
+
+    RSAKey rotated = rsaKey("k2");
+    jwks = new JWKSet(List.of(rotated, jwks.getKeyByKeyId("k1")));
+    Thread.sleep(5);
+    Jwt jwt = decoder.decode(sign(rotated, Instant.now().plusSeconds(300), List.of()));
+
+    assertThat(jwt.getHeaders()).containsEntry("kid", "k2");
+  }
+
+  private static RSAKey rsaKey(String kid) throws JOSEException {
+    return new RSAKeyGenerator(2048).keyID(kid).generate();
+  }
+
+  private static String sign(RSAKey key, Instant exp, List<String> roles) throws JOSEException {
+    return sign(key, exp, roles, UUID.randomUUID().toString());
+  }
+
+  private static String sign(RSAKey key, Instant exp, List<String> roles, String subject) throws JOSEException {
+    JWTClaimsSet claims = new JWTClaimsSet.Builder()
+        .issuer(ISSUER)
+        .subject(subject)
+        .issueTime(Date.from(exp.minusSeconds(600)))
+        .expirationTime(Date.from(exp))
+        .claim("realm_access", Map.of("roles", roles))
+        .build();
+    SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+    jwt.sign(new RSASSASigner(key));
+    return jwt.serialize();
+  }
+}
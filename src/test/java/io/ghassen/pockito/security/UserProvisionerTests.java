@@ -0,0 +1,100 @@
+package io.ghassen.pockito.security;
+
+import io.ghassen.pockito.repo.AppUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserProvisionerTests {
+
+  private final AppUserRepository repository = mock(AppUserRepository.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final UserProvisioner provisioner = new UserProvisioner(repository, 1000, registry);
+
+  @Test
+  void concurrentFirstRequestsShareOneUpsert() throws Exception {
+    AtomicInteger upserts = new AtomicInteger();
+    when(repository.upsertProfile(any(), any(), any(), any(), any())).thenAnswer(inv -> {
+      upserts.incrementAndGet();
+      Thread.sleep(50);
+      return 1;
+    });
+    UserProfile profile = new UserProfile(UUID.randomUUID(), "a@example.com", "A", "en", "Europe/Paris");
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> results = new ArrayList<>();
+    try (ExecutorService pool = Executors.newFixedThreadPool(50)) {
+      for (int i = 0; i < 50; i++) {
+        results.add(pool.submit(() -> {
+          start.await();
+          provisioner.ensure(profile);
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> f : results) {
+        f.get();
+      }
+    }
+    assertThat(upserts.get()).isEqualTo(1);
+
+    provisioner.ensure(profile);
+    assertThat(upserts.get()).isEqualTo(1);
+    assertThat(registry.get("pockito.cache.requests").tag("cache", "app_user").tag("result", "hit").counter().count())
+        .isGreaterThanOrEqualTo(1.0);
+  }
+
+  @Test
+  void changedClaimsAreWrittenAgain() {
+    UUID id = UUID.randomUUID();
+    provisioner.ensure(new UserProfile(id, "a@example.com", "A", "en", null));
+    provisioner.ensure(new UserProfile(id, "a@example.com", "A", "en", null));
+    provisioner.ensure(new UserProfile(id, "a@example.com", "A", "fr", null));
+
+    verify(repository, times(2)).upsertProfile(any(), any(), any(), any(), any());
+    verify(repository).upsertProfile(id, "a@example.com", "A", "fr", null);
+  }
+
+  @Test
+  void failedUpsertIsRetriedOnNextRequest() {
+    UserProfile profile = new UserProfile(UUID.randomUUID(), "a@example.com", null, null, null);
+    when(repository.upsertProfile(any(), any(), any(), any(), any()))
+        .thenThrow(new IllegalStateException("db down"))
+        .thenReturn(1);
+
+    try {
+      provisioner.ensure(profile);
+    } catch (IllegalStateException expected) {
+      // first request fails
+    }
+    provisioner.ensure(profile);
+
+    verify(repository, times(2)).upsertProfile(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void emailHeldByAnotherSubjectIsReleased() {
+    UserProfile profile = new UserProfile(UUID.randomUUID(), "a@example.com", null, null, null);
+    when(repository.upsertProfile(any(), any(), any(), any(), any()))
+        .thenThrow(new DataIntegrityViolationException("app_user_email_key"))
+        .thenReturn(1);
+    when(repository.releaseEmail(profile.id(), "a@example.com")).thenReturn(1);
+
+    provisioner.ensure(profile);
+
+    verify(repository).releaseEmail(profile.id(), "a@example.com");
+    verify(repository, times(2)).upsertProfile(any(), any(), any(), any(), any());
+  }
+}
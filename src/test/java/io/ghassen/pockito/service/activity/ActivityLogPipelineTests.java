@@ -0,0 +1,231 @@
+package io.ghassen.pockito.service.activity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.ghassen.pockito.domain.ActivityAction;
+import io.ghassen.pockito.repo.ActivityLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActivityLogPipelineTests {
+
+  private final StubRepository repository = new StubRepository();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private ActivityLogPipeline pipeline;
+
+  @AfterEach
+  void stopWriter() {
+    if (pipeline != null && pipeline.isRunning()) {
+      pipeline.stop();
+    }
+  }
+
+  @Test
+  void dropOldestEvictsTheHeadOfAFullQueue() {
+    pipeline = pipeline(2, 100, Duration.ofMillis(50), OverflowPolicy.DROP_OLDEST);
+    acceptWithoutWriter();
+    ActivityRecord a = record(), b = record(), c = record();
+
+    pipeline.enqueue(a);
+    pipeline.enqueue(b);
+    pipeline.enqueue(c);
+
+    assertThat(pipeline.queueDepth()).isEqualTo(2);
+    assertThat(dropped("dropped_overflow")).isEqualTo(1);
+    drain();
+    assertThat(repository.written()).containsExactly(b, c);
+  }
+
+  @Test
+  void dropNewestKeepsTheQueuedRecords() {
+    pipeline = pipeline(2, 100, Duration.ofMillis(50), OverflowPolicy.DROP_NEWEST);
+    acceptWithoutWriter();
+    ActivityRecord a = record(), b = record(), c = record();
+
+    pipeline.enqueue(a);
+    pipeline.enqueue(b);
+    pipeline.enqueue(c);
+
+    assertThat(dropped("dropped_overflow")).isEqualTo(1);
+    drain();
+    assertThat(repository.written()).containsExactly(a, b);
+  }
+
+  @Test
+  void blockGivesUpAfterTheOfferTimeout() {
+    pipeline = pipeline(1, 100, Duration.ofMillis(50), OverflowPolicy.BLOCK, Duration.ofMillis(100));
+    acceptWithoutWriter();
+    pipeline.enqueue(record());
+
+    long started = System.nanoTime();
+    pipeline.enqueue(record());
+
+    assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+    assertThat(dropped("dropped_overflow")).isEqualTo(1);
+    assertThat(pipeline.queueDepth()).isEqualTo(1);
+    drain();
+  }
+
+  @Test
+  void blockWaitsForTheWriterToMakeRoom() throws InterruptedException {
+    pipeline = pipeline(1, 100, Duration.ofMillis(50), OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+    acceptWithoutWriter();
+    ActivityRecord a = record(), b = record();
+    pipeline.enqueue(a);
+
+    Thread starter = Thread.ofPlatform().start(() -> {
+      sleep(100);
+      pipeline.start();
+    });
+    pipeline.enqueue(b);
+    starter.join();
+
+    assertThat(dropped("dropped_overflow")).isZero();
+    pipeline.stop();
+    assertThat(repository.written()).containsExactly(a, b);
+  }
+
+  @Test
+  void flushesAsSoonAsABatchIsFull() {
+    pipeline = pipeline(100, 3, Duration.ofSeconds(2), OverflowPolicy.DROP_OLDEST);
+    pipeline.start();
+
+    for (int i = 0; i < 7; i++) {
+      pipeline.enqueue(record());
+    }
+
+    await(() -> repository.batchSizes().size() == 2);
+    // The seventh record waits for two more or for the flush interval
+    assertThat(repository.batchSizes()).containsExactly(3, 3);
+  }
+
+  @Test
+  void flushesAPartialBatchOnceTheIntervalPasses() {
+    pipeline = pipeline(100, 500, Duration.ofMillis(100), OverflowPolicy.DROP_OLDEST);
+    pipeline.start();
+
+    pipeline.enqueue(record());
+    pipeline.enqueue(record());
+
+    await(() -> !repository.batchSizes().isEmpty());
+    assertThat(repository.batchSizes()).containsExactly(2);
+    assertThat(registry.get("pockito.activity.records").tag("result", "written").counter().count()).isEqualTo(2);
+  }
+
+  @Test
+  void stopDrainsWhatIsQueuedAndRejectsLaterRecords() {
+    pipeline = pipeline(100, 2, Duration.ofMillis(200), OverflowPolicy.DROP_OLDEST);
+    acceptWithoutWriter();
+    for (int i = 0; i < 5; i++) {
+      pipeline.enqueue(record());
+    }
+
+    pipeline.start();
+    pipeline.stop();
+
+    assertThat(repository.written()).hasSize(5);
+    assertThat(repository.batchSizes()).containsExactly(2, 2, 1);
+    assertThat(pipeline.queueDepth()).isZero();
+
+    pipeline.enqueue(record());
+    assertThat(dropped("dropped_stopped")).isEqualTo(1);
+  }
+
+  @Test
+  void aFailedInsertDropsOnlyThatBatch() {
+    pipeline = pipeline(100, 2, Duration.ofMillis(50), OverflowPolicy.DROP_OLDEST);
+    repository.failNext = true;
+    acceptWithoutWriter();
+    for (int i = 0; i < 3; i++) {
+      pipeline.enqueue(record());
+    }
+
+    pipeline.start();
+    pipeline.stop();
+
+    assertThat(dropped("dropped_error")).isEqualTo(2);
+    assertThat(repository.batchSizes()).containsExactly(1);
+  }
+
+  private ActivityLogPipeline pipeline(int capacity, int batchSize, Duration flushInterval, OverflowPolicy policy) {
+    return pipeline(capacity, batchSize, flushInterval, policy, Duration.ofMillis(50));
+  }
+
+  private ActivityLogPipeline pipeline(int capacity, int batchSize, Duration flushInterval, OverflowPolicy policy,
+                                       Duration offerTimeout) {
+    return new ActivityLogPipeline(repository, new ObjectMapper(), registry, capacity, batchSize, flushInterval,
+        Duration.ofSeconds(5), offerTimeout, policy);
+  }
+
+  // Lets records queue up before the writer thread exists, so the queue contents are deterministic
+  private void acceptWithoutWriter() {
+    ReflectionTestUtils.setField(pipeline, "running", true);
+  }
+
+  private void drain() {
+    pipeline.start();
+    pipeline.stop();
+  }
+
+  private double dropped(String result) {
+    return registry.get("pockito.activity.records").tag("result", result).counter().count();
+  }
+
+  private static ActivityRecord record() {
+    return new ActivityRecord(UUID.randomUUID(), "Txn", UUID.randomUUID(), ActivityAction.CREATE, "{}", Instant.now());
+  }
+
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+      sleep(10);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Records a copy of every batch, the pipeline clears and reuses its batch list
+  private static final class StubRepository extends ActivityLogRepository {
+    private final List<List<ActivityRecord>> batches = new CopyOnWriteArrayList<>();
+    private volatile boolean failNext;
+
+    StubRepository() {
+      super(null);
+    }
+
+    @Override
+    public int insertBatch(List<ActivityRecord> rows) {
+      if (failNext) {
+        failNext = false;
+        throw new IllegalStateException("insert failed");
+      }
+      batches.add(List.copyOf(rows));
+      return rows.size();
+    }
+
+    List<ActivityRecord> written() {
+      return batches.stream().flatMap(List::stream).toList();
+    }
+
+    List<Integer> batchSizes() {
+      return batches.stream().map(List::size).toList();
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package io.ghassen.pockito.service.agreement;
+
+import io.ghassen.pockito.domain.Agreement;
+import io.ghassen.pockito.domain.AgreementStatus;
+import io.ghassen.pockito.domain.AgreementType;
+import io.ghassen.pockito.repo.AgreementRepository.OutstandingTotal;
+import io.ghassen.pockito.security.AuditingConfig;
+import io.ghassen.pockito.service.fx.ExchangeRateEngine;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+// Runs the V13 settlement columns on PostgreSQL; skipped when Docker is not available
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AgreementService.class, AuditingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class AgreementSettlementTests {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @MockitoBean ExchangeRateEngine exchangeRateEngine;
+  @Autowired JdbcTemplate jdbcTemplate;
+  @Autowired AgreementService agreementService;
+
+  private UUID userId;
+
+  @BeforeEach
+  void seed() {
+    jdbcTemplate.update("""
+        INSERT INTO currency (code, name, decimals) VALUES ('EUR', 'Euro', 2), ('USD', 'US Dollar', 2)
+        ON CONFLICT DO NOTHING
+        """);
+    userId = UUID.randomUUID();
+    jdbcTemplate.update("INSERT INTO app_user (id, email) VALUES (?, ?)", userId, userId + "@test");
+  }
+
+  @Test
+  void paymentsSettleTheAgreementAtZero() {
+    Agreement agreement = lend("Sami", "100.00");
+
+    Agreement partly = agreementService.pay(userId, agreement.getId(), payment("40", null, null));
+    assertThat(partly.getOutstandingAmount()).isEqualByComparingTo("60.00");
+    assertThat(partly.getStatus()).isEqualTo(AgreementStatus.OPEN);
+    assertThat(partly.getVersion()).isGreaterThan(agreement.getVersion());
+
+    Agreement settled = agreementService.pay(userId, agreement.getId(), payment("60", null, null));
+    assertThat(settled.getOutstandingAmount()).isEqualByComparingTo("0");
+    assertThat(settled.getStatus()).isEqualTo(AgreementStatus.SETTLED);
+  }
+
+  @Test
+  void foreignCurrencyPaymentSettlesAtTheStoredRate() {
+    when(exchangeRateEngine.rate(eq("USD"), eq("EUR"), any(Instant.class))).thenReturn(0.9);
+    Agreement agreement = lend("Sami", "100.00");
+
+    Agreement after = agreementService.pay(userId, agreement.getId(), payment("50", "USD", null));
+    assertThat(after.getOutstandingAmount()).isEqualByComparingTo("55.00");
+
+    // A later rate change does not move what the payment settled
+    when(exchangeRateEngine.rate(eq("USD"), eq("EUR"), any(Instant.class))).thenReturn(1.5);
+    UUID paymentId = agreementService.payments(userId, agreement.getId()).getFirst().getId();
+    assertThat(agreementService.payments(userId, agreement.getId()).getFirst().getExchangeRate())
+        .isEqualByComparingTo("0.9");
+    Agreement reopened = agreementService.archivePayment(userId, agreement.getId(), paymentId);
+    assertThat(reopened.getOutstandingAmount()).isEqualByComparingTo("100.00");
+  }
+
+  @Test
+  void overpaymentIsRefused() {
+    Agreement agreement = lend("Sami", "10.00");
+
+    assertThatThrownBy(() -> agreementService.pay(userId, agreement.getId(), payment("10.01", null, null)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(agreementService.payments(userId, agreement.getId())).isEmpty();
+  }
+
+  @Test
+  void paymentIsStoredAtColumnScaleAndOnlyLinksOwnTxns() {
+    Agreement agreement = lend("Sami", "10.00");
+
+    agreementService.pay(userId, agreement.getId(), payment("3.3333333", null, null));
+    assertThat(agreementService.payments(userId, agreement.getId()).getFirst().getAmount())
+        .isEqualByComparingTo(agreementService.payments(userId, agreement.getId()).getFirst().getSettledAmount());
+
+    UUID foreignTxn = UUID.randomUUID();
+    assertThatThrownBy(() -> agreementService.pay(userId, agreement.getId(),
+        new AgreementPaymentCommand(new BigDecimal("1"), null, null, null, foreignTxn, null)))
+        .isInstanceOf(EntityNotFoundException.class);
+  }
+
+  @Test
+  void archivingAPaymentReopensASettledAgreement() {
+    Agreement agreement = lend("Sami", "25.00");
+    agreementService.pay(userId, agreement.getId(), payment("25", null, null));
+    UUID paymentId = agreementService.payments(userId, agreement.getId()).getFirst().getId();
+
+    Agreement reopened = agreementService.archivePayment(userId, agreement.getId(), paymentId);
+
+    assertThat(reopened.getStatus()).isEqualTo(AgreementStatus.OPEN);
+    assertThat(reopened.getOutstandingAmount()).isEqualByComparingTo("25.00");
+  }
+
+  @Test
+  void totalsGroupOpenAgreementsByDirectionAndPerson() {
+    lend("Sami", "100.00");
+    Agreement second = lend("Sami", "50.00");
+    agreementService.pay(userId, second.getId(), payment("20", null, null));
+    Agreement settled = lend("Lina", "5.00");
+    agreementService.pay(userId, settled.getId(), payment("5", null, null));
+    agreementService.create(userId, new AgreementCommand("Lina", AgreementType.BORROW, new BigDecimal("70"), "EUR",
+        null, null, null));
+
+    List<OutstandingTotal> totals = agreementService.outstandingTotals(userId);
+
+    assertThat(totals).extracting(OutstandingTotal::getType, OutstandingTotal::getPersonName,
+            t -> t.getOutstanding().stripTrailingZeros().toPlainString(), OutstandingTotal::getAgreements)
+        .containsExactly(
+            tuple(AgreementType.BORROW, "Lina", "70", 1L),
+            tuple(AgreementType.LEND, "Sami", "130", 2L));
+  }
+
+  private Agreement lend(String person, String principal) {
+    return agreementService.create(userId, new AgreementCommand(person, AgreementType.LEND, new BigDecimal(principal),
+        "EUR", null, null, null));
+  }
+
+  private static AgreementPaymentCommand payment(String amount, String currency, BigDecimal rate) {
+    return new AgreementPaymentCommand(new BigDecimal(amount), currency, rate, null, null, null);
+  }
+}
@@ -0,0 +1,49 @@
+package io.ghassen.pockito.service.analytics;
+
+import io.ghassen.pockito.repo.TxnRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+class RollupBackfillJobTests {
+
+  // How PostgreSQL orders uuid: bytewise, so both halves compare unsigned
+  private static final Comparator<UUID> PG_ORDER = Comparator
+      .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+      .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+  private final TxnRollupRepository rollupRepository = mock(TxnRollupRepository.class);
+  private final ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+
+  @Test
+  void usersBelowTheSignBitAreRebuiltToo() {
+    UUID low = UUID.fromString("3b241101-e2bb-4255-8caf-4136c566a962");
+    UUID high = UUID.fromString("c9bf9e57-1685-4c89-bafb-ff5af830be8a");
+    List<UUID> ids = List.of(low, high);
+    when(rollupRepository.findUserIdsWithTxnsAfter(any(), anyInt())).thenAnswer(inv -> ids.stream()
+        .filter(id -> PG_ORDER.compare(id, inv.getArgument(0)) > 0)
+        .limit(inv.<Integer>getArgument(1))
+        .toList());
+    doAnswer(inv -> {
+      inv.<Runnable>getArgument(0).run();
+      return null;
+    }).when(executor).execute(any(Runnable.class));
+    RollupBackfillJob job = spy(new RollupBackfillJob(rollupRepository, mock(TransactionTemplate.class), executor,
+        new SimpleMeterRegistry()));
+    ReflectionTestUtils.setField(job, "chunkSize", 1);
+    doNothing().when(job).rebuild(any());
+
+    job.run();
+
+    verify(job).rebuild(low);
+    verify(job).rebuild(high);
+  }
+}
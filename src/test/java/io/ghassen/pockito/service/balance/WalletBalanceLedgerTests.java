@@ -0,0 +1,150 @@
+package io.ghassen.pockito.service.balance;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.repo.WalletBalanceRepository.BalanceDrift;
+import io.ghassen.pockito.security.AuditingConfig;
+import io.ghassen.pockito.service.read.OwnedEntityReadConfig;
+import io.ghassen.pockito.service.txn.TxnCommand;
+import io.ghassen.pockito.service.txn.TxnService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the txn write path against the V2/V14 balance ledger on PostgreSQL; skipped when Docker is not available
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TxnService.class, WalletBalanceService.class, BalanceVerificationJob.class,
+    OwnedEntityReadConfig.class, AuditingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class WalletBalanceLedgerTests {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  private static final LocalDate JAN = LocalDate.of(2025, 1, 20);
+  private static final LocalDate FEB = LocalDate.of(2025, 2, 3);
+  private static final LocalDate MAR = LocalDate.of(2025, 3, 11);
+
+  @Autowired JdbcTemplate jdbcTemplate;
+  @Autowired TxnService txnService;
+  @Autowired WalletBalanceService balanceService;
+  @Autowired BalanceVerificationJob verificationJob;
+
+  private UUID userId;
+  private UUID main;
+  private UUID savings;
+
+  @BeforeEach
+  void seed() {
+    jdbcTemplate.update("INSERT INTO currency (code, name, decimals) VALUES ('EUR', 'Euro', 2) ON CONFLICT DO NOTHING");
+    userId = UUID.randomUUID();
+    jdbcTemplate.update("INSERT INTO app_user (id, email) VALUES (?, ?)", userId, userId + "@test");
+    main = wallet("100.00");
+    savings = wallet("0");
+  }
+
+  @Test
+  void balanceAfterASequenceOfWritesEqualsTheRecomputedSum() {
+    Txn groceries = txnService.create(userId, single(TxnType.EXPENSE, main, JAN, "30.00"));
+    Txn salary = txnService.create(userId, single(TxnType.INCOME, main, FEB, "1200.00"));
+    txnService.create(userId, transfer(main, savings, FEB, "250.00"));
+    Txn rent = txnService.create(userId, single(TxnType.EXPENSE, main, MAR, "700.00"));
+
+    // Amount change and a move to another month, then an archive
+    txnService.update(userId, groceries.getId(), JAN, null, single(TxnType.EXPENSE, main, MAR, "45.50"));
+    txnService.update(userId, salary.getId(), FEB, null, single(TxnType.INCOME, main, FEB, "1250.00"));
+    txnService.archive(userId, rent.getId(), MAR, null);
+
+    assertThat(balanceService.currentBalance(userId, main)).isEqualByComparingTo(recomputed(main, MAR));
+    assertThat(balanceService.currentBalance(userId, main)).isEqualByComparingTo("1054.50");
+    assertThat(balanceService.currentBalance(userId, savings)).isEqualByComparingTo("250.00");
+    assertThat(verificationJob.verify()).extracting(BalanceDrift::getWalletId).doesNotContain(main, savings);
+  }
+
+  @Test
+  void asOfBalancesReadTheCheckpoints() {
+    txnService.create(userId, single(TxnType.EXPENSE, main, JAN, "30.00"));
+    txnService.create(userId, single(TxnType.INCOME, main, FEB, "500.00"));
+    txnService.create(userId, transfer(main, savings, FEB.plusDays(1), "80.00"));
+    txnService.create(userId, single(TxnType.EXPENSE, main, MAR, "12.25"));
+
+    for (LocalDate asOf : new LocalDate[] {
+        JAN.minusDays(1), JAN, FEB.minusDays(1), FEB, FEB.plusDays(1), FEB.withDayOfMonth(28), MAR, MAR.plusMonths(1)}) {
+      assertThat(balanceService.balanceAsOf(userId, main, asOf)).as("main as of %s", asOf)
+          .isEqualByComparingTo(recomputed(main, asOf));
+      assertThat(balanceService.balanceAsOf(userId, savings, asOf)).as("savings as of %s", asOf)
+          .isEqualByComparingTo(recomputed(savings, asOf));
+    }
+  }
+
+  @Test
+  void rebuildRepairsInjectedDrift() {
+    txnService.create(userId, single(TxnType.EXPENSE, main, JAN, "30.00"));
+    txnService.create(userId, single(TxnType.INCOME, main, FEB, "500.00"));
+    jdbcTemplate.update("UPDATE wallet_balance SET txn_total = txn_total + 5 WHERE wallet_id = ?", main);
+    jdbcTemplate.update("UPDATE wallet_balance_month SET delta = delta - 3 WHERE wallet_id = ?", main);
+    jdbcTemplate.update("UPDATE wallet_balance_day SET delta = delta + 2 WHERE wallet_id = ?", main);
+
+    assertThat(verificationJob.verify()).extracting(BalanceDrift::getWalletId).contains(main);
+
+    verificationJob.rebuild(main);
+
+    assertThat(verificationJob.verify()).extracting(BalanceDrift::getWalletId).doesNotContain(main);
+    assertThat(balanceService.currentBalance(userId, main)).isEqualByComparingTo("570.00");
+    assertThat(balanceService.balanceAsOf(userId, main, JAN)).isEqualByComparingTo(recomputed(main, JAN));
+    assertThat(balanceService.balanceAsOf(userId, main, FEB)).isEqualByComparingTo(recomputed(main, FEB));
+  }
+
+  private BigDecimal recomputed(UUID walletId, LocalDate asOf) {
+    return jdbcTemplate.queryForObject("""
+        SELECT w.initial_balance + COALESCE((SELECT SUM(l.delta) FROM txn_wallet_leg l
+                                              WHERE l.wallet_id = w.id AND l.occurred_at <= ?), 0)
+          FROM wallet w WHERE w.id = ?
+        """, BigDecimal.class, asOf, walletId);
+  }
+
+  private UUID wallet(String initialBalance) {
+    UUID id = UUID.randomUUID();
+    jdbcTemplate.update("""
+        INSERT INTO wallet (id, user_id, name, icon_type, icon_value, type, currency_code, initial_balance)
+        VALUES (?, ?, 'Main', 'EMOJI', 'x', 'CASH', 'EUR', ?)
+        """, id, userId, new BigDecimal(initialBalance));
+    return id;
+  }
+
+  private static TxnCommand single(TxnType type, UUID walletId, LocalDate day, String amount) {
+    return new TxnCommand(type, day, null, walletId, null, new BigDecimal(amount), null,
+        null, null, null, null, null, null, null, null);
+  }
+
+  private static TxnCommand transfer(UUID from, UUID to, LocalDate day, String amount) {
+    return new TxnCommand(TxnType.TRANSFER, day, null, null, null, null, null,
+        from, to, new BigDecimal(amount), null, null, null, null, null);
+  }
+}
@@ -0,0 +1,100 @@
+package io.ghassen.pockito.service.balance;
+
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.repo.WalletBalanceRepository;
+import io.ghassen.pockito.service.txn.TxnBatchCreatedEvent;
+import io.ghassen.pockito.service.txn.TxnChangedEvent;
+import io.ghassen.pockito.service.txn.TxnSnapshot;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WalletBalanceServiceTests {
+
+  private static final UUID A = new UUID(0, 1);
+  private static final UUID B = new UUID(0, 2);
+  private static final LocalDate MARCH = LocalDate.of(2025, 3, 14);
+  private static final LocalDate APRIL = LocalDate.of(2025, 4, 2);
+
+  private final WalletBalanceRepository repository = mock(WalletBalanceRepository.class);
+  private final WalletBalanceService service = new WalletBalanceService(repository);
+
+  @Test
+  void insertAddsToTotalMonthAndDay() {
+    service.onTxnChanged(TxnChangedEvent.created(expense(A, MARCH, "12.50")));
+
+    verify(repository).addToTotal(eq(A), amount("-12.50"), eq(1L));
+    verify(repository).addToMonth(eq(A), eq(MARCH.withDayOfMonth(1)), amount("-12.50"));
+    verify(repository).addToDay(eq(A), eq(MARCH), amount("-12.50"));
+  }
+
+  @Test
+  void movingATxnToAnotherMonthKeepsTheTotalAndShiftsTheCheckpoints() {
+    service.onTxnChanged(TxnChangedEvent.updated(expense(A, MARCH, "20"), expense(A, APRIL, "20")));
+
+    // Zero net change still takes the wallet_balance lock before the month and day rows
+    InOrder order = inOrder(repository);
+    order.verify(repository).addToTotal(eq(A), amount("0"), eq(0L));
+    order.verify(repository, times(2)).addToMonth(eq(A), any(), any());
+    order.verify(repository, times(2)).addToDay(eq(A), any(), any());
+    verify(repository).addToMonth(eq(A), eq(MARCH.withDayOfMonth(1)), amount("20"));
+    verify(repository).addToMonth(eq(A), eq(APRIL.withDayOfMonth(1)), amount("-20"));
+    verify(repository).addToDay(eq(A), eq(MARCH), amount("20"));
+    verify(repository).addToDay(eq(A), eq(APRIL), amount("-20"));
+  }
+
+  @Test
+  void archiveReversesTheTxn() {
+    service.onTxnChanged(TxnChangedEvent.archived(expense(A, MARCH, "7")));
+
+    verify(repository).addToTotal(eq(A), amount("7"), eq(-1L));
+    verify(repository).addToDay(eq(A), eq(MARCH), amount("7"));
+  }
+
+  @Test
+  void transferMovesBothLegsAndFallsBackToTheOtherAmount() {
+    TxnSnapshot transfer = new TxnSnapshot(UUID.randomUUID(), UUID.randomUUID(), TxnType.TRANSFER, MARCH,
+        null, null, null, null, A, B, new BigDecimal("30"), null, "EUR", "EUR");
+
+    service.onTxnBatchCreated(new TxnBatchCreatedEvent(List.of(transfer)));
+
+    verify(repository).addToTotal(eq(A), amount("-30"), eq(1L));
+    verify(repository).addToTotal(eq(B), amount("30"), eq(1L));
+  }
+
+  @Test
+  void sameDayChangesAreNettedBeforeTheyReachTheLedger() {
+    service.onTxnBatchCreated(new TxnBatchCreatedEvent(List.of(
+        expense(A, MARCH, "10"), income(A, MARCH, "4.004"), expense(A, MARCH, "0.01"))));
+
+    // Legs are rounded to the column scale as stored: 4.004 -> 4.00
+    verify(repository).addToTotal(eq(A), amount("-6.01"), eq(3L));
+    verify(repository).addToMonth(eq(A), eq(MARCH.withDayOfMonth(1)), amount("-6.01"));
+    verify(repository).addToDay(eq(A), eq(MARCH), amount("-6.01"));
+    verifyNoMoreInteractions(ignoreStubs(repository));
+  }
+
+  private static BigDecimal amount(String value) {
+    BigDecimal expected = new BigDecimal(value);
+    return argThat(a -> a != null && a.compareTo(expected) == 0);
+  }
+
+  private static TxnSnapshot expense(UUID walletId, LocalDate day, String amount) {
+    return new TxnSnapshot(UUID.randomUUID(), UUID.randomUUID(), TxnType.EXPENSE, day, walletId, null,
+        new BigDecimal(amount), "EUR", null, null, null, null, null, null);
+  }
+
+  private static TxnSnapshot income(UUID walletId, LocalDate day, String amount) {
+    return new TxnSnapshot(UUID.randomUUID(), UUID.randomUUID(), TxnType.INCOME, day, walletId, null,
+        new BigDecimal(amount), "EUR", null, null, null, null, null, null);
+  }
+}
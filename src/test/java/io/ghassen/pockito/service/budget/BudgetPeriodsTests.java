@@ -0,0 +1,47 @@
+package io.ghassen.pockito.service.budget;
+
+import io.ghassen.pockito.domain.FreqType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BudgetPeriodsTests {
+
+  @Test
+  void monthlyPeriodsAreAnchoredOnStartDate() {
+    LocalDate start = LocalDate.of(2024, 1, 31);
+    assertThat(BudgetPeriods.periodOf(FreqType.MONTHLY, start, null, LocalDate.of(2024, 2, 28)))
+        .isEqualTo(new BudgetPeriods.Period(start, LocalDate.of(2024, 2, 28)));
+    assertThat(BudgetPeriods.periodOf(FreqType.MONTHLY, start, null, LocalDate.of(2024, 2, 29)))
+        .isEqualTo(new BudgetPeriods.Period(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 30)));
+  }
+
+  @Test
+  void weeklyAndQuarterly() {
+    LocalDate start = LocalDate.of(2024, 1, 1);
+    assertThat(BudgetPeriods.periodOf(FreqType.WEEKLY, start, null, LocalDate.of(2024, 1, 10)))
+        .isEqualTo(new BudgetPeriods.Period(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 14)));
+    assertThat(BudgetPeriods.periodOf(FreqType.QUARTERLY, start, null, LocalDate.of(2024, 5, 20)))
+        .isEqualTo(new BudgetPeriods.Period(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 6, 30)));
+  }
+
+  @Test
+  void endDateClipsAndBounds() {
+    LocalDate start = LocalDate.of(2024, 1, 1);
+    LocalDate end = LocalDate.of(2024, 1, 20);
+    assertThat(BudgetPeriods.periodOf(FreqType.MONTHLY, start, end, LocalDate.of(2024, 1, 5)))
+        .isEqualTo(new BudgetPeriods.Period(start, end));
+    assertThat(BudgetPeriods.periodOf(FreqType.MONTHLY, start, end, LocalDate.of(2024, 1, 21))).isNull();
+    assertThat(BudgetPeriods.periodOf(FreqType.CUSTOM, start, end, LocalDate.of(2024, 1, 10)))
+        .isEqualTo(new BudgetPeriods.Period(start, end));
+  }
+
+  @Test
+  void openEndedCustomBudgetEndsOnStorableDate() {
+    LocalDate start = LocalDate.of(2024, 1, 1);
+    BudgetPeriods.Period p = BudgetPeriods.periodOf(FreqType.CUSTOM, start, null, LocalDate.of(2030, 6, 1));
+    assertThat(p).isEqualTo(new BudgetPeriods.Period(start, BudgetPeriods.OPEN_END));
+  }
+}
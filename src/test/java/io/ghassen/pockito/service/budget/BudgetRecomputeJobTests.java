@@ -0,0 +1,50 @@
+package io.ghassen.pockito.service.budget;
+
+import io.ghassen.pockito.repo.BudgetConsumptionRepository;
+import io.ghassen.pockito.repo.BudgetRepository;
+import io.ghassen.pockito.service.category.CategoryHierarchy;
+import io.ghassen.pockito.service.currency.CurrencyCache;
+import io.ghassen.pockito.service.fx.ExchangeRateEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+class BudgetRecomputeJobTests {
+
+  // How PostgreSQL orders uuid: bytewise, so both halves compare unsigned
+  private static final Comparator<UUID> PG_ORDER = Comparator
+      .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+      .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+  private final BudgetConsumptionRepository consumptionRepository = mock(BudgetConsumptionRepository.class);
+
+  @Test
+  void everyBudgetIsVisitedWhateverItsFirstByte() {
+    UUID v7 = UUID.fromString("01936b2e-7c4a-7e21-9d3f-2a61c0ffee01");
+    UUID low = UUID.fromString("00000000-0000-4000-8000-000000000001");
+    UUID high = UUID.fromString("f47ac10b-58cc-4372-a567-0e02b2c3d479");
+    List<UUID> ids = List.of(v7, low, high).stream().sorted(PG_ORDER).toList();
+    when(consumptionRepository.findBudgetIdsAfter(any(), anyInt())).thenAnswer(inv -> ids.stream()
+        .filter(id -> PG_ORDER.compare(id, inv.getArgument(0)) > 0)
+        .limit(inv.<Integer>getArgument(1))
+        .toList());
+    BudgetRecomputeJob job = spy(new BudgetRecomputeJob(mock(BudgetRepository.class), consumptionRepository,
+        mock(ExchangeRateEngine.class), mock(CurrencyCache.class), mock(CategoryHierarchy.class),
+        mock(TransactionTemplate.class), new SimpleMeterRegistry()));
+    ReflectionTestUtils.setField(job, "chunkSize", 2);
+    doNothing().when(job).recompute(any());
+
+    job.run();
+
+    verify(job).recompute(low);
+    verify(job).recompute(v7);
+    verify(job).recompute(high);
+  }
+}
@@ -0,0 +1,78 @@
+package io.ghassen.pockito.service.category;
+
+import io.ghassen.pockito.repo.CategoryRepository;
+import io.ghassen.pockito.repo.CategoryRepository.UserCategoryEdge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CategoryHierarchyTests {
+
+  private final CategoryRepository repository = mock(CategoryRepository.class);
+
+  @Test
+  void coldUsersAreLoadedTogether() {
+    CategoryHierarchy hierarchy = new CategoryHierarchy(repository, new SimpleMeterRegistry(), Duration.ofMinutes(1), 10);
+    UUID alice = UUID.randomUUID();
+    UUID bob = UUID.randomUUID();
+    UUID food = UUID.randomUUID();
+    UUID groceries = UUID.randomUUID();
+    when(repository.findEdgesByUserIds(any())).thenReturn(List.of(edge(alice, food, null), edge(alice, groceries, food)));
+
+    Map<UUID, CategoryTree> trees = hierarchy.trees(List.of(alice, bob));
+
+    assertThat(trees.get(alice).ancestorsOrSelf(groceries)).containsExactly(groceries, food);
+    assertThat(trees.get(bob).size()).isZero();
+    verify(repository, times(1)).findVersionStamps(any());
+    verify(repository, times(1)).findEdgesByUserIds(any());
+
+    // Both are now fresh and answered from memory
+    hierarchy.trees(List.of(alice, bob));
+    verifyNoMoreInteractions(ignoreStubs(repository));
+  }
+
+  @Test
+  void leastRecentlyReadUserIsEvicted() {
+    CategoryHierarchy hierarchy = new CategoryHierarchy(repository, new SimpleMeterRegistry(), Duration.ofMinutes(1), 2);
+    UUID a = UUID.randomUUID();
+    UUID b = UUID.randomUUID();
+    UUID c = UUID.randomUUID();
+    hierarchy.trees(List.of(a));
+    hierarchy.trees(List.of(b));
+    hierarchy.tree(a);
+    hierarchy.trees(List.of(c));
+    clearInvocations(repository);
+
+    hierarchy.trees(List.of(a, c));
+    verifyNoInteractions(repository);
+    hierarchy.trees(List.of(b));
+    verify(repository).findEdgesByUserIds(Set.of(b));
+  }
+
+  private static UserCategoryEdge edge(UUID userId, UUID id, UUID parentId) {
+    return new UserCategoryEdge() {
+      @Override
+      public UUID getUserId() {
+        return userId;
+      }
+
+      @Override
+      public UUID getId() {
+        return id;
+      }
+
+      @Override
+      public UUID getParentId() {
+        return parentId;
+      }
+    };
+  }
+}
@@ -0,0 +1,79 @@
+package io.ghassen.pockito.service.category;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryTreeTests {
+
+  private static final UUID FOOD = id(1);
+  private static final UUID GROCERIES = id(2);
+  private static final UUID RESTAURANTS = id(3);
+  private static final UUID FAST_FOOD = id(4);
+  private static final UUID RENT = id(5);
+
+  @Test
+  void subtreesAreContiguousInPreOrder() {
+    // Children listed before their parents on purpose
+    CategoryTree t = CategoryTree.of(List.of(
+        new CategoryNode(FAST_FOOD, RESTAURANTS),
+        new CategoryNode(GROCERIES, FOOD),
+        new CategoryNode(RESTAURANTS, FOOD),
+        new CategoryNode(FOOD, null),
+        new CategoryNode(RENT, null)));
+    assertThat(t.size()).isEqualTo(5);
+    assertThat(t.descendantsOrSelf(FOOD)).containsExactlyInAnyOrder(FOOD, GROCERIES, RESTAURANTS, FAST_FOOD);
+    assertThat(t.descendantsOrSelf(FOOD).get(0)).isEqualTo(FOOD);
+    assertThat(t.descendantsOrSelf(RESTAURANTS)).containsExactly(RESTAURANTS, FAST_FOOD);
+    assertThat(t.descendantsOrSelf(RENT)).containsExactly(RENT);
+    assertThat(t.isDescendantOrSelf(FAST_FOOD, FOOD)).isTrue();
+    assertThat(t.isDescendantOrSelf(FOOD, FAST_FOOD)).isFalse();
+    assertThat(t.isDescendantOrSelf(RENT, FOOD)).isFalse();
+    assertThat(t.expand(List.of(RESTAURANTS, RENT))).containsExactlyInAnyOrder(RESTAURANTS, FAST_FOOD, RENT);
+  }
+
+  @Test
+  void ancestorPathEndsAtTheRoot() {
+    CategoryTree t = CategoryTree.of(List.of(
+        new CategoryNode(FOOD, null),
+        new CategoryNode(RESTAURANTS, FOOD),
+        new CategoryNode(FAST_FOOD, RESTAURANTS)));
+    assertThat(t.ancestorsOrSelf(FAST_FOOD)).containsExactly(FAST_FOOD, RESTAURANTS, FOOD);
+    assertThat(t.ancestorsOrSelf(FOOD)).containsExactly(FOOD);
+    assertThat(t.parentOf(FAST_FOOD)).isEqualTo(RESTAURANTS);
+    assertThat(t.parentOf(FOOD)).isNull();
+  }
+
+  @Test
+  void unknownIdsAreTheirOwnSubtree() {
+    CategoryTree t = CategoryTree.of(List.of(new CategoryNode(FOOD, null)));
+    assertThat(t.contains(RENT)).isFalse();
+    assertThat(t.descendantsOrSelf(RENT)).containsExactly(RENT);
+    assertThat(t.ancestorsOrSelf(RENT)).containsExactly(RENT);
+    assertThat(t.isDescendantOrSelf(RENT, RENT)).isTrue();
+    assertThat(CategoryTree.empty().descendantsOrSelf(FOOD)).containsExactly(FOOD);
+  }
+
+  @Test
+  void missingParentsAndCyclesBecomeRoots() {
+    UUID gone = id(99);
+    CategoryTree t = CategoryTree.of(List.of(
+        new CategoryNode(GROCERIES, gone),
+        new CategoryNode(FOOD, RESTAURANTS),
+        new CategoryNode(RESTAURANTS, FOOD),
+        new CategoryNode(RENT, RENT)));
+    assertThat(t.size()).isEqualTo(4);
+    assertThat(t.ancestorsOrSelf(GROCERIES)).containsExactly(GROCERIES);
+    assertThat(t.ancestorsOrSelf(RENT)).containsExactly(RENT);
+    // The cycle is entered at its first node and walks terminate
+    assertThat(t.descendantsOrSelf(FOOD)).containsExactly(FOOD, RESTAURANTS);
+    assertThat(t.ancestorsOrSelf(RESTAURANTS)).containsExactly(RESTAURANTS, FOOD);
+  }
+
+  private static UUID id(int n) {
+    return new UUID(0, n);
+  }
+}
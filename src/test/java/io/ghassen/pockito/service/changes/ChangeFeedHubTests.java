@@ -0,0 +1,94 @@
+package io.ghassen.pockito.service.changes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeFeedHubTests {
+
+  private final UUID alice = UUID.randomUUID();
+  private final UUID bob = UUID.randomUUID();
+
+  @Test
+  void deliversOnlyTheSubscribersOwnChanges() throws InterruptedException {
+    ChangeFeedHub hub = hub(100, 10);
+    ChangeStream stream = hub.subscribe(alice, null);
+
+    hub.publish(bob, "txn", "insert", 1, List.of(UUID.randomUUID()));
+    hub.publish(alice, "wallet", "update", 1, null);
+
+    ChangeEvent event = stream.poll(Duration.ZERO);
+    assertThat(event.type()).isEqualTo("wallet");
+    assertThat(stream.poll(Duration.ZERO)).isNull();
+  }
+
+  @Test
+  void resumesAfterLastEventId() throws InterruptedException {
+    ChangeFeedHub hub = hub(100, 10);
+    hub.publish(alice, "txn", "insert", 1, null);
+    ChangeStream first = hub.subscribe(alice, null);
+    hub.publish(alice, "txn", "update", 1, null);
+    String seen = first.poll(Duration.ZERO).id();
+    first.close();
+
+    hub.publish(bob, "txn", "insert", 1, null);
+    hub.publish(alice, "budget", "delete", 2, null);
+    ChangeStream resumed = hub.subscribe(alice, seen);
+
+    ChangeEvent missed = resumed.poll(Duration.ZERO);
+    assertThat(missed.type()).isEqualTo("budget");
+    assertThat(missed.count()).isEqualTo(2);
+    assertThat(resumed.poll(Duration.ZERO)).isNull();
+    assertThat(hub.streamCount()).isEqualTo(1);
+  }
+
+  @Test
+  void unknownOrEvictedEventIdGetsReset() throws InterruptedException {
+    ChangeFeedHub hub = hub(2, 10);
+    ChangeStream stream = hub.subscribe(alice, null);
+    hub.publish(alice, "txn", "insert", 1, null);
+    String oldest = stream.poll(Duration.ZERO).id();
+    for (int i = 0; i < 3; i++) {
+      hub.publish(alice, "txn", "insert", 1, null);
+    }
+
+    assertThat(hub.subscribe(alice, oldest).poll(Duration.ZERO).isReset()).isTrue();
+    assertThat(hub.subscribe(alice, "otherNode-1").poll(Duration.ZERO).isReset()).isTrue();
+  }
+
+  @Test
+  void slowSubscriberIsDroppedInsteadOfBlocking() {
+    ChangeFeedHub hub = hub(100, 2);
+    ChangeStream slow = hub.subscribe(alice, null);
+
+    for (int i = 0; i < 3; i++) {
+      hub.publish(alice, "txn", "insert", 1, null);
+    }
+
+    assertThat(slow.isDropped()).isTrue();
+    assertThat(slow.isClosed()).isTrue();
+    assertThat(hub.streamCount()).isZero();
+  }
+
+  @Test
+  void gapResetsEveryStreamAndEarlierIds() throws InterruptedException {
+    ChangeFeedHub hub = hub(100, 10);
+    ChangeStream stream = hub.subscribe(alice, null);
+    hub.publish(alice, "txn", "insert", 1, null);
+    String beforeGap = stream.poll(Duration.ZERO).id();
+
+    hub.gap();
+
+    assertThat(stream.poll(Duration.ZERO).isReset()).isTrue();
+    assertThat(hub.subscribe(alice, beforeGap).poll(Duration.ZERO).isReset()).isTrue();
+  }
+
+  private static ChangeFeedHub hub(int replayCapacity, int streamCapacity) {
+    return new ChangeFeedHub(replayCapacity, streamCapacity, new SimpleMeterRegistry());
+  }
+}
@@ -0,0 +1,108 @@
+package io.ghassen.pockito.service.changes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the V12 triggers on PostgreSQL; skipped when Docker is not available
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ChangeFeedHub.class, ChangeFeedListener.class, ChangeFeedListenerTests.Support.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class ChangeFeedListenerTests {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @TestConfiguration
+  static class Support {
+    @Bean MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+
+    @Bean ObjectMapper objectMapper() {
+      return new ObjectMapper();
+    }
+  }
+
+  @Autowired JdbcTemplate jdbcTemplate;
+  @Autowired ChangeFeedHub hub;
+  @Autowired ChangeFeedListener listener;
+
+  private UUID userId;
+
+  @BeforeEach
+  void seed() throws InterruptedException {
+    assertThat(listener.awaitListening(Duration.ofSeconds(10))).isTrue();
+    jdbcTemplate.update("INSERT INTO currency (code, name, decimals) VALUES ('EUR', 'Euro', 2) ON CONFLICT DO NOTHING");
+    userId = UUID.randomUUID();
+    jdbcTemplate.update("INSERT INTO app_user (id, email) VALUES (?, ?)", userId, userId + "@test");
+  }
+
+  @Test
+  void smallWriteListsItsIds() throws InterruptedException {
+    ChangeStream stream = hub.subscribe(userId, null);
+    UUID walletId = insertWallet();
+
+    ChangeEvent event = stream.poll(Duration.ofSeconds(5));
+    assertThat(event.type()).isEqualTo("wallet");
+    assertThat(event.op()).isEqualTo("insert");
+    assertThat(event.ids()).containsExactly(walletId);
+  }
+
+  @Test
+  void bulkWriteIsOneEventWithoutIds() throws InterruptedException {
+    UUID walletId = insertWallet();
+    ChangeStream stream = hub.subscribe(userId, null);
+
+    jdbcTemplate.update("""
+        INSERT INTO txn (user_id, type, occurred_at, wallet_id, amount, currency_code)
+        SELECT ?, 'EXPENSE', ?, ?, 1.00, 'EUR' FROM generate_series(1, 100)
+        """, userId, LocalDate.now(), walletId);
+
+    ChangeEvent event = stream.poll(Duration.ofSeconds(5));
+    assertThat(event.type()).isEqualTo("txn");
+    assertThat(event.count()).isEqualTo(100);
+    assertThat(event.ids()).isNull();
+    assertThat(stream.poll(Duration.ofMillis(500))).isNull();
+  }
+
+  private UUID insertWallet() {
+    UUID walletId = UUID.randomUUID();
+    jdbcTemplate.update("""
+        INSERT INTO wallet (id, user_id, name, icon_type, icon_value, type, currency_code)
+        VALUES (?, ?, 'Main', 'EMOJI', 'x', 'CASH', 'EUR')
+        """, walletId, userId);
+    return walletId;
+  }
+}
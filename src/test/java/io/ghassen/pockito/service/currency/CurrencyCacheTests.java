@@ -0,0 +1,60 @@
+package io.ghassen.pockito.service.currency;
+
+import io.ghassen.pockito.domain.Currency;
+import io.ghassen.pockito.repo.CurrencyRepository;
+import io.ghassen.pockito.repo.VersionStamp;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CurrencyCacheTests {
+
+  private final CurrencyRepository repository = mock(CurrencyRepository.class);
+  private final CurrencyCache cache = new CurrencyCache(repository, new SimpleMeterRegistry());
+
+  @Test
+  void loadThatRacedAnInvalidateIsNotKept() {
+    when(repository.findVersionStamp()).thenReturn(stamp());
+    when(repository.findByIsActiveTrue())
+        .thenAnswer(inv -> {
+          // A currency write commits while the rows are being read
+          cache.invalidate();
+          return List.of(eur());
+        })
+        .thenReturn(List.of(eur()));
+
+    assertThat(cache.findById("EUR")).isPresent();
+    assertThat(cache.findById("EUR")).isPresent();
+    assertThat(cache.findById("EUR")).isPresent();
+
+    verify(repository, times(2)).findByIsActiveTrue();
+  }
+
+  private static Currency eur() {
+    return Currency.builder().code("EUR").name("Euro").decimals((short) 2).isActive(true).version(1L).build();
+  }
+
+  private static VersionStamp stamp() {
+    return new VersionStamp() {
+      @Override
+      public Long getCount() {
+        return 1L;
+      }
+
+      @Override
+      public Long getVersionSum() {
+        return 1L;
+      }
+
+      @Override
+      public Instant getLastUpdatedAt() {
+        return null;
+      }
+    };
+  }
+}
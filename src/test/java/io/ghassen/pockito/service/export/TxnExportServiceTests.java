@@ -0,0 +1,132 @@
+package io.ghassen.pockito.service.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.ghassen.pockito.repo.TxnQueryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TxnExportServiceTests {
+
+  private static final LocalDate DAY = LocalDate.of(2025, 4, 1);
+
+  private final UUID userId = UUID.randomUUID();
+  private final TxnQueryRepository repository = mock(TxnQueryRepository.class);
+  // Dates as ISO strings, as Spring Boot configures the application's mapper
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+  private final TxnExportService service = new TxnExportService(repository, objectMapper);
+  private final List<ExportRow> rows = new ArrayList<>();
+
+  @Test
+  void csvQuotesOnlyTheValuesThatNeedIt() throws IOException {
+    rows.add(expense("Coffee, croissant", "12.50"));
+    rows.add(expense("The \"good\" one", "3"));
+    rows.add(expense("line one\r\nline two\nthree", "0.10"));
+    rows.add(expense(null, "1000000000.00"));
+
+    String csv = export(ExportFormat.CSV);
+
+    String[] lines = csv.split("\r\n", -1);
+    assertThat(lines[0]).startsWith("id,type,occurred_at,wallet,").endsWith(",external_wallet,note");
+    assertThat(lines[1]).endsWith(",12.50,EUR,Euro,,,,,,,,,\"Coffee, croissant\"");
+    assertThat(lines[2]).endsWith(",\"The \"\"good\"\" one\"");
+    // Embedded line breaks stay inside one quoted field
+    assertThat(csv).contains(",\"line one\r\nline two\nthree\"\r\n");
+    assertThat(lines[lines.length - 2]).endsWith(",1000000000.00,EUR,Euro,,,,,,,,,");
+    assertThat(lines[lines.length - 1]).isEmpty();
+  }
+
+  @Test
+  void ndjsonWritesOneObjectPerLine() throws IOException {
+    rows.add(expense("multi\nline \"note\"", "12.50"));
+    rows.add(expense(null, "3"));
+
+    String ndjson = export(ExportFormat.NDJSON);
+
+    assertThat(ndjson).endsWith("\n");
+    String[] lines = ndjson.split("\n");
+    assertThat(lines).hasSize(2);
+    JsonNode first = objectMapper.readTree(lines[0]);
+    assertThat(first.get("note").asText()).isEqualTo("multi\nline \"note\"");
+    assertThat(first.get("amount").decimalValue()).isEqualByComparingTo("12.50");
+    assertThat(first.get("occurredAt").asText()).isEqualTo("2025-04-01");
+    assertThat(objectMapper.readTree(lines[1]).get("note").isNull()).isTrue();
+  }
+
+  @Test
+  void passesTheRangeToTheQueryAndCountsTheRows() throws IOException {
+    rows.add(expense("a", "1"));
+    rows.add(expense("b", "2"));
+    LocalDate from = DAY.minusDays(7);
+    streamRows();
+
+    long count = service.export(userId, from, DAY, ExportFormat.CSV, new ByteArrayOutputStream());
+
+    assertThat(count).isEqualTo(2);
+    verify(repository).streamExport(eq(userId), eq(from), eq(DAY), any());
+  }
+
+  @Test
+  void rejectsAnInvertedRange() {
+    assertThatThrownBy(() -> service.export(userId, DAY, DAY.minusDays(1), ExportFormat.CSV, new ByteArrayOutputStream()))
+        .isInstanceOf(IllegalArgumentException.class);
+    verifyNoInteractions(repository);
+  }
+
+  private String export(ExportFormat format) throws IOException {
+    streamRows();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    service.export(userId, null, null, format, out);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  private void streamRows() {
+    doAnswer(inv -> {
+      RowCallbackHandler handler = inv.getArgument(3);
+      for (ExportRow row : rows) {
+        handler.processRow(resultSet(row));
+      }
+      return null;
+    }).when(repository).streamExport(eq(userId), any(), any(), any());
+  }
+
+  private static ExportRow expense(String note, String amount) {
+    return new ExportRow(UUID.randomUUID(), "EXPENSE", DAY, "Main", "Food", new BigDecimal(amount), "EUR", "Euro",
+        null, null, null, null, null, null, null, null, note);
+  }
+
+  private static ResultSet resultSet(ExportRow row) throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getObject("id", UUID.class)).thenReturn(row.id());
+    when(rs.getString("type")).thenReturn(row.type());
+    when(rs.getDate("occurred_at")).thenReturn(Date.valueOf(row.occurredAt()));
+    when(rs.getString("wallet_name")).thenReturn(row.wallet());
+    when(rs.getString("category_name")).thenReturn(row.category());
+    when(rs.getBigDecimal("amount")).thenReturn(row.amount());
+    when(rs.getString("currency_code")).thenReturn(row.currencyCode());
+    when(rs.getString("currency_name")).thenReturn(row.currencyName());
+    when(rs.getString("note")).thenReturn(row.note());
+    return rs;
+  }
+}
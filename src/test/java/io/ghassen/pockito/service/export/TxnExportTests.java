@@ -0,0 +1,113 @@
+package io.ghassen.pockito.service.export;
+
+import io.ghassen.pockito.repo.TxnQueryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the export query of TxnQueryRepository.streamExport on PostgreSQL; skipped when Docker is not available
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TxnExportService.class, TxnQueryRepository.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class TxnExportTests {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @Autowired JdbcTemplate jdbcTemplate;
+  @Autowired TxnExportService exportService;
+
+  private UUID userId;
+  private UUID walletId;
+
+  @BeforeEach
+  void seed() {
+    jdbcTemplate.update("INSERT INTO currency (code, name, decimals) VALUES ('EUR', 'Euro', 2) ON CONFLICT DO NOTHING");
+    userId = UUID.randomUUID();
+    walletId = UUID.randomUUID();
+    jdbcTemplate.update("INSERT INTO app_user (id, email) VALUES (?, ?)", userId, userId + "@test");
+    jdbcTemplate.update("""
+        INSERT INTO wallet (id, user_id, name, icon_type, icon_value, type, currency_code)
+        VALUES (?, ?, 'Main', 'EMOJI', 'x', 'CASH', 'EUR')
+        """, walletId, userId);
+    insert(LocalDate.of(2025, 1, 31), "before");
+    insert(LocalDate.of(2025, 2, 1), "first day");
+    insert(LocalDate.of(2025, 2, 15), "middle");
+    insert(LocalDate.of(2025, 2, 28), "last day");
+    insert(LocalDate.of(2025, 3, 1), "after");
+    jdbcTemplate.update("UPDATE txn SET archived_at = now() WHERE user_id = ? AND note = 'middle'", userId);
+    insert(LocalDate.of(2025, 2, 10), "kept");
+  }
+
+  @Test
+  void exportsOnlyActiveTxnsInTheInclusiveRangeOldestFirst() throws IOException {
+    List<String> notes = notes(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28));
+
+    assertThat(notes).containsExactly("first day", "kept", "last day");
+  }
+
+  @Test
+  void openEndedRanges() throws IOException {
+    assertThat(notes(null, LocalDate.of(2025, 2, 1))).containsExactly("before", "first day");
+    assertThat(notes(LocalDate.of(2025, 2, 28), null)).containsExactly("last day", "after");
+    assertThat(notes(null, null)).hasSize(5);
+  }
+
+  @Test
+  void ndjsonHasOneLinePerRowWithJoinedNames() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long count = exportService.export(userId, null, null, ExportFormat.NDJSON, out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(count).isEqualTo(5);
+    assertThat(lines).hasSize(5);
+    assertThat(lines[0]).contains("\"wallet\":\"Main\"", "\"currencyName\":\"Euro\"", "\"occurredAt\":\"2025-01-31\"");
+  }
+
+  // Notes are the last CSV column and contain no characters that need quoting
+  private List<String> notes(LocalDate from, LocalDate to) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long count = exportService.export(userId, from, to, ExportFormat.CSV, out);
+    List<String> lines = Arrays.asList(out.toString(StandardCharsets.UTF_8).split("\r\n"));
+    assertThat(lines).hasSize((int) count + 1);
+    return lines.subList(1, lines.size()).stream().map(l -> l.substring(l.lastIndexOf(',') + 1)).toList();
+  }
+
+  private void insert(LocalDate day, String note) {
+    jdbcTemplate.update("""
+        INSERT INTO txn (user_id, type, occurred_at, note, wallet_id, amount, currency_code)
+        VALUES (?, 'EXPENSE', ?, ?, ?, 1.00, 'EUR')
+        """, userId, day, note, walletId);
+  }
+}
@@ -0,0 +1,50 @@
+package io.ghassen.pockito.service.fx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RateTableTests {
+
+  private static final long DAY = 86_400_000L;
+
+  @Test
+  void asOfPicksLatestSnapshotAtOrBefore() {
+    RateTable t = RateTable.empty(List.of("USD")).apply(List.of(
+        new RatePoint("EUR", "USD", 10 * DAY, 1.10, false),
+        new RatePoint("EUR", "USD", 20 * DAY, 1.20, false)));
+    assertThat(t.rate("EUR", "USD", 9 * DAY)).isNaN();
+    assertThat(t.rate("EUR", "USD", 10 * DAY)).isEqualTo(1.10);
+    assertThat(t.rate("EUR", "USD", 19 * DAY)).isEqualTo(1.10);
+    assertThat(t.rate("EUR", "USD", 25 * DAY)).isEqualTo(1.20);
+    assertThat(t.rate("USD", "EUR", 25 * DAY)).isCloseTo(1 / 1.20, within(1e-12));
+  }
+
+  @Test
+  void triangulatesThroughPivot() {
+    RateTable t = RateTable.empty(List.of("USD")).apply(List.of(
+        new RatePoint("EUR", "USD", 0, 1.10, false),
+        new RatePoint("USD", "TND", 0, 3.00, false)));
+    assertThat(t.rate("EUR", "TND", DAY)).isCloseTo(3.30, within(1e-12));
+    assertThat(t.rate("TND", "EUR", DAY)).isCloseTo(1 / 3.30, within(1e-12));
+    assertThat(t.rate("EUR", "JPY", DAY)).isNaN();
+  }
+
+  @Test
+  void incrementalChangesReplaceAndRemoveSnapshots() {
+    RateTable before = RateTable.empty(List.of("USD")).apply(List.of(
+        new RatePoint("EUR", "USD", 0, 1.10, false)));
+    RateTable after = before.apply(List.of(
+        new RatePoint("EUR", "USD", 0, 1.15, false),
+        new RatePoint("GBP", "USD", 0, 1.25, false)));
+    assertThat(before.rate("EUR", "USD", DAY)).isEqualTo(1.10);
+    assertThat(after.rate("EUR", "USD", DAY)).isEqualTo(1.15);
+    assertThat(after.rate("GBP", "EUR", DAY)).isCloseTo(1.25 / 1.15, within(1e-12));
+
+    RateTable removed = after.apply(List.of(new RatePoint("EUR", "USD", 0, 0, true)));
+    assertThat(removed.rate("EUR", "USD", DAY)).isNaN();
+  }
+}
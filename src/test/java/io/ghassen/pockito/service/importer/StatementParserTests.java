@@ -0,0 +1,108 @@
+package io.ghassen.pockito.service.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementParserTests {
+
+  @Test
+  void csvWithQuotedFieldsAndSemicolons() throws IOException {
+    String csv = """
+        Date;Description;Amount;Category
+        2024-01-15;"Coffee; ""Corner"" shop";-3,50;Food
+        2024-01-16;Salary;"2.500,00";
+        not-a-date;Broken;1;
+        """;
+    Collected out = parse(new CsvStatementParser(), csv);
+    assertThat(out.rows).hasSize(2);
+    assertThat(out.rows.get(0).payee()).isEqualTo("Coffee; \"Corner\" shop");
+    assertThat(out.rows.get(0).amount()).isEqualByComparingTo("-3.50");
+    assertThat(out.rows.get(0).category()).isEqualTo("Food");
+    assertThat(out.rows.get(1).amount()).isEqualByComparingTo("2500.00");
+    assertThat(out.invalid).containsExactly(4L);
+  }
+
+  @Test
+  void csvDebitCreditColumns() throws IOException {
+    String csv = "date,payee,debit,credit\n15/01/2024,Rent,1200.00,\n16/01/2024,Refund,,\"1,234.00\"\n";
+    Collected out = parse(new CsvStatementParser(), csv);
+    assertThat(out.rows).extracting(StatementRow::amount)
+        .usingElementComparator(BigDecimal::compareTo)
+        .containsExactly(new BigDecimal("-1200.00"), new BigDecimal("1234.00"));
+    assertThat(out.rows.get(0).date()).isEqualTo(LocalDate.of(2024, 1, 15));
+  }
+
+  @Test
+  void qifTransfersAndCategories() throws IOException {
+    String qif = """
+        !Type:Bank
+        D1/15'24
+        T-45.10
+        PGrocer
+        LFood:Groceries
+        ^
+        D01/20/2024
+        T-100.00
+        L[Savings]
+        ^
+        """;
+    Collected out = parse(new QifStatementParser(), qif);
+    assertThat(out.rows).hasSize(2);
+    assertThat(out.rows.get(0).date()).isEqualTo(LocalDate.of(2024, 1, 15));
+    assertThat(out.rows.get(0).category()).isEqualTo("Groceries");
+    assertThat(out.rows.get(1).transferWallet()).isEqualTo("Savings");
+    assertThat(out.rows.get(1).category()).isNull();
+  }
+
+  @Test
+  void ofxSgml() throws IOException {
+    String ofx = """
+        OFXHEADER:100
+        <OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>
+        <STMTTRN>
+        <TRNTYPE>DEBIT
+        <DTPOSTED>20240115120000[-5:EST]
+        <TRNAMT>-12.34
+        <FITID>ABC123
+        <NAME>Books &amp; Co
+        </STMTTRN>
+        </BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>
+        """;
+    Collected out = parse(new OfxStatementParser(), ofx);
+    assertThat(out.rows).hasSize(1);
+    StatementRow row = out.rows.get(0);
+    assertThat(row.date()).isEqualTo(LocalDate.of(2024, 1, 15));
+    assertThat(row.amount()).isEqualByComparingTo("-12.34");
+    assertThat(row.externalId()).isEqualTo("ABC123");
+    assertThat(row.payee()).isEqualTo("Books & Co");
+  }
+
+  private static Collected parse(StatementParser parser, String content) throws IOException {
+    Collected out = new Collected();
+    parser.parse(new StringReader(content), new ImportOptions(null), out);
+    return out;
+  }
+
+  private static final class Collected implements StatementHandler {
+    final List<StatementRow> rows = new ArrayList<>();
+    final List<Long> invalid = new ArrayList<>();
+
+    @Override
+    public void row(StatementRow row) {
+      rows.add(row);
+    }
+
+    @Override
+    public void invalid(long line, String reason) {
+      invalid.add(line);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package io.ghassen.pockito.service.importer;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.Wallet;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementRowMapperTests {
+
+  private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+  private final UUID userId = UUID.randomUUID();
+  private final Wallet checking = wallet("Checking", "EUR");
+  private final Wallet savings = wallet("Savings", "EUR");
+  private final Wallet dollars = wallet("Dollars", "USD");
+  private final ImportLookup lookup = new ImportLookup(List.of(checking, savings, dollars), List.of());
+
+  @Test
+  void bothStatementsOfATransferGiveTheSameRef() {
+    Txn out = new StatementRowMapper(userId, checking, lookup)
+        .map(new StatementRow(1, DAY, new BigDecimal("-50.00"), "To savings", null, null, "Savings", "CHK-881"));
+    Txn in = new StatementRowMapper(userId, savings, lookup)
+        .map(new StatementRow(7, DAY, new BigDecimal("50"), "From checking", "ref 12", null, "checking", "SAV-03"));
+
+    assertThat(out.getImportRef()).isEqualTo(in.getImportRef());
+    assertThat(out.getFromWalletId()).isEqualTo(in.getFromWalletId()).isEqualTo(checking.getId());
+  }
+
+  @Test
+  void transfersApartInDirectionOrAmountKeepTheirOwnRefs() {
+    StatementRowMapper mapper = new StatementRowMapper(userId, checking, lookup);
+    Txn out = mapper.map(new StatementRow(1, DAY, new BigDecimal("-50"), null, null, null, "Savings", null));
+    Txn back = mapper.map(new StatementRow(2, DAY, new BigDecimal("50"), null, null, null, "Savings", null));
+    Txn more = mapper.map(new StatementRow(3, DAY, new BigDecimal("-60"), null, null, null, "Savings", null));
+    Txn again = mapper.map(new StatementRow(4, DAY, new BigDecimal("-50"), null, null, null, "Savings", null));
+
+    assertThat(List.of(out.getImportRef(), back.getImportRef(), more.getImportRef(), again.getImportRef()))
+        .doesNotHaveDuplicates();
+  }
+
+  @Test
+  void crossCurrencyTransfersMatchWithoutTheAmount() {
+    Txn out = new StatementRowMapper(userId, checking, lookup)
+        .map(new StatementRow(1, DAY, new BigDecimal("-92.10"), null, null, null, "Dollars", null));
+    Txn in = new StatementRowMapper(userId, dollars, lookup)
+        .map(new StatementRow(1, DAY, new BigDecimal("100.00"), null, null, null, "Checking", null));
+
+    assertThat(out.getImportRef()).isEqualTo(in.getImportRef());
+  }
+
+  private static Wallet wallet(String name, String currency) {
+    return Wallet.builder().id(UUID.randomUUID()).name(name).currencyCode(currency).build();
+  }
+}
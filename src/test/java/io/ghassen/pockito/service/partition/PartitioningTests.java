@@ -0,0 +1,152 @@
+package io.ghassen.pockito.service.partition;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.domain.TxnType;
+import io.ghassen.pockito.repo.PartitionRepository;
+import io.ghassen.pockito.repo.TxnRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the real migrations on PostgreSQL; skipped when Docker is not available
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PartitionRepository.class, PartitionMaintenanceJob.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class PartitioningTests {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @Autowired JdbcTemplate jdbcTemplate;
+  @Autowired TxnRepository txnRepository;
+  @Autowired PartitionRepository partitionRepository;
+  @Autowired PartitionMaintenanceJob maintenanceJob;
+
+  private UUID userId;
+  private UUID walletId;
+
+  @BeforeEach
+  void seed() {
+    jdbcTemplate.update("""
+        INSERT INTO currency (code, name, decimals) VALUES ('EUR', 'Euro', 2) ON CONFLICT DO NOTHING
+        """);
+    userId = UUID.randomUUID();
+    walletId = UUID.randomUUID();
+    jdbcTemplate.update("INSERT INTO app_user (id, email) VALUES (?, ?)", userId, userId + "@test");
+    jdbcTemplate.update("""
+        INSERT INTO wallet (id, user_id, name, icon_type, icon_value, type, currency_code)
+        VALUES (?, ?, 'Main', 'EMOJI', 'x', 'CASH', 'EUR')
+        """, walletId, userId);
+  }
+
+  @Test
+  void jpaWritesRouteToMonthPartitionsAndMoveOnDateChange() {
+    LocalDate today = LocalDate.now();
+    maintenanceJob.ensureMonths(PartitionedTable.TXN, YearMonth.from(today).minusMonths(1), YearMonth.from(today));
+
+    Txn txn = txnRepository.saveAndFlush(expense(today));
+    assertThat(partitionOf(txn.getId())).isEqualTo(PartitionRepository.partitionName(PartitionedTable.TXN, YearMonth.from(today)));
+    assertThat(txnRepository.findByIdAndUserId(txn.getId(), userId)).isPresent();
+
+    Txn loaded = txnRepository.findById(txn.getId()).orElseThrow();
+    loaded.setOccurredAt(today.minusMonths(1));
+    txnRepository.saveAndFlush(loaded);
+    assertThat(partitionOf(txn.getId()))
+        .isEqualTo(PartitionRepository.partitionName(PartitionedTable.TXN, YearMonth.from(today).minusMonths(1)));
+  }
+
+  @Test
+  void dateRangeQueriesArePruned() {
+    YearMonth month = YearMonth.from(LocalDate.now());
+    maintenanceJob.ensureMonths(PartitionedTable.TXN, month.minusMonths(2), month);
+
+    List<String> plan = jdbcTemplate.queryForList("""
+        EXPLAIN SELECT * FROM txn WHERE user_id = ? AND occurred_at >= ? AND occurred_at < ?
+        """, String.class, userId, month.atDay(1), month.plusMonths(1).atDay(1));
+    String text = String.join("\n", plan);
+    assertThat(text).contains(PartitionRepository.partitionName(PartitionedTable.TXN, month));
+    assertThat(text).doesNotContain(PartitionRepository.partitionName(PartitionedTable.TXN, month.minusMonths(1)));
+    assertThat(text).doesNotContain("txn_default");
+  }
+
+  @Test
+  void byIdLookupsWithTheDateArePruned() {
+    YearMonth month = YearMonth.from(LocalDate.now());
+    maintenanceJob.ensureMonths(PartitionedTable.TXN, month.minusMonths(2), month);
+    Txn txn = txnRepository.saveAndFlush(expense(month.atDay(1)));
+
+    assertThat(txnRepository.findByIdAndUserIdAndOccurredAt(txn.getId(), userId, month.atDay(1))).isPresent();
+    String plan = String.join("\n", jdbcTemplate.queryForList("""
+        EXPLAIN SELECT * FROM txn WHERE id = ? AND user_id = ? AND occurred_at = ?
+        """, String.class, txn.getId(), userId, month.atDay(1)));
+    assertThat(plan).contains(PartitionRepository.partitionName(PartitionedTable.TXN, month));
+    assertThat(plan).doesNotContain(PartitionRepository.partitionName(PartitionedTable.TXN, month.minusMonths(1)));
+  }
+
+  @Test
+  void creatingAMonthMovesItsRowsOutOfTheDefaultPartition() {
+    YearMonth farFuture = YearMonth.from(LocalDate.now()).plusYears(5);
+    Txn txn = txnRepository.saveAndFlush(expense(farFuture.atDay(10)));
+    assertThat(partitionOf(txn.getId())).isEqualTo("txn_default");
+
+    maintenanceJob.ensureMonth(PartitionedTable.TXN, farFuture);
+
+    assertThat(partitionOf(txn.getId())).isEqualTo(PartitionRepository.partitionName(PartitionedTable.TXN, farFuture));
+    assertThat(partitionRepository.findMonths(PartitionedTable.TXN)).contains(farFuture);
+  }
+
+  @Test
+  void expiredActivityMonthsAreDetached() {
+    YearMonth old = YearMonth.from(LocalDate.now()).minusYears(6);
+    maintenanceJob.ensureMonth(PartitionedTable.ACTIVITY_LOG, old);
+
+    maintenanceJob.retire(PartitionedTable.ACTIVITY_LOG, old.plusMonths(1));
+
+    assertThat(partitionRepository.findMonths(PartitionedTable.ACTIVITY_LOG)).doesNotContain(old);
+    assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+        "archive." + PartitionRepository.partitionName(PartitionedTable.ACTIVITY_LOG, old))).isTrue();
+  }
+
+  private Txn expense(LocalDate day) {
+    return Txn.builder()
+        .userId(userId)
+        .type(TxnType.EXPENSE)
+        .occurredAt(day)
+        .walletId(walletId)
+        .amount(new BigDecimal("12.50"))
+        .currencyCode("EUR")
+        .build();
+  }
+
+  private String partitionOf(UUID txnId) {
+    return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM txn WHERE id = ?", String.class, txnId);
+  }
+}
@@ -0,0 +1,53 @@
+package io.ghassen.pockito.service.subscription;
+
+import io.ghassen.pockito.domain.FreqType;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BillingScheduleTests {
+
+  @Test
+  void monthlyReanchorsOnDayOfMonth() {
+    LocalDate start = LocalDate.of(2024, 1, 31);
+    LocalDate feb = BillingSchedule.next(FreqType.MONTHLY, 1, null, null, null, start, start);
+    LocalDate mar = BillingSchedule.next(FreqType.MONTHLY, 1, null, null, null, start, feb);
+    assertThat(feb).isEqualTo(LocalDate.of(2024, 2, 29));
+    assertThat(mar).isEqualTo(LocalDate.of(2024, 3, 31));
+  }
+
+  @Test
+  void weeklyAlignsToDayOfWeek() {
+    LocalDate wed = LocalDate.of(2024, 1, 3);
+    LocalDate next = BillingSchedule.next(FreqType.WEEKLY, 2, null, (short) 1, null, wed, wed);
+    assertThat(next).isEqualTo(LocalDate.of(2024, 1, 15));
+    assertThat(next.getDayOfWeek()).isEqualTo(DayOfWeek.MONDAY);
+  }
+
+  @Test
+  void quarterlyAnnualAndCustom() {
+    LocalDate start = LocalDate.of(2024, 1, 15);
+    assertThat(BillingSchedule.next(FreqType.QUARTERLY, 1, null, null, null, start, start))
+        .isEqualTo(LocalDate.of(2024, 4, 15));
+    assertThat(BillingSchedule.next(FreqType.ANNUALLY, 1, (short) 29, null, (short) 2, start, start))
+        .isEqualTo(LocalDate.of(2025, 2, 28));
+    assertThat(BillingSchedule.next(FreqType.CUSTOM, 10, null, null, null, start, start))
+        .isEqualTo(LocalDate.of(2024, 1, 25));
+  }
+
+  @Test
+  void outOfRangeFieldsAreIgnored() {
+    LocalDate start = LocalDate.of(2024, 1, 10);
+    assertThat(BillingSchedule.next(FreqType.MONTHLY, 1, (short) 0, null, null, start, start))
+        .isEqualTo(LocalDate.of(2024, 2, 10));
+    assertThat(BillingSchedule.next(FreqType.MONTHLY, 1, (short) 45, null, null, start, start))
+        .isEqualTo(LocalDate.of(2024, 2, 29));
+    assertThat(BillingSchedule.next(FreqType.WEEKLY, 1, null, (short) 9, null, start, start))
+        .isEqualTo(LocalDate.of(2024, 1, 17));
+    assertThat(BillingSchedule.next(FreqType.ANNUALLY, 1, null, null, (short) 13, start, start))
+        .isEqualTo(LocalDate.of(2025, 1, 10));
+  }
+}
@@ -0,0 +1,119 @@
+package io.ghassen.pockito.service.subscription;
+
+import io.ghassen.pockito.domain.FreqType;
+import io.ghassen.pockito.domain.PaymentStatus;
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.repo.SubscriptionBillingRepository;
+import io.ghassen.pockito.repo.TxnBulkRepository;
+import io.ghassen.pockito.service.currency.CurrencyCache;
+import io.ghassen.pockito.service.fx.ExchangeRateEngine;
+import io.ghassen.pockito.service.txn.TxnSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SubscriptionBillingJobTests {
+
+  private static final LocalDate TODAY = LocalDate.of(2025, 3, 20);
+  private static final Instant FEB_15 = LocalDate.of(2025, 2, 15).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+  private final SubscriptionBillingRepository billingRepository = mock(SubscriptionBillingRepository.class);
+  private final TxnBulkRepository txnBulkRepository = mock(TxnBulkRepository.class);
+  private final ExchangeRateEngine rateEngine = mock(ExchangeRateEngine.class);
+  private final CurrencyCache currencyCache = mock(CurrencyCache.class);
+  private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final SubscriptionBillingJob job = new SubscriptionBillingJob(billingRepository, txnBulkRepository,
+      rateEngine, currencyCache, mock(ApplicationEventPublisher.class), transactionTemplate, registry);
+
+  private final DueSubscription usdFromJanuary = usdInEurWallet(LocalDate.of(2025, 1, 15));
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(job, "chunkSize", 10);
+    ReflectionTestUtils.setField(job, "maxCatchUp", 24);
+    ReflectionTestUtils.setField(job, "zone", ZoneId.of("UTC"));
+    when(currencyCache.findById(anyString())).thenReturn(Optional.empty());
+    when(rateEngine.rate(eq("USD"), eq("EUR"), any(Instant.class))).thenReturn(0.9);
+    when(rateEngine.convert(any(), eq("USD"), eq("EUR"), any(), anyInt()))
+        .thenAnswer(inv -> inv.<BigDecimal>getArgument(0).multiply(new BigDecimal("0.9")));
+    when(txnBulkRepository.insertIgnoringDuplicates(any(), any()))
+        .thenAnswer(inv -> inv.<List<Txn>>getArgument(0).stream().map(TxnSnapshot::of).toList());
+  }
+
+  @Test
+  void aPeriodWithoutARateStaysDueAndTheEarlierOnesAreBilled() {
+    when(rateEngine.rate("USD", "EUR", FEB_15)).thenReturn(Double.NaN);
+    when(billingRepository.claimDue(eq(TODAY), eq(10), any())).thenReturn(List.of(usdFromJanuary));
+    Set<UUID> failed = new HashSet<>();
+
+    job.billChunk(TODAY, new long[1], failed);
+
+    verify(billingRepository).insertPayments(argThat(rows -> rows.size() == 1
+        && rows.getFirst().status() == PaymentStatus.PAID
+        && rows.getFirst().paidAt().equals(LocalDate.of(2025, 1, 15).atStartOfDay(ZoneOffset.UTC).toInstant())),
+        any());
+    verify(billingRepository).advance(eq(Map.of(usdFromJanuary.id(), LocalDate.of(2025, 2, 15))), any());
+    assertThat(failed).containsExactly(usdFromJanuary.id());
+    assertThat(registry.get("pockito.billing.failures").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void noRateForTheFirstPeriodLeavesTheSubscriptionUntouched() {
+    DueSubscription usdFromFebruary = usdInEurWallet(LocalDate.of(2025, 2, 15));
+    when(rateEngine.rate("USD", "EUR", FEB_15)).thenReturn(Double.NaN);
+    when(billingRepository.claimDue(eq(TODAY), eq(10), any())).thenReturn(List.of(usdFromFebruary));
+
+    job.billChunk(TODAY, new long[1], new HashSet<>());
+
+    verify(billingRepository).insertPayments(eq(List.of()), any());
+    verify(billingRepository).advance(eq(Map.of()), any());
+    assertThat(registry.get("pockito.billing.payments").tag("status", "FAILED").counter().count()).isZero();
+  }
+
+  @Test
+  void aRunEndsEvenWhenASubscriptionStaysDue() {
+    when(rateEngine.rate("USD", "EUR", FEB_15)).thenReturn(Double.NaN);
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    // Behaves like the SKIP LOCKED claim: a subscription left due is returned until it is excluded
+    when(billingRepository.claimDue(any(), eq(10), any())).thenAnswer(inv -> {
+      Collection<UUID> excluded = inv.getArgument(2);
+      return excluded.contains(usdFromJanuary.id()) ? List.of() : List.of(usdFromJanuary);
+    });
+
+    job.run();
+
+    verify(billingRepository, times(2)).claimDue(any(), eq(10), any());
+  }
+
+  private static DueSubscription usdInEurWallet(LocalDate nextDueDate) {
+    return new DueSubscription(UUID.randomUUID(), UUID.randomUUID(), "Cloud storage", new BigDecimal("10.00"),
+        "USD", UUID.randomUUID(), "EUR", null, FreqType.MONTHLY, 1, (short) 15, null, null,
+        LocalDate.of(2025, 1, 15), nextDueDate);
+  }
+}
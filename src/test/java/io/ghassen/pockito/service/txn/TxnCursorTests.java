@@ -0,0 +1,55 @@
+package io.ghassen.pockito.service.txn;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TxnCursorTests {
+
+  @Test
+  void roundTripsThroughItsToken() {
+    TxnCursor cursor = new TxnCursor(LocalDate.of(2025, 2, 28), UUID.randomUUID());
+
+    String token = cursor.encode();
+
+    assertThat(token).matches("[A-Za-z0-9_-]+");
+    assertThat(TxnCursor.decode(token)).isEqualTo(cursor);
+  }
+
+  @Test
+  void noTokenMeansTheFirstPage() {
+    assertThat(TxnCursor.decode(null)).isNull();
+    assertThat(TxnCursor.decode("  ")).isNull();
+  }
+
+  @Test
+  void rejectsTamperedTokens() {
+    List<String> tampered = List.of(
+        "v2|2025-02-28|0b0f9f4e-6a0b-4d6e-9f0e-3c4b7d1c2a10",
+        "2025-02-28|0b0f9f4e-6a0b-4d6e-9f0e-3c4b7d1c2a10",
+        "v1|2025-02-30|0b0f9f4e-6a0b-4d6e-9f0e-3c4b7d1c2a10",
+        "v1|2025-02-28|not-a-uuid",
+        "v1|2025-02-28",
+        "v1|2025-02-28|0b0f9f4e-6a0b-4d6e-9f0e-3c4b7d1c2a10|x");
+
+    for (String raw : tampered) {
+      String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+      assertThatThrownBy(() -> TxnCursor.decode(token)).as(raw).isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  @Test
+  void rejectsTokensThatAreNotBase64() {
+    String token = new TxnCursor(LocalDate.of(2025, 2, 28), UUID.randomUUID()).encode();
+
+    assertThatThrownBy(() -> TxnCursor.decode(token + "*")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TxnCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,120 @@
+package io.ghassen.pockito.service.txn;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.repo.TxnQueryRepository;
+import io.ghassen.pockito.service.category.CategoryHierarchy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the keyset query of TxnQueryRepository.streamPage on PostgreSQL; skipped when Docker is not available
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TxnQueryService.class, TxnQueryRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class TxnPagingTests {
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  private static final LocalDate DAY = LocalDate.of(2025, 3, 2);
+
+  @MockitoBean CategoryHierarchy categoryHierarchy;
+  @Autowired JdbcTemplate jdbcTemplate;
+  @Autowired TxnQueryService txnQueryService;
+
+  private UUID userId;
+  private UUID walletId;
+
+  @BeforeEach
+  void seed() {
+    jdbcTemplate.update("INSERT INTO currency (code, name, decimals) VALUES ('EUR', 'Euro', 2) ON CONFLICT DO NOTHING");
+    userId = UUID.randomUUID();
+    walletId = UUID.randomUUID();
+    jdbcTemplate.update("INSERT INTO app_user (id, email) VALUES (?, ?)", userId, userId + "@test");
+    jdbcTemplate.update("""
+        INSERT INTO wallet (id, user_id, name, icon_type, icon_value, type, currency_code)
+        VALUES (?, ?, 'Main', 'EMOJI', 'x', 'CASH', 'EUR')
+        """, walletId, userId);
+  }
+
+  @Test
+  void pagesAcrossTiesOnOccurredAtWithoutGapsOrRepeats() {
+    // Ids on both sides of the sign bit: the seek must follow PostgreSQL's uuid order, not Java's
+    insert(DAY, new UUID(0x7fffffffffffffffL, 1));
+    insert(DAY, new UUID(0x8000000000000000L, 1));
+    insert(DAY, new UUID(0, 1));
+    insert(DAY, new UUID(-1, -1));
+    for (int i = 0; i < 6; i++) {
+      insert(DAY, UUID.randomUUID());
+      insert(DAY.minusDays(1), UUID.randomUUID());
+    }
+    List<UUID> expected = jdbcTemplate.queryForList(
+        "SELECT id FROM txn WHERE user_id = ? ORDER BY occurred_at DESC, id DESC", UUID.class, userId);
+
+    List<UUID> seen = new ArrayList<>();
+    List<Integer> pageSizes = new ArrayList<>();
+    TxnCursor cursor = null;
+    do {
+      List<Txn> page = new ArrayList<>();
+      TxnCursor after = cursor != null ? TxnCursor.decode(cursor.encode()) : null;
+      cursor = txnQueryService.streamPage(userId, TxnFilter.none(), after, 3, page::add);
+      page.forEach(t -> seen.add(t.getId()));
+      pageSizes.add(page.size());
+    } while (cursor != null);
+
+    assertThat(seen).containsExactlyElementsOf(expected);
+    assertThat(pageSizes).containsExactly(3, 3, 3, 3, 3, 1);
+  }
+
+  @Test
+  void anExactlyFullLastPageHasNoNextCursor() {
+    for (int i = 0; i < 4; i++) {
+      insert(DAY, UUID.randomUUID());
+    }
+
+    List<Txn> first = new ArrayList<>();
+    TxnCursor next = txnQueryService.streamPage(userId, TxnFilter.none(), null, 2, first::add);
+    List<Txn> second = new ArrayList<>();
+    TxnCursor end = txnQueryService.streamPage(userId, TxnFilter.none(), next, 2, second::add);
+
+    assertThat(first).hasSize(2);
+    assertThat(next).isEqualTo(new TxnCursor(DAY, first.get(1).getId()));
+    assertThat(second).hasSize(2);
+    assertThat(end).isNull();
+  }
+
+  private void insert(LocalDate day, UUID id) {
+    jdbcTemplate.update("""
+        INSERT INTO txn (id, user_id, type, occurred_at, wallet_id, amount, currency_code)
+        VALUES (?, ?, 'EXPENSE', ?, ?, 1.00, 'EUR')
+        """, id, userId, day, walletId);
+  }
+}
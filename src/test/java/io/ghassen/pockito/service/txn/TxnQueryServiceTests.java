@@ -0,0 +1,123 @@
+package io.ghassen.pockito.service.txn;
+
+import io.ghassen.pockito.domain.Txn;
+import io.ghassen.pockito.repo.TxnQueryRepository;
+import io.ghassen.pockito.service.category.CategoryHierarchy;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TxnQueryServiceTests {
+
+  // PostgreSQL orders uuid bytewise, i.e. as two unsigned longs
+  private static final Comparator<UUID> PG_UUID = Comparator
+      .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+      .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+  private static final Comparator<Txn> NEWEST_FIRST = Comparator
+      .comparing(Txn::getOccurredAt).thenComparing(Txn::getId, PG_UUID).reversed();
+
+  private final UUID userId = UUID.randomUUID();
+  private final TxnQueryRepository repository = mock(TxnQueryRepository.class);
+  private final TxnQueryService service = new TxnQueryService(repository, mock(CategoryHierarchy.class));
+
+  @Test
+  void asksForOneExtraRowAndReturnsNoCursorOnTheLastPage() {
+    List<Txn> rows = backedBy(rows(LocalDate.of(2025, 1, 1), 3));
+
+    List<Txn> page = new ArrayList<>();
+    TxnCursor next = service.streamPage(userId, TxnFilter.none(), null, 3, page::add);
+
+    verify(repository).streamPage(eq(userId), any(), any(), eq(null), eq(4), any());
+    assertThat(page).containsExactlyElementsOf(rows);
+    assertThat(next).isNull();
+  }
+
+  @Test
+  void theExtraRowIsNotDeliveredAndTheCursorPointsAtTheLastDeliveredRow() {
+    List<Txn> rows = backedBy(rows(LocalDate.of(2025, 1, 1), 4));
+
+    List<Txn> page = new ArrayList<>();
+    TxnCursor next = service.streamPage(userId, TxnFilter.none(), null, 3, page::add);
+
+    assertThat(page).containsExactlyElementsOf(rows.subList(0, 3));
+    assertThat(next).isEqualTo(new TxnCursor(rows.get(2).getOccurredAt(), rows.get(2).getId()));
+  }
+
+  @Test
+  void pagesThroughTiesOnTheSameDayWithoutGapsOrRepeats() {
+    List<Txn> all = new ArrayList<>(rows(LocalDate.of(2025, 3, 2), 7));
+    all.addAll(rows(LocalDate.of(2025, 3, 1), 5));
+    // Ids on both sides of the sign bit, which PostgreSQL and UUID.compareTo order differently
+    all.add(txn(LocalDate.of(2025, 3, 2), new UUID(0x7fffffffffffffffL, 1)));
+    all.add(txn(LocalDate.of(2025, 3, 2), new UUID(0x8000000000000000L, 1)));
+    List<Txn> expected = backedBy(all);
+
+    List<Txn> seen = new ArrayList<>();
+    TxnCursor cursor = null;
+    int pages = 0;
+    do {
+      // Each page goes through the token the client would echo back
+      TxnCursor after = cursor != null ? TxnCursor.decode(cursor.encode()) : null;
+      cursor = service.streamPage(userId, TxnFilter.none(), after, 3, seen::add);
+      pages++;
+    } while (cursor != null);
+
+    assertThat(seen).containsExactlyElementsOf(expected);
+    assertThat(pages).isEqualTo(5);
+  }
+
+  @Test
+  void rejectsAnOutOfRangeLimitOrAnInvertedRange() {
+    assertThatThrownBy(() -> service.streamPage(userId, TxnFilter.none(), null, 0, t -> {}))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> service.streamPage(userId, TxnFilter.none(), null, TxnQueryService.MAX_PAGE_SIZE + 1, t -> {}))
+        .isInstanceOf(IllegalArgumentException.class);
+    TxnFilter inverted = new TxnFilter(null, null, null, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1));
+    assertThatThrownBy(() -> service.streamPage(userId, inverted, null, 10, t -> {}))
+        .isInstanceOf(IllegalArgumentException.class);
+    verifyNoInteractions(repository);
+  }
+
+  // Emulates the keyset query: (occurred_at, id) < after, newest first, at most `limit` rows
+  private List<Txn> backedBy(List<Txn> rows) {
+    List<Txn> sorted = rows.stream().sorted(NEWEST_FIRST).toList();
+    doAnswer(inv -> {
+      TxnCursor after = inv.getArgument(3);
+      int limit = inv.getArgument(4);
+      Consumer<Txn> consumer = inv.getArgument(5);
+      sorted.stream()
+          .filter(t -> after == null || NEWEST_FIRST.compare(t, txn(after.occurredAt(), after.id())) > 0)
+          .limit(limit)
+          .forEach(consumer);
+      return null;
+    }).when(repository).streamPage(eq(userId), any(), any(), any(), anyInt(), any());
+    return sorted;
+  }
+
+  private static List<Txn> rows(LocalDate day, int count) {
+    List<Txn> rows = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      rows.add(txn(day, UUID.randomUUID()));
+    }
+    return rows;
+  }
+
+  private static Txn txn(LocalDate day, UUID id) {
+    Txn txn = new Txn();
+    txn.setId(id);
+    txn.setOccurredAt(day);
+    return txn;
+  }
+}
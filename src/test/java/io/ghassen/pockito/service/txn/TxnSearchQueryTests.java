@@ -0,0 +1,40 @@
+package io.ghassen.pockito.service.txn;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TxnSearchQueryTests {
+
+  @Test
+  void tokensBecomePrefixTermsWithoutTsquerySyntax() {
+    TxnSearchQuery q = TxnSearchQuery.parse("  Café & Carrefour:* !x|y ");
+    assertThat(q.text()).isEqualTo("Café & Carrefour:* !x|y");
+    assertThat(q.tsQuery()).isEqualTo("café:* & carrefour:* & x:* & y:*");
+  }
+
+  @Test
+  void likePatternEscapesWildcards() {
+    assertThat(TxnSearchQuery.parse("50%_off\\").likePattern()).isEqualTo("%50\\%\\_off\\\\%");
+  }
+
+  @Test
+  void rejectsEmptyAndOverlongText() {
+    assertThatThrownBy(() -> TxnSearchQuery.parse(" -- ")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TxnSearchQuery.parse(null)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TxnSearchQuery.parse("a".repeat(101))).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void cursorRoundTrips() {
+    TxnSearchCursor c = new TxnSearchCursor(new BigDecimal("0.360800"), LocalDate.of(2025, 3, 1), UUID.randomUUID());
+    assertThat(TxnSearchCursor.decode(c.encode())).isEqualTo(c);
+    assertThatThrownBy(() -> TxnSearchCursor.decode(new TxnCursor(LocalDate.now(), UUID.randomUUID()).encode()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
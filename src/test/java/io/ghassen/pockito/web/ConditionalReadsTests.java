@@ -0,0 +1,94 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.domain.Wallet;
+import io.ghassen.pockito.repo.VersionStamp;
+import io.ghassen.pockito.repo.WalletRepository;
+import io.ghassen.pockito.service.read.ListableOwnedEntityReads;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ConditionalReadsTests {
+
+  private final WalletRepository repository = mock(WalletRepository.class);
+  private final ListableOwnedEntityReads<Wallet> reads = new ListableOwnedEntityReads<>(repository, "Wallet", repository::findByUserId);
+  private final UUID userId = UUID.randomUUID();
+  private final UUID walletId = UUID.randomUUID();
+
+  @Test
+  void matchingEntityTagIsAnsweredWithoutLoading() {
+    when(repository.findVersion(walletId, userId)).thenReturn(Optional.of(7L));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    ResponseEntity<String> result = ConditionalReads.one(get("\"7\"", response), reads, userId, walletId,
+        w -> w.getName());
+
+    assertThat(result).isNull();
+    assertThat(response.getStatus()).isEqualTo(304);
+    verify(repository, never()).findByIdAndUserId(any(), any());
+  }
+
+  @Test
+  void staleEntityTagLoadsAndTagsTheLoadedVersion() {
+    Wallet wallet = Wallet.builder().id(walletId).userId(userId).name("Cash").version(8L).build();
+    when(repository.findVersion(walletId, userId)).thenReturn(Optional.of(8L));
+    when(repository.findByIdAndUserId(walletId, userId)).thenReturn(Optional.of(wallet));
+
+    ResponseEntity<String> result = ConditionalReads.one(get("\"7\"", new MockHttpServletResponse()), reads,
+        userId, walletId, Wallet::getName);
+
+    assertThat(result.getBody()).isEqualTo("Cash");
+    assertThat(result.getHeaders().getETag()).isEqualTo("\"8\"");
+  }
+
+  @Test
+  void collectionTagFollowsTheStamp() {
+    when(repository.findVersionStamp(userId)).thenReturn(stamp(3, 12, Instant.parse("2025-03-01T10:00:00.123456Z")));
+    String tag = ConditionalReads.tag(repository.findVersionStamp(userId));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    assertThat(ConditionalReads.list(get(tag, response), reads, userId, Wallet::getName)).isNull();
+    assertThat(response.getStatus()).isEqualTo(304);
+    verify(repository, never()).findByUserId(any());
+
+    when(repository.findVersionStamp(userId)).thenReturn(stamp(2, 12, Instant.parse("2025-03-01T10:00:01Z")));
+    when(repository.findByUserId(userId)).thenReturn(List.of());
+    ResponseEntity<List<String>> changed = ConditionalReads.list(get(tag, new MockHttpServletResponse()), reads,
+        userId, Wallet::getName);
+    assertThat(changed.getHeaders().getETag()).isNotEqualTo(tag).startsWith("W/");
+  }
+
+  @Test
+  void ifMatchNamesAVersion() {
+    assertThat(ConditionalReads.expectedVersion(null)).isNull();
+    assertThat(ConditionalReads.expectedVersion("*")).isNull();
+    assertThat(ConditionalReads.expectedVersion("\"42\"")).isEqualTo(42L);
+    assertThat(ConditionalReads.expectedVersion("W/\"42\"")).isEqualTo(-1L);
+    assertThat(ConditionalReads.expectedVersion("\"41\", \"42\"")).isEqualTo(-1L);
+  }
+
+  private static ServletWebRequest get(String ifNoneMatch, MockHttpServletResponse response) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/wallets");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+    return new ServletWebRequest(request, response);
+  }
+
+  private static VersionStamp stamp(long count, long versionSum, Instant last) {
+    return new VersionStamp() {
+      public Long getCount() { return count; }
+      public Long getVersionSum() { return versionSum; }
+      public Instant getLastUpdatedAt() { return last; }
+    };
+  }
+}
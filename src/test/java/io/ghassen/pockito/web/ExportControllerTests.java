@@ -0,0 +1,86 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.service.export.ExportFormat;
+import io.ghassen.pockito.service.export.TxnExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ExportControllerTests {
+
+  private static final String CSV = "id,note\r\n1,\"a, b\"\r\n";
+
+  private final UUID userId = UUID.randomUUID();
+  private final TxnExportService exportService = mock(TxnExportService.class);
+  private final ExportController controller = new ExportController(exportService);
+
+  @BeforeEach
+  void authenticate() throws IOException {
+    Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject(userId.toString()).build();
+    SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, List.of()));
+    doAnswer(inv -> {
+      OutputStream out = inv.getArgument(4);
+      out.write(CSV.getBytes(StandardCharsets.UTF_8));
+      return 1L;
+    }).when(exportService).export(eq(userId), any(), any(), any(), any());
+  }
+
+  @AfterEach
+  void clear() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void gzipWrapsTheExportInACompleteGzipStream() throws IOException {
+    LocalDate from = LocalDate.of(2025, 1, 1);
+    ResponseEntity<StreamingResponseBody> response = controller.transactions(ExportFormat.CSV, from, null, true);
+
+    byte[] body = write(response);
+
+    assertThat(response.getHeaders().getContentType()).hasToString("application/gzip");
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+        .contains("transactions-from-2025-01-01.csv.gz");
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(CSV);
+    }
+    verify(exportService).export(eq(userId), eq(from), eq(null), eq(ExportFormat.CSV), any());
+  }
+
+  @Test
+  void withoutGzipTheExportIsWrittenAsIs() throws IOException {
+    ResponseEntity<StreamingResponseBody> response = controller.transactions(ExportFormat.NDJSON, null, null, false);
+
+    byte[] body = write(response);
+
+    assertThat(response.getHeaders().getContentType()).hasToString("application/x-ndjson");
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("transactions.ndjson\"");
+    assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo(CSV);
+  }
+
+  private static byte[] write(ResponseEntity<StreamingResponseBody> response) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    response.getBody().writeTo(out);
+    return out.toByteArray();
+  }
+}
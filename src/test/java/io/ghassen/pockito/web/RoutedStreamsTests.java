@@ -0,0 +1,42 @@
+package io.ghassen.pockito.web;
+
+import io.ghassen.pockito.config.ReplicaSet;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoutedStreamsTests {
+
+  @Test
+  void pinFollowsTheBodyToTheWritingThread() throws Exception {
+    AtomicBoolean pinnedWhileWriting = new AtomicBoolean();
+    StreamingResponseBody body = out -> pinnedWhileWriting.set(ReplicaSet.isPinned());
+
+    ReplicaSet.pin();
+    StreamingResponseBody routed;
+    try {
+      routed = RoutedStreams.keepRoute(body);
+    } finally {
+      ReplicaSet.unpin();
+    }
+    CompletableFuture.runAsync(() -> write(routed)).get();
+    assertThat(pinnedWhileWriting).isTrue();
+
+    CompletableFuture.runAsync(() -> write(RoutedStreams.keepRoute(body))).get();
+    assertThat(pinnedWhileWriting).isFalse();
+  }
+
+  private static void write(StreamingResponseBody body) {
+    try {
+      body.writeTo(new ByteArrayOutputStream());
+      assertThat(ReplicaSet.isPinned()).isFalse();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}